@@ -5,10 +5,13 @@ import org.apache.logging.log4j.Marker;
 import org.gamedo.annotation.CronOn;
 import org.gamedo.annotation.SubscribeOn;
 import org.gamedo.annotation.TickOn;
+import org.gamedo.configuration.GameLoopProperties;
 import org.gamedo.event.EventApplicationLifeCycle;
 import org.gamedo.gameloop.interfaces.IGameLoop;
 import org.gamedo.gameloop.interfaces.IGameLoopGroup;
 import org.gamedo.logging.Markers;
+import org.gamedo.persistence.EntityCheckpoint;
+import org.gamedo.persistence.IEntityCodec;
 import org.gamedo.util.Pair;
 import org.gamedo.util.function.GameLoopFunction;
 import org.gamedo.util.function.IGameLoopEventBusFunction;
@@ -16,12 +19,15 @@ import org.gamedo.util.function.IGameLoopSchedulerFunction;
 import org.gamedo.util.function.IGameLoopTickManagerFunction;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.core.Ordered;
 import org.springframework.core.PriorityOrdered;
 import org.springframework.core.annotation.AnnotationUtils;
 
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -31,7 +37,8 @@ import java.util.stream.Collectors;
 
 @SuppressWarnings("unused")
 @Log4j2
-public class GameLoopPostProcessor implements BeanPostProcessor, ApplicationListener<ApplicationEvent>, PriorityOrdered {
+public class GameLoopPostProcessor implements BeanPostProcessor, ApplicationListener<ApplicationEvent>, PriorityOrdered,
+        ApplicationContextAware {
 
     protected static final Map<String, IGameLoop> gameLoopMap = new ConcurrentHashMap<>();
     protected static final Map<String, IGameLoopGroup> gameLoopGroupMap = new ConcurrentHashMap<>();
@@ -39,6 +46,12 @@ public class GameLoopPostProcessor implements BeanPostProcessor, ApplicationList
     private final Set<Pair<TickOn, Object>> tickOnBeanSet = new HashSet<>();
     private final Set<Pair<SubscribeOn, Object>> subscribeOnBeanSet = new HashSet<>();
     private final Set<Pair<CronOn, Object>> cronOnBeanSet = new HashSet<>();
+    private ApplicationContext applicationContext;
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        this.applicationContext = applicationContext;
+    }
 
     @Override
     public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
@@ -131,6 +144,7 @@ public class GameLoopPostProcessor implements BeanPostProcessor, ApplicationList
 
             //此时可以进行注册了
             if (stage == EventApplicationLifeCycle.Stage.Started) {
+                restoreCheckpoint();
                 register();
             }
 
@@ -156,6 +170,63 @@ public class GameLoopPostProcessor implements BeanPostProcessor, ApplicationList
             }
 
             log.info(Markers.GamedoCore, "event post finish, handle event gameLoop:{}", resultList);
+
+            //所有线程处理完关闭事件后，实体处于最终状态
+            if (stage == EventApplicationLifeCycle.Stage.Shutdown) {
+                writeCheckpoint();
+            }
+        }
+    }
+
+    private Optional<Pair<Path, IEntityCodec>> checkpointConfig() {
+        if (applicationContext == null) {
+            return Optional.empty();
+        }
+
+        final String checkpointDir = applicationContext.getBeanProvider(GameLoopProperties.class)
+                .getIfAvailable(GameLoopProperties::new)
+                .getCheckpointDir();
+        if (checkpointDir == null || checkpointDir.isBlank()) {
+            return Optional.empty();
+        }
+
+        final IEntityCodec codec = applicationContext.getBeanProvider(IEntityCodec.class).getIfAvailable();
+        if (codec == null) {
+            log.error(Markers.Persistence, "checkpoint disabled, no {} found, checkpointDir:{}", IEntityCodec.class.getSimpleName(), checkpointDir);
+            return Optional.empty();
         }
+
+        return Optional.of(Pair.of(Path.of(checkpointDir), codec));
+    }
+
+    private void restoreCheckpoint() {
+        checkpointConfig().ifPresent(pair -> {
+            final IGameLoop[] gameLoops = gameLoopMap.values().toArray(IGameLoop[]::new);
+            try {
+                final int count = EntityCheckpoint.restoreAll(gameLoops, pair.getK(), pair.getV()).get(5, TimeUnit.MINUTES);
+                log.info(Markers.Persistence, "checkpoint restored, gameLoop:{}, entity:{}", gameLoops.length, count);
+            } catch (Exception e) {
+                log.error(Markers.Persistence, "exception caught when restore checkpoint.", e);
+            }
+
+            final long interval = applicationContext.getBean(GameLoopProperties.class).getCheckpointIntervalMillis();
+            if (interval > 0) {
+                Arrays.stream(gameLoops).forEach(gameLoop -> gameLoop.scheduleWithFixedDelay(
+                        () -> EntityCheckpoint.checkpoint(pair.getK(), pair.getV()).apply(gameLoop),
+                        interval, interval, TimeUnit.MILLISECONDS));
+            }
+        });
+    }
+
+    private void writeCheckpoint() {
+        checkpointConfig().ifPresent(pair -> {
+            final IGameLoop[] gameLoops = gameLoopMap.values().toArray(IGameLoop[]::new);
+            try {
+                final int count = EntityCheckpoint.checkpointAll(gameLoops, pair.getK(), pair.getV()).get(5, TimeUnit.MINUTES);
+                log.info(Markers.Persistence, "checkpoint written, gameLoop:{}, entity:{}", gameLoops.length, count);
+            } catch (Exception e) {
+                log.error(Markers.Persistence, "exception caught when write checkpoint.", e);
+            }
+        });
     }
 }
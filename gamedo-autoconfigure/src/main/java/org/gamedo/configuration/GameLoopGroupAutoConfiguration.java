@@ -44,6 +44,22 @@ public class GameLoopGroupAutoConfiguration {
     private void updateSystemProperty() {
         System.setProperty(GamedoConfiguration.MAX_EVENT_POST_DEPTH_KEY,
                 String.valueOf(gameLoopProperties.getMaxEventPostDepth()));
+        System.setProperty(GamedoConfiguration.TICK_PHASE_COUNT_KEY,
+                String.valueOf(gameLoopProperties.getTickPhaseCount()));
+        System.setProperty(GamedoConfiguration.TICK_FRAME_BUDGET_MILLIS_KEY,
+                String.valueOf(gameLoopProperties.getTickFrameBudgetMillis()));
+        System.setProperty(GamedoConfiguration.ENTITY_POOL_MAX_SIZE_KEY,
+                String.valueOf(gameLoopProperties.getEntityPoolMaxSize()));
+        System.setProperty(GamedoConfiguration.AOI_VIEW_RADIUS_KEY,
+                String.valueOf(gameLoopProperties.getAoiViewRadius()));
+        System.setProperty(GamedoConfiguration.ENTITY_IDLE_MILLIS_KEY,
+                String.valueOf(gameLoopProperties.getEntityIdleMillis()));
+        System.setProperty(GamedoConfiguration.ENTITY_MAX_RESIDENT_KEY,
+                String.valueOf(gameLoopProperties.getEntityMaxResident()));
+        System.setProperty(GamedoConfiguration.ENTITY_EVICT_INTERVAL_MILLIS_KEY,
+                String.valueOf(gameLoopProperties.getEntityEvictIntervalMillis()));
+        System.setProperty(GamedoConfiguration.MAILBOX_BATCH_SIZE_KEY,
+                String.valueOf(gameLoopProperties.getMailboxBatchSize()));
         System.setProperty(GamedoConfiguration.GAMEDO_METRIC_ENTITY_ENABLE_KEY,
                 String.valueOf(metricProperties.isEnable() && metricProperties.isEntityEnable()));
         System.setProperty(GamedoConfiguration.GAMEDO_METRIC_EVENT_ENABLE_KEY,
@@ -52,6 +68,16 @@ public class GameLoopGroupAutoConfiguration {
                 String.valueOf(metricProperties.isEnable() && metricProperties.isCronEnable()));
         System.setProperty(GamedoConfiguration.GAMEDO_METRIC_TICK_ENABLE_KEY,
                 String.valueOf(metricProperties.isEnable() && metricProperties.isTickEnable()));
+        System.setProperty(GamedoConfiguration.GAMEDO_METRIC_MAILBOX_ENABLE_KEY,
+                String.valueOf(metricProperties.isEnable() && metricProperties.isMailboxEnable()));
+        System.setProperty(GamedoConfiguration.GAMEDO_METRIC_TASK_ENABLE_KEY,
+                String.valueOf(metricProperties.isEnable() && metricProperties.isTaskEnable()));
+        System.setProperty(GamedoConfiguration.GAMEDO_METRIC_SAMPLE_INTERVAL_KEY,
+                String.valueOf(metricProperties.getSampleInterval()));
+        System.setProperty(GamedoConfiguration.GAMEDO_METRIC_MAX_SERIES_KEY,
+                String.valueOf(metricProperties.getMaxSeries()));
+        System.setProperty(GamedoConfiguration.GAMEDO_METRIC_REPORT_INTERVAL_MILLIS_KEY,
+                String.valueOf(metricProperties.getReportIntervalMillis()));
     }
 
     /**
@@ -6,6 +6,7 @@ import org.gamedo.exception.GameLoopException;
 import org.gamedo.gameloop.GameLoop;
 import org.gamedo.gameloop.GameLoopComponentRegister;
 import org.gamedo.gameloop.GameLoopConfig;
+import org.gamedo.gameloop.RejectPolicy;
 import org.gamedo.gameloop.components.entitymanager.GameLoopEntityManager;
 import org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager;
 import org.gamedo.gameloop.components.eventbus.GameLoopEventBus;
@@ -157,6 +158,60 @@ public class GameLoopProperties {
      */
     private int maxEventPostDepth = GamedoConfiguration.MAX_EVENT_POST_DEPTH_DEFAULT;
 
+    /**
+     * 心跳分相的数量，大于1时，{@link IGameLoopTickManager}会将心跳周期相同的心跳函数按照所属实体id的hash均匀分散到周期内的多个时间片上
+     * 执行，以削平同一时刻集中心跳带来的CPU尖刺，默认为1，也即不分相
+     */
+    private int tickPhaseCount = GamedoConfiguration.TICK_PHASE_COUNT_DEFAULT;
+
+    /**
+     * 单次心跳（同一周期、同一相位的所有心跳函数）的执行时间预算（毫秒），超出预算后剩余的心跳函数会让出线程，在下一个时间片内继续执行，
+     * 以避免长时间的心跳阻塞同一{@link IGameLoop}上的其他任务，默认为0，也即不限制
+     */
+    private long tickFrameBudgetMillis = GamedoConfiguration.TICK_FRAME_BUDGET_MILLIS_DEFAULT;
+
+    /**
+     * 实体对象池中每种类型最多缓存的对象数量，超出后被回收的对象直接丢弃，只有注册了实体对象池组件时才生效
+     */
+    private int entityPoolMaxSize = GamedoConfiguration.ENTITY_POOL_MAX_SIZE_DEFAULT;
+
+    /**
+     * 视野半径，同时也是视野管理组件的网格边长，两个实体的距离不超过该值时互相可见，只有注册了视野管理组件时才生效
+     */
+    private double aoiViewRadius = GamedoConfiguration.AOI_VIEW_RADIUS_DEFAULT;
+
+    /**
+     * 实体的最大空闲时间（毫秒），超出后被转储到冷存储并反注册，0表示不按空闲时间淘汰，只有注册了冷热分层组件时才生效
+     */
+    private long entityIdleMillis = GamedoConfiguration.ENTITY_IDLE_MILLIS_DEFAULT;
+
+    /**
+     * 每个线程最多常驻内存的实体数量，超出后最久未访问的实体被转储到冷存储，0表示不限制，只有注册了冷热分层组件时才生效
+     */
+    private int entityMaxResident = GamedoConfiguration.ENTITY_MAX_RESIDENT_DEFAULT;
+
+    /**
+     * 冷热分层组件检测淘汰的间隔（毫秒）
+     */
+    private long entityEvictIntervalMillis = GamedoConfiguration.ENTITY_EVICT_INTERVAL_MILLIS_DEFAULT;
+
+    /**
+     * 邮箱每个批次最多消费的消息数量，剩余的消息在下一个批次中继续消费，以免长时间占用{@link IGameLoop}线程
+     */
+    private int mailboxBatchSize = GamedoConfiguration.MAILBOX_BATCH_SIZE_DEFAULT;
+
+    /**
+     * 实体检查点文件所在的目录，为空时不启用检查点，启用后需要在spring容器中提供一个{@link org.gamedo.persistence.IEntityCodec}，
+     * 应用程序启动时（在{@link org.gamedo.event.EventApplicationLifeCycle.Stage#Started}事件投递之前）并行地从检查点恢复所有线程的
+     * 实体，关闭时（{@link org.gamedo.event.EventApplicationLifeCycle.Stage#Shutdown}事件处理完毕后）写入检查点
+     */
+    private String checkpointDir;
+
+    /**
+     * 周期性写入检查点的间隔（毫秒），0表示只在关闭时写入
+     */
+    private long checkpointIntervalMillis;
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -177,6 +232,11 @@ public class GameLoopProperties {
          */
         private boolean daemon;
 
+        /**
+         * 是否以虚拟线程（JDK 21+）作为gameLoop的执行线程，当前JDK不支持时启动失败，参考{@link GameLoopConfig#isVirtualThread()}
+         */
+        private boolean virtualThread;
+
         /**
          * {@link IGameLoop}的实现类
          */
@@ -197,6 +257,26 @@ public class GameLoopProperties {
          */
         private int nodeCountPerGameLoop = 500;
 
+        /**
+         * 从其他线程提交的、尚未开始执行的任务的最大数量，0表示不限制
+         */
+        private int maxQueueSize;
+
+        /**
+         * 任务队列已满时的拒绝策略
+         */
+        private RejectPolicy rejectPolicy = RejectPolicy.REJECT;
+
+        /**
+         * 各个任务通道的权重，按照SYSTEM、TICK、INTERACTIVE、BACKGROUND的顺序排列，不配置时使用默认权重
+         */
+        private int[] laneWeights;
+
+        /**
+         * 卡顿阈值，单个任务的执行时间超过该值时输出调用栈，0表示关闭
+         */
+        private long stallThresholdMillis = 1000;
+
         /**
          * gameLoop的组件列表
          */
@@ -211,6 +291,11 @@ public class GameLoopProperties {
                     .nodeCountPerGameLoop(nodeCountPerGameLoop)
                     .gameLoopIdCounter(new AtomicInteger(gameLoopIdCounter))
                     .daemon(daemon)
+                    .virtualThread(virtualThread)
+                    .maxQueueSize(maxQueueSize)
+                    .rejectPolicy(rejectPolicy)
+                    .laneWeights(laneWeights)
+                    .stallThresholdMillis(stallThresholdMillis)
                     .gameLoopCount(gameLoopCount)
                     .gameLoopGroupId(gameLoopGroupId)
                     .gameLoopImplClazz((Class<? extends IGameLoop>) Class.forName(gameLoopImplClazz))
@@ -5,6 +5,7 @@ import org.gamedo.gameloop.components.entitymanager.GameLoopEntityManager;
 import org.gamedo.gameloop.components.eventbus.GameLoopEventBus;
 import org.gamedo.gameloop.components.scheduling.GameLoopScheduler;
 import org.gamedo.gameloop.components.tickManager.GameLoopTickManager;
+import org.gamedo.gameloop.interfaces.IGameLoop;
 import org.gamedo.util.GamedoConfiguration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
@@ -44,4 +45,29 @@ public class MetricProperties {
      * 是否开启{@link GameLoopScheduler}的指标采集
      */
     private boolean cronEnable = GamedoConfiguration.METRIC_CRON_ENABLE_DEFAULT;
+
+    /**
+     * 是否开启{@link IGameLoop}邮箱的指标采集
+     */
+    private boolean mailboxEnable = GamedoConfiguration.METRIC_MAILBOX_ENABLE_DEFAULT;
+
+    /**
+     * 是否开启{@link IGameLoop}任务的指标采集，包括线程忙碌时间、任务排队时间以及按类型统计的任务执行时间
+     */
+    private boolean taskEnable = GamedoConfiguration.METRIC_TASK_ENABLE_DEFAULT;
+
+    /**
+     * 采样间隔：@Subscribe、@Tick、@Cron函数每N次调用只统计1次耗时，1表示每次都统计
+     */
+    private int sampleInterval = GamedoConfiguration.METRIC_SAMPLE_INTERVAL_DEFAULT;
+
+    /**
+     * 每个{@link IGameLoop}中@Subscribe、@Tick、@Cron函数耗时指标的最大数量，超出的部分合并为一个class、method为other的指标
+     */
+    private int maxSeries = GamedoConfiguration.METRIC_MAX_SERIES_DEFAULT;
+
+    /**
+     * 耗时指标的发布间隔：@Subscribe、@Tick、@Cron函数的耗时先记录在线程本地的直方图中，每隔该时间合并发布一次
+     */
+    private long reportIntervalMillis = GamedoConfiguration.METRIC_REPORT_INTERVAL_MILLIS_DEFAULT;
 }
@@ -0,0 +1,271 @@
+package org.gamedo.concurrent;
+
+import lombok.extern.log4j.Log4j2;
+import org.gamedo.exception.GameLoopException;
+import org.gamedo.gameloop.GameLoopConfig;
+import org.gamedo.gameloop.GameLoops;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.logging.Markers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 模拟时钟，当{@link GameLoopConfig#getClock()}被设置为本类的实例后，{@link IGameLoop}内所有延迟、周期性的调度（包括@Tick和@Cron）
+ * 都不再依赖真实的时间流逝，而是由外部线程调用{@link SimulatedClock#advance(Duration)}驱动时间前进：时钟会按照时间先后顺序依次执行所有
+ * 到期的调度，并在执行每一个调度前将当前时间拨动到该调度的触发时间，因此被调度的函数获取到的当前时间和上次执行时间都是正确的，这使得一个小时的
+ * 游戏时间可以在CPU允许的最快速度内跑完，适用于吞吐量压测以及确定性的逻辑测试，例如：
+ * <pre>
+ *     final SimulatedClock clock = new SimulatedClock(0);
+ *     final GameLoopConfig config = GameLoopConfig.builder()
+ *                 //...
+ *                 .clock(clock)
+ *                 .build();
+ *     final IGameLoop gameLoop = new GameLoop(config);
+ *     //...注册实体
+ *     clock.advance(Duration.ofHours(1));
+ * </pre>
+ * 需要注意的是：
+ * <ul>
+ * <li> {@link SimulatedClock#advance(Duration)}会阻塞等待每一个到期调度在其{@link IGameLoop}线程内执行完毕，因此禁止在任何
+ * {@link IGameLoop}线程内调用，否则会抛出{@link GameLoopException}
+ * <li> 非延迟的任务（例如{@link IGameLoop#submit(org.gamedo.util.function.EntityFunction)}、{@link Executor#execute(Runnable)}）仍然
+ * 会立刻执行，不受模拟时钟的影响
+ * </ul>
+ */
+@Log4j2
+public class SimulatedClock extends Clock {
+
+    private final ZoneId zone;
+    private final AtomicLong currentMillis;
+    private final AtomicLong sequencer;
+    private final PriorityBlockingQueue<SimulatedScheduledFuture<?>> queue;
+
+    public SimulatedClock(long startMillis) {
+        this(startMillis, ZoneId.systemDefault());
+    }
+
+    public SimulatedClock(long startMillis, ZoneId zone) {
+        this(zone, new AtomicLong(startMillis), new AtomicLong(0), new PriorityBlockingQueue<>(64));
+    }
+
+    private SimulatedClock(ZoneId zone,
+                           AtomicLong currentMillis,
+                           AtomicLong sequencer,
+                           PriorityBlockingQueue<SimulatedScheduledFuture<?>> queue) {
+        this.zone = zone;
+        this.currentMillis = currentMillis;
+        this.sequencer = sequencer;
+        this.queue = queue;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return zone.equals(this.zone) ? this : new SimulatedClock(zone, currentMillis, sequencer, queue);
+    }
+
+    @Override
+    public long millis() {
+        return currentMillis.get();
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(currentMillis.get());
+    }
+
+    /**
+     * 在模拟时间轴上调度一个任务，到期后在executor上执行
+     *
+     * @param executor    执行任务的线程
+     * @param callable    要执行的任务
+     * @param delayMillis 首次执行的延迟（毫秒）
+     * @param period      执行周期（毫秒），0表示只执行1次，正数表示scheduleAtFixedRate，负数表示scheduleWithFixedDelay（和
+     *                    {@link ScheduledThreadPoolExecutor}的约定一致），由于模拟时间在任务执行期间不会流逝，后两者的行为是一致的
+     * @param <V>         返回值类型
+     * @return 调度的future，可以被取消
+     */
+    public <V> ScheduledFuture<V> schedule(ExecutorService executor, Callable<V> callable, long delayMillis, long period) {
+        final long periodMillis = period == 0 ? 0 : Math.max(1, Math.abs(period));
+        final long deadline = currentMillis.get() + Math.max(0, delayMillis);
+        final SimulatedScheduledFuture<V> future = new SimulatedScheduledFuture<>(executor, callable, deadline, periodMillis);
+
+        queue.offer(future);
+
+        return future;
+    }
+
+    /**
+     * 将模拟时间向前拨动，并依次执行期间所有到期的调度
+     *
+     * @param duration 要拨动的时间长度
+     * @return 本次执行的调度的次数
+     */
+    public int advance(Duration duration) {
+        return advanceTo(currentMillis.get() + duration.toMillis());
+    }
+
+    /**
+     * 将模拟时间拨动到指定的时间点，并依次执行期间所有到期的调度
+     *
+     * @param targetMillis 目标时间点（毫秒），如果小于当前时间，则只执行已经到期的调度
+     * @return 本次执行的调度的次数
+     */
+    public int advanceTo(long targetMillis) {
+
+        if (GameLoops.current().isPresent()) {
+            throw new GameLoopException("advance the simulated clock inside a GameLoop thread is forbidden, thread:" +
+                    Thread.currentThread().getName());
+        }
+
+        int count = 0;
+        SimulatedScheduledFuture<?> future;
+        while ((future = queue.peek()) != null && future.deadline <= targetMillis) {
+            if (!queue.remove(future)) {
+                continue;
+            }
+
+            currentMillis.accumulateAndGet(future.deadline, Math::max);
+            if (future.runOnExecutor()) {
+                count++;
+            }
+        }
+
+        currentMillis.accumulateAndGet(targetMillis, Math::max);
+
+        return count;
+    }
+
+    /**
+     * @return 尚未执行的调度的数量
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    @Override
+    public String toString() {
+        return "SimulatedClock{" +
+                "currentMillis=" + currentMillis.get() +
+                ", zone=" + zone +
+                ", pending=" + queue.size() +
+                '}';
+    }
+
+    private final class SimulatedScheduledFuture<V> implements ScheduledFuture<V> {
+        private final ExecutorService executor;
+        private final Callable<V> callable;
+        private final long periodMillis;
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private volatile long deadline;
+        private volatile long sequence;
+
+        private SimulatedScheduledFuture(ExecutorService executor, Callable<V> callable, long deadline, long periodMillis) {
+            this.executor = executor;
+            this.callable = callable;
+            this.deadline = deadline;
+            this.periodMillis = periodMillis;
+            sequence = sequencer.getAndIncrement();
+        }
+
+        /**
+         * 在所属的executor上执行一次，并阻塞等待执行完毕，如果是周期性任务，执行完毕后重新加入调度队列
+         *
+         * @return 成功执行返回true
+         */
+        private boolean runOnExecutor() {
+            if (isDone()) {
+                return false;
+            }
+
+            try {
+                final Future<V> future = executor.submit(this::runOnce);
+                future.get();
+            } catch (RejectedExecutionException e) {
+                log.debug(Markers.GameLoop, "the executor has shutdown, cancel the simulated schedule, executor:{}", executor);
+                cancel(false);
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel(false);
+                return false;
+            } catch (ExecutionException e) {
+                result.completeExceptionally(e.getCause());
+                return false;
+            }
+
+            if (periodMillis > 0 && !isDone()) {
+                deadline += periodMillis;
+                sequence = sequencer.getAndIncrement();
+                queue.offer(this);
+            }
+
+            return true;
+        }
+
+        private V runOnce() throws Exception {
+            final V v = callable.call();
+            if (periodMillis == 0) {
+                result.complete(v);
+            }
+
+            return v;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - currentMillis.get(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            if (o == this) {
+                return 0;
+            }
+
+            if (o instanceof SimulatedScheduledFuture) {
+                final SimulatedScheduledFuture<?> other = (SimulatedScheduledFuture<?>) o;
+                final int compare = Long.compare(deadline, other.deadline);
+                return compare != 0 ? compare : Long.compare(sequence, other.sequence);
+            }
+
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            final boolean cancel = result.cancel(mayInterruptIfRunning);
+            queue.remove(this);
+            return cancel;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return result.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return result.isDone();
+        }
+
+        @Override
+        public V get() throws InterruptedException, ExecutionException {
+            return result.get();
+        }
+
+        @Override
+        public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return result.get(timeout, unit);
+        }
+    }
+}
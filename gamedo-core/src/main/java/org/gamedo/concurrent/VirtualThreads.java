@@ -0,0 +1,81 @@
+package org.gamedo.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程（JDK 21+）的适配，由于项目以更低版本的JDK编译，因此通过反射访问相关的API，在不支持虚拟线程的JDK上，
+ * {@link VirtualThreads#factory(String)}返回{@link Optional#empty()}
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method FACTORY;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        try {
+            final Class<?> builderClazz = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builderClazz.getMethod("name", String.class);
+            factory = builderClazz.getMethod("factory");
+            //JDK 19、20中虚拟线程是预览特性，没有开启预览时调用会失败
+            ofVirtual.invoke(null);
+        } catch (Throwable ignored) {
+            ofVirtual = null;
+        }
+
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return 当前JDK是否支持虚拟线程
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * 创建一个虚拟线程工厂，创建的线程都以name命名，且总是后台线程
+     *
+     * @param name 线程名
+     * @return 如果当前JDK不支持虚拟线程，返回{@link Optional#empty()}
+     */
+    public static Optional<ThreadFactory> factory(String name) {
+        if (!isSupported()) {
+            return Optional.empty();
+        }
+
+        try {
+            final Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), name);
+            return Optional.of((ThreadFactory) FACTORY.invoke(builder));
+        } catch (Throwable t) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @param thread 要检测的线程
+     * @return 是否为虚拟线程，在不支持虚拟线程的JDK上总是返回false
+     */
+    public static boolean isVirtual(Thread thread) {
+        if (!isSupported()) {
+            return false;
+        }
+
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+}
@@ -11,6 +11,8 @@ import java.util.concurrent.atomic.AtomicReference;
 public abstract class Component<T extends IEntity> implements IComponent<T> {
 
     protected final AtomicReference<T> ownerRef = new AtomicReference<>(null);
+    private long version;
+    private long dirtyFieldMask;
 
     protected Component(T owner) {
         this.ownerRef.set(owner);
@@ -24,6 +26,72 @@ public abstract class Component<T extends IEntity> implements IComponent<T> {
         return ownerRef.get();
     }
 
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public long getDirtyFieldMask() {
+        return dirtyFieldMask;
+    }
+
+    @Override
+    public void clearDirty() {
+        dirtyFieldMask = 0L;
+    }
+
+    @Override
+    public void restoreDirty(long fieldMask) {
+        dirtyFieldMask |= fieldMask;
+    }
+
+    /**
+     * 将本组件标记为已修改：递增版本号，并通知所属实体，由于所属实体需要查找本组件所注册的类型，热点路径上应该使用
+     * {@link Component#markDirty(ComponentType)}
+     */
+    protected void markDirty() {
+        version++;
+        final T owner = getOwner();
+        if (owner != null) {
+            owner.markDirty(this);
+        }
+    }
+
+    /**
+     * 将本组件的某个字段标记为已修改
+     *
+     * @param fieldIndex 字段的编号，取值范围为[0, 63]
+     */
+    protected void markDirty(int fieldIndex) {
+        dirtyFieldMask |= 1L << fieldIndex;
+        markDirty();
+    }
+
+    /**
+     * 将本组件标记为已修改：递增版本号，并以{@link ComponentType#getId()}为下标直接通知所属实体
+     *
+     * @param componentType 本组件在所属实体中注册的类型
+     */
+    protected void markDirty(ComponentType<?> componentType) {
+        version++;
+        final T owner = getOwner();
+        if (owner != null) {
+            owner.markDirty(componentType);
+        }
+    }
+
+    /**
+     * 将本组件的某个字段标记为已修改
+     *
+     * @param componentType 本组件在所属实体中注册的类型
+     * @param fieldIndex    字段的编号，取值范围为[0, 63]
+     */
+    protected void markDirty(ComponentType<?> componentType, int fieldIndex) {
+        dirtyFieldMask |= 1L << fieldIndex;
+        markDirty(componentType);
+    }
+
     @Override
     public boolean setOwner(T owner) {
         final T ownerOld = owner == null ?  getOwner() : null;
@@ -0,0 +1,76 @@
+package org.gamedo.ecs;
+
+import org.gamedo.ecs.interfaces.IComponent;
+import org.gamedo.ecs.interfaces.IEntity;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 组件类型，为每一个组件接口类型分配一个进程内唯一、从0开始连续递增的整数id，{@link Entity}以该id为下标将组件存储在数组中，使得
+ * {@link IEntity#getComponent(ComponentType)}以及{@link IComponent#getSiblingComponent(ComponentType)}只需要一次数组访问，
+ * 且没有任何内存分配，适用于心跳、事件等热点路径，例如：
+ * <pre>
+ *     public static final ComponentType&lt;IBag&gt; BAG = ComponentType.of(IBag.class);
+ *
+ *     &#64;Tick
+ *     public void tick(Long currentMilliSecond, Long lastTickMilliSecond) {
+ *         final IBag bag = getSiblingComponent(BAG);
+ *     }
+ * </pre>
+ * 同一个Class总是对应同一个{@link ComponentType}实例，因此建议将其缓存为常量
+ *
+ * @param <T> 组件的接口类型
+ */
+public final class ComponentType<T> {
+
+    private static final AtomicInteger ID_COUNTER = new AtomicInteger(0);
+    private static final ClassValue<ComponentType<?>> COMPONENT_TYPE = new ClassValue<>() {
+        @Override
+        protected ComponentType<?> computeValue(Class<?> type) {
+            return new ComponentType<>(type, ID_COUNTER.getAndIncrement());
+        }
+    };
+
+    private final Class<T> clazz;
+    private final int id;
+
+    private ComponentType(Class<T> clazz, int id) {
+        this.clazz = clazz;
+        this.id = id;
+    }
+
+    /**
+     * 返回某个组件接口类型对应的{@link ComponentType}，首次调用时为其分配id
+     *
+     * @param clazz 组件的接口类型
+     * @param <T>   组件的接口类型
+     * @return 同一个clazz总是返回同一个实例
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ComponentType<T> of(Class<T> clazz) {
+        return (ComponentType<T>) COMPONENT_TYPE.get(clazz);
+    }
+
+    /**
+     * @return 已经分配的id的数量
+     */
+    public static int count() {
+        return ID_COUNTER.get();
+    }
+
+    public Class<T> getClazz() {
+        return clazz;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "ComponentType{" +
+                "clazz=" + clazz.getName() +
+                ", id=" + id +
+                '}';
+    }
+}
@@ -0,0 +1,131 @@
+package org.gamedo.ecs;
+
+import org.gamedo.ecs.interfaces.IComponent;
+import org.gamedo.ecs.interfaces.IEntity;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * 某个实体在某一时刻的修改标记的快照，由{@link DirtySnapshot#take(IEntity)}生成，生成的同时清除实体的修改标记，因此处理快照期间产生的新修改会
+ * 重新标记实体，不会被快照的处理过程覆盖，处理失败时可以通过{@link DirtySnapshot#restore(IEntity)}将快照中的修改标记合并回实体
+ */
+public final class DirtySnapshot {
+
+    /**
+     * 不包含任何已修改组件的快照
+     */
+    public static final DirtySnapshot EMPTY = new DirtySnapshot(new Class<?>[0], new Object[0], new long[0], 0);
+
+    private final Class<?>[] clazzArray;
+    private final Object[] componentArray;
+    private final long[] fieldMaskArray;
+    private final int size;
+
+    private DirtySnapshot(Class<?>[] clazzArray, Object[] componentArray, long[] fieldMaskArray, int size) {
+        this.clazzArray = clazzArray;
+        this.componentArray = componentArray;
+        this.fieldMaskArray = fieldMaskArray;
+        this.size = size;
+    }
+
+    /**
+     * 生成实体当前的修改标记的快照，并清除实体的修改标记，只能在实体所属的线程内调用
+     *
+     * @param entity 要生成快照的实体
+     * @return 返回快照，实体没有被修改时返回{@link DirtySnapshot#EMPTY}
+     */
+    public static DirtySnapshot take(IEntity entity) {
+        if (!entity.isDirty()) {
+            return EMPTY;
+        }
+
+        final Builder builder = new Builder();
+        entity.forEachDirtyComponent(builder);
+        entity.clearDirty();
+        return new DirtySnapshot(builder.clazzArray, builder.componentArray, builder.fieldMaskArray, builder.size);
+    }
+
+    /**
+     * @return 是否没有任何已修改的组件
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param interfaceClazz 组件的类型
+     * @return 快照生成时该类型的组件是否被标记为已修改
+     */
+    public boolean isDirty(Class<?> interfaceClazz) {
+        return indexOf(interfaceClazz) >= 0;
+    }
+
+    /**
+     * @param interfaceClazz 组件的类型
+     * @return 快照生成时该类型的组件被修改的字段，参考{@link IComponent#getDirtyFieldMask()}，组件没有被修改时返回0
+     */
+    public long getDirtyFieldMask(Class<?> interfaceClazz) {
+        final int index = indexOf(interfaceClazz);
+        return index >= 0 ? fieldMaskArray[index] : 0L;
+    }
+
+    /**
+     * 遍历快照中所有已修改的组件
+     *
+     * @param consumer 组件的消费者，参数分别为组件的类型和组件本身
+     * @return 已修改组件的数量
+     */
+    public int forEachDirtyComponent(BiConsumer<Class<?>, Object> consumer) {
+        for (int i = 0; i < size; i++) {
+            consumer.accept(clazzArray[i], componentArray[i]);
+        }
+
+        return size;
+    }
+
+    /**
+     * 将快照中的修改标记（包括字段的修改标记）合并回实体，实体会被重新加入到已修改集合中，用于处理失败后的重试，只能在实体所属的线程内调用
+     *
+     * @param entity 生成本快照的实体
+     */
+    public void restore(IEntity entity) {
+        for (int i = 0; i < size; i++) {
+            if (componentArray[i] instanceof IComponent && fieldMaskArray[i] != 0) {
+                ((IComponent<?>) componentArray[i]).restoreDirty(fieldMaskArray[i]);
+            }
+            entity.markDirty(clazzArray[i]);
+        }
+    }
+
+    private int indexOf(Class<?> interfaceClazz) {
+        for (int i = 0; i < size; i++) {
+            if (clazzArray[i] == interfaceClazz) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static final class Builder implements BiConsumer<Class<?>, Object> {
+        private Class<?>[] clazzArray = new Class<?>[2];
+        private Object[] componentArray = new Object[2];
+        private long[] fieldMaskArray = new long[2];
+        private int size;
+
+        @Override
+        public void accept(Class<?> clazz, Object component) {
+            if (size == clazzArray.length) {
+                clazzArray = Arrays.copyOf(clazzArray, size * 2);
+                componentArray = Arrays.copyOf(componentArray, size * 2);
+                fieldMaskArray = Arrays.copyOf(fieldMaskArray, size * 2);
+            }
+
+            clazzArray[size] = clazz;
+            componentArray[size] = component;
+            fieldMaskArray[size] = component instanceof IComponent ? ((IComponent<?>) component).getDirtyFieldMask() : 0L;
+            size++;
+        }
+    }
+}
@@ -6,23 +6,39 @@ import lombok.extern.log4j.Log4j2;
 import org.gamedo.ecs.interfaces.IComponent;
 import org.gamedo.ecs.interfaces.IEntity;
 import org.gamedo.exception.GamedoException;
+import org.gamedo.gameloop.GameLoops;
+import org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager;
+import org.gamedo.gameloop.interfaces.IGameLoop;
 import org.gamedo.logging.Markers;
 
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @EqualsAndHashCode(of = "id")
 @Log4j2
 public class Entity implements IEntity {
-    protected final String id;
+    private static final ComponentType<IGameLoopEntityManager> ENTITY_MANAGER_TYPE = ComponentType.of(IGameLoopEntityManager.class);
+
+    protected String id;
     protected final Map<Class<?>, Object> componentMap;
+    /**
+     * 以{@link ComponentType#getId()}为下标的组件数组，和{@link Entity#componentMap}保持一致
+     */
+    protected Object[] components = new Object[0];
+    /**
+     * 以{@link ComponentType#getId()}为下标的组件修改标记
+     */
+    protected long[] dirtyBits = new long[0];
+    private boolean dirty;
     private String toString = "invalid";
 
     @SuppressWarnings("unchecked")
     public Entity(final String id, Map<Class<?>, Object> componentMap) {
         this.id = id;
         this.componentMap = new HashMap<>(componentMap == null ? new HashMap<>() : componentMap);
+        this.componentMap.forEach(this::putComponentSlot);
 
         @SuppressWarnings("rawtypes") final List<Object> failedList = this.componentMap.values().stream()
                 .filter(value -> value instanceof IComponent)
@@ -67,6 +83,13 @@ public class Entity implements IEntity {
         return Optional.ofNullable((T) componentMap.get(interfaceClazz));
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T getComponent(ComponentType<T> componentType) {
+        final int componentId = componentType.getId();
+        return componentId < components.length ? (T) components[componentId] : null;
+    }
+
     @Override
     public Map<Class<?>, Object> getComponentMap() {
         return Collections.unmodifiableMap(componentMap);
@@ -98,8 +121,8 @@ public class Entity implements IEntity {
             }
         }
 
-        componentMap.put(interfaceClazz, component);
-        updateToString();
+        putComponent(interfaceClazz, component);
+        componentChanged(interfaceClazz, true);
 
         return true;
     }
@@ -109,12 +132,148 @@ public class Entity implements IEntity {
     public <T, R extends T> Optional<R> removeComponent(Class<T> interfaceClazz) {
 
         final R component = (R) componentMap.remove(interfaceClazz);
+        if (component != null) {
+            components[ComponentType.of(interfaceClazz).getId()] = null;
+            componentChanged(interfaceClazz, false);
+        }
         final Optional<R> optional = Optional.ofNullable(component);
         updateToString();
 
         return optional;
     }
 
+    @Override
+    public void markDirty(Class<?> interfaceClazz) {
+        markDirty(ComponentType.of(interfaceClazz));
+    }
+
+    @Override
+    public void markDirty(ComponentType<?> componentType) {
+        markDirty(componentType.getId());
+    }
+
+    @Override
+    public void markDirty(Object component) {
+        //组件数组以ComponentType#getId()为下标，直接遍历数组即可得到组件所注册的每一个类型
+        final Object[] components = this.components;
+        for (int componentId = 0; componentId < components.length; componentId++) {
+            if (components[componentId] == component) {
+                markDirty(componentId);
+            }
+        }
+    }
+
+    private void markDirty(int componentId) {
+        final int index = componentId >>> 6;
+        if (index >= dirtyBits.length) {
+            dirtyBits = Arrays.copyOf(dirtyBits, Math.max(index + 1, (ComponentType.count() + 63) >>> 6));
+        }
+        dirtyBits[index] |= 1L << componentId;
+
+        if (!dirty) {
+            dirty = true;
+            final IGameLoopEntityManager entityManager = currentEntityManager();
+            if (entityManager != null) {
+                entityManager.markDirty(this);
+            }
+        }
+    }
+
+    @Override
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    @Override
+    public boolean isDirty(Class<?> interfaceClazz) {
+        final int componentId = ComponentType.of(interfaceClazz).getId();
+        final int index = componentId >>> 6;
+        return index < dirtyBits.length && (dirtyBits[index] & (1L << componentId)) != 0;
+    }
+
+    @Override
+    public int forEachDirtyComponent(BiConsumer<Class<?>, Object> consumer) {
+        if (!dirty) {
+            return 0;
+        }
+
+        int count = 0;
+        for (final Map.Entry<Class<?>, Object> entry : componentMap.entrySet()) {
+            if (isDirty(entry.getKey())) {
+                consumer.accept(entry.getKey(), entry.getValue());
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public void clearDirty() {
+        if (!dirty) {
+            return;
+        }
+
+        for (final Map.Entry<Class<?>, Object> entry : componentMap.entrySet()) {
+            if (entry.getValue() instanceof IComponent && isDirty(entry.getKey())) {
+                ((IComponent<?>) entry.getValue()).clearDirty();
+            }
+        }
+
+        Arrays.fill(dirtyBits, 0L);
+        dirty = false;
+    }
+
+    /**
+     * 不做任何检测，直接将组件放入实体中，如果已经存在该类型的组件，则进行替换，供子类在构造期间使用
+     *
+     * @param interfaceClazz 该组件的类型
+     * @param component      要放入的组件
+     */
+    protected void putComponent(Class<?> interfaceClazz, Object component) {
+        componentMap.put(interfaceClazz, component);
+        putComponentSlot(interfaceClazz, component);
+        updateToString();
+    }
+
+    /**
+     * 如果当前处于{@link IGameLoop}线程内，直接通知其{@link IGameLoopEntityManager}组件发生了变化，当本实体没有注册到当前
+     * {@link IGameLoop}时，{@link IGameLoopEntityManager#componentChanged(IEntity, Class, boolean)}什么也不做
+     */
+    private void componentChanged(Class<?> interfaceClazz, boolean added) {
+        final IGameLoopEntityManager entityManager = currentEntityManager();
+        if (entityManager != null) {
+            entityManager.componentChanged(this, interfaceClazz, added);
+        }
+    }
+
+    /**
+     * @return 当前{@link IGameLoop}线程的{@link IGameLoopEntityManager}，不在{@link IGameLoop}线程内或者没有该组件时返回null
+     */
+    private static IGameLoopEntityManager currentEntityManager() {
+        final Optional<IGameLoop> gameLoop = GameLoops.current();
+        return gameLoop.isPresent() ? gameLoop.get().getComponent(ENTITY_MANAGER_TYPE) : null;
+    }
+
+    private void putComponentSlot(Class<?> interfaceClazz, Object component) {
+        final int componentId = ComponentType.of(interfaceClazz).getId();
+        if (componentId >= components.length) {
+            components = Arrays.copyOf(components, Math.max(componentId + 1, ComponentType.count()));
+        }
+
+        components[componentId] = component;
+    }
+
+    /**
+     * 修改实体的Id，仅用于{@link org.gamedo.ecs.interfaces.IPoolable}实体从对象池中取出后的复用，禁止对已经注册的实体调用
+     *
+     * @param id 新的Id
+     */
+    protected void setId(String id) {
+        this.id = id;
+        updateToString();
+    }
+
     @Override
     public String toString() {
         return toString;
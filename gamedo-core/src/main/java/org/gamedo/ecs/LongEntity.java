@@ -0,0 +1,36 @@
+package org.gamedo.ecs;
+
+import org.gamedo.ecs.interfaces.ILongIdentity;
+
+import java.util.Map;
+
+/**
+ * 以long作为唯一Id的实体，{@link Entity#getId()}为该long的十进制字符串形式
+ */
+public class LongEntity extends Entity implements ILongIdentity {
+    protected long longId;
+
+    public LongEntity(long id, Map<Class<?>, Object> componentMap) {
+        super(Long.toString(id), componentMap);
+        this.longId = id;
+    }
+
+    public LongEntity(long id) {
+        this(id, null);
+    }
+
+    /**
+     * 修改实体的Id，仅用于{@link org.gamedo.ecs.interfaces.IPoolable}实体从对象池中取出后的复用，禁止对已经注册的实体调用
+     *
+     * @param id 新的Id
+     */
+    protected void setId(long id) {
+        longId = id;
+        setId(Long.toString(id));
+    }
+
+    @Override
+    public long getLongId() {
+        return longId;
+    }
+}
@@ -1,6 +1,7 @@
 package org.gamedo.ecs.interfaces;
 
 import org.gamedo.ecs.Component;
+import org.gamedo.ecs.ComponentType;
 import org.gamedo.ecs.EntityComponent;
 
 import java.util.Optional;
@@ -59,6 +60,17 @@ public interface IComponent<T extends IEntity> extends IInterfaceQueryable, IIde
         return getOwner().getComponent(interfaceClazz);
     }
 
+    /**
+     * 获取兄弟组件，参考{@link IEntity#getComponent(ComponentType)}
+     *
+     * @param componentType 要获取的兄弟组件类型
+     * @param <R>           兄弟组件的类型
+     * @return 如果没有指定类型的兄弟组件，返回null
+     */
+    default <R> R getSiblingComponent(ComponentType<R> componentType) {
+        return getOwner().getComponent(componentType);
+    }
+
     /**
      * 设置组件归属的实体，实现类需要首先检测{@code owner}下是否已经有该组件，如果尚未
      *
@@ -67,6 +79,38 @@ public interface IComponent<T extends IEntity> extends IInterfaceQueryable, IIde
      */
     boolean setOwner(T owner);
 
+    /**
+     * 组件的修改版本号，每次标记修改时递增，可以用于判断组件自上次存盘或者同步以来是否发生了变化
+     *
+     * @return 默认实现不进行修改跟踪，总是返回0
+     */
+    default long getVersion() {
+        return 0L;
+    }
+
+    /**
+     * 自上次{@link IComponent#clearDirty()}以来被修改的字段，第i位表示编号为i的字段（由实现类自行定义，最多64个）
+     *
+     * @return 默认实现不进行修改跟踪，总是返回0
+     */
+    default long getDirtyFieldMask() {
+        return 0L;
+    }
+
+    /**
+     * 清除字段的修改标记，版本号不变，一般由{@link IEntity#clearDirty()}调用
+     */
+    default void clearDirty() {
+    }
+
+    /**
+     * 将之前清除的字段修改标记合并回来，版本号不变，也不通知所属实体，一般由{@link org.gamedo.ecs.DirtySnapshot#restore(IEntity)}调用
+     *
+     * @param fieldMask 要合并的字段修改标记
+     */
+    default void restoreDirty(long fieldMask) {
+    }
+
     /**
      * 默认返回所属实体的唯一id
      *
@@ -1,5 +1,6 @@
 package org.gamedo.ecs.interfaces;
 
+import org.gamedo.ecs.ComponentType;
 import org.gamedo.ecs.Entity;
 import org.gamedo.gameloop.interfaces.IGameLoop;
 
@@ -7,6 +8,7 @@ import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 
 /**
  * 实体接口，代表了一个组合了多个组件（{@link IComponent}）的实体，在gamedo.core的ecs架构下，组件是逻辑功能的真正承载者，实体只是将
@@ -53,6 +55,18 @@ public interface IEntity extends IInterfaceQueryable, IIdentity {
      */
     <T> Optional<T> getComponent(Class<T> interfaceClazz);
 
+    /**
+     * 返回某种类型的组件，和{@link IEntity#getComponent(Class)}不同的是：本函数不会产生{@link Optional}包装，默认实现{@link Entity}
+     * 中只是一次数组访问，并且也不会检测调用线程，因此只适用于在实体所属的线程内（例如心跳、事件处理函数中）的热点路径
+     *
+     * @param componentType 要获取的组件类型
+     * @param <T>           组件的类型
+     * @return 如果没有指定类型的组件，返回null
+     */
+    default <T> T getComponent(ComponentType<T> componentType) {
+        return getComponent(componentType.getClazz()).orElse(null);
+    }
+
     /**
      * 返回一个无法被修改的{@link Collections#unmodifiableMap(Map) Collections#unmodifiableMap}实时镜像<p>
      * 如果{@link IEntity}已经注册到某个{@link IGameLoop}线程，禁止在其他{@link IGameLoop}外部线程以任何形式的调用（包括安全发布），原
@@ -92,4 +106,64 @@ public interface IEntity extends IInterfaceQueryable, IIdentity {
      * @return 返回被删除的组件，如果组件不存在，则返回{@link Optional#empty()}
      */
     <T, R extends T> Optional<R> removeComponent(Class<T> interfaceClazz);
+
+    /**
+     * 将某类型的组件标记为已修改，实体由干净变为已修改时，如果已经注册到当前{@link IGameLoop}上，会被加入到
+     * {@link org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager}的已修改集合中，之后可以通过
+     * {@link org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager#drainDirty(java.util.function.BiConsumer)}
+     * 只处理发生了修改的实体（例如增量存盘或者同步），默认实现不进行任何修改跟踪
+     *
+     * @param interfaceClazz 组件的类型
+     */
+    default void markDirty(Class<?> interfaceClazz) {
+    }
+
+    /**
+     * 和{@link IEntity#markDirty(Class)}相同，只是直接以{@link ComponentType#getId()}作为下标，没有任何查找，适用于热点路径
+     *
+     * @param componentType 组件的类型
+     */
+    default void markDirty(ComponentType<?> componentType) {
+        markDirty(componentType.getClazz());
+    }
+
+    /**
+     * 将某个组件标记为已修改，等价于对该组件所注册的每一个类型调用{@link IEntity#markDirty(Class)}，由于需要遍历所有的组件来查找
+     * 其注册的类型，热点路径上应该使用{@link IEntity#markDirty(ComponentType)}
+     *
+     * @param component 已修改的组件
+     */
+    default void markDirty(Object component) {
+    }
+
+    /**
+     * @return 是否有任何组件被标记为已修改
+     */
+    default boolean isDirty() {
+        return false;
+    }
+
+    /**
+     * @param interfaceClazz 组件的类型
+     * @return 该类型的组件是否被标记为已修改
+     */
+    default boolean isDirty(Class<?> interfaceClazz) {
+        return false;
+    }
+
+    /**
+     * 遍历所有被标记为已修改的组件
+     *
+     * @param consumer 组件的消费者，参数分别为组件的类型和组件本身
+     * @return 已修改组件的数量
+     */
+    default int forEachDirtyComponent(BiConsumer<Class<?>, Object> consumer) {
+        return 0;
+    }
+
+    /**
+     * 清除所有的修改标记，包括{@link IComponent#clearDirty()}
+     */
+    default void clearDirty() {
+    }
 }
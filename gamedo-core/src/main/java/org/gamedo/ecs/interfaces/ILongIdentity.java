@@ -0,0 +1,43 @@
+package org.gamedo.ecs.interfaces;
+
+import java.util.OptionalLong;
+
+/**
+ * 数值身份表示接口，对于使用数值作为唯一Id的实体（例如玩家），实现该接口后：
+ * <ul>
+ * <li> {@link org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager}会额外以long为key对其进行索引，
+ * 查找时不需要构造字符串
+ * <li> {@link org.gamedo.gameloop.components.eventbus.interfaces.ILongIdentitySelfEvent}可以按照long直接定位到订阅者
+ * </ul>
+ * 需要注意的是：{@link IIdentity#getId()}必须等于{@link ILongIdentity#getLongId()}的十进制字符串形式
+ */
+public interface ILongIdentity extends IIdentity {
+    /**
+     * 数值身份Id
+     *
+     * @return 唯一Id
+     */
+    long getLongId();
+
+    /**
+     * 返回对象的数值身份Id
+     *
+     * @param object 要检测的对象
+     * @return 如果object是{@link ILongIdentity}，返回其{@link ILongIdentity#getLongId()}；如果object是{@link IComponent}且其
+     * owner是{@link ILongIdentity}，返回owner的{@link ILongIdentity#getLongId()}；否则返回{@link OptionalLong#empty()}
+     */
+    static OptionalLong longIdOf(Object object) {
+        if (object instanceof ILongIdentity) {
+            return OptionalLong.of(((ILongIdentity) object).getLongId());
+        }
+
+        if (object instanceof IComponent) {
+            final Object owner = ((IComponent<?>) object).getOwner();
+            if (owner instanceof ILongIdentity) {
+                return OptionalLong.of(((ILongIdentity) owner).getLongId());
+            }
+        }
+
+        return OptionalLong.empty();
+    }
+}
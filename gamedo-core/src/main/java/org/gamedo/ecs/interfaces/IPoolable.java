@@ -0,0 +1,17 @@
+package org.gamedo.ecs.interfaces;
+
+/**
+ * 可以被对象池复用的对象，对于频繁创建和销毁的实体（例如怪物、子弹、掉落物），实现该接口后可以通过
+ * {@link org.gamedo.gameloop.components.pool.interfaces.IGameLoopEntityPool}进行复用，以降低GC压力，需要注意的是：
+ * <ul>
+ * <li> 实体被回收时，其所有实现了本接口的组件也会被重置，组件随实体一起复用
+ * <li> 从对象池中取出的实体需要由使用者重新初始化（包括Id）后再注册
+ * </ul>
+ */
+public interface IPoolable {
+    /**
+     * 对象被回收到对象池时调用，应该清理掉所有的状态，使其可以被再次使用，当一个组件以多个接口注册到实体上时，该函数可能被调用多次，因此
+     * 实现应该是幂等的
+     */
+    void reset();
+}
@@ -0,0 +1,46 @@
+package org.gamedo.event;
+
+import lombok.Value;
+import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.gameloop.components.aoi.interfaces.IGameLoopAoiManager;
+import org.gamedo.gameloop.components.eventbus.interfaces.IIdentitySelfEvent;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+
+import java.util.List;
+
+/**
+ * 实体的视野（互相可见的实体集合）发生变化后触发的事件，由{@link IGameLoopAoiManager}在每一帧结束时对本帧内的所有变化进行合并后投递，
+ * 该事件只会派发给实体本身及其组件
+ */
+@Value
+public class EventAoiInterestChangePost implements IIdentitySelfEvent {
+    /**
+     * 实体id
+     */
+    String entityId;
+    /**
+     * 实体所属分类
+     */
+    String category;
+    /**
+     * 本帧内进入视野的实体
+     */
+    List<IEntity> enteredList;
+    /**
+     * 本帧内离开视野的实体
+     */
+    List<IEntity> leftList;
+    /**
+     * 本帧内在视野内发生了移动的实体
+     */
+    List<IEntity> movedList;
+    /**
+     * 实体所在的{@link IGameLoop}
+     */
+    IGameLoop gameLoop;
+
+    @Override
+    public String getId() {
+        return entityId;
+    }
+}
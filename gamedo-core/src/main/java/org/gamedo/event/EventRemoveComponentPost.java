@@ -0,0 +1,28 @@
+package org.gamedo.event;
+
+import lombok.Value;
+import org.gamedo.gameloop.components.eventbus.interfaces.IEvent;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+
+/**
+ * 已注册到某{@link IGameLoop}上的实体删除组件后触发事件
+ */
+@Value
+public class EventRemoveComponentPost implements IEvent {
+    /**
+     * 实体id
+     */
+    String entityId;
+    /**
+     * 实体所属分类
+     */
+    String category;
+    /**
+     * 组件的类型
+     */
+    Class<?> componentClazz;
+    /**
+     * 实体所在的{@link IGameLoop}
+     */
+    IGameLoop gameLoop;
+}
@@ -5,17 +5,24 @@ import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import lombok.experimental.Delegate;
 import lombok.extern.log4j.Log4j2;
+import org.gamedo.concurrent.NamedThreadFactory;
+import org.gamedo.concurrent.VirtualThreads;
 import org.gamedo.ecs.Entity;
 import org.gamedo.logging.Markers;
+import org.gamedo.util.GamedoConfiguration;
 import org.gamedo.util.function.EntityFunction;
 import org.gamedo.exception.GameLoopException;
 import org.gamedo.gameloop.interfaces.IGameLoop;
 import org.gamedo.gameloop.interfaces.IGameLoopGroup;
 
+import java.time.Clock;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
 @Log4j2
@@ -25,6 +32,11 @@ public class GameLoop extends Entity implements IGameLoop {
     @Delegate(types = ScheduledExecutorService.class)
     protected final ScheduledExecutorService delegate;
     protected volatile Thread currentThread;
+    final GameLoopMailbox mailbox = new GameLoopMailbox(this);
+    private volatile GameLoopAdmission admission;
+    private volatile GameLoopLanes lanes;
+    volatile GameLoopWatchdog watchdog;
+    volatile GameLoopInstrumentation instrumentation;
     private volatile IGameLoopGroup owner;
 
     public GameLoop(final String id) {
@@ -32,32 +44,91 @@ public class GameLoop extends Entity implements IGameLoop {
     }
 
     public GameLoop(final String id, boolean daemon) {
+        this(id, daemon, Clock.systemDefaultZone());
+    }
+
+    public GameLoop(final String id, boolean daemon, Clock clock) {
+        this(id, new NamedThreadFactory(id, daemon), clock);
+    }
+
+    protected GameLoop(final String id, ThreadFactory threadFactory, Clock clock) {
         super(id);
 
-        delegate = new GameLoopScheduledExecutorService(this, id, daemon);
+        delegate = new GameLoopScheduledExecutorService(this, threadFactory, clock);
+        admission = new GameLoopAdmission(id, 0, RejectPolicy.REJECT);
+        lanes = new GameLoopLanes(this, this, null);
 
-        componentMap.put(GameLoopScheduledExecutorService.class, delegate);
+        putComponent(GameLoopScheduledExecutorService.class, delegate);
+        putComponent(Clock.class, clock);
+        putComponent(GameLoopMailbox.class, mailbox);
+    }
+
+    private GameLoop(final String id, GameLoopConfig gameLoopConfig, Clock clock) {
+        this(id, threadFactory(id, gameLoopConfig), clock);
     }
 
     public GameLoop(final GameLoopConfig gameLoopConfig) {
         this(gameLoopConfig.getGameLoopIdPrefix() + gameLoopConfig.getGameLoopIdCounter().getAndIncrement(),
-                gameLoopConfig.isDaemon());
+                gameLoopConfig,
+                clock(gameLoopConfig));
 
-        componentMap.putAll(gameLoopConfig.componentMap(this));
+        admission = new GameLoopAdmission(id, gameLoopConfig.getMaxQueueSize(), gameLoopConfig.getRejectPolicy());
+        lanes = new GameLoopLanes(this, this, gameLoopConfig.getLaneWeights());
+        watchdog = watchdog(this, gameLoopConfig);
+        gameLoopConfig.componentMap(this).forEach(this::putComponent);
     }
 
     public GameLoop(final GameLoopConfig gameLoopConfig, MeterRegistry meterRegistry) {
         super(gameLoopConfig.getGameLoopIdPrefix() + gameLoopConfig.getGameLoopIdCounter().getAndIncrement());
 
-        final boolean daemon = gameLoopConfig.isDaemon();
-        final GameLoopScheduledExecutorService executorService = new GameLoopScheduledExecutorService(this, id, daemon);
+        final Clock clock = clock(gameLoopConfig);
+        final GameLoopScheduledExecutorService executorService = new GameLoopScheduledExecutorService(this,
+                threadFactory(id, gameLoopConfig), clock);
         final Tags tags = Tags.of("name", id, "owner", gameLoopConfig.getGameLoopGroupId());
 
         delegate = ExecutorServiceMetrics.monitor(meterRegistry, executorService, id, tags);
+        admission = new GameLoopAdmission(id, gameLoopConfig.getMaxQueueSize(), gameLoopConfig.getRejectPolicy());
+        admission.registerMetric(meterRegistry, tags);
+        lanes = new GameLoopLanes(this, this, gameLoopConfig.getLaneWeights());
+        lanes.registerMetric(meterRegistry, tags);
+        watchdog = watchdog(this, gameLoopConfig);
+        if (watchdog != null) {
+            watchdog.registerMetric(meterRegistry, tags);
+        }
+        mailbox.registerMetric(meterRegistry, tags);
+        final GameLoopHandlerMetrics handlerMetrics = new GameLoopHandlerMetrics(this, meterRegistry, tags);
+        if (GamedoConfiguration.isMetricTaskEnable()) {
+            instrumentation = new GameLoopInstrumentation(handlerMetrics, meterRegistry, tags);
+        }
+
+        gameLoopConfig.componentMap(this).forEach(this::putComponent);
+        putComponent(MeterRegistry.class, meterRegistry);
+        putComponent(GameLoopScheduledExecutorService.class, executorService);
+        putComponent(Clock.class, clock);
+        putComponent(GameLoopMailbox.class, mailbox);
+        putComponent(GameLoopHandlerMetrics.class, handlerMetrics);
+    }
+
+    private static ThreadFactory threadFactory(String id, GameLoopConfig gameLoopConfig) {
+        if (!gameLoopConfig.isVirtualThread()) {
+            return new NamedThreadFactory(id, gameLoopConfig.isDaemon());
+        }
+
+        //显式要求了虚拟线程时不做降级，避免以平台线程运行大量的gameLoop而不自知
+        return VirtualThreads.factory(id).orElseThrow(() -> new GameLoopException("virtual thread isn't supported by the current jdk:" +
+                Runtime.version() + ", id:" + id));
+    }
+
+    private static GameLoopWatchdog watchdog(GameLoop gameLoop, GameLoopConfig gameLoopConfig) {
+        if (gameLoopConfig.getStallThresholdMillis() <= 0) {
+            return null;
+        }
+
+        return new GameLoopWatchdog(gameLoop, gameLoopConfig.getStallThresholdMillis(), gameLoopConfig.getStallListener());
+    }
 
-        componentMap.putAll(gameLoopConfig.componentMap(this));
-        componentMap.put(MeterRegistry.class, meterRegistry);
-        componentMap.put(GameLoopScheduledExecutorService.class, executorService);
+    private static Clock clock(GameLoopConfig gameLoopConfig) {
+        return gameLoopConfig.getClock() != null ? gameLoopConfig.getClock() : Clock.systemDefaultZone();
     }
 
     @Override
@@ -107,18 +178,84 @@ public class GameLoop extends Entity implements IGameLoop {
             if (isShutdown()) {
                 log.error(Markers.GameLoop, "the thread has shutdown, id:{}", getId());
             }
-            return CompletableFuture.supplyAsync(new Supplier<>() {
-                @Override
-                public String toString() {
-                    return function.toString();
-                }
-
-                @Override
-                public R get() {
-                    return function.apply(GameLoop.this);
-                }
-            }, this);
+
+            final CompletableFuture<R> future = admission.submit(this, this, function, TaskPriority.NORMAL);
+            return future != null ? future : CompletableFuture.failedFuture(new RejectedExecutionException("task queue is full, " +
+                    "gameLoop id:" + id));
+        }
+    }
+
+    @Override
+    public <R> CompletableFuture<R> submit(EntityFunction<IGameLoop, R> function, Lane lane) {
+        if (inThread()) {
+            return submit(function);
+        }
+
+        if (isShutdown()) {
+            log.error(Markers.GameLoop, "the thread has shutdown, id:{}", getId());
+        }
+
+        final CompletableFuture<R> future = admission.submit(this, lanes.executor(lane), function, TaskPriority.NORMAL);
+        return future != null ? future : CompletableFuture.failedFuture(new RejectedExecutionException("task queue is full, " +
+                "gameLoop id:" + id));
+    }
+
+    @Override
+    public void execute(Runnable command, Lane lane) {
+        lanes.execute(command, lane);
+    }
+
+    @Override
+    public int getLaneDepth(Lane lane) {
+        return lanes.getDepth(lane);
+    }
+
+    @Override
+    public <R> Optional<CompletableFuture<R>> trySubmit(EntityFunction<IGameLoop, R> function, TaskPriority priority) {
+        if (inThread()) {
+            return Optional.of(submit(function));
+        }
+
+        try {
+            return Optional.ofNullable(admission.submit(this, this, function, priority));
+        } catch (RejectedExecutionException e) {
+            log.error(Markers.GameLoop, "the thread has shutdown, id:{}", getId());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return admission.getDepth();
+    }
+
+    @Override
+    public <R> CompletableFuture<R> spawn(EntityFunction<IGameLoop, R> function) {
+        if (isShutdown()) {
+            log.error(Markers.GameLoop, "the thread has shutdown, id:{}", getId());
         }
+
+        return new GameLoopCoroutine<>(this, function).start();
+    }
+
+    @Override
+    public boolean tell(String entityId, Supplier<String> category, Object message) {
+        return mailbox.tell(entityId, category, message);
+    }
+
+    @Override
+    public <R> boolean ask(String entityId, Supplier<String> category, Object message, BiConsumer<? super R, ? super Throwable> callback) {
+        return mailbox.ask(entityId, category, message, callback);
+    }
+
+    @Override
+    public int getMailboxDepth() {
+        return mailbox.getDepth();
+    }
+
+    @Override
+    public int getMailboxDepth(String entityId, Supplier<String> category) {
+        return mailbox.getDepth(entityId, category);
     }
 
     private void checkInThread() {
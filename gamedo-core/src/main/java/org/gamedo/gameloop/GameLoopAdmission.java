@@ -0,0 +1,283 @@
+package org.gamedo.gameloop;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import lombok.extern.log4j.Log4j2;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.gameloop.jfr.SubmitJfrEvent;
+import org.gamedo.logging.Markers;
+import org.gamedo.util.Metric;
+import org.gamedo.util.function.EntityFunction;
+
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * {@link GameLoop}的任务准入控制：跨线程通过{@link IGameLoop#submit(EntityFunction)}、
+ * {@link IGameLoop#submit(EntityFunction, Lane)}以及{@link IGameLoop#trySubmit(EntityFunction, TaskPriority)}提交的任务（包括
+ * 通过这些函数跨线程投递的事件）先经过本类计数，当排队中的任务数量达到{@link GameLoopConfig#getMaxQueueSize()}时，按照
+ * {@link RejectPolicy}拒绝新任务或者丢弃已经排队的任务<p>
+ * 被接受的任务直接进入线程池，与其他入口提交的任务保持先进先出的顺序。被丢弃的任务仍然留在线程池的队列中，但是已经释放了对任务函数的引用，
+ * 轮到它执行时直接跳过<p>
+ * 以下跨线程的入口不经过本类，因此不受{@link GameLoopConfig#getMaxQueueSize()}的限制：
+ * <ul>
+ * <li> {@link java.util.concurrent.ExecutorService}的execute、submit、invokeAll、invokeAny以及schedule系列函数，包括
+ * {@link org.gamedo.gameloop.interfaces.IGameLoopGroup}上转发给某个{@link IGameLoop}的同名函数，@Tick、@Cron等框架内部的任务也是如此
+ * <li> {@link IGameLoop#execute(Runnable, Lane)}
+ * <li> {@link IGameLoop#tell(String, java.util.function.Supplier, Object)}等邮箱投递，其深度由邮箱自己的指标反映
+ * <li> {@link IGameLoop#spawn(EntityFunction)}创建的协程的恢复
+ * </ul>
+ */
+@Log4j2
+final class GameLoopAdmission {
+
+    private final String gameLoopId;
+    private final int maxQueueSize;
+    private final RejectPolicy rejectPolicy;
+    private final AtomicInteger depth = new AtomicInteger();
+    /**
+     * 按照优先级保存的排队中的任务，用于丢弃，{@link RejectPolicy#DROP_OLDEST}时只使用第一个，{@link RejectPolicy#REJECT}时为null
+     */
+    private final Deque<SubmitTask<?>>[] dequeArray;
+    private Counter rejectCounter = Metric.NOOP_COUTER;
+    private Counter dropCounter = Metric.NOOP_COUTER;
+
+    @SuppressWarnings("unchecked")
+    GameLoopAdmission(String gameLoopId, int maxQueueSize, RejectPolicy rejectPolicy) {
+        this.gameLoopId = gameLoopId;
+        this.maxQueueSize = Math.max(0, maxQueueSize);
+        this.rejectPolicy = rejectPolicy == null ? RejectPolicy.REJECT : rejectPolicy;
+
+        if (this.maxQueueSize == 0 || this.rejectPolicy == RejectPolicy.REJECT) {
+            dequeArray = null;
+        } else {
+            final int length = this.rejectPolicy == RejectPolicy.DROP_OLDEST ? 1 : TaskPriority.VALUES.length;
+            dequeArray = new Deque[length];
+            for (int i = 0; i < length; i++) {
+                dequeArray[i] = new ConcurrentLinkedDeque<>();
+            }
+        }
+    }
+
+    /**
+     * 提交一个任务
+     *
+     * @param gameLoop 要执行任务的线程
+     * @param executor 线程池
+     * @param function 任务函数
+     * @param priority 任务的优先级
+     * @param <R>      任务的返回值类型
+     * @return 任务被接受时返回其结果，被拒绝时返回null
+     * @throws RejectedExecutionException 线程池已经关闭时抛出
+     */
+    <R> CompletableFuture<R> submit(IGameLoop gameLoop, Executor executor, EntityFunction<IGameLoop, R> function, TaskPriority priority) {
+        if (!acquire(priority)) {
+            rejectCounter.increment();
+            log.debug(Markers.GameLoop, "task rejected, depth:{}, priority:{}, id:{}", depth.get(), priority, gameLoopId);
+            return null;
+        }
+
+        final SubmitTask<R> task = new SubmitTask<>(this, gameLoop, function, priority);
+        final Deque<SubmitTask<?>> deque = deque(priority);
+        if (deque != null) {
+            deque.offerLast(task);
+        }
+
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (task.claim()) {
+                release(task);
+            }
+            throw e;
+        }
+
+        return task.future;
+    }
+
+    int getDepth() {
+        return depth.get();
+    }
+
+    /**
+     * 拒绝一个已经被接受、但是无法再被执行的任务（例如线程池在任务入队后拒绝了后续的调度），释放其占用的排队位置，并以异常结束其结果
+     *
+     * @param command 要拒绝的任务
+     * @param e       拒绝的原因
+     * @return 如果command是本类提交的任务，返回true
+     */
+    static boolean reject(Runnable command, RejectedExecutionException e) {
+        if (!(command instanceof SubmitTask)) {
+            return false;
+        }
+
+        final SubmitTask<?> task = (SubmitTask<?>) command;
+        if (task.claim()) {
+            task.admission.release(task);
+            task.reject(e);
+        }
+
+        return true;
+    }
+
+    void registerMetric(MeterRegistry meterRegistry, Tags tags) {
+        Gauge.builder(Metric.MeterIdQueueDepthGauge, depth, AtomicInteger::get)
+                .tags(tags)
+                .description("the queued task count submitted from other threads")
+                .baseUnit(BaseUnits.TASKS)
+                .register(meterRegistry);
+        rejectCounter = Counter.builder(Metric.MeterIdQueueRejectCounter)
+                .tags(tags.and("policy", rejectPolicy.name(), "result", "rejected"))
+                .description("the rejected or dropped task count")
+                .register(meterRegistry);
+        dropCounter = Counter.builder(Metric.MeterIdQueueRejectCounter)
+                .tags(tags.and("policy", rejectPolicy.name(), "result", "dropped"))
+                .description("the rejected or dropped task count")
+                .register(meterRegistry);
+    }
+
+    private boolean acquire(TaskPriority priority) {
+        if (maxQueueSize == 0) {
+            depth.incrementAndGet();
+            return true;
+        }
+
+        for (; ; ) {
+            final int current = depth.get();
+            if (current < maxQueueSize) {
+                if (depth.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+                continue;
+            }
+
+            //队列已满，丢弃一个任务后重试，期间腾出的位置也可能被其他线程抢占
+            if (dequeArray == null || !drop(priority)) {
+                return false;
+            }
+        }
+    }
+
+    private boolean drop(TaskPriority priority) {
+        if (rejectPolicy == RejectPolicy.DROP_OLDEST) {
+            return drop(dequeArray[0]);
+        }
+
+        for (int i = dequeArray.length - 1; i >= priority.ordinal(); i--) {
+            if (drop(dequeArray[i])) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean drop(Deque<SubmitTask<?>> deque) {
+        SubmitTask<?> task;
+        while ((task = deque.pollFirst()) != null) {
+            //已经开始执行的任务直接出队
+            if (task.claim()) {
+                depth.decrementAndGet();
+                dropCounter.increment();
+                task.drop();
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void release(SubmitTask<?> task) {
+        depth.decrementAndGet();
+        final Deque<SubmitTask<?>> deque = deque(task.priority);
+        if (deque != null) {
+            //任务按照提交顺序执行，因此几乎总是位于队首
+            deque.removeFirstOccurrence(task);
+        }
+    }
+
+    private Deque<SubmitTask<?>> deque(TaskPriority priority) {
+        if (dequeArray == null) {
+            return null;
+        }
+
+        return dequeArray.length == 1 ? dequeArray[0] : dequeArray[priority.ordinal()];
+    }
+
+    private static final class SubmitTask<R> implements Runnable {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<SubmitTask> STATE_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(SubmitTask.class, "state");
+
+        private final GameLoopAdmission admission;
+        private final IGameLoop gameLoop;
+        private final TaskPriority priority;
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+        private final Thread sourceThread = Thread.currentThread();
+        private EntityFunction<IGameLoop, R> function;
+        /**
+         * 0：排队中，1：已经开始执行或者被丢弃
+         */
+        private volatile int state;
+
+        private SubmitTask(GameLoopAdmission admission, IGameLoop gameLoop, EntityFunction<IGameLoop, R> function,
+                           TaskPriority priority) {
+            this.admission = admission;
+            this.gameLoop = gameLoop;
+            this.function = function;
+            this.priority = priority;
+        }
+
+        private boolean claim() {
+            return STATE_UPDATER.compareAndSet(this, 0, 1);
+        }
+
+        private void drop() {
+            reject(new RejectedExecutionException("task dropped by " + admission.rejectPolicy + ", gameLoop id:" +
+                    admission.gameLoopId));
+        }
+
+        private void reject(RejectedExecutionException e) {
+            function = null;
+            future.completeExceptionally(e);
+        }
+
+        @Override
+        public void run() {
+            if (!claim()) {
+                return;
+            }
+
+            admission.release(this);
+            GameLoopInstrumentation.mark(gameLoop, TaskKind.SUBMIT);
+            final SubmitJfrEvent jfrEvent = new SubmitJfrEvent();
+            jfrEvent.begin();
+            try {
+                future.complete(function.apply(gameLoop));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                if (jfrEvent.shouldCommit()) {
+                    jfrEvent.set(gameLoop, null, null);
+                    jfrEvent.className = function.getClass().getName();
+                    jfrEvent.sourceThread = sourceThread;
+                    jfrEvent.priority = priority.name();
+                    jfrEvent.commit();
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(function);
+        }
+    }
+}
@@ -13,12 +13,15 @@ import org.gamedo.gameloop.components.scheduling.interfaces.IGameLoopScheduler;
 import org.gamedo.gameloop.components.tickManager.GameLoopTickManager;
 import org.gamedo.gameloop.components.tickManager.interfaces.IGameLoopTickManager;
 import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.gameloop.interfaces.IGameLoopStallListener;
 import org.gamedo.util.Pair;
 
 import java.lang.reflect.Constructor;
+import java.time.Clock;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -70,6 +73,20 @@ public class GameLoopConfig {
      */
     private boolean daemon;
 
+    /**
+     * 是否以虚拟线程（JDK 21+）作为gameLoop的执行线程，适用于io、db、redis、http等以阻塞调用为主的线程池：虚拟线程阻塞时会让出载体线程，
+     * 因此可以创建成千上万个gameLoop来提升阻塞操作的并发度，而操作系统线程的数量和内存占用基本不变，同时每个gameLoop内的任务仍然是串行
+     * 执行的，通过{@link org.gamedo.gameloop.interfaces.IGameLoopGroup#selectHashing(String)}选择gameLoop时，同一个key的任务依然有序，
+     * 需要注意的是：
+     * <ul>
+     * <li> 虚拟线程总是后台线程，{@link GameLoopConfig#daemon}不再生效
+     * <li> 在不支持虚拟线程的JDK上，构造{@link GameLoop}时会抛出{@link org.gamedo.exception.GameLoopException}，而不是退化为平台线程
+     * <li> 每个{@link IGameLoop}独占一个虚拟线程，而不是在共享的执行器上按key串行地执行
+     * <li> 在synchronized代码块内阻塞会占住载体线程，应该尽量使用{@link java.util.concurrent.locks.Lock}
+     * </ul>
+     */
+    private boolean virtualThread;
+
     /**
      * {@link IGameLoop}的实现类，其子类必须实现{@link GameLoop#GameLoop(GameLoopConfig)}和
      * {@link GameLoop#GameLoop(GameLoopConfig, MeterRegistry)}两个构造函数
@@ -91,6 +108,41 @@ public class GameLoopConfig {
      */
     private int nodeCountPerGameLoop = 500;
 
+    /**
+     * gameLoop的时间源，所有的@Tick、@Cron以及延迟调度都以此为准，为null时使用系统时钟，当设置为
+     * {@link org.gamedo.concurrent.SimulatedClock}时，可以用于快进模拟、压测等场景
+     */
+    private Clock clock = Clock.systemDefaultZone();
+
+    /**
+     * 从其他线程通过{@link IGameLoop#submit(org.gamedo.util.function.EntityFunction)}或者
+     * {@link IGameLoop#trySubmit(org.gamedo.util.function.EntityFunction, TaskPriority)}提交的、尚未开始执行的任务的最大数量，达到
+     * 上限后按照{@link GameLoopConfig#rejectPolicy}处理，0表示不限制；{@link ScheduledExecutorService}的execute、schedule等函数
+     * 以及@Tick、@Cron等框架内部的任务不受限制
+     */
+    private int maxQueueSize;
+
+    /**
+     * 任务队列达到{@link GameLoopConfig#maxQueueSize}时的拒绝策略，为null时使用{@link RejectPolicy#REJECT}
+     */
+    private RejectPolicy rejectPolicy = RejectPolicy.REJECT;
+
+    /**
+     * 各个{@link Lane}的权重，按照{@link Lane}的声明顺序排列，即每一轮消费中该通道最多执行的任务数量，为null或者长度不足时使用
+     * {@link Lane#getWeight()}，小于1的权重按1处理
+     */
+    private int[] laneWeights;
+
+    /**
+     * 卡顿阈值：当gameLoop的某个任务的执行时间超过该值时，由看门狗采集线程调用栈并输出日志和指标，0表示关闭看门狗
+     */
+    private long stallThresholdMillis;
+
+    /**
+     * 卡顿监听器，可以为null，参考{@link IGameLoopStallListener}
+     */
+    private IGameLoopStallListener stallListener;
+
     /**
      * gameLoop的组件列表
      */
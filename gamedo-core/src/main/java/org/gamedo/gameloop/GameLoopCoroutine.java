@@ -0,0 +1,182 @@
+package org.gamedo.gameloop;
+
+import org.gamedo.concurrent.NamedThreadFactory;
+import org.gamedo.concurrent.VirtualThreads;
+import org.gamedo.exception.GameLoopException;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.logging.GamedoLogContext;
+import org.gamedo.util.function.EntityFunction;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 由{@link IGameLoop#spawn(EntityFunction)}创建的协程，协程体运行在一个独立的线程上（JDK支持时为虚拟线程），但是和所属的
+ * {@link IGameLoop}线程之间通过"接力棒"交替运行：协程运行时，{@link IGameLoop}线程阻塞等待，{@link IGameLoop#inThread()}以及
+ * {@link GameLoops#current()}在协程内的行为和在{@link IGameLoop}线程内完全一致，因此协程可以像普通的任务一样直接访问实体和组件；当协程调用
+ * {@link GameLoopCoroutine#await(CompletionStage)}等待一个尚未完成的异步结果时，接力棒交还给{@link IGameLoop}线程，继续处理其他任务，
+ * 异步结果完成后，协程作为一个普通任务重新在{@link IGameLoop}上排队，并从await处继续执行，例如：
+ * <pre>
+ *     gameLoop.spawn(loop -&gt; {
+ *         final Player player = IGameLoopEntityManager.getEntityById(playerId, Category.Entity);
+ *         //在db线程上加载，期间gameLoop可以处理其他任务
+ *         final Data data = GameLoopCoroutine.await(dbGameLoop.submit(load(playerId)));
+ *         //回到gameLoop上继续执行
+ *         player.apply(data);
+ *         return true;
+ *     });
+ * </pre>
+ * 需要注意的是：
+ * <ul>
+ * <li> 由于JDK没有开放虚拟线程的自定义调度器，每次交接都是一次线程切换，开销高于直接在{@link IGameLoop}线程内执行，适用于需要多次等待的
+ * 复杂流程，而不是热点路径
+ * <li> 每个协程从创建到结束（包括所有的等待期间）都独占一个线程，JDK支持时为虚拟线程，开销很小；否则为平台线程，每个都要占用一个完整的
+ * 线程栈，因此在不支持虚拟线程的JDK上不适合同时存在大量的协程
+ * <li> 协程运行期间{@link IGameLoop}线程被阻塞，因此仍然参与卡顿检测（参考{@link GameLoopConfig#getStallThresholdMillis()}），报告中的调用栈
+ * 是协程线程的，而协程在{@link GameLoopCoroutine#await(CompletionStage)}期间不占用{@link IGameLoop}线程，不会被报告
+ * <li> 如果{@link IGameLoop}在协程等待期间被关闭，协程将无法再恢复，此时{@link GameLoopCoroutine#await(CompletionStage)}抛出
+ * {@link GameLoopException}，协程以异常结束（返回值以{@link RejectedExecutionException}异常完成），协程线程也随之结束，需要注意的是，
+ * 此后协程内的finally、catch代码块已经不在{@link IGameLoop}线程上执行
+ * </ul>
+ *
+ * @param <R> 协程的返回值类型
+ */
+public final class GameLoopCoroutine<R> {
+    private static final ThreadLocal<GameLoopCoroutine<?>> CURRENT = new ThreadLocal<>();
+
+    private final GameLoop gameLoop;
+    private final EntityFunction<IGameLoop, R> function;
+    private final CompletableFuture<R> future = new CompletableFuture<>();
+    private final Thread thread;
+    /**
+     * 协程可以运行的许可，由{@link IGameLoop}线程释放
+     */
+    private final Semaphore runPermit = new Semaphore(0);
+    /**
+     * {@link IGameLoop}线程可以继续的许可，由协程在等待或者结束时释放
+     */
+    private final Semaphore yieldPermit = new Semaphore(0);
+    private final Runnable resumeRunnable = this::resume;
+    /**
+     * {@link IGameLoop}拒绝恢复协程时的异常，由{@link GameLoopCoroutine#runPermit}保证可见性
+     */
+    private RejectedExecutionException rejection;
+
+    GameLoopCoroutine(GameLoop gameLoop, EntityFunction<IGameLoop, R> function) {
+        this.gameLoop = gameLoop;
+        this.function = function;
+
+        final String name = gameLoop.getId() + "-coroutine";
+        final ThreadFactory threadFactory = VirtualThreads.factory(name).orElseGet(() -> new NamedThreadFactory(name, true));
+        thread = threadFactory.newThread(this::run);
+    }
+
+    /**
+     * 在协程内等待一个异步结果，等待期间所属的{@link IGameLoop}可以继续处理其他任务，结果完成后在{@link IGameLoop}上恢复执行；如果当前
+     * 不在协程内，并且也不在任何{@link IGameLoop}线程内，则直接阻塞等待
+     *
+     * @param stage 要等待的异步结果
+     * @param <T>   异步结果的类型
+     * @return 异步结果
+     * @throws java.util.concurrent.CompletionException 异步结果以异常完成时抛出
+     * @throws GameLoopException                        在{@link IGameLoop}线程内（而不是协程内）调用时抛出，以避免死锁
+     */
+    public static <T> T await(CompletionStage<T> stage) {
+        final CompletableFuture<T> future = stage.toCompletableFuture();
+        final GameLoopCoroutine<?> coroutine = CURRENT.get();
+        if (coroutine == null) {
+            if (GameLoops.current().isPresent() && !future.isDone()) {
+                throw new GameLoopException("await outside a coroutine will block the gameLoop, gameLoop id:" +
+                        GameLoops.current().get().getId());
+            }
+
+            return future.join();
+        }
+
+        if (!future.isDone()) {
+            future.whenComplete((t, throwable) -> coroutine.resumeLater());
+            coroutine.yieldAndWait();
+        }
+
+        return future.join();
+    }
+
+    /**
+     * @return 当前是否在协程内
+     */
+    public static boolean inCoroutine() {
+        return CURRENT.get() != null;
+    }
+
+    CompletableFuture<R> start() {
+        try {
+            gameLoop.execute(resumeRunnable);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        thread.start();
+        return future;
+    }
+
+    /**
+     * 等待的异步结果完成后，让协程重新在{@link IGameLoop}上排队
+     */
+    private void resumeLater() {
+        try {
+            gameLoop.execute(resumeRunnable);
+        } catch (RejectedExecutionException e) {
+            //不会再被恢复，唤醒协程线程并以异常结束，否则它将永远阻塞
+            rejection = e;
+            future.completeExceptionally(e);
+            runPermit.release();
+        }
+    }
+
+    /**
+     * 在{@link IGameLoop}线程内执行：将接力棒交给协程，并等待其交还
+     */
+    private void resume() {
+        //协程运行期间IGameLoop线程被阻塞，仍然参与卡顿检测，currentThread指向协程线程，因此看门狗采集的是协程的调用栈
+        final Thread loopThread = gameLoop.currentThread;
+        gameLoop.currentThread = thread;
+        try {
+            runPermit.release();
+            yieldPermit.acquireUninterruptibly();
+        } finally {
+            gameLoop.currentThread = loopThread;
+        }
+    }
+
+    private void yieldAndWait() {
+        yieldPermit.release();
+        runPermit.acquireUninterruptibly();
+
+        final RejectedExecutionException e = rejection;
+        if (e != null) {
+            throw new GameLoopException("the coroutine can't be resumed, gameLoop id:" + gameLoop.getId(), e);
+        }
+    }
+
+    private void run() {
+        runPermit.acquireUninterruptibly();
+
+        CURRENT.set(this);
+        GameLoops.GAME_LOOP_THREAD_LOCAL.set(gameLoop.gameLoopOptional);
+        GamedoLogContext.pushEntityId(gameLoop);
+        try {
+            future.complete(function.apply(gameLoop));
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        } finally {
+            GamedoLogContext.clearEntityId();
+            GameLoops.GAME_LOOP_THREAD_LOCAL.remove();
+            CURRENT.remove();
+            yieldPermit.release();
+        }
+    }
+}
@@ -15,6 +15,8 @@ import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -249,8 +251,15 @@ public class GameLoopGroup implements IGameLoopGroup {
 
     @Override
     public IGameLoop selectHashing(String hashKey) {
+        return selectHashCode(HASHING.hash(hashKey));
+    }
 
-        final int hashCode = HASHING.hash(hashKey);
+    @Override
+    public IGameLoop selectHashing(long hashKey) {
+        return selectHashCode(HASHING.hash(hashKey));
+    }
+
+    private IGameLoop selectHashCode(int hashCode) {
 
         final TreeMap<Integer, IGameLoop> gameLoopTreeMap = dataAtomicReference.get().gameLoopTreeMap;
         //找到所有大于该hashCode的节点
@@ -281,6 +290,16 @@ public class GameLoopGroup implements IGameLoopGroup {
                 );
     }
 
+    @Override
+    public boolean tell(String entityId, Supplier<String> category, Object message) {
+        return selectHashing(entityId).tell(entityId, category, message);
+    }
+
+    @Override
+    public <R> boolean ask(String entityId, Supplier<String> category, Object message, BiConsumer<? super R, ? super Throwable> callback) {
+        return selectHashing(entityId).ask(entityId, category, message, callback);
+    }
+
     @Override
     public <R> CompletableFuture<R> submit(EntityFunction<IGameLoop, R> function) {
         return selectNext().submit(function);
@@ -0,0 +1,246 @@
+package org.gamedo.gameloop;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.log4j.Log4j2;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
+import org.gamedo.concurrent.NamedThreadFactory;
+import org.gamedo.logging.Markers;
+import org.gamedo.util.GamedoConfiguration;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GameLoop}内@Subscribe、@Tick、@Cron函数的耗时统计，作为组件添加到开启了指标的{@link GameLoop}上：
+ * <ul>
+ * <li> 每个函数对应一个{@link Recorder}，由{@link GameLoop}线程独占写入一个无锁的HdrHistogram，写入时没有任何同步和{@link MeterRegistry}访问
+ * <li> 采样：每{@link GamedoConfiguration#getMetricSampleInterval()}次调用只统计1次耗时，未被采样的调用不会读取时钟
+ * <li> 所有{@link GameLoop}共用的发布线程每隔{@link GamedoConfiguration#getMetricReportIntervalMillis()}合并一次各个直方图，并发布为
+ * {@link FunctionTimer}（调用次数以及总耗时，采样时为估计值）以及名为xxx.max、xxx.percentile的{@link TimeGauge}（上一个发布周期内的值）
+ * <li> 每个{@link GameLoop}最多创建{@link GamedoConfiguration#getMetricMaxSeries()}个指标，超出的部分合并为class、method等标签均为
+ * other的指标，防止标签基数失控
+ * <li> {@link GameLoop}终止后，在下一个发布周期内从{@link MeterRegistry}中移除所有指标
+ * </ul>
+ */
+@Log4j2
+public final class GameLoopHandlerMetrics {
+
+    private static final String OTHER = "other";
+    private static final double[] PERCENTILES = {50, 90, 99};
+    /**
+     * 不进行任何统计的{@link Recorder}
+     */
+    public static final Recorder NOOP = new Recorder(null, 1);
+    private static final ScheduledExecutorService REPORT_EXECUTOR =
+            Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("gamedo-metric-reporter", true));
+
+    private final GameLoop gameLoop;
+    private final MeterRegistry meterRegistry;
+    private final Tags tags;
+    private final int sampleInterval;
+    private final int maxSeries;
+    /**
+     * 只由{@link GameLoop}线程访问
+     */
+    private final Map<String, Recorder> recorderMap = new HashMap<>();
+    private final List<Recorder> recorderList = new CopyOnWriteArrayList<>();
+    /**
+     * 注册过的所有指标，{@link GameLoop}终止后从{@link MeterRegistry}中移除
+     */
+    private final List<Meter> meterList = new CopyOnWriteArrayList<>();
+    private final ScheduledFuture<?> future;
+    private int seriesCount;
+
+    GameLoopHandlerMetrics(GameLoop gameLoop, MeterRegistry meterRegistry, Tags tags) {
+        this.gameLoop = gameLoop;
+        this.meterRegistry = meterRegistry;
+        this.tags = tags;
+        sampleInterval = GamedoConfiguration.getMetricSampleInterval();
+        maxSeries = GamedoConfiguration.getMetricMaxSeries();
+
+        final long reportIntervalMillis = GamedoConfiguration.getMetricReportIntervalMillis();
+        future = REPORT_EXECUTOR.scheduleAtFixedRate(this::report, reportIntervalMillis, reportIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 获取一个函数的{@link Recorder}，相同的指标返回同一个实例，调用者应该缓存返回值，本函数只能在{@link GameLoop}线程内调用
+     *
+     * @param name        指标名
+     * @param detailTag   函数详情的标签名，例如event、tick、cron
+     * @param className   函数所在的类
+     * @param methodName  函数名
+     * @param detail      函数详情，例如事件类型、心跳间隔、cron表达式
+     * @param description 指标描述
+     * @return 返回对应的{@link Recorder}，超出指标数量上限时返回合并后的{@link Recorder}
+     */
+    public Recorder recorder(String name, String detailTag, String className, String methodName, String detail,
+                             String description) {
+        final String key = name + '|' + className + '|' + methodName + '|' + detail;
+        final Recorder recorder = recorderMap.get(key);
+        if (recorder != null) {
+            return recorder;
+        }
+
+        if (seriesCount >= maxSeries) {
+            if (seriesCount++ == maxSeries) {
+                log.warn(Markers.GamedoMetrics, "metric series exceed the limit:{}, the rest are merged into '{}', id:{}",
+                        maxSeries, OTHER, gameLoop.getId());
+            }
+            return recorderMap.computeIfAbsent(name + '|' + OTHER, k -> register(name, Tags.of("class", OTHER,
+                    "method", OTHER, detailTag, OTHER), description, sampleInterval));
+        }
+
+        seriesCount++;
+        final Recorder newRecorder = register(name, Tags.of("class", className, "method", methodName, detailTag, detail),
+                description, sampleInterval);
+        recorderMap.put(key, newRecorder);
+        return newRecorder;
+    }
+
+    /**
+     * 注册一个不计入{@link GamedoConfiguration#getMetricMaxSeries()}的{@link Recorder}，可以在任意线程内调用，但返回的{@link Recorder}
+     * 只能由{@link GameLoop}线程写入
+     *
+     * @param name           指标名
+     * @param recorderTags   额外的标签
+     * @param description    指标描述
+     * @param sampleInterval 采样间隔，通过{@link Recorder#record(long)}写入时必须为1
+     * @return 返回新的{@link Recorder}
+     */
+    Recorder register(String name, Tags recorderTags, String description, int sampleInterval) {
+        final Recorder recorder = new Recorder(new SingleWriterRecorder(2), sampleInterval);
+        final Tags allTags = tags.and(recorderTags);
+
+        meterList.add(FunctionTimer.builder(name, recorder, r -> r.count, r -> r.totalNanos, TimeUnit.NANOSECONDS)
+                .tags(allTags)
+                .description(description)
+                .register(meterRegistry));
+        meterList.add(TimeGauge.builder(name + ".max", recorder, TimeUnit.NANOSECONDS, r -> r.max)
+                .tags(allTags)
+                .description(description)
+                .register(meterRegistry));
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            final int index = i;
+            meterList.add(TimeGauge.builder(name + ".percentile", recorder, TimeUnit.NANOSECONDS, r -> r.percentiles[index])
+                    .tags(allTags.and("phi", String.valueOf(PERCENTILES[i] / 100)))
+                    .description(description)
+                    .register(meterRegistry));
+        }
+
+        recorderList.add(recorder);
+        return recorder;
+    }
+
+    private void report() {
+        //终止后不再有新的记录，移除指标，避免已经销毁的gameLoop的指标一直留在MeterRegistry中
+        if (gameLoop.isTerminated()) {
+            future.cancel(false);
+            meterList.forEach(meterRegistry::remove);
+            meterList.clear();
+            recorderList.clear();
+            return;
+        }
+
+        for (final Recorder recorder : recorderList) {
+            try {
+                recorder.report();
+            } catch (Throwable t) {
+                log.error(Markers.GamedoMetrics, "exception caught when report, id:" + gameLoop.getId(), t);
+            }
+        }
+    }
+
+    /**
+     * 单个函数的耗时记录器，只能在{@link GameLoop}线程内使用：
+     * <pre>
+     * {@code
+     * final long startNanoTime = recorder.start();
+     * try {
+     *     method.invoke(object, args);
+     * } finally {
+     *     recorder.stop(startNanoTime);
+     * }
+     * }
+     * </pre>
+     */
+    public static final class Recorder {
+        private final SingleWriterRecorder recorder;
+        private final int sampleInterval;
+        /**
+         * 距离下一次采样的调用次数，只由{@link GameLoop}线程访问
+         */
+        private int countdown;
+        /**
+         * 以下字段只由发布线程写入
+         */
+        private Histogram intervalHistogram;
+        private volatile long count;
+        private volatile double totalNanos;
+        private volatile double max;
+        private final double[] percentiles = new double[PERCENTILES.length];
+
+        private Recorder(SingleWriterRecorder recorder, int sampleInterval) {
+            this.recorder = recorder;
+            this.sampleInterval = sampleInterval;
+        }
+
+        /**
+         * 开始一次调用
+         *
+         * @return 本次调用被采样时返回当前时间，否则返回0
+         */
+        public long start() {
+            if (recorder == null || --countdown > 0) {
+                return 0;
+            }
+
+            countdown = sampleInterval;
+            return System.nanoTime();
+        }
+
+        /**
+         * 结束一次调用
+         *
+         * @param startNanoTime {@link Recorder#start()}的返回值
+         */
+        public void stop(long startNanoTime) {
+            if (startNanoTime != 0) {
+                recorder.recordValue(Math.max(0, System.nanoTime() - startNanoTime));
+            }
+        }
+
+        /**
+         * 直接记录一次耗时，用于调用者自己已经读取了时钟的场合，只适用于不采样的{@link Recorder}
+         *
+         * @param nanos 耗时
+         */
+        void record(long nanos) {
+            if (recorder != null) {
+                recorder.recordValue(Math.max(0, nanos));
+            }
+        }
+
+        private void report() {
+            intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+            final long totalCount = intervalHistogram.getTotalCount();
+            count += totalCount * sampleInterval;
+            totalNanos += intervalHistogram.getMean() * totalCount * sampleInterval;
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                percentiles[i] = totalCount == 0 ? 0 : intervalHistogram.getValueAtPercentile(PERCENTILES[i]);
+            }
+            max = intervalHistogram.getMaxValue();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.gamedo.gameloop;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.util.Metric;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GameLoop}的任务指标，由{@link GameLoopScheduledExecutorService}在每个任务执行前后调用，包括：
+ * <ul>
+ * <li> 线程的忙碌时间，利用率通过其变化率（例如rate(busy)）计算
+ * <li> 任务从入队（对于延迟任务，从到期）到开始执行的等待时间
+ * <li> 按照{@link TaskKind}统计的任务执行时间
+ * </ul>
+ * 每个任务只增加两次{@link System#nanoTime()}调用、一次{@link Delayed#getDelay(TimeUnit)}调用以及两次
+ * {@link GameLoopHandlerMetrics.Recorder}写入，后者与@Subscribe等函数的耗时统计相同，由{@link GameLoop}线程独占写入，没有任何同步，
+ * 任务类型由各个组件在任务执行过程中通过{@link GameLoopInstrumentation#mark(IGameLoop, TaskKind)}标记
+ */
+public final class GameLoopInstrumentation {
+
+    private final GameLoopHandlerMetrics.Recorder waitRecorder;
+    private final GameLoopHandlerMetrics.Recorder[] executionRecorders = new GameLoopHandlerMetrics.Recorder[TaskKind.VALUES.length];
+    /**
+     * 以下字段只由{@link GameLoop}线程写入
+     */
+    private long startNanoTime;
+    private TaskKind taskKind = TaskKind.OTHER;
+    private volatile long busyNanos;
+
+    GameLoopInstrumentation(GameLoopHandlerMetrics handlerMetrics, MeterRegistry meterRegistry, Tags tags) {
+        FunctionCounter.builder(Metric.MeterIdBusyCounter, this, GameLoopInstrumentation::busySeconds)
+                .tags(tags)
+                .description("the total time the gameLoop thread spent running tasks")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        waitRecorder = handlerMetrics.register(Metric.MeterIdTaskWaitTimer, Tags.empty(),
+                "the time from a task becoming runnable to it starting", 1);
+        for (final TaskKind taskKind : TaskKind.VALUES) {
+            executionRecorders[taskKind.ordinal()] = handlerMetrics.register(Metric.MeterIdTaskExecutionTimer,
+                    Tags.of("kind", taskKind.name().toLowerCase()), "the execution time of tasks", 1);
+        }
+    }
+
+    /**
+     * 标记当前正在执行的任务的类型，只能在{@link IGameLoop}线程内调用，当{@link IGameLoop}没有开启任务指标时直接返回
+     *
+     * @param gameLoop 当前的{@link IGameLoop}
+     * @param taskKind 任务类型
+     */
+    public static void mark(IGameLoop gameLoop, TaskKind taskKind) {
+        if (!(gameLoop instanceof GameLoop)) {
+            return;
+        }
+
+        final GameLoopInstrumentation instrumentation = ((GameLoop) gameLoop).instrumentation;
+        if (instrumentation != null && taskKind.ordinal() > instrumentation.taskKind.ordinal()) {
+            instrumentation.taskKind = taskKind;
+        }
+    }
+
+    void beforeExecute(Runnable r, long nanoTime) {
+        startNanoTime = nanoTime;
+        taskKind = TaskKind.OTHER;
+
+        //线程池中的任务都是ScheduledFutureTask，执行时其剩余延迟的相反数就是任务从到期到开始执行的时间
+        if (r instanceof Delayed) {
+            waitRecorder.record(-((Delayed) r).getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    void afterExecute() {
+        final long elapsed = System.nanoTime() - startNanoTime;
+        busyNanos += elapsed;
+        executionRecorders[taskKind.ordinal()].record(elapsed);
+    }
+
+    private double busySeconds() {
+        return busyNanos / 1e9;
+    }
+}
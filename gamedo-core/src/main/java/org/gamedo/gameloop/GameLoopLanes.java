@@ -0,0 +1,195 @@
+package org.gamedo.gameloop;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import lombok.extern.log4j.Log4j2;
+import org.gamedo.logging.Markers;
+import org.gamedo.util.Metric;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link GameLoop}的任务通道，每个{@link Lane}一个无锁队列，所有通道共用一个消费任务：有任务入队并且消费任务尚未调度时，向线程池提交一次
+ * 消费任务，消费任务按照权重加权轮询各个通道，执行完一轮后如果还有任务，则重新提交自己，让出线程给线程池中的其他任务
+ */
+@Log4j2
+final class GameLoopLanes {
+
+    private final GameLoop gameLoop;
+    private final Executor executor;
+    private final int[] weights;
+    private final LaneData[] laneDataArray;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Runnable drainRunnable = this::drain;
+
+    GameLoopLanes(GameLoop gameLoop, Executor executor, int[] laneWeights) {
+        this.gameLoop = gameLoop;
+        this.executor = executor;
+        weights = new int[Lane.VALUES.length];
+        laneDataArray = new LaneData[Lane.VALUES.length];
+        for (final Lane lane : Lane.VALUES) {
+            final int ordinal = lane.ordinal();
+            final int weight = laneWeights != null && ordinal < laneWeights.length ? laneWeights[ordinal] : lane.getWeight();
+            weights[ordinal] = Math.max(1, weight);
+            laneDataArray[ordinal] = new LaneData(command -> execute(command, lane));
+        }
+    }
+
+    void execute(Runnable command, Lane lane) {
+        if (gameLoop.isShutdown()) {
+            throw new RejectedExecutionException("the thread has shutdown, gameLoop id:" + gameLoop.getId());
+        }
+
+        final LaneData laneData = laneDataArray[lane.ordinal()];
+        laneData.depth.incrementAndGet();
+        laneData.queue.offer(new LaneTask(command, laneData.timed ? System.nanoTime() : 0));
+        schedule();
+    }
+
+    /**
+     * @return 返回一个将任务提交到指定通道的{@link Executor}
+     */
+    Executor executor(Lane lane) {
+        return laneDataArray[lane.ordinal()].executor;
+    }
+
+    int getDepth(Lane lane) {
+        return laneDataArray[lane.ordinal()].depth.get();
+    }
+
+    int[] getWeights() {
+        return Arrays.copyOf(weights, weights.length);
+    }
+
+    void registerMetric(MeterRegistry meterRegistry, Tags tags) {
+        for (final Lane lane : Lane.VALUES) {
+            final LaneData laneData = laneDataArray[lane.ordinal()];
+            final Tags laneTags = tags.and("lane", lane.name());
+            Gauge.builder(Metric.MeterIdLaneDepthGauge, laneData.depth, AtomicInteger::get)
+                    .tags(laneTags)
+                    .description("the queued task count of the lane")
+                    .baseUnit(BaseUnits.TASKS)
+                    .register(meterRegistry);
+            laneData.waitTimer = Timer.builder(Metric.MeterIdLaneWaitTimer)
+                    .tags(laneTags)
+                    .description("the time a task waits in the lane before it starts")
+                    .register(meterRegistry);
+            laneData.timed = true;
+        }
+    }
+
+    private void schedule() {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            executor.execute(drainRunnable);
+        } catch (RejectedExecutionException e) {
+            scheduled.set(false);
+            log.error(Markers.GameLoop, "the thread has shutdown, id:{}", gameLoop.getId());
+            rejectPending(e);
+        }
+    }
+
+    /**
+     * 消费任务无法再被调度时，清空所有通道，让其中的任务以失败结束，避免调用者永远等待
+     */
+    private void rejectPending(RejectedExecutionException e) {
+        for (final LaneData laneData : laneDataArray) {
+            LaneTask task;
+            while ((task = laneData.queue.poll()) != null) {
+                laneData.depth.decrementAndGet();
+                final Runnable command = task.command;
+                if (GameLoopAdmission.reject(command, e)) {
+                    continue;
+                }
+
+                if (command instanceof Future) {
+                    ((Future<?>) command).cancel(false);
+                } else {
+                    log.warn(Markers.GameLoop, "lane task discarded, command:{}, id:{}", command, gameLoop.getId());
+                }
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            //一轮：按照通道顺序，每个通道最多执行其权重数量的任务
+            for (int i = 0; i < laneDataArray.length; i++) {
+                final LaneData laneData = laneDataArray[i];
+                LaneTask task;
+                for (int j = 0; j < weights[i] && (task = laneData.queue.poll()) != null; j++) {
+                    laneData.depth.decrementAndGet();
+                    if (laneData.timed) {
+                        laneData.waitTimer.record(System.nanoTime() - task.enqueueNanoTime, TimeUnit.NANOSECONDS);
+                    }
+                    run(task.command);
+                }
+            }
+        } finally {
+            scheduled.set(false);
+            if (hasPending()) {
+                schedule();
+            }
+        }
+    }
+
+    private boolean hasPending() {
+        for (final LaneData laneData : laneDataArray) {
+            if (laneData.depth.get() > 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void run(Runnable command) {
+        try {
+            command.run();
+        } catch (Throwable t) {
+            log.error(Markers.GameLoop, "exception caught in lane task, command:" + command, t);
+        }
+    }
+
+    private static final class LaneData {
+        /**
+         * 提交到本通道的{@link Executor}
+         */
+        private final Executor executor;
+        private final Queue<LaneTask> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger depth = new AtomicInteger();
+        private Timer waitTimer = Metric.NOOP_TIMER;
+        /**
+         * 只有注册了指标时才记录入队时间
+         */
+        private boolean timed;
+
+        private LaneData(Executor executor) {
+            this.executor = executor;
+        }
+    }
+
+    private static final class LaneTask {
+        private final Runnable command;
+        private final long enqueueNanoTime;
+
+        private LaneTask(Runnable command, long enqueueNanoTime) {
+            this.command = command;
+            this.enqueueNanoTime = enqueueNanoTime;
+        }
+    }
+}
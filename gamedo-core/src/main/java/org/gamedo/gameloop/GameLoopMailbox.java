@@ -0,0 +1,522 @@
+package org.gamedo.gameloop;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import lombok.extern.log4j.Log4j2;
+import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.exception.GameLoopException;
+import org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager;
+import org.gamedo.gameloop.interfaces.ICoalescableMessage;
+import org.gamedo.gameloop.interfaces.IMailboxHandler;
+import org.gamedo.logging.Markers;
+import org.gamedo.util.GamedoConfiguration;
+import org.gamedo.util.Metric;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link GameLoop}的消息邮箱，由两级无锁的多生产者单消费者（MPSC）队列组成：任意线程都可以投递消息，只有所属的{@link GameLoop}线程消费，
+ * 和{@link GameLoop#submit(org.gamedo.util.function.EntityFunction)}相比：
+ * <ul>
+ * <li> 每条消息只分配一个{@link Envelope}，不需要{@link java.util.concurrent.CompletableFuture}以及线程池的任务包装
+ * <li> 投递时只有一次CAS，不需要竞争线程池内的有锁队列
+ * <li> 邮箱从空变为非空时才向{@link GameLoop}提交一次批量消费任务，每次最多消费{@link GamedoConfiguration#getMailboxBatchSize()}
+ * 条消息，剩余的消息在下一个批次中继续消费，以免长时间占用线程
+ * </ul>
+ * 实体注册到{@link IGameLoopEntityManager}时会创建自己的实体邮箱，反注册时销毁，发送给该实体的消息按照顺序进入实体邮箱，实体邮箱从空变为
+ * 非空时才进入线程邮箱排队，因此同一实体的消息总是连续地批量处理；实现了{@link ICoalescableMessage}的消息在实体邮箱内合并：尚未处理的同
+ * key消息会被新消息原地替换。发送给没有实体邮箱的实体（例如尚未注册或者已经被冷热分层组件转储）的消息直接进入线程邮箱，处理时再查找实体
+ */
+@Log4j2
+public final class GameLoopMailbox {
+
+    private static final AtomicReferenceFieldUpdater<Envelope, Object> MESSAGE_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(Envelope.class, Object.class, "message");
+
+    private final GameLoop gameLoop;
+    private final int batchSize;
+    private final Queue queue = new Queue();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    /**
+     * 所有尚未处理的消息的数量，包括各个实体邮箱内的消息
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+    /**
+     * key为实体的类别，value为该类别下实体id到实体邮箱的映射
+     */
+    private final Map<String, Map<String, EntityMailbox>> entityMailboxMap = new ConcurrentHashMap<>(4);
+    private final Function<String, Map<String, EntityMailbox>> entityMailboxMapFunction = key -> new ConcurrentHashMap<>(512);
+    private final Runnable drainRunnable = this::drain;
+    private Counter deliveredCounter = Metric.NOOP_COUTER;
+    private Counter deadCounter = Metric.NOOP_COUTER;
+    private Counter coalescedCounter = Metric.NOOP_COUTER;
+    private DistributionSummary entityDepthSummary = Metric.NOOP_DISTRIBUTION_SUMMARY;
+
+    GameLoopMailbox(GameLoop gameLoop) {
+        this.gameLoop = gameLoop;
+        batchSize = GamedoConfiguration.getMailboxBatchSize();
+    }
+
+    /**
+     * 为实体创建实体邮箱，由{@link IGameLoopEntityManager}在注册实体时调用，只能在{@link GameLoop}线程内调用
+     *
+     * @param entity 注册的实体
+     * @return 创建成功返回true，如果已经创建过，返回false
+     */
+    public boolean addEntity(IEntity entity) {
+        final Map<String, EntityMailbox> map = entityMailboxMap.computeIfAbsent(entity.getCategory(), entityMailboxMapFunction);
+        return map.putIfAbsent(entity.getId(), new EntityMailbox(entity)) == null;
+    }
+
+    /**
+     * 销毁实体邮箱，由{@link IGameLoopEntityManager}在反注册实体时调用，只能在{@link GameLoop}线程内调用，实体邮箱内尚未处理的消息
+     * 转入线程邮箱，处理时重新查找实体（例如被冷热分层组件转储的实体会被重新加载）
+     *
+     * @param entity 反注册的实体
+     * @return 销毁成功返回true，如果没有创建过，返回false
+     */
+    public boolean removeEntity(IEntity entity) {
+        final Map<String, EntityMailbox> map = entityMailboxMap.get(entity.getCategory());
+        final EntityMailbox entityMailbox = map == null ? null : map.get(entity.getId());
+        if (entityMailbox == null || entityMailbox.entity != entity) {
+            return false;
+        }
+
+        map.remove(entity.getId());
+        entityMailbox.closed = true;
+        entityMailbox.reroute();
+        return true;
+    }
+
+    /**
+     * @return 所有尚未处理的消息的数量
+     */
+    public int getDepth() {
+        return pending.get();
+    }
+
+    /**
+     * 返回某个实体的实体邮箱内尚未处理的消息的数量，本函数是线程安全的
+     *
+     * @param entityId 实体id
+     * @param category 实体的类别
+     * @return 实体邮箱内的消息数量，没有实体邮箱时返回0
+     */
+    public int getDepth(String entityId, Supplier<String> category) {
+        final EntityMailbox entityMailbox = entityMailbox(entityId, category);
+        return entityMailbox == null ? 0 : entityMailbox.queue.depth.get();
+    }
+
+    boolean tell(String entityId, Supplier<String> category, Object message) {
+        if (!checkShutdown()) {
+            return false;
+        }
+
+        final EntityMailbox entityMailbox = entityMailbox(entityId, category);
+        if (entityMailbox == null) {
+            offer(new Envelope(entityId, category, message, null, null));
+            return true;
+        }
+
+        if (message instanceof ICoalescableMessage) {
+            entityMailbox.offerCoalescable(entityId, category, (ICoalescableMessage) message);
+        } else {
+            entityMailbox.offer(new Envelope(entityId, category, message, null, null));
+        }
+
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    <R> boolean ask(String entityId, Supplier<String> category, Object message, BiConsumer<? super R, ? super Throwable> callback) {
+        if (!checkShutdown()) {
+            return false;
+        }
+
+        //发送者在某个GameLoop内时，回复投递到发送者的邮箱，从而在发送者的线程内回调
+        final GameLoopMailbox replyTo = GameLoops.current()
+                .filter(GameLoop.class::isInstance)
+                .map(gameLoop -> ((GameLoop) gameLoop).mailbox)
+                .orElse(null);
+        final Envelope envelope = new Envelope(entityId, category, message, (BiConsumer<Object, Throwable>) callback, replyTo);
+        final EntityMailbox entityMailbox = entityMailbox(entityId, category);
+        if (entityMailbox == null) {
+            offer(envelope);
+        } else {
+            entityMailbox.offer(envelope);
+        }
+
+        return true;
+    }
+
+    void registerMetric(MeterRegistry meterRegistry, Tags tags) {
+        if (!GamedoConfiguration.isMetricMailboxEnable()) {
+            return;
+        }
+
+        Gauge.builder(Metric.MeterIdMailboxDepthGauge, pending, AtomicInteger::get)
+                .tags(tags)
+                .description("the pending message count of the mailbox")
+                .baseUnit(BaseUnits.OBJECTS)
+                .register(meterRegistry);
+        deliveredCounter = Counter.builder(Metric.MeterIdMailboxCounter)
+                .tags(tags.and("result", "delivered"))
+                .description("the message count of the mailbox delivered to the target entity")
+                .register(meterRegistry);
+        deadCounter = Counter.builder(Metric.MeterIdMailboxCounter)
+                .tags(tags.and("result", "dead"))
+                .description("the undeliverable message count of the mailbox, e.g. the entity is absent or has no handler")
+                .register(meterRegistry);
+        coalescedCounter = Counter.builder(Metric.MeterIdMailboxCounter)
+                .tags(tags.and("result", "coalesced"))
+                .description("the message count of the mailbox merged into a pending message with the same key")
+                .register(meterRegistry);
+        entityDepthSummary = DistributionSummary.builder(Metric.MeterIdMailboxEntityDepthSummary)
+                .tags(tags)
+                .description("the pending message count of the entity mailbox when drained")
+                .baseUnit(BaseUnits.OBJECTS)
+                .register(meterRegistry);
+    }
+
+    private EntityMailbox entityMailbox(String entityId, Supplier<String> category) {
+        final Map<String, EntityMailbox> map = entityMailboxMap.get(category.get());
+        return map == null ? null : map.get(entityId);
+    }
+
+    private boolean checkShutdown() {
+        if (gameLoop.isShutdown()) {
+            log.error(Markers.GameLoop, "the thread has shutdown, id:{}", gameLoop.getId());
+            return false;
+        }
+
+        return true;
+    }
+
+    private void offer(Envelope envelope) {
+        if (envelope.entityMailbox == null) {
+            pending.incrementAndGet();
+        }
+
+        queue.offer(envelope);
+        schedule();
+    }
+
+    private void schedule() {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            gameLoop.execute(drainRunnable);
+        } catch (RejectedExecutionException e) {
+            log.error(Markers.GameLoop, "the thread has shutdown, pending message:{}, id:{}", pending.get(), gameLoop.getId());
+        }
+    }
+
+    private void drain() {
+        GameLoopInstrumentation.mark(gameLoop, TaskKind.SUBMIT);
+        try {
+            int remain = batchSize;
+            Envelope envelope;
+            while (remain > 0 && (envelope = queue.poll()) != null) {
+                if (envelope.entityMailbox != null) {
+                    remain -= Math.max(1, envelope.entityMailbox.drain(remain));
+                } else {
+                    consume(envelope);
+                    remain--;
+                }
+                envelope.clear();
+            }
+        } finally {
+            scheduled.set(false);
+            //批次用完，或者生产者已经入队但尚未链接完成，都需要再次调度
+            if (queue.depth.get() > 0) {
+                schedule();
+            }
+        }
+    }
+
+    private void consume(Envelope envelope) {
+        pending.decrementAndGet();
+        if (envelope.reply) {
+            complete(envelope.callback, envelope.message, envelope.throwable);
+            return;
+        }
+
+        final Optional<IEntity> entityOptional = gameLoop.getComponent(IGameLoopEntityManager.class)
+                .flatMap(entityManager -> entityManager.getOrReload(envelope.entityId, envelope.category));
+        if (entityOptional.isEmpty()) {
+            dead(envelope, "entity not found");
+            return;
+        }
+
+        deliver(entityOptional.get(), envelope);
+    }
+
+    private void deliver(IEntity entity, Envelope envelope) {
+        final IMailboxHandler handler = handler(entity);
+        if (handler == null) {
+            dead(envelope, "no handler");
+            return;
+        }
+
+        deliveredCounter.increment();
+        Object result = null;
+        Throwable throwable = null;
+        try {
+            result = handler.onMessage(entity, envelope.message);
+        } catch (Throwable t) {
+            throwable = t;
+            if (envelope.callback == null) {
+                log.error(Markers.GameLoop, "exception caught when handle message, entityId:" + envelope.entityId +
+                        ", message:" + envelope.message, t);
+            }
+        }
+
+        reply(envelope, result, throwable);
+    }
+
+    private void dead(Envelope envelope, String reason) {
+        deadCounter.increment();
+        log.warn(Markers.GameLoop, "dead message, {}, entityId:{}, message:{}", reason, envelope.entityId, envelope.message);
+        reply(envelope, null, new GameLoopException(reason + ", entityId:" + envelope.entityId));
+    }
+
+    private void reply(Envelope envelope, Object result, Throwable throwable) {
+        final BiConsumer<Object, Throwable> callback = envelope.callback;
+        if (callback == null) {
+            return;
+        }
+
+        final GameLoopMailbox replyTo = envelope.replyTo;
+        if (replyTo == null || replyTo == this) {
+            complete(callback, result, throwable);
+            return;
+        }
+
+        final Envelope replyEnvelope = new Envelope(envelope.entityId, null, result, callback, null);
+        replyEnvelope.reply = true;
+        replyEnvelope.throwable = throwable;
+        if (replyTo.checkShutdown()) {
+            replyTo.offer(replyEnvelope);
+        } else {
+            //发送者已经关闭，在本线程内回调
+            complete(callback, result, throwable);
+        }
+    }
+
+    private static void complete(BiConsumer<Object, Throwable> callback, Object result, Throwable throwable) {
+        try {
+            callback.accept(result, throwable);
+        } catch (Throwable t) {
+            log.error(Markers.GameLoop, "exception caught when reply, callback:" + callback, t);
+        }
+    }
+
+    private static IMailboxHandler handler(IEntity entity) {
+        final Optional<IMailboxHandler> component = entity.getComponent(IMailboxHandler.class);
+        if (component.isPresent()) {
+            return component.get();
+        }
+
+        return entity instanceof IMailboxHandler ? (IMailboxHandler) entity : null;
+    }
+
+    /**
+     * 实体邮箱，生产者将消息投递到这里，实体邮箱从空变为非空时，以一个调度{@link Envelope}的形式进入线程邮箱排队
+     */
+    private final class EntityMailbox {
+        private final IEntity entity;
+        private final Queue queue = new Queue();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        /**
+         * 尚未处理的可合并消息，key为{@link ICoalescableMessage#getCoalesceKey()}
+         */
+        private final Map<Object, Envelope> coalesceMap = new ConcurrentHashMap<>(4);
+        private volatile boolean closed;
+
+        private EntityMailbox(IEntity entity) {
+            this.entity = entity;
+        }
+
+        private void offerCoalescable(String entityId, Supplier<String> category, ICoalescableMessage message) {
+            final Object key = message.getCoalesceKey();
+            Envelope envelope;
+            while ((envelope = coalesceMap.get(key)) != null) {
+                final Object oldMessage = envelope.message;
+                if (oldMessage == null) {
+                    //已经被消费
+                    coalesceMap.remove(key, envelope);
+                    break;
+                }
+
+                if (MESSAGE_UPDATER.compareAndSet(envelope, oldMessage, message)) {
+                    coalescedCounter.increment();
+                    return;
+                }
+            }
+
+            envelope = new Envelope(entityId, category, message, null, null);
+            envelope.coalesceKey = key;
+            coalesceMap.put(key, envelope);
+            offer(envelope);
+        }
+
+        private void offer(Envelope envelope) {
+            pending.incrementAndGet();
+            queue.offer(envelope);
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                final Envelope envelope = new Envelope(null, null, null, null, null);
+                envelope.entityMailbox = this;
+                GameLoopMailbox.this.offer(envelope);
+            }
+        }
+
+        private Envelope poll() {
+            final Envelope envelope = queue.poll();
+            if (envelope != null && envelope.coalesceKey != null) {
+                coalesceMap.remove(envelope.coalesceKey, envelope);
+                envelope.message = MESSAGE_UPDATER.getAndSet(envelope, null);
+            }
+
+            return envelope;
+        }
+
+        /**
+         * 在{@link GameLoop}线程内批量处理实体邮箱内的消息
+         *
+         * @param limit 最多处理的消息数量
+         * @return 处理的消息数量
+         */
+        private int drain(int limit) {
+            int count = 0;
+            try {
+                //销毁后仍然可能有并发的生产者投递进来，和正常处理一样需要重置调度标记并重新检测
+                if (closed) {
+                    reroute();
+                    return 0;
+                }
+
+                entityDepthSummary.record(queue.depth.get());
+                Envelope envelope;
+                while (count < limit && !closed && (envelope = poll()) != null) {
+                    pending.decrementAndGet();
+                    deliver(entity, envelope);
+                    envelope.clear();
+                    count++;
+                }
+            } finally {
+                scheduled.set(false);
+                if (queue.depth.get() > 0) {
+                    schedule();
+                }
+            }
+
+            return count;
+        }
+
+        /**
+         * 实体邮箱销毁后，将尚未处理的消息转入线程邮箱
+         */
+        private void reroute() {
+            Envelope envelope;
+            while ((envelope = poll()) != null) {
+                pending.decrementAndGet();
+                GameLoopMailbox.this.offer(new Envelope(envelope.entityId, envelope.category, envelope.message,
+                        envelope.callback, envelope.replyTo));
+                envelope.clear();
+            }
+        }
+    }
+
+    /**
+     * 以{@link Envelope}作为节点的侵入式MPSC队列，出队的节点成为新的哨兵，生产者只会修改哨兵的next
+     */
+    private static final class Queue {
+        private final AtomicReference<Envelope> tail;
+        /**
+         * 消费端的哨兵节点，只在{@link GameLoop}线程内访问
+         */
+        private Envelope head;
+        private final AtomicInteger depth = new AtomicInteger();
+
+        private Queue() {
+            head = new Envelope(null, null, null, null, null);
+            tail = new AtomicReference<>(head);
+        }
+
+        private void offer(Envelope envelope) {
+            depth.incrementAndGet();
+            final Envelope prev = tail.getAndSet(envelope);
+            prev.next = envelope;
+        }
+
+        private Envelope poll() {
+            final Envelope next = head.next;
+            if (next == null) {
+                return null;
+            }
+
+            head = next;
+            depth.decrementAndGet();
+            return next;
+        }
+    }
+
+    private static final class Envelope {
+        private String entityId;
+        private Supplier<String> category;
+        private volatile Object message;
+        private BiConsumer<Object, Throwable> callback;
+        private GameLoopMailbox replyTo;
+        private Throwable throwable;
+        private boolean reply;
+        private Object coalesceKey;
+        /**
+         * 不为null时，表示这是一个实体邮箱的调度节点
+         */
+        private EntityMailbox entityMailbox;
+        private volatile Envelope next;
+
+        private Envelope(String entityId, Supplier<String> category, Object message, BiConsumer<Object, Throwable> callback,
+                         GameLoopMailbox replyTo) {
+            this.entityId = entityId;
+            this.category = category;
+            this.message = message;
+            this.callback = callback;
+            this.replyTo = replyTo;
+        }
+
+        /**
+         * 消费完毕后，节点还会作为哨兵存活一段时间，释放对消息的引用
+         */
+        private void clear() {
+            entityId = null;
+            category = null;
+            message = null;
+            callback = null;
+            replyTo = null;
+            throwable = null;
+            coalesceKey = null;
+            entityMailbox = null;
+        }
+    }
+}
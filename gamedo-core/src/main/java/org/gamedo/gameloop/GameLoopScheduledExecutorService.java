@@ -1,17 +1,82 @@
 package org.gamedo.gameloop;
 
 import org.gamedo.concurrent.NamedThreadFactory;
+import org.gamedo.concurrent.SimulatedClock;
 import org.gamedo.logging.GamedoLogContext;
 
+import java.time.Clock;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 public class GameLoopScheduledExecutorService extends ScheduledThreadPoolExecutor {
     private final GameLoop gameLoop;
+    /**
+     * 当{@link GameLoopConfig#getClock()}为{@link SimulatedClock}时，所有的延迟、周期调度都交由模拟时钟驱动
+     */
+    private final SimulatedClock simulatedClock;
 
     public GameLoopScheduledExecutorService(GameLoop gameLoop, String id, boolean daemon) {
-        super(1, new NamedThreadFactory(id, daemon));
+        this(gameLoop, id, daemon, Clock.systemDefaultZone());
+    }
+
+    public GameLoopScheduledExecutorService(GameLoop gameLoop, String id, boolean daemon, Clock clock) {
+        this(gameLoop, new NamedThreadFactory(id, daemon), clock);
+    }
+
+    public GameLoopScheduledExecutorService(GameLoop gameLoop, ThreadFactory threadFactory, Clock clock) {
+        super(1, threadFactory);
         this.gameLoop = gameLoop;
+        simulatedClock = clock instanceof SimulatedClock ? (SimulatedClock) clock : null;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        //execute/submit最终也会以delay为0的方式调用本函数，这些任务不受模拟时钟的影响
+        if (simulatedClock == null || delay <= 0) {
+            return super.schedule(command, delay, unit);
+        }
+
+        return simulatedClock.schedule(this, Executors.callable(command), unit.toMillis(delay), 0);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        if (simulatedClock == null || delay <= 0) {
+            return super.schedule(callable, delay, unit);
+        }
+
+        return simulatedClock.schedule(this, callable, unit.toMillis(delay), 0);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        if (simulatedClock == null) {
+            return super.scheduleAtFixedRate(command, initialDelay, period, unit);
+        }
+        if (period <= 0) {
+            throw new IllegalArgumentException("period:" + period);
+        }
+
+        final long periodMillis = Math.max(1, unit.toMillis(period));
+        return simulatedClock.schedule(this, Executors.callable(command), unit.toMillis(initialDelay), periodMillis);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        if (simulatedClock == null) {
+            return super.scheduleWithFixedDelay(command, initialDelay, delay, unit);
+        }
+        if (delay <= 0) {
+            throw new IllegalArgumentException("delay:" + delay);
+        }
+
+        final long delayMillis = Math.max(1, unit.toMillis(delay));
+        return simulatedClock.schedule(this, Executors.callable(command), unit.toMillis(initialDelay), -delayMillis);
     }
 
     @Override
@@ -21,12 +86,34 @@ public class GameLoopScheduledExecutorService extends ScheduledThreadPoolExecuto
         GamedoLogContext.pushEntityId(gameLoop);
         gameLoop.currentThread = Thread.currentThread();
         GameLoops.GAME_LOOP_THREAD_LOCAL.set(gameLoop.gameLoopOptional);
+
+        final GameLoopWatchdog watchdog = gameLoop.watchdog;
+        final GameLoopInstrumentation instrumentation = gameLoop.instrumentation;
+        if (watchdog != null || instrumentation != null) {
+            final long nanoTime = System.nanoTime();
+            if (watchdog != null) {
+                watchdog.beforeExecute(r, nanoTime);
+            }
+            if (instrumentation != null) {
+                instrumentation.beforeExecute(r, nanoTime);
+            }
+        }
     }
 
     @Override
     protected void afterExecute(Runnable r, Throwable t) {
         super.afterExecute(r, t);
 
+        final GameLoopInstrumentation instrumentation = gameLoop.instrumentation;
+        if (instrumentation != null) {
+            instrumentation.afterExecute();
+        }
+
+        final GameLoopWatchdog watchdog = gameLoop.watchdog;
+        if (watchdog != null) {
+            watchdog.afterExecute();
+        }
+
         GameLoops.GAME_LOOP_THREAD_LOCAL.set(Optional.empty());
         gameLoop.currentThread = null;
         GamedoLogContext.clearEntityId();
@@ -0,0 +1,30 @@
+package org.gamedo.gameloop;
+
+import lombok.Value;
+
+/**
+ * {@link GameLoop}的卡顿信息：当某个任务的执行时间超过{@link GameLoopConfig#getStallThresholdMillis()}时，由看门狗线程采集
+ */
+@Value
+public class GameLoopStall {
+    /**
+     * 卡顿的{@link GameLoop}的id
+     */
+    String gameLoopId;
+    /**
+     * 卡顿发生时，{@link org.gamedo.logging.GamedoLogContext}栈顶的实体id，可能为null
+     */
+    String entityId;
+    /**
+     * 正在执行的任务的描述
+     */
+    String task;
+    /**
+     * 采集时该任务已经执行的毫秒数
+     */
+    long stallMillis;
+    /**
+     * 采集时{@link GameLoop}线程的调用栈
+     */
+    StackTraceElement[] stackTrace;
+}
@@ -0,0 +1,155 @@
+package org.gamedo.gameloop;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.log4j.Log4j2;
+import org.gamedo.concurrent.NamedThreadFactory;
+import org.gamedo.gameloop.interfaces.IGameLoopStallListener;
+import org.gamedo.logging.GamedoLogContext;
+import org.gamedo.logging.Markers;
+import org.gamedo.util.Metric;
+
+import java.util.Stack;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GameLoop}的看门狗：{@link GameLoopScheduledExecutorService}在每个任务执行前后记录任务的开始时间和任务本身（每个任务只有几次
+ * volatile写），所有{@link GameLoop}共用的看门狗线程定期检查，当某个任务的执行时间超过{@link GameLoopConfig#getStallThresholdMillis()}
+ * 时，采集{@link GameLoop}线程的调用栈、{@link GamedoLogContext}栈顶的实体id以及任务描述，输出日志和指标，并通知
+ * {@link IGameLoopStallListener}，每个卡顿的任务只报告一次
+ */
+@Log4j2
+final class GameLoopWatchdog {
+
+    private static final ScheduledExecutorService WATCHDOG_EXECUTOR =
+            Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("gamedo-watchdog", true));
+
+    private final GameLoop gameLoop;
+    private final long thresholdNanos;
+    private final IGameLoopStallListener listener;
+    private final ScheduledFuture<?> future;
+    private volatile long startNanoTime;
+    private volatile Runnable task;
+    /**
+     * {@link GameLoop}线程的实体id栈，只在线程变化时写入
+     */
+    private volatile Stack<String> entityIdStack;
+    /**
+     * 已经报告过的任务的开始时间，只由看门狗线程读写
+     */
+    private long reportedStartNanoTime;
+    private Counter stallCounter = Metric.NOOP_COUTER;
+
+    GameLoopWatchdog(GameLoop gameLoop, long thresholdMillis, IGameLoopStallListener listener) {
+        this.gameLoop = gameLoop;
+        this.listener = listener;
+        thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+
+        final long periodMillis = Math.max(10, thresholdMillis / 4);
+        future = WATCHDOG_EXECUTOR.scheduleAtFixedRate(this::check, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void beforeExecute(Runnable r, long nanoTime) {
+        final Stack<String> stack = GamedoLogContext.ENTITY_ID_STACK.get();
+        if (entityIdStack != stack) {
+            entityIdStack = stack;
+        }
+
+        task = r;
+        startNanoTime = nanoTime;
+    }
+
+    void afterExecute() {
+        startNanoTime = 0;
+        task = null;
+    }
+
+    void registerMetric(MeterRegistry meterRegistry, Tags tags) {
+        stallCounter = Counter.builder(Metric.MeterIdStallCounter)
+                .tags(tags)
+                .description("the count of tasks exceeding the stall threshold")
+                .register(meterRegistry);
+        TimeGauge.builder(Metric.MeterIdStallDurationGauge, this, TimeUnit.NANOSECONDS, GameLoopWatchdog::stallNanos)
+                .tags(tags)
+                .description("the running time of the current task if it exceeds the stall threshold, otherwise 0")
+                .register(meterRegistry);
+    }
+
+    private double stallNanos() {
+        final long start = startNanoTime;
+        if (start == 0) {
+            return 0;
+        }
+
+        final long elapsed = System.nanoTime() - start;
+        return elapsed >= thresholdNanos ? elapsed : 0;
+    }
+
+    private void check() {
+        if (gameLoop.isTerminated()) {
+            future.cancel(false);
+            return;
+        }
+
+        final long start = startNanoTime;
+        if (start == 0 || start == reportedStartNanoTime) {
+            return;
+        }
+
+        final long elapsed = System.nanoTime() - start;
+        if (elapsed < thresholdNanos) {
+            return;
+        }
+
+        final Thread thread = gameLoop.currentThread;
+        final Runnable runnable = task;
+        final StackTraceElement[] stackTrace = thread != null ? thread.getStackTrace() : new StackTraceElement[0];
+        final String entityId = peekEntityId();
+        //采集期间任务已经结束
+        if (startNanoTime != start) {
+            return;
+        }
+
+        reportedStartNanoTime = start;
+        stallCounter.increment();
+
+        final GameLoopStall stall = new GameLoopStall(gameLoop.getId(), entityId, String.valueOf(runnable),
+                TimeUnit.NANOSECONDS.toMillis(elapsed), stackTrace);
+        log.error(Markers.GameLoopWatchdog, "gameLoop stalled, id:{}, entityId:{}, stall:{}ms, task:{}{}",
+                stall.getGameLoopId(), stall.getEntityId(), stall.getStallMillis(), stall.getTask(), format(stackTrace));
+
+        if (listener != null) {
+            try {
+                listener.onStall(gameLoop, stall);
+            } catch (Throwable t) {
+                log.error(Markers.GameLoopWatchdog, "exception caught in stall listener, id:" + gameLoop.getId(), t);
+            }
+        }
+    }
+
+    private String peekEntityId() {
+        final Stack<String> stack = entityIdStack;
+        if (stack == null) {
+            return null;
+        }
+
+        //Stack是同步的，可以在看门狗线程中读取
+        synchronized (stack) {
+            return stack.isEmpty() ? null : stack.peek();
+        }
+    }
+
+    private static String format(StackTraceElement[] stackTrace) {
+        final StringBuilder builder = new StringBuilder();
+        for (final StackTraceElement element : stackTrace) {
+            builder.append(System.lineSeparator()).append("\tat ").append(element);
+        }
+
+        return builder.toString();
+    }
+}
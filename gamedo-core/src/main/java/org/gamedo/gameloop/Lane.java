@@ -0,0 +1,45 @@
+package org.gamedo.gameloop;
+
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.util.function.EntityFunction;
+
+/**
+ * {@link IGameLoop}内的任务通道，通过{@link IGameLoop#execute(Runnable, Lane)}或者{@link IGameLoop#submit(EntityFunction, Lane)}
+ * 提交的任务进入各自的通道排队，由{@link IGameLoop}按照{@link GameLoopConfig#getLaneWeights()}加权轮询消费：每一轮中每个通道最多
+ * 执行其权重数量的任务，一轮结束后让出线程，使得@Tick、@Cron以及未指定通道的任务可以及时执行，因此大量的玩家请求不会拖慢心跳，
+ * 低优先级的后台任务也不会饿死
+ */
+public enum Lane {
+    /**
+     * 系统任务，例如生命周期事件
+     */
+    SYSTEM(16),
+    /**
+     * 和心跳相关的任务
+     */
+    TICK(8),
+    /**
+     * 交互任务，例如玩家请求
+     */
+    INTERACTIVE(4),
+    /**
+     * 后台任务，例如统计、存盘
+     */
+    BACKGROUND(1),
+    ;
+
+    static final Lane[] VALUES = values();
+
+    /**
+     * 默认的权重
+     */
+    private final int weight;
+
+    Lane(int weight) {
+        this.weight = weight;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+}
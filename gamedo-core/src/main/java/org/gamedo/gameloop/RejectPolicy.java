@@ -0,0 +1,23 @@
+package org.gamedo.gameloop;
+
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.util.function.EntityFunction;
+
+/**
+ * {@link IGameLoop}的任务队列达到{@link GameLoopConfig#getMaxQueueSize()}时的拒绝策略，被拒绝或者被丢弃的任务，其返回的
+ * {@link java.util.concurrent.CompletableFuture}以{@link java.util.concurrent.RejectedExecutionException}完成
+ */
+public enum RejectPolicy {
+    /**
+     * 拒绝新提交的任务：{@link IGameLoop#trySubmit(EntityFunction)}返回{@link java.util.Optional#empty()}
+     */
+    REJECT,
+    /**
+     * 丢弃队列中最早提交的任务，接受新提交的任务
+     */
+    DROP_OLDEST,
+    /**
+     * 从优先级最低的任务开始，丢弃队列中优先级不高于新任务的最早提交的任务，如果不存在这样的任务，则拒绝新提交的任务
+     */
+    DROP_LOWEST_PRIORITY,
+}
@@ -0,0 +1,31 @@
+package org.gamedo.gameloop;
+
+/**
+ * {@link GameLoop}中任务的类型，用于按类型统计任务的执行时间，参考{@link GameLoopInstrumentation}<p>
+ * 一个任务在执行过程中可能被标记为多个类型（例如@Tick函数中抛出了事件），此时以声明顺序靠后的类型为准
+ */
+public enum TaskKind {
+    /**
+     * 未被标记的任务，例如直接调用execute、schedule提交的任务
+     */
+    OTHER,
+    /**
+     * 从其他线程通过submit提交的任务以及邮箱消息
+     */
+    SUBMIT,
+    /**
+     * 事件的分发
+     */
+    EVENT,
+    /**
+     * cron任务
+     */
+    CRON,
+    /**
+     * 心跳任务
+     */
+    TICK,
+    ;
+
+    static final TaskKind[] VALUES = values();
+}
@@ -0,0 +1,17 @@
+package org.gamedo.gameloop;
+
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.util.function.EntityFunction;
+
+/**
+ * 通过{@link IGameLoop#trySubmit(EntityFunction, TaskPriority)}提交的任务的优先级，当{@link IGameLoop}的任务队列已满，并且拒绝策略
+ * 为{@link RejectPolicy#DROP_LOWEST_PRIORITY}时，优先丢弃低优先级的任务
+ */
+public enum TaskPriority {
+    HIGH,
+    NORMAL,
+    LOW,
+    ;
+
+    static final TaskPriority[] VALUES = values();
+}
@@ -0,0 +1,417 @@
+package org.gamedo.gameloop.components.aoi;
+
+import lombok.extern.log4j.Log4j2;
+import org.gamedo.ecs.GameLoopComponent;
+import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.event.EventAoiInterestChangePost;
+import org.gamedo.gameloop.components.aoi.interfaces.IGameLoopAoiManager;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.logging.Markers;
+import org.gamedo.util.GamedoConfiguration;
+import org.gamedo.util.LongObjectMap;
+import org.gamedo.util.function.IGameLoopEventBusFunction;
+
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+@Log4j2
+public class GameLoopAoiManager extends GameLoopComponent implements IGameLoopAoiManager {
+
+    private final double viewRadius;
+    private final double viewRadiusSquare;
+    /**
+     * key为网格坐标，参考{@link GameLoopAoiManager#cellKey(int, int)}
+     */
+    private final LongObjectMap<List<Node>> cellMap = new LongObjectMap<>(256);
+    private final Map<IEntity, Node> nodeMap = new IdentityHashMap<>(1024);
+    /**
+     * 本帧内视野发生变化的实体，和{@link GameLoopAoiManager#flushingList}交替使用
+     */
+    private List<Node> dirtyList = new ArrayList<>(64);
+    private List<Node> flushingList = new ArrayList<>(64);
+    private final List<Node> tempList = new ArrayList<>(64);
+    private final Runnable flushRunnable = this::flush;
+    private boolean flushScheduled;
+    private boolean flushing;
+
+    public GameLoopAoiManager(IGameLoop owner) {
+        super(owner);
+        viewRadius = GamedoConfiguration.getAoiViewRadius();
+        viewRadiusSquare = viewRadius * viewRadius;
+    }
+
+    @Override
+    public boolean addEntity(IEntity entity) {
+        if (nodeMap.containsKey(entity)) {
+            log.error(Markers.GameLoopAoiManager, "the entity has added, entityId:{}", entity.getId());
+            return false;
+        }
+
+        final IAoiPosition position = position(entity);
+        if (position == null) {
+            return false;
+        }
+
+        final Node node = new Node(entity, position);
+        node.x = position.getX();
+        node.y = position.getY();
+        nodeMap.put(entity, node);
+        addToCell(node);
+
+        forEachCandidate(node, other -> {
+            if (inView(node, other)) {
+                link(node, other);
+            }
+        });
+
+        return true;
+    }
+
+    @Override
+    public boolean removeEntity(IEntity entity) {
+        final Node node = nodeMap.remove(entity);
+        if (node == null) {
+            return false;
+        }
+
+        removeFromCell(node);
+        node.removed = true;
+        node.interestSet.forEach(other -> {
+            other.interestSet.remove(node);
+            recordLeft(other, node);
+        });
+        node.interestSet.clear();
+
+        return true;
+    }
+
+    @Override
+    public boolean moveEntity(IEntity entity) {
+        final Node node = nodeMap.get(entity);
+        if (node == null) {
+            return false;
+        }
+
+        node.x = node.position.getX();
+        node.y = node.position.getY();
+        if (cellX(node.x) != node.cellX || cellY(node.y) != node.cellY) {
+            removeFromCell(node);
+            addToCell(node);
+        }
+
+        //1 原视野内的实体：离开或者移动
+        tempList.clear();
+        for (final Node other : node.interestSet) {
+            if (inView(node, other)) {
+                recordMoved(other, node);
+            } else {
+                tempList.add(other);
+            }
+        }
+        for (int i = 0; i < tempList.size(); i++) {
+            unlink(node, tempList.get(i));
+        }
+        tempList.clear();
+
+        //2 新进入视野的实体
+        forEachCandidate(node, other -> {
+            if (!node.interestSet.contains(other) && inView(node, other)) {
+                link(node, other);
+            }
+        });
+
+        return true;
+    }
+
+    @Override
+    public int forEachNeighbor(IEntity entity, Consumer<IEntity> consumer) {
+        final Node node = nodeMap.get(entity);
+        if (node == null) {
+            return 0;
+        }
+
+        for (final Node other : node.interestSet) {
+            consumer.accept(other.entity);
+        }
+
+        return node.interestSet.size();
+    }
+
+    @Override
+    public List<IEntity> getNeighborList(IEntity entity) {
+        final Node node = nodeMap.get(entity);
+        if (node == null) {
+            return Collections.emptyList();
+        }
+
+        final List<IEntity> list = new ArrayList<>(node.interestSet.size());
+        node.interestSet.forEach(other -> list.add(other.entity));
+        return list;
+    }
+
+    @Override
+    public int forEachInRange(double x, double y, double radius, Consumer<IEntity> consumer) {
+        final double radiusSquare = radius * radius;
+        int count = 0;
+        for (int cellX = cellX(x - radius); cellX <= cellX(x + radius); cellX++) {
+            for (int cellY = cellY(y - radius); cellY <= cellY(y + radius); cellY++) {
+                final List<Node> cell = cellMap.get(cellKey(cellX, cellY));
+                if (cell == null) {
+                    continue;
+                }
+
+                for (int i = 0; i < cell.size(); i++) {
+                    final Node node = cell.get(i);
+                    final double dx = node.x - x;
+                    final double dy = node.y - y;
+                    if (dx * dx + dy * dy <= radiusSquare) {
+                        consumer.accept(node.entity);
+                        count++;
+                    }
+                }
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public int getEntityCount() {
+        return nodeMap.size();
+    }
+
+    @Override
+    public int flush() {
+        flushScheduled = false;
+        if (flushing || dirtyList.isEmpty()) {
+            return 0;
+        }
+
+        final IGameLoop owner = ownerRef.get();
+        if (owner == null) {
+            log.error(Markers.GameLoopAoiManager, "the {} hasn't a owner yet.", GameLoopAoiManager.class.getSimpleName());
+            return 0;
+        }
+
+        //事件处理期间产生的新变化记录到另一个列表中，在下一帧投递
+        final List<Node> list = dirtyList;
+        dirtyList = flushingList;
+        flushingList = list;
+
+        flushing = true;
+        int count = 0;
+        try {
+            for (int i = 0; i < list.size(); i++) {
+                final Node node = list.get(i);
+                node.dirty = false;
+                if (node.removed || node.isPendingEmpty()) {
+                    node.clearPending();
+                    continue;
+                }
+
+                final IEntity entity = node.entity;
+                final List<IEntity> enteredList = toEntityList(node.enteredSet);
+                final List<IEntity> leftList = toEntityList(node.leftSet);
+                final List<IEntity> movedList = toEntityList(node.movedSet);
+                node.clearPending();
+
+                IGameLoopEventBusFunction.post(EventAoiInterestChangePost.class,
+                        () -> new EventAoiInterestChangePost(entity.getId(), entity.getCategory(), enteredList, leftList, movedList, owner))
+                        .apply(owner);
+                count++;
+            }
+        } finally {
+            list.clear();
+            flushing = false;
+        }
+
+        return count;
+    }
+
+    private void link(Node node, Node other) {
+        node.interestSet.add(other);
+        other.interestSet.add(node);
+        recordEntered(node, other);
+        recordEntered(other, node);
+    }
+
+    private void unlink(Node node, Node other) {
+        node.interestSet.remove(other);
+        other.interestSet.remove(node);
+        recordLeft(node, other);
+        recordLeft(other, node);
+    }
+
+    private void recordEntered(Node node, Node other) {
+        //本帧开始时就可见，只是中途离开后又回来了
+        if (node.leftSet.remove(other)) {
+            node.movedSet.add(other);
+        } else {
+            node.enteredSet.add(other);
+        }
+        markDirty(node);
+    }
+
+    private void recordLeft(Node node, Node other) {
+        //本帧开始时不可见，中途进入后又离开了，不需要通知
+        if (!node.enteredSet.remove(other)) {
+            node.movedSet.remove(other);
+            node.leftSet.add(other);
+        }
+        markDirty(node);
+    }
+
+    private void recordMoved(Node node, Node other) {
+        if (!node.enteredSet.contains(other)) {
+            node.movedSet.add(other);
+            markDirty(node);
+        }
+    }
+
+    private void markDirty(Node node) {
+        if (node.dirty || node.removed) {
+            return;
+        }
+
+        node.dirty = true;
+        dirtyList.add(node);
+        if (!flushScheduled) {
+            final IGameLoop owner = ownerRef.get();
+            if (owner != null) {
+                //投递成功后才标记，否则之后的修改永远不会再触发刷新
+                try {
+                    owner.execute(flushRunnable);
+                    flushScheduled = true;
+                } catch (RejectedExecutionException e) {
+                    log.error(Markers.GameLoopAoiManager, "schedule flush failed, gameLoopId:" + owner.getId(), e);
+                }
+            }
+        }
+    }
+
+    private void forEachCandidate(Node node, Consumer<Node> consumer) {
+        for (int cellX = node.cellX - 1; cellX <= node.cellX + 1; cellX++) {
+            for (int cellY = node.cellY - 1; cellY <= node.cellY + 1; cellY++) {
+                final List<Node> cell = cellMap.get(cellKey(cellX, cellY));
+                if (cell == null) {
+                    continue;
+                }
+
+                for (int i = 0; i < cell.size(); i++) {
+                    final Node other = cell.get(i);
+                    if (other != node) {
+                        consumer.accept(other);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean inView(Node node, Node other) {
+        final double dx = node.x - other.x;
+        final double dy = node.y - other.y;
+        return dx * dx + dy * dy <= viewRadiusSquare;
+    }
+
+    private void addToCell(Node node) {
+        node.cellX = cellX(node.x);
+        node.cellY = cellY(node.y);
+        final long key = cellKey(node.cellX, node.cellY);
+        List<Node> cell = cellMap.get(key);
+        if (cell == null) {
+            cell = new ArrayList<>(8);
+            cellMap.put(key, cell);
+        }
+
+        node.cellIndex = cell.size();
+        cell.add(node);
+    }
+
+    private void removeFromCell(Node node) {
+        final long key = cellKey(node.cellX, node.cellY);
+        final List<Node> cell = cellMap.get(key);
+        final int last = cell.size() - 1;
+        final Node lastNode = cell.remove(last);
+        if (lastNode != node) {
+            cell.set(node.cellIndex, lastNode);
+            lastNode.cellIndex = node.cellIndex;
+        }
+
+        if (cell.isEmpty()) {
+            cellMap.remove(key);
+        }
+    }
+
+    private int cellX(double x) {
+        return (int) Math.floor(x / viewRadius);
+    }
+
+    private int cellY(double y) {
+        return (int) Math.floor(y / viewRadius);
+    }
+
+    private static long cellKey(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xffffffffL);
+    }
+
+    private static IAoiPosition position(IEntity entity) {
+        final Optional<IAoiPosition> component = entity.getComponent(IAoiPosition.class);
+        if (component.isPresent()) {
+            return component.get();
+        }
+
+        return entity instanceof IAoiPosition ? (IAoiPosition) entity : null;
+    }
+
+    private static List<IEntity> toEntityList(Set<Node> nodeSet) {
+        if (nodeSet.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<IEntity> list = new ArrayList<>(nodeSet.size());
+        nodeSet.forEach(node -> list.add(node.entity));
+        return list;
+    }
+
+    private static Set<Node> newNodeSet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>(8));
+    }
+
+    private static final class Node {
+        private final IEntity entity;
+        private final IAoiPosition position;
+        private double x;
+        private double y;
+        private int cellX;
+        private int cellY;
+        private int cellIndex;
+        private boolean dirty;
+        private boolean removed;
+        /**
+         * 当前视野内的实体
+         */
+        private final Set<Node> interestSet = newNodeSet();
+        /**
+         * 本帧内的视野变化
+         */
+        private final Set<Node> enteredSet = newNodeSet();
+        private final Set<Node> leftSet = newNodeSet();
+        private final Set<Node> movedSet = newNodeSet();
+
+        private Node(IEntity entity, IAoiPosition position) {
+            this.entity = entity;
+            this.position = position;
+        }
+
+        private boolean isPendingEmpty() {
+            return enteredSet.isEmpty() && leftSet.isEmpty() && movedSet.isEmpty();
+        }
+
+        private void clearPending() {
+            enteredSet.clear();
+            leftSet.clear();
+            movedSet.clear();
+        }
+    }
+}
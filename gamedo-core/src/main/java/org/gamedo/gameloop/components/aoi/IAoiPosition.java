@@ -0,0 +1,13 @@
+package org.gamedo.gameloop.components.aoi;
+
+import org.gamedo.gameloop.components.aoi.interfaces.IGameLoopAoiManager;
+
+/**
+ * 实体在场景中的位置，实体本身实现该接口，或者以该接口为key添加一个实现了该接口的组件后，才能被{@link IGameLoopAoiManager}管理
+ */
+public interface IAoiPosition {
+
+    double getX();
+
+    double getY();
+}
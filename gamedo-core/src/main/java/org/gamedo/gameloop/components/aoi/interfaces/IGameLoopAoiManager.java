@@ -0,0 +1,90 @@
+package org.gamedo.gameloop.components.aoi.interfaces;
+
+import org.gamedo.ecs.interfaces.IComponent;
+import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.event.EventAoiInterestChangePost;
+import org.gamedo.gameloop.GameLoopConfig;
+import org.gamedo.gameloop.components.aoi.IAoiPosition;
+import org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.util.GamedoConfiguration;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * {@link IGameLoop}的视野管理组件，是一个可选组件，需要通过{@link GameLoopConfig#getComponentRegisters()}进行注册，它以边长为视野
+ * 半径（{@link GamedoConfiguration#getAoiViewRadius()}）的网格对拥有{@link IAoiPosition}的实体建立空间索引，并为每个实体维护其视野
+ * 集合（距离不超过视野半径的其他实体，是对称的），注册后：
+ * <ul>
+ * <li> 拥有{@link IAoiPosition}的实体注册到{@link IGameLoopEntityManager}时自动加入，反注册时自动移除
+ * <li> 实体的位置发生变化后，需要调用{@link IGameLoopAoiManager#moveEntity(IEntity)}更新索引，只需要检测周围9个网格，代价和周围实体
+ * 的数量成正比
+ * <li> 一帧（也即当前任务以及在此之前已经提交的任务）内发生的所有进入、离开和移动会被合并，在帧结束时为每个视野发生变化的实体投递一个
+ * {@link EventAoiInterestChangePost}事件
+ * </ul>
+ */
+public interface IGameLoopAoiManager extends IComponent<IGameLoop> {
+
+    /**
+     * 将实体加入到视野管理中
+     *
+     * @param entity 要加入的实体
+     * @return 加入成功返回true，如果已经加入过或者实体没有{@link IAoiPosition}，返回false
+     */
+    boolean addEntity(IEntity entity);
+
+    /**
+     * 将实体从视野管理中移除，原来能看到该实体的实体都会收到离开通知
+     *
+     * @param entity 要移除的实体
+     * @return 移除成功返回true，如果没有加入过，返回false
+     */
+    boolean removeEntity(IEntity entity);
+
+    /**
+     * 实体的{@link IAoiPosition}发生变化后调用，重新计算其视野
+     *
+     * @param entity 发生移动的实体
+     * @return 如果没有加入过，返回false
+     */
+    boolean moveEntity(IEntity entity);
+
+    /**
+     * 遍历实体视野内的所有其他实体，代价和视野内实体的数量成正比
+     *
+     * @param entity   要查询的实体
+     * @param consumer 视野内实体的消费者，遍历期间禁止修改视野
+     * @return 视野内实体的数量，如果没有加入过，返回0
+     */
+    int forEachNeighbor(IEntity entity, Consumer<IEntity> consumer);
+
+    /**
+     * @param entity 要查询的实体
+     * @return 实体视野内的所有其他实体的一个快照
+     */
+    List<IEntity> getNeighborList(IEntity entity);
+
+    /**
+     * 遍历某个圆形区域内的所有实体
+     *
+     * @param x        圆心x坐标
+     * @param y        圆心y坐标
+     * @param radius   半径
+     * @param consumer 区域内实体的消费者，遍历期间禁止修改视野
+     * @return 区域内实体的数量
+     */
+    int forEachInRange(double x, double y, double radius, Consumer<IEntity> consumer);
+
+    /**
+     * @return 视野管理中实体的数量
+     */
+    int getEntityCount();
+
+    /**
+     * 立即投递本帧内合并的所有视野变化事件，一般不需要手动调用，每一帧结束时会自动投递
+     *
+     * @return 投递的事件数量
+     */
+    int flush();
+}
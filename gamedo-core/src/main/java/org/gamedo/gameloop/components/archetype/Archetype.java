@@ -0,0 +1,168 @@
+package org.gamedo.gameloop.components.archetype;
+
+import org.gamedo.ecs.ComponentType;
+import org.gamedo.ecs.interfaces.IEntity;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 原型：拥有完全相同组件类型集合的实体被归为同一个原型，原型内按列存储组件：每种组件类型对应一个连续的数组（列），同一行上的组件属于同一
+ * 个实体，因此{@link IGameLoopSystem}可以按列顺序访问某种组件，而不需要逐个实体进行{@link IEntity#getComponent(Class)}查找，例如：
+ * <pre>
+ *     final Object[] hpColumn = archetype.getColumn(HP);
+ *     for (int i = 0; i &lt; archetype.size(); i++) {
+ *         ((IHp) hpColumn[i]).regenerate();
+ *     }
+ * </pre>
+ * 原型由{@link IGameLoopArchetypeManager}创建和维护，删除实体时，最后一行会被交换到被删除的行，因此行号并不稳定，使用者不应该缓存行号
+ */
+public class Archetype {
+    private static final Object[] EMPTY_COLUMN = new Object[0];
+
+    private final BitSet signature;
+    private final List<ComponentType<?>> componentTypeList;
+    /**
+     * 以{@link ComponentType#getId()}为下标，值为对应的列在{@link Archetype#columns}中的索引，-1表示不包含该组件类型
+     */
+    private final int[] columnIndexes;
+    private final Object[][] columns;
+    private IEntity[] entities;
+    private int size;
+
+    Archetype(BitSet signature, List<ComponentType<?>> componentTypeList) {
+        this.signature = signature;
+        this.componentTypeList = Collections.unmodifiableList(componentTypeList);
+
+        columnIndexes = new int[signature.length()];
+        Arrays.fill(columnIndexes, -1);
+        columns = new Object[componentTypeList.size()][];
+        for (int i = 0; i < componentTypeList.size(); i++) {
+            columnIndexes[componentTypeList.get(i).getId()] = i;
+            columns[i] = new Object[8];
+        }
+        entities = new IEntity[8];
+    }
+
+    /**
+     * @return 本原型内实体的数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return 本原型包含的组件类型列表
+     */
+    public List<ComponentType<?>> getComponentTypeList() {
+        return componentTypeList;
+    }
+
+    /**
+     * 检测本原型是否包含某种组件类型
+     *
+     * @param componentType 要检测的组件类型
+     * @return 包含时返回true
+     */
+    public boolean has(ComponentType<?> componentType) {
+        final int componentId = componentType.getId();
+        return componentId < columnIndexes.length && columnIndexes[componentId] >= 0;
+    }
+
+    /**
+     * 返回某种组件类型的列，有效区间为：[0, {@link Archetype#size()})
+     *
+     * @param componentType 组件类型
+     * @return 如果本原型不包含该组件类型，返回一个空数组
+     */
+    public Object[] getColumn(ComponentType<?> componentType) {
+        return has(componentType) ? columns[columnIndexes[componentType.getId()]] : EMPTY_COLUMN;
+    }
+
+    /**
+     * 返回某一行上某种类型的组件
+     *
+     * @param componentType 组件类型
+     * @param row           行号
+     * @param <T>           组件类型
+     * @return 如果本原型不包含该组件类型，返回null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ComponentType<T> componentType, int row) {
+        return has(componentType) ? (T) columns[columnIndexes[componentType.getId()]][row] : null;
+    }
+
+    /**
+     * 返回某一行上的实体
+     *
+     * @param row 行号
+     * @return 该行上的实体
+     */
+    public IEntity getEntity(int row) {
+        return entities[row];
+    }
+
+    BitSet getSignature() {
+        return signature;
+    }
+
+    /**
+     * 检测本原型是否包含required中的所有组件类型，并且不包含excluded中的任何组件类型
+     */
+    boolean matches(BitSet required, BitSet excluded) {
+        final BitSet bitSet = (BitSet) required.clone();
+        bitSet.andNot(signature);
+        return bitSet.isEmpty() && !signature.intersects(excluded);
+    }
+
+    /**
+     * 将实体加入到本原型的末尾
+     *
+     * @return 实体所在的行号
+     */
+    int add(IEntity entity) {
+        if (size == entities.length) {
+            final int capacity = size << 1;
+            entities = Arrays.copyOf(entities, capacity);
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = Arrays.copyOf(columns[i], capacity);
+            }
+        }
+
+        entities[size] = entity;
+        for (int i = 0; i < columns.length; i++) {
+            columns[i][size] = entity.getComponent(componentTypeList.get(i));
+        }
+
+        return size++;
+    }
+
+    /**
+     * 删除某一行，并将最后一行交换到该行
+     *
+     * @return 被交换到该行的实体，如果删除的就是最后一行，返回null
+     */
+    IEntity remove(int row) {
+        final int last = --size;
+        final IEntity moved = row != last ? entities[last] : null;
+
+        entities[row] = entities[last];
+        entities[last] = null;
+        for (final Object[] column : columns) {
+            column[row] = column[last];
+            column[last] = null;
+        }
+
+        return moved;
+    }
+
+    @Override
+    public String toString() {
+        return "Archetype{" +
+                "componentTypes=" + componentTypeList +
+                ", size=" + size +
+                '}';
+    }
+}
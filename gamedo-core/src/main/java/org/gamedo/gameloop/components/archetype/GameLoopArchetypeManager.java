@@ -0,0 +1,221 @@
+package org.gamedo.gameloop.components.archetype;
+
+import lombok.Value;
+import lombok.extern.log4j.Log4j2;
+import org.gamedo.ecs.ComponentType;
+import org.gamedo.ecs.GameLoopComponent;
+import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.gameloop.components.archetype.interfaces.IGameLoopArchetypeManager;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.logging.Markers;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+@Log4j2
+public class GameLoopArchetypeManager extends GameLoopComponent implements IGameLoopArchetypeManager {
+
+    private final Map<BitSet, Archetype> archetypeMap = new HashMap<>(32);
+    private final Map<IEntity, Location> entityLocationMap = new IdentityHashMap<>(1024);
+    private final Map<QueryKey, List<Archetype>> queryMap = new HashMap<>(16);
+    /**
+     * 系统执行的嵌套深度，大于0时，所有的结构性修改都被推迟
+     */
+    private int executingDepth;
+    private final List<Runnable> pendingList = new ArrayList<>(8);
+
+    public GameLoopArchetypeManager(IGameLoop owner) {
+        super(owner);
+    }
+
+    @Override
+    public boolean addEntity(IEntity entity) {
+        if (executingDepth > 0) {
+            pendingList.add(() -> addEntity(entity));
+            return true;
+        }
+
+        if (entityLocationMap.containsKey(entity)) {
+            log.error(Markers.GameLoopArchetypeManager, "the entity has added, entityId:{}", entity.getId());
+            return false;
+        }
+
+        final Archetype archetype = archetype(entity);
+        entityLocationMap.put(entity, new Location(archetype, archetype.add(entity)));
+
+        return true;
+    }
+
+    @Override
+    public boolean removeEntity(IEntity entity) {
+        if (executingDepth > 0) {
+            pendingList.add(() -> removeEntity(entity));
+            return true;
+        }
+
+        final Location location = entityLocationMap.remove(entity);
+        if (location == null) {
+            return false;
+        }
+
+        removeRow(location);
+
+        return true;
+    }
+
+    @Override
+    public boolean refreshEntity(IEntity entity) {
+        if (executingDepth > 0) {
+            pendingList.add(() -> refreshEntity(entity));
+            return true;
+        }
+
+        final Location location = entityLocationMap.get(entity);
+        if (location == null) {
+            return false;
+        }
+
+        //组件类型没有变化时，组件实例仍然可能被替换，因此总是重新加入
+        removeRow(location);
+        location.archetype = archetype(entity);
+        location.row = location.archetype.add(entity);
+
+        return true;
+    }
+
+    @Override
+    public Optional<Archetype> getArchetype(IEntity entity) {
+        return Optional.ofNullable(entityLocationMap.get(entity)).map(location -> location.archetype);
+    }
+
+    @Override
+    public List<Archetype> getArchetypeList(List<ComponentType<?>> required, List<ComponentType<?>> excluded) {
+        final QueryKey queryKey = new QueryKey(signature(required), signature(excluded));
+        return Collections.unmodifiableList(queryMap.computeIfAbsent(queryKey, key -> {
+            final List<Archetype> list = new ArrayList<>(4);
+            archetypeMap.values().stream()
+                    .filter(archetype -> archetype.matches(key.required, key.excluded))
+                    .forEach(list::add);
+            return list;
+        }));
+    }
+
+    @Override
+    public int execute(IGameLoopSystem system) {
+        final List<Archetype> archetypeList = getArchetypeList(system.getRequiredTypes(), system.getExcludedTypes());
+        int count = 0;
+
+        executingDepth++;
+        try {
+            for (int i = 0; i < archetypeList.size(); i++) {
+                final Archetype archetype = archetypeList.get(i);
+                if (archetype.size() > 0) {
+                    count += archetype.size();
+                    system.execute(archetype);
+                }
+            }
+        } finally {
+            if (--executingDepth == 0) {
+                drainPending();
+            }
+        }
+
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <A> int forEach(ComponentType<A> componentType, Consumer<A> consumer) {
+        return execute(new IGameLoopSystem() {
+            @Override
+            public List<ComponentType<?>> getRequiredTypes() {
+                return List.of(componentType);
+            }
+
+            @Override
+            public void execute(Archetype archetype) {
+                final Object[] column = archetype.getColumn(componentType);
+                for (int i = 0; i < archetype.size(); i++) {
+                    consumer.accept((A) column[i]);
+                }
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <A, B> int forEach(ComponentType<A> componentTypeA, ComponentType<B> componentTypeB, BiConsumer<A, B> consumer) {
+        return execute(new IGameLoopSystem() {
+            @Override
+            public List<ComponentType<?>> getRequiredTypes() {
+                return List.of(componentTypeA, componentTypeB);
+            }
+
+            @Override
+            public void execute(Archetype archetype) {
+                final Object[] columnA = archetype.getColumn(componentTypeA);
+                final Object[] columnB = archetype.getColumn(componentTypeB);
+                for (int i = 0; i < archetype.size(); i++) {
+                    consumer.accept((A) columnA[i], (B) columnB[i]);
+                }
+            }
+        });
+    }
+
+    private void drainPending() {
+        while (!pendingList.isEmpty()) {
+            final List<Runnable> list = new ArrayList<>(pendingList);
+            pendingList.clear();
+            list.forEach(Runnable::run);
+        }
+    }
+
+    private void removeRow(Location location) {
+        final IEntity moved = location.archetype.remove(location.row);
+        if (moved != null) {
+            entityLocationMap.get(moved).row = location.row;
+        }
+    }
+
+    private Archetype archetype(IEntity entity) {
+        final List<ComponentType<?>> componentTypeList = new ArrayList<>(entity.getComponentMap().size());
+        entity.getComponentMap().keySet().forEach(clazz -> componentTypeList.add(ComponentType.of(clazz)));
+        componentTypeList.sort(Comparator.comparingInt(ComponentType::getId));
+
+        final BitSet signature = signature(componentTypeList);
+        return archetypeMap.computeIfAbsent(signature, key -> {
+            final Archetype archetype = new Archetype(key, componentTypeList);
+            queryMap.forEach((queryKey, list) -> {
+                if (archetype.matches(queryKey.required, queryKey.excluded)) {
+                    list.add(archetype);
+                }
+            });
+
+            log.debug(Markers.GameLoopArchetypeManager, "new archetype:{}", archetype);
+            return archetype;
+        });
+    }
+
+    private static BitSet signature(List<ComponentType<?>> componentTypeList) {
+        final BitSet bitSet = new BitSet();
+        componentTypeList.forEach(componentType -> bitSet.set(componentType.getId()));
+        return bitSet;
+    }
+
+    private static final class Location {
+        private Archetype archetype;
+        private int row;
+
+        private Location(Archetype archetype, int row) {
+            this.archetype = archetype;
+            this.row = row;
+        }
+    }
+
+    @Value
+    private static class QueryKey {
+        BitSet required;
+        BitSet excluded;
+    }
+}
@@ -0,0 +1,47 @@
+package org.gamedo.gameloop.components.archetype;
+
+import org.gamedo.ecs.ComponentType;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 系统：对同时拥有某些组件类型的所有实体执行批量逻辑（例如为所有怪物回血），系统由{@link IGameLoopArchetypeManager#execute(IGameLoopSystem)}
+ * 驱动，按原型依次调用{@link IGameLoopSystem#execute(Archetype)}，系统内部应该按列遍历组件，例如：
+ * <pre>
+ * public class RegenerateSystem implements IGameLoopSystem {
+ *     public List&lt;ComponentType&lt;?&gt;&gt; getRequiredTypes() {
+ *         return List.of(HP);
+ *     }
+ *
+ *     public void execute(Archetype archetype) {
+ *         final Object[] hpColumn = archetype.getColumn(HP);
+ *         for (int i = 0; i &lt; archetype.size(); i++) {
+ *             ((IHp) hpColumn[i]).regenerate();
+ *         }
+ *     }
+ * }
+ * </pre>
+ * 系统执行期间对实体的增删以及组件的增删都会被推迟到本次执行结束后再生效
+ */
+public interface IGameLoopSystem {
+
+    /**
+     * @return 实体必须拥有的组件类型
+     */
+    List<ComponentType<?>> getRequiredTypes();
+
+    /**
+     * @return 实体不能拥有的组件类型
+     */
+    default List<ComponentType<?>> getExcludedTypes() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * 处理一个匹配的原型，只有非空的原型才会被处理
+     *
+     * @param archetype 要处理的原型
+     */
+    void execute(Archetype archetype);
+}
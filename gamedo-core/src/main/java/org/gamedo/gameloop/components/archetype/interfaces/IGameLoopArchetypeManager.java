@@ -0,0 +1,99 @@
+package org.gamedo.gameloop.components.archetype.interfaces;
+
+import org.gamedo.ecs.ComponentType;
+import org.gamedo.ecs.interfaces.IComponent;
+import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.gameloop.GameLoopConfig;
+import org.gamedo.gameloop.components.archetype.Archetype;
+import org.gamedo.gameloop.components.archetype.IGameLoopSystem;
+import org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * {@link IGameLoop}的原型管理组件，是一个可选组件，需要通过{@link GameLoopConfig#getComponentRegisters()}进行注册，注册后：
+ * <ul>
+ * <li> 实体注册到{@link IGameLoopEntityManager}时，会按照其组件类型的集合归入对应的{@link Archetype 原型}，反注册时从原型中移除
+ * <li> 已注册实体的组件发生增删时，会自动迁移到新的原型
+ * <li> 可以通过{@link IGameLoopArchetypeManager#execute(IGameLoopSystem)}对匹配的原型进行批量处理
+ * </ul>
+ * 原型存储只是实体的另一种组织方式，和原有的实体、组件模型共存，实体和组件本身不受影响
+ */
+public interface IGameLoopArchetypeManager extends IComponent<IGameLoop> {
+
+    /**
+     * 将实体加入到对应的原型中
+     *
+     * @param entity 要加入的实体
+     * @return 加入成功返回true，如果已经加入过，返回false
+     */
+    boolean addEntity(IEntity entity);
+
+    /**
+     * 将实体从原型中移除
+     *
+     * @param entity 要移除的实体
+     * @return 移除成功返回true，如果没有加入过，返回false
+     */
+    boolean removeEntity(IEntity entity);
+
+    /**
+     * 实体的组件发生变化后，将其迁移到新的原型中
+     *
+     * @param entity 要刷新的实体
+     * @return 刷新成功返回true，如果没有加入过，返回false
+     */
+    boolean refreshEntity(IEntity entity);
+
+    /**
+     * 返回实体所在的原型
+     *
+     * @param entity 要查询的实体
+     * @return 如果没有加入过，返回{@link Optional#empty()}
+     */
+    Optional<Archetype> getArchetype(IEntity entity);
+
+    /**
+     * 返回所有包含required中所有组件类型、且不包含excluded中任何组件类型的原型（包括空的原型），返回的列表会被缓存并随着新原型的创建而
+     * 增量更新，禁止修改
+     *
+     * @param required 必须包含的组件类型
+     * @param excluded 不能包含的组件类型
+     * @return 匹配的原型列表
+     */
+    List<Archetype> getArchetypeList(List<ComponentType<?>> required, List<ComponentType<?>> excluded);
+
+    /**
+     * 对所有匹配的非空原型执行系统，执行期间对实体和组件的结构性修改会被推迟到执行结束后生效
+     *
+     * @param system 要执行的系统
+     * @return 本次处理的实体的数量
+     */
+    int execute(IGameLoopSystem system);
+
+    /**
+     * 遍历所有拥有某种组件的实体的该组件
+     *
+     * @param componentType 组件类型
+     * @param consumer      组件的消费者
+     * @param <A>           组件类型
+     * @return 本次处理的实体的数量
+     */
+    <A> int forEach(ComponentType<A> componentType, Consumer<A> consumer);
+
+    /**
+     * 遍历所有同时拥有两种组件的实体的这两个组件
+     *
+     * @param componentTypeA 组件类型A
+     * @param componentTypeB 组件类型B
+     * @param consumer       组件的消费者
+     * @param <A>            组件类型A
+     * @param <B>            组件类型B
+     * @return 本次处理的实体的数量
+     */
+    <A, B> int forEach(ComponentType<A> componentTypeA, ComponentType<B> componentTypeB, BiConsumer<A, B> consumer);
+}
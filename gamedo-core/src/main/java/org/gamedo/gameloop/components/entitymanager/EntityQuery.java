@@ -0,0 +1,108 @@
+package org.gamedo.gameloop.components.entitymanager;
+
+import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager;
+import org.gamedo.util.function.EntityPredicate;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * 实体查询视图，由{@link IGameLoopEntityManager#query(Collection, Collection)}或者
+ * {@link IGameLoopEntityManager#query(EntityPredicate)}创建，视图中维护了所有满足条件的已注册实体，并在实体注册、反注册以及组件增删
+ * 时增量地更新，因此每次心跳时只需要直接遍历{@link EntityQuery#getEntityList()}，而不需要对所有实体重新进行过滤<p>
+ * 需要注意的是：
+ * <ul>
+ * <li> 视图只能在所属的{@link org.gamedo.gameloop.interfaces.IGameLoop}线程内访问
+ * <li> 删除实体时，最后一个实体会被交换到被删除的位置，因此视图内实体的顺序是不稳定的
+ * <li> 如果在遍历期间可能会注册、反注册实体或者增删组件，应该使用{@link EntityQuery#forEach(Consumer)}，它遍历的是一个快照
+ * <li> 不再使用的视图应该调用{@link IGameLoopEntityManager#closeQuery(EntityQuery)}关闭，否则会一直被维护，相同条件的查询共享同一个
+ * 视图，每获取一次都需要对应地关闭一次，最后一次关闭时视图才会被清空
+ * </ul>
+ *
+ * @param <T> 实体类型
+ */
+public class EntityQuery<T extends IEntity> {
+    /**
+     * 在{@link IGameLoopEntityManager}中的键，相同条件的查询共享同一个视图
+     */
+    final Object key;
+    private final EntityPredicate<IEntity> predicate;
+    private final List<T> entityList = new ArrayList<>(16);
+    private final Map<IEntity, Integer> entityIndexMap = new IdentityHashMap<>(16);
+    private final List<T> entityListView = Collections.unmodifiableList(entityList);
+    /**
+     * 视图被创建（或者再次获取）但还未关闭的次数
+     */
+    int refCount;
+
+    EntityQuery(Object key, EntityPredicate<IEntity> predicate) {
+        this.key = key;
+        this.predicate = predicate;
+    }
+
+    /**
+     * @return 所有满足条件的实体，是一个无法修改的实时镜像
+     */
+    public List<T> getEntityList() {
+        return entityListView;
+    }
+
+    public int size() {
+        return entityList.size();
+    }
+
+    public boolean contains(IEntity entity) {
+        return entityIndexMap.containsKey(entity);
+    }
+
+    /**
+     * 遍历当前所有满足条件的实体，遍历期间对视图的修改不影响本次遍历
+     *
+     * @param consumer 实体的消费者
+     */
+    public void forEach(Consumer<? super T> consumer) {
+        new ArrayList<>(entityList).forEach(consumer);
+    }
+
+    /**
+     * 重新检测实体是否满足条件，并更新视图
+     */
+    @SuppressWarnings("unchecked")
+    void update(IEntity entity) {
+        final boolean matched = predicate.apply(entity);
+        final boolean contained = entityIndexMap.containsKey(entity);
+        if (matched && !contained) {
+            entityIndexMap.put(entity, entityList.size());
+            entityList.add((T) entity);
+        } else if (!matched && contained) {
+            remove(entity);
+        }
+    }
+
+    void remove(IEntity entity) {
+        final Integer index = entityIndexMap.remove(entity);
+        if (index == null) {
+            return;
+        }
+
+        final int last = entityList.size() - 1;
+        final T lastEntity = entityList.remove(last);
+        if (index != last) {
+            entityList.set(index, lastEntity);
+            entityIndexMap.put(lastEntity, index);
+        }
+    }
+
+    void clear() {
+        entityList.clear();
+        entityIndexMap.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "EntityQuery{" +
+                "size=" + entityList.size() +
+                '}';
+    }
+}
@@ -5,34 +5,64 @@ import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.binder.BaseUnits;
 import lombok.extern.log4j.Log4j2;
+import org.gamedo.ecs.DirtySnapshot;
 import org.gamedo.ecs.GameLoopComponent;
 import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.ecs.interfaces.ILongIdentity;
+import org.gamedo.ecs.interfaces.IPoolable;
+import org.gamedo.gameloop.GameLoopMailbox;
 import org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager;
+import org.gamedo.event.EventAddComponentPost;
 import org.gamedo.event.EventRegisterEntityPost;
 import org.gamedo.event.EventRegisterEntityPre;
 import org.gamedo.event.EventUnregisterEntityPost;
+import org.gamedo.event.EventRemoveComponentPost;
 import org.gamedo.event.EventUnregisterEntityPre;
 import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.gameloop.jfr.EntityRegisterJfrEvent;
+import org.gamedo.gameloop.jfr.EntityUnregisterJfrEvent;
 import org.gamedo.logging.GamedoLogContext;
 import org.gamedo.logging.Markers;
 import org.gamedo.util.GamedoConfiguration;
+import org.gamedo.util.LongObjectMap;
 import org.gamedo.util.Metric;
 import org.gamedo.util.Pair;
+import org.gamedo.util.function.EntityPredicate;
 import org.gamedo.util.function.GameLoopFunction;
+import org.gamedo.util.function.IGameLoopAoiManagerFunction;
+import org.gamedo.util.function.IGameLoopArchetypeManagerFunction;
+import org.gamedo.util.function.IGameLoopEntityPoolFunction;
+import org.gamedo.util.function.IGameLoopEntityTieringFunction;
 import org.gamedo.util.function.IGameLoopEventBusFunction;
 import org.gamedo.util.function.IGameLoopSchedulerFunction;
 import org.gamedo.util.function.IGameLoopTickManagerFunction;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 @Log4j2
 public class GameLoopEntityManager extends GameLoopComponent implements IGameLoopEntityManager {
     public static final Function<String, Map<String, IEntity>> entityMapFunction = category -> new HashMap<>(128);
+    public static final Function<String, LongObjectMap<IEntity>> longEntityMapFunction = category -> new LongObjectMap<>(128);
     private final Map<String, Map<String, IEntity>> entityCategoryMap = new HashMap<>(4);
+    /**
+     * {@link ILongIdentity}实体按照数值Id建立的索引，和{@link GameLoopEntityManager#entityCategoryMap}保持一致
+     */
+    private final Map<String, LongObjectMap<IEntity>> longEntityCategoryMap = new HashMap<>(4);
     private final Map<String, Pair<AtomicLong, Gauge>> entityClazzGaugeMap = new HashMap<>(4);
+    /**
+     * key为查询条件：组件查询时为{@link Pair}(required, excluded)，谓词查询时为谓词本身
+     */
+    private final Map<Object, EntityQuery<?>> queryMap = new HashMap<>(8);
+    /**
+     * 已修改的实体，和{@link GameLoopEntityManager#drainingList}交替使用
+     */
+    private List<IEntity> dirtyList = new ArrayList<>(64);
+    private List<IEntity> drainingList = new ArrayList<>(64);
 
     public GameLoopEntityManager(IGameLoop owner) {
         super(owner);
@@ -40,6 +70,20 @@ public class GameLoopEntityManager extends GameLoopComponent implements IGameLoo
 
     @Override
     public <T extends IEntity> boolean registerEntity(T entity) {
+        final EntityRegisterJfrEvent jfrEvent = new EntityRegisterJfrEvent();
+        jfrEvent.begin();
+        final boolean success = doRegisterEntity(entity);
+        if (jfrEvent.shouldCommit()) {
+            jfrEvent.set(ownerRef.get(), entity, null);
+            jfrEvent.category = entity.getCategory();
+            jfrEvent.success = success;
+            jfrEvent.commit();
+        }
+
+        return success;
+    }
+
+    private <T extends IEntity> boolean doRegisterEntity(T entity) {
 
         final String entityId = entity.getId();
         try(final GamedoLogContext.CloseableEntityId ignored = GamedoLogContext.pushEntityIdAuto(entityId)) {
@@ -59,41 +103,58 @@ public class GameLoopEntityManager extends GameLoopComponent implements IGameLoo
             }
 
             //1 首先注册IEntity的事件监听
-            owner.submit(IGameLoopEventBusFunction.register(entity));
+            invoke(owner, IGameLoopEventBusFunction.register(entity));
             //1.1 注册组件的事件监听
             entity.getComponentMap().values()
                     .stream()
                     .distinct()
-                    .forEach(component -> owner.submit(IGameLoopEventBusFunction.register(component)));
+                    .forEach(component -> invoke(owner, IGameLoopEventBusFunction.register(component)));
 
             //2 触发Pre事件
             final Supplier<EventRegisterEntityPre> eventRegisterEntityPre = () -> new EventRegisterEntityPre(entityId, category, owner);
             final GameLoopFunction<Integer> eventPreFunction = IGameLoopEventBusFunction.post(EventRegisterEntityPre.class, eventRegisterEntityPre);
-            owner.submit(eventPreFunction);
+            invoke(owner, eventPreFunction);
 
             //3 注册IEntity的@Cron方法
-            owner.submit(IGameLoopSchedulerFunction.register(entity));
+            invoke(owner, IGameLoopSchedulerFunction.register(entity));
             //3.1 注册组件的@Cron方法
             entity.getComponentMap().values()
                     .stream()
                     .distinct()
-                    .forEach(component -> owner.submit(IGameLoopSchedulerFunction.register(component)));
+                    .forEach(component -> invoke(owner, IGameLoopSchedulerFunction.register(component)));
 
             //4 注册IEntity的@Tick方法
-            owner.submit(IGameLoopTickManagerFunction.register(entity));
+            invoke(owner, IGameLoopTickManagerFunction.register(entity));
             //4.1 注册组件的@Tick方法
             entity.getComponentMap().values()
                     .stream()
                     .distinct()
-                    .forEach(component -> owner.submit(IGameLoopTickManagerFunction.register(component)));
+                    .forEach(component -> invoke(owner, IGameLoopTickManagerFunction.register(component)));
 
             //5 加入管理
             entityMap.put(entityId, entity);
+            if (entity instanceof ILongIdentity) {
+                longEntityCategoryMap.computeIfAbsent(category, longEntityMapFunction).put(((ILongIdentity) entity).getLongId(), entity);
+            }
+            //5.1 加入原型管理（如果有）
+            invoke(owner, IGameLoopArchetypeManagerFunction.addEntity(entity));
+            //5.2 加入视野管理（如果有）
+            invoke(owner, IGameLoopAoiManagerFunction.addEntity(entity));
+            //5.3 加入冷热分层管理（如果有）
+            invoke(owner, IGameLoopEntityTieringFunction.addEntity(entity));
+            //5.4 创建实体邮箱
+            owner.getComponent(GameLoopMailbox.class).ifPresent(mailbox -> mailbox.addEntity(entity));
+            //5.5 更新查询视图
+            queryMap.values().forEach(query -> query.update(entity));
+            //5.6 注册前就已经被修改过
+            if (entity.isDirty()) {
+                dirtyList.add(entity);
+            }
 
             //6 触发Post事件
             final Supplier<EventRegisterEntityPost> eventRegisterEntityPost = () -> new EventRegisterEntityPost(entityId, category, owner);
             final GameLoopFunction<Integer> eventPostFunction = IGameLoopEventBusFunction.post(EventRegisterEntityPost.class, eventRegisterEntityPost);
-            owner.submit(eventPostFunction);
+            invoke(owner, eventPostFunction);
 
             log.debug(Markers.GameLoopEntityManager, "register finish, entityId:{}", () -> entityId);
 
@@ -116,6 +177,9 @@ public class GameLoopEntityManager extends GameLoopComponent implements IGameLoo
             return Optional.empty();
         }
 
+        final EntityUnregisterJfrEvent jfrEvent = new EntityUnregisterJfrEvent();
+        jfrEvent.begin();
+
         final IGameLoop owner = ownerRef.get();
         if (owner == null) {
             log.error(Markers.GameLoopEntityManager, "the {} hasn't a owner yet.", GameLoopEntityManager.class.getSimpleName());
@@ -125,45 +189,86 @@ public class GameLoopEntityManager extends GameLoopComponent implements IGameLoo
         //1 触发Pre事件
         final Supplier<EventUnregisterEntityPre> eventUnregisterEntityPre = () -> new EventUnregisterEntityPre(entityId, category.get(), owner);
         final GameLoopFunction<Integer> eventPreFunction = IGameLoopEventBusFunction.post(EventUnregisterEntityPre.class, eventUnregisterEntityPre);
-        owner.submit(eventPreFunction);
+        invoke(owner, eventPreFunction);
 
         //2 反注册组件的@Tick函数
         entity.getComponentMap().values()
                 .stream()
                 .distinct()
-                .forEach(component -> owner.submit(IGameLoopTickManagerFunction.unregister(component)));
+                .forEach(component -> invoke(owner, IGameLoopTickManagerFunction.unregister(component)));
         //2.1 反注册IEntity的@Tick函数
-        owner.submit(IGameLoopTickManagerFunction.unregister(entity));
+        invoke(owner, IGameLoopTickManagerFunction.unregister(entity));
 
         //3 反注册组件的@Cron函数
         entity.getComponentMap().values()
                 .stream()
                 .distinct()
-                .forEach(component -> owner.submit(IGameLoopSchedulerFunction.unregister(component.getClass())));
+                .forEach(component -> invoke(owner, IGameLoopSchedulerFunction.unregister(component.getClass())));
         //3.1 反注册IEntity的@Cron函数
-        owner.submit(IGameLoopSchedulerFunction.unregister(entity.getClass()));
+        invoke(owner, IGameLoopSchedulerFunction.unregister(entity.getClass()));
 
         //4 然后移除管理
         entityMap.remove(entityId);
+        if (entity instanceof ILongIdentity) {
+            longEntityCategoryMap.computeIfAbsent(category.get(), longEntityMapFunction).remove(((ILongIdentity) entity).getLongId());
+        }
+        //4.1 移除原型管理（如果有）
+        invoke(owner, IGameLoopArchetypeManagerFunction.removeEntity(entity));
+        //4.2 移除视野管理（如果有）
+        invoke(owner, IGameLoopAoiManagerFunction.removeEntity(entity));
+        //4.3 移除冷热分层管理（如果有）
+        invoke(owner, IGameLoopEntityTieringFunction.removeEntity(entity));
+        //4.4 销毁实体邮箱
+        owner.getComponent(GameLoopMailbox.class).ifPresent(mailbox -> mailbox.removeEntity(entity));
+        //4.5 更新查询视图
+        queryMap.values().forEach(query -> query.remove(entity));
 
         //5 再触发post事件
         final Supplier<EventUnregisterEntityPost> eventUnregisterEntityPost = () -> new EventUnregisterEntityPost(entityId, category.get(), owner);
         final GameLoopFunction<Integer> eventPostFunction = IGameLoopEventBusFunction.post(EventUnregisterEntityPost.class, eventUnregisterEntityPost);
-        owner.submit(eventPostFunction);
+        invoke(owner, eventPostFunction);
 
         //6 最后反注册组件的事件监听
         entity.getComponentMap().values()
                 .stream()
                 .distinct()
-                .forEach(component -> owner.submit(IGameLoopEventBusFunction.unregister(component)));
+                .forEach(component -> invoke(owner, IGameLoopEventBusFunction.unregister(component)));
         //6.1 反注册IEntity的事件监听
-        owner.submit(IGameLoopEventBusFunction.unregister(entity));
+        invoke(owner, IGameLoopEventBusFunction.unregister(entity));
 
         metricGauge(category);
 
+        if (jfrEvent.shouldCommit()) {
+            jfrEvent.set(owner, entity, null);
+            jfrEvent.category = entity.getCategory();
+            jfrEvent.commit();
+        }
+
         return Optional.of((T) entity);
     }
 
+    @Override
+    public <T extends IEntity> Optional<T> unregisterEntity(long entityId, Supplier<String> category) {
+        final IEntity entity = longEntityCategoryMap.computeIfAbsent(category.get(), longEntityMapFunction).get(entityId);
+        return entity == null ? Optional.empty() : unregisterEntity(entity.getId(), category);
+    }
+
+    @Override
+    public boolean recycleEntity(String entityId, Supplier<String> category) {
+        final Optional<IEntity> entity = unregisterEntity(entityId, category);
+        if (entity.isEmpty()) {
+            return false;
+        }
+
+        if (!(entity.get() instanceof IPoolable)) {
+            log.warn(Markers.GameLoopEntityManager, "the entity isn't a {}, entityId:{}", IPoolable.class.getSimpleName(), entityId);
+            return false;
+        }
+
+        final IGameLoop owner = ownerRef.get();
+        return owner != null && IGameLoopEntityPoolFunction.release((IPoolable) entity.get()).apply(owner);
+    }
+
     public boolean hasEntity(String entityId, Supplier<String> category) {
         return entityCategoryMap.computeIfAbsent(category.get(), entityMapFunction).containsKey(entityId);
     }
@@ -171,7 +276,58 @@ public class GameLoopEntityManager extends GameLoopComponent implements IGameLoo
     @SuppressWarnings("unchecked")
     @Override
     public <T extends IEntity> Optional<T> getEntity(String entityId, Supplier<String> category) {
-        return Optional.ofNullable((T) entityCategoryMap.computeIfAbsent(category.get(), entityMapFunction).get(entityId));
+        final IEntity entity = entityCategoryMap.computeIfAbsent(category.get(), entityMapFunction).get(entityId);
+        return entity != null ? Optional.of((T) touch(entity)) : Optional.empty();
+    }
+
+    @Override
+    public boolean hasEntity(long entityId, Supplier<String> category) {
+        return longEntityCategoryMap.computeIfAbsent(category.get(), longEntityMapFunction).containsKey(entityId);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T extends IEntity> Optional<T> getEntity(long entityId, Supplier<String> category) {
+        final IEntity entity = longEntityCategoryMap.computeIfAbsent(category.get(), longEntityMapFunction).get(entityId);
+        return entity != null ? Optional.of((T) touch(entity)) : Optional.empty();
+    }
+
+    @Override
+    public <T extends IEntity> Optional<T> getOrReload(String entityId, Supplier<String> category) {
+        final Optional<T> entity = getEntity(entityId, category);
+        return entity.isPresent() ? entity : reload(entityId, category.get());
+    }
+
+    @Override
+    public <T extends IEntity> Optional<T> getOrReload(long entityId, Supplier<String> category) {
+        final Optional<T> entity = getEntity(entityId, category);
+        return entity.isPresent() ? entity : reload(Long.toString(entityId), category.get());
+    }
+
+    private IEntity touch(IEntity entity) {
+        final IGameLoop owner = ownerRef.get();
+        if (owner != null) {
+            invoke(owner, IGameLoopEntityTieringFunction.touch(entity));
+        }
+
+        return entity;
+    }
+
+    /**
+     * 实体不在管理中时，尝试从冷存储中加载（如果有{@link org.gamedo.gameloop.components.tiering.interfaces.IGameLoopEntityTiering}组件）
+     */
+    private <T extends IEntity> Optional<T> reload(String entityId, String category) {
+        final IGameLoop owner = ownerRef.get();
+        if (owner == null) {
+            return Optional.empty();
+        }
+
+        try {
+            return IGameLoopEntityTieringFunction.<T>reload(entityId, category).apply(owner);
+        } catch (Throwable t) {
+            log.error(Markers.GameLoopEntityManager, "exception caught when reload, entityId:" + entityId, t);
+            return Optional.empty();
+        }
     }
 
     @Override
@@ -184,6 +340,153 @@ public class GameLoopEntityManager extends GameLoopComponent implements IGameLoo
         return Collections.unmodifiableMap(entityCategoryMap.computeIfAbsent(category.get(), entityMapFunction));
     }
 
+    @Override
+    public int forEachEntity(Consumer<IEntity> consumer) {
+        int count = 0;
+        for (final Map<String, IEntity> entityMap : entityCategoryMap.values()) {
+            for (final IEntity entity : entityMap.values()) {
+                consumer.accept(entity);
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public <T extends IEntity> EntityQuery<T> query(Collection<Class<?>> required, Collection<Class<?>> excluded) {
+        final Set<Class<?>> requiredSet = Set.copyOf(required);
+        final Set<Class<?>> excludedSet = Set.copyOf(excluded);
+        return query(Pair.of(requiredSet, excludedSet), entity ->
+                requiredSet.stream().allMatch(entity::hasComponent) && excludedSet.stream().noneMatch(entity::hasComponent));
+    }
+
+    @Override
+    public <T extends IEntity> EntityQuery<T> query(EntityPredicate<IEntity> predicate) {
+        return query(predicate, predicate);
+    }
+
+    @Override
+    public boolean closeQuery(EntityQuery<?> query) {
+        if (query.refCount <= 0 || queryMap.get(query.key) != query) {
+            return false;
+        }
+
+        //视图被多个持有者共享，只有最后一个持有者关闭时才真正移除并清空
+        if (--query.refCount == 0) {
+            queryMap.remove(query.key);
+            query.clear();
+        }
+
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends IEntity> EntityQuery<T> query(Object key, EntityPredicate<IEntity> predicate) {
+        final EntityQuery<T> entityQuery = (EntityQuery<T>) queryMap.computeIfAbsent(key, k -> {
+            final EntityQuery<T> query = new EntityQuery<>(k, predicate);
+            entityCategoryMap.values().forEach(entityMap -> entityMap.values().forEach(query::update));
+            return query;
+        });
+        entityQuery.refCount++;
+        return entityQuery;
+    }
+
+    @Override
+    public boolean componentChanged(IEntity entity, Class<?> componentClazz, boolean added) {
+
+        final String entityId = entity.getId();
+        final String category = entity.getCategory();
+        final Map<String, IEntity> entityMap = entityCategoryMap.get(category);
+        if (entityMap == null || entityMap.get(entityId) != entity) {
+            return false;
+        }
+
+        final IGameLoop owner = ownerRef.get();
+        if (owner == null) {
+            log.error(Markers.GameLoopEntityManager, "the {} hasn't a owner yet.", GameLoopEntityManager.class.getSimpleName());
+            return false;
+        }
+
+        invoke(owner, IGameLoopArchetypeManagerFunction.refreshEntity(entity));
+        queryMap.values().forEach(query -> query.update(entity));
+
+        if (added) {
+            final Supplier<EventAddComponentPost> eventAddComponentPost = () -> new EventAddComponentPost(entityId, category, componentClazz, owner);
+            invoke(owner, IGameLoopEventBusFunction.post(EventAddComponentPost.class, eventAddComponentPost));
+        } else {
+            final Supplier<EventRemoveComponentPost> eventRemoveComponentPost = () -> new EventRemoveComponentPost(entityId, category, componentClazz, owner);
+            invoke(owner, IGameLoopEventBusFunction.post(EventRemoveComponentPost.class, eventRemoveComponentPost));
+        }
+
+        return true;
+    }
+
+    /**
+     * 注册和反注册都在{@link IGameLoop}线程内进行，因此各个步骤直接执行即可，相比于{@link IGameLoop#submit}不需要为每一步都构造一个
+     * {@link java.util.concurrent.CompletableFuture}
+     */
+    private static <R> void invoke(IGameLoop owner, GameLoopFunction<R> function) {
+        try {
+            function.apply(owner);
+        } catch (Throwable t) {
+            log.error(Markers.GameLoopEntityManager, "exception caught, function:" + function, t);
+        }
+    }
+
+    @Override
+    public boolean markDirty(IEntity entity) {
+        if (!isRegistered(entity)) {
+            return false;
+        }
+
+        dirtyList.add(entity);
+        return true;
+    }
+
+    @Override
+    public int drainDirty(BiConsumer<IEntity, DirtySnapshot> consumer) {
+        //处理期间新产生的修改记录到另一个列表中，在下一次处理
+        final List<IEntity> list = dirtyList;
+        dirtyList = drainingList;
+        drainingList = list;
+
+        int count = 0;
+        try {
+            for (int i = 0; i < list.size(); i++) {
+                final IEntity entity = list.get(i);
+                //已经反注册的实体，或者同一个实体被重复加入（反注册后又重新注册）
+                if (!entity.isDirty() || !isRegistered(entity)) {
+                    continue;
+                }
+
+                //先清除修改标记再交给消费者，消费者内部产生的新修改会重新加入到dirtyList中
+                final DirtySnapshot dirty = DirtySnapshot.take(entity);
+                try (final GamedoLogContext.CloseableEntityId ignored = GamedoLogContext.pushEntityIdAuto(entity.getId())) {
+                    consumer.accept(entity, dirty);
+                } catch (Exception e) {
+                    log.error(Markers.GameLoopEntityManager, "exception caught when drain dirty, entityId:" + entity.getId(), e);
+                    dirty.restore(entity);
+                }
+                count++;
+            }
+        } finally {
+            list.clear();
+        }
+
+        return count;
+    }
+
+    @Override
+    public int getDirtyCount() {
+        return dirtyList.size();
+    }
+
+    private boolean isRegistered(IEntity entity) {
+        final Map<String, IEntity> entityMap = entityCategoryMap.get(entity.getCategory());
+        return entityMap != null && entityMap.get(entity.getId()) == entity;
+    }
+
     private void metricGauge(Supplier<String> entityClazz) {
         final IGameLoop owner = ownerRef.get();
         if (owner == null) {
@@ -1,13 +1,22 @@
 package org.gamedo.gameloop.components.entitymanager.interfaces;
 
+import org.gamedo.ecs.DirtySnapshot;
 import org.gamedo.ecs.interfaces.IComponent;
 import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.ecs.interfaces.ILongIdentity;
+import org.gamedo.event.EventAddComponentPost;
+import org.gamedo.event.EventRemoveComponentPost;
 import org.gamedo.gameloop.GameLoops;
+import org.gamedo.gameloop.components.entitymanager.EntityQuery;
 import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.util.function.EntityPredicate;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
@@ -37,7 +46,29 @@ public interface IGameLoopEntityManager extends IComponent<IGameLoop> {
     <T extends IEntity> Optional<T> unregisterEntity(String entityId, Supplier<String> category);
 
     /**
-     * 检测是否包含一个实体
+     * 以数值Id从管理器中取消一个{@link ILongIdentity}实体的注册，等价于{@link IGameLoopEntityManager#unregisterEntity(String, Supplier)}
+     *
+     * @param <T>      要获取的实体类型
+     * @param entityId 要进行反注册的实体的{@link ILongIdentity#getLongId()}
+     * @param category 实体分类
+     * @return 如果实体不在管理器管理者，则返回{@link Optional#empty()}，否则返回反注册成功的实体{@link Optional}
+     */
+    <T extends IEntity> Optional<T> unregisterEntity(long entityId, Supplier<String> category);
+
+    /**
+     * 从管理器中取消一个实体的注册，并将其回收到{@link org.gamedo.gameloop.components.pool.interfaces.IGameLoopEntityPool}中以便复用，
+     * 回收后调用者不能再持有该实体
+     *
+     * @param entityId 要回收的实体Id
+     * @param category 实体分类
+     * @return 当且仅当实体反注册成功、实体是{@link org.gamedo.ecs.interfaces.IPoolable}并且被回收到对象池中时返回true，注意：只要实体
+     * 存在，无论是否回收成功都会被反注册
+     */
+    boolean recycleEntity(String entityId, Supplier<String> category);
+
+    /**
+     * 检测是否包含一个实体，和{@link IGameLoopEntityManager#getEntity(String, Supplier)}一样，只检测当前已注册的实体，不会从冷存储
+     * 中加载
      *
      * @param entityId 要检测的实体的Id
      * @param category 实体分类
@@ -46,7 +77,18 @@ public interface IGameLoopEntityManager extends IComponent<IGameLoop> {
     boolean hasEntity(String entityId, Supplier<String> category);
 
     /**
-     * 从管理器中取出一个实体
+     * 以数值Id检测是否包含一个{@link ILongIdentity}实体，查找时不需要构造字符串
+     *
+     * @param entityId 要检测的实体的{@link ILongIdentity#getLongId()}
+     * @param category 实体分类
+     * @return true表示包含该实体，如果实体不是{@link ILongIdentity}，总是返回false
+     */
+    boolean hasEntity(long entityId, Supplier<String> category);
+
+    /**
+     * 从管理器中取出一个实体，只查找当前已注册的实体，不会从冷存储中加载，如果注册了
+     * {@link org.gamedo.gameloop.components.tiering.interfaces.IGameLoopEntityTiering}组件，命中时会刷新实体的访问时间，需要在没有
+     * 命中时从冷存储中加载的，使用{@link IGameLoopEntityManager#getOrReload(String, Supplier)}
      *
      * @param <T>      要获取的实体类型，上层使用者在调用{@link Optional#get()}并赋值给{@link IEntity}子类时，需要确保合法性，否则会抛出
      *                 {@link ClassCastException}
@@ -56,6 +98,38 @@ public interface IGameLoopEntityManager extends IComponent<IGameLoop> {
      */
     <T extends IEntity> Optional<T> getEntity(String entityId, Supplier<String> category);
 
+    /**
+     * 以数值Id从管理器中取出一个{@link ILongIdentity}实体，查找时不需要构造字符串，同样不会从冷存储中加载
+     *
+     * @param <T>      要获取的实体类型
+     * @param entityId 实体的{@link ILongIdentity#getLongId()}
+     * @param category 实体分类
+     * @return 如果实体不在管理器中或者不是{@link ILongIdentity}，则返回{@link Optional#empty()}
+     */
+    <T extends IEntity> Optional<T> getEntity(long entityId, Supplier<String> category);
+
+    /**
+     * 和{@link IGameLoopEntityManager#getEntity(String, Supplier)}相同，只是没有命中时，如果注册了
+     * {@link org.gamedo.gameloop.components.tiering.interfaces.IGameLoopEntityTiering}组件，会尝试从冷存储中加载并注册，因此可能
+     * 触发注册事件以及一次冷存储的读取
+     *
+     * @param <T>      要获取的实体类型
+     * @param entityId 实体Id
+     * @param category 实体分类
+     * @return 如果实体既不在管理器中，也无法从冷存储中加载，则返回{@link Optional#empty()}
+     */
+    <T extends IEntity> Optional<T> getOrReload(String entityId, Supplier<String> category);
+
+    /**
+     * 以数值Id取出或者从冷存储中加载一个{@link ILongIdentity}实体，规则同{@link IGameLoopEntityManager#getOrReload(String, Supplier)}
+     *
+     * @param <T>      要获取的实体类型
+     * @param entityId 实体的{@link ILongIdentity#getLongId()}
+     * @param category 实体分类
+     * @return 如果实体既不在管理器中，也无法从冷存储中加载，则返回{@link Optional#empty()}
+     */
+    <T extends IEntity> Optional<T> getOrReload(long entityId, Supplier<String> category);
+
     /**
      * 返回实体的数量
      *
@@ -72,6 +146,92 @@ public interface IGameLoopEntityManager extends IComponent<IGameLoop> {
      */
     Map<String, IEntity> getEntityMap(Supplier<String> category);
 
+    /**
+     * 遍历所有分类的所有实体，遍历期间禁止注册、反注册实体
+     *
+     * @param consumer 实体的消费者
+     * @return 遍历的实体的数量
+     */
+    int forEachEntity(Consumer<IEntity> consumer);
+
+    /**
+     * 创建一个查询视图，视图中包含所有拥有required中全部组件类型、且不拥有excluded中任何组件类型的已注册实体（不区分分类），视图会随着实
+     * 体的注册、反注册以及组件的增删而增量更新，例如：
+     * <pre>
+     *     //初始化时创建一次
+     *     final EntityQuery&lt;IEntity&gt; combatQuery = entityManager.query(List.of(CombatComponent.class), List.of());
+     *     //之后每次心跳时直接遍历
+     *     combatQuery.getEntityList().forEach(...);
+     * </pre>
+     * 相同条件的查询会返回同一个视图，每次获取都需要对应一次{@link IGameLoopEntityManager#closeQuery(EntityQuery)}
+     *
+     * @param required 必须拥有的组件类型
+     * @param excluded 不能拥有的组件类型
+     * @param <T>      实体类型
+     * @return 查询视图
+     */
+    <T extends IEntity> EntityQuery<T> query(Collection<Class<?>> required, Collection<Class<?>> excluded);
+
+    /**
+     * 创建一个查询视图，视图中包含所有满足predicate的已注册实体（不区分分类），predicate会在实体注册以及组件增删时被重新评估，因此它应该
+     * 只依赖于实体的组件构成（或者其他不会变化的属性），同一个predicate实例会返回同一个视图
+     *
+     * @param predicate 查询条件
+     * @param <T>       实体类型
+     * @return 查询视图
+     */
+    <T extends IEntity> EntityQuery<T> query(EntityPredicate<IEntity> predicate);
+
+    /**
+     * 关闭一个查询视图，相同条件的查询共享同一个视图，因此每次{@link IGameLoopEntityManager#query(Collection, Collection)}或者
+     * {@link IGameLoopEntityManager#query(EntityPredicate)}都需要对应一次关闭，只有最后一次关闭后该视图才不再被维护并被清空
+     *
+     * @param query 要关闭的视图
+     * @return 关闭成功返回true，如果视图不是由本管理器创建的或者已经全部关闭，返回false
+     */
+    boolean closeQuery(EntityQuery<?> query);
+
+    /**
+     * 已注册实体的组件发生增删后的回调，由{@link IEntity#addComponent(Class, Object)}和{@link IEntity#removeComponent(Class)}在
+     * {@link IGameLoop}线程内自动调用，用于维护依赖于组件的各种索引，并投递{@link EventAddComponentPost}或者
+     * {@link EventRemoveComponentPost}事件
+     *
+     * @param entity         组件发生变化的实体
+     * @param componentClazz 发生变化的组件类型
+     * @param added          true表示增加，false表示删除
+     * @return 如果实体没有注册到本管理器中，返回false
+     */
+    boolean componentChanged(IEntity entity, Class<?> componentClazz, boolean added);
+
+    /**
+     * 实体由干净变为已修改后的回调，由{@link IEntity#markDirty(Class)}在{@link IGameLoop}线程内自动调用，将其加入到已修改集合中
+     *
+     * @param entity 已修改的实体
+     * @return 如果实体没有注册到本管理器中，返回false
+     */
+    boolean markDirty(IEntity entity);
+
+    /**
+     * 处理所有已修改的实体，代价只和已修改实体的数量成正比，一般在每一帧或者某个{@link org.gamedo.annotation.Cron}函数内调用，例如增量存盘：
+     * <pre>
+     * entityManager.drainDirty((entity, dirty) -&gt; dirty.forEachDirtyComponent((clazz, component) -&gt; save(entity, clazz, component)));
+     * </pre>
+     * 每个实体在交给消费者之前，先通过{@link DirtySnapshot#take(IEntity)}生成修改标记的快照并清除实体的修改标记，因此：
+     * <ul>
+     * <li> 处理期间（包括消费者自身）新产生的修改会重新标记实体，在下一次调用时处理，不会丢失
+     * <li> 消费者抛出异常时，快照中的修改标记通过{@link DirtySnapshot#restore(IEntity)}合并回实体，在下一次调用时重试
+     * </ul>
+     *
+     * @param consumer 已修改实体的消费者，参数分别为实体以及其修改标记的快照
+     * @return 处理的实体的数量
+     */
+    int drainDirty(BiConsumer<IEntity, DirtySnapshot> consumer);
+
+    /**
+     * @return 等待处理的已修改实体的数量（可能包含已经反注册的实体）
+     */
+    int getDirtyCount();
+
 
     /**
      * 从当前{@link IGameLoop}线程的{@link IGameLoopEntityManager}组件中获取指定的实体
@@ -90,6 +250,23 @@ public interface IGameLoopEntityManager extends IComponent<IGameLoop> {
                 .orElse(null);
     }
 
+    /**
+     * 从当前{@link IGameLoop}线程的{@link IGameLoopEntityManager}组件中以数值Id获取指定的{@link ILongIdentity}实体
+     *
+     * @param entityId 实体的{@link ILongIdentity#getLongId()}
+     * @param category 实体所属分类
+     * @param <T>      实体类型
+     * @return 当且仅当：1、当前{@link IGameLoop}线程包含{@link IGameLoopEntityManager}组件；2、且包含指定的实体id时，返回该实体，否则
+     * 返回null
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends IEntity> T getEntityById(long entityId, Supplier<String> category) {
+        return (T) GameLoops.current()
+                .flatMap(gameLoop -> gameLoop.getComponent(IGameLoopEntityManager.class))
+                .flatMap(manager -> manager.getEntity(entityId, category))
+                .orElse(null);
+    }
+
     /**
      * 从当前{@link IGameLoop}线程的{@link IGameLoopEntityManager}组件中获取指定的实体的指定组件
      *
@@ -1,7 +1,11 @@
 package org.gamedo.gameloop.components.eventbus;
 
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.Value;
+import lombok.experimental.NonFinal;
+import lombok.experimental.PackagePrivate;
+import org.gamedo.gameloop.GameLoopHandlerMetrics;
 import org.springframework.core.ResolvableType;
 
 import java.lang.reflect.Method;
@@ -26,6 +30,14 @@ public class EventData {
      */
     @EqualsAndHashCode.Exclude
     long compareValue;
+    /**
+     * 回调方法的耗时记录器，首次执行时创建
+     */
+    @NonFinal
+    @PackagePrivate
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    GameLoopHandlerMetrics.Recorder recorder;
 
     public EventData(Object object, Method method) {
         this.object = object;
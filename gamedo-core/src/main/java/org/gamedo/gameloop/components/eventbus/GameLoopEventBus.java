@@ -1,19 +1,26 @@
 package org.gamedo.gameloop.components.eventbus;
 
-import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.*;
 import io.micrometer.core.instrument.binder.BaseUnits;
 import lombok.extern.log4j.Log4j2;
 import org.apache.logging.log4j.Level;
 import org.gamedo.annotation.Subscribe;
 import org.gamedo.ecs.GameLoopComponent;
+import org.gamedo.ecs.interfaces.ILongIdentity;
+import org.gamedo.gameloop.GameLoopHandlerMetrics;
+import org.gamedo.gameloop.GameLoopInstrumentation;
+import org.gamedo.gameloop.TaskKind;
 import org.gamedo.gameloop.components.eventbus.interfaces.IEvent;
 import org.gamedo.gameloop.components.eventbus.interfaces.IFilterableEvent;
 import org.gamedo.gameloop.components.eventbus.interfaces.IGameLoopEventBus;
+import org.gamedo.gameloop.components.eventbus.interfaces.ILongIdentitySelfEvent;
 import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.gameloop.jfr.EventDispatchJfrEvent;
+import org.gamedo.gameloop.jfr.EventPostJfrEvent;
 import org.gamedo.logging.GamedoLogContext;
 import org.gamedo.logging.Markers;
 import org.gamedo.util.GamedoConfiguration;
+import org.gamedo.util.LongObjectMap;
 import org.gamedo.util.Metric;
 import org.gamedo.util.Pair;
 import org.springframework.util.ReflectionUtils;
@@ -31,6 +38,10 @@ public class GameLoopEventBus extends GameLoopComponent implements IGameLoopEven
     private static final Function<Class<? extends IEvent>, List<EventData>> EventDataListFunction = eventClazz1 -> new ArrayList<>(32);
     private long counter = 0L;
     private final Map<Class<? extends IEvent>, List<EventData>> eventClazzName2EventDataMap = new HashMap<>(128);
+    /**
+     * {@link ILongIdentitySelfEvent}类型事件的订阅者按照数值Id建立的索引，key为事件类型，value的key为订阅者的数值Id
+     */
+    private final Map<Class<? extends IEvent>, LongObjectMap<List<EventData>>> eventClazz2LongIdEventDataMap = new HashMap<>(16);
     private final Deque<Class<?>> eventPostStack = new LinkedList<>();
     private final Map<String, Pair<AtomicLong, Gauge>> eventClazzName2GaugeMap = new HashMap<>(128);
 
@@ -47,38 +58,44 @@ public class GameLoopEventBus extends GameLoopComponent implements IGameLoopEven
             return false;
         }
 
-        final Timer timer = owner.getComponent(MeterRegistry.class)
-                .map(meterRegistry -> GamedoConfiguration.isMetricEventEnable() ? meterRegistry : null)
-                .map(meterRegistry -> {
-
-                    final Tags tags = Metric.tags(owner);
-                    return Timer.builder(Metric.MeterIdEventTimer)
-                            .tags(tags)
-                            .tag("class", object.getClass().getName())
-                            .tag("method", method.getName())
-                            .tag("event", event.getClass().getSimpleName())
-                            .description("the @" + Subscribe.class.getSimpleName() + " method timing.")
-                            .register(meterRegistry);
-                })
-                .orElse(Metric.NOOP_TIMER);
-
-        return Boolean.TRUE.equals(timer.record(() -> {
-            try (final GamedoLogContext.CloseableEntityId ignored = GamedoLogContext.pushEntityIdAuto(object)) {
-                method.invoke(object, event);
-                return true;
-            } catch (Exception e) {
-                final Class<? extends IEvent> eventClazz = event.getClass();
-                log.atLevel(Level.ERROR)
-                        .withThrowable(e)
-                        .withMarker(Markers.GameLoopEventBus)
-                        .log("exception caught, class:{}, method:{}, event:{}",
-                                object.getClass().getName(),
-                                method.getName(),
-                                eventClazz.getName());
+        if (eventData.recorder == null) {
+            eventData.recorder = owner.getComponent(GameLoopHandlerMetrics.class)
+                    .filter(handlerMetrics -> GamedoConfiguration.isMetricEventEnable())
+                    .map(handlerMetrics -> handlerMetrics.recorder(Metric.MeterIdEventTimer,
+                            "event",
+                            object.getClass().getName(),
+                            method.getName(),
+                            event.getClass().getSimpleName(),
+                            "the @" + Subscribe.class.getSimpleName() + " method timing."))
+                    .orElse(GameLoopHandlerMetrics.NOOP);
+        }
+
+        final GameLoopHandlerMetrics.Recorder recorder = eventData.recorder;
+        final EventDispatchJfrEvent jfrEvent = new EventDispatchJfrEvent();
+        jfrEvent.begin();
+        final long startNanoTime = recorder.start();
+        try (final GamedoLogContext.CloseableEntityId ignored = GamedoLogContext.pushEntityIdAuto(object)) {
+            method.invoke(object, event);
+            return true;
+        } catch (Exception e) {
+            final Class<? extends IEvent> eventClazz = event.getClass();
+            log.atLevel(Level.ERROR)
+                    .withThrowable(e)
+                    .withMarker(Markers.GameLoopEventBus)
+                    .log("exception caught, class:{}, method:{}, event:{}",
+                            object.getClass().getName(),
+                            method.getName(),
+                            eventClazz.getName());
+        } finally {
+            recorder.stop(startNanoTime);
+            if (jfrEvent.shouldCommit()) {
+                jfrEvent.set(owner, object, method);
+                jfrEvent.eventClass = event.getClass().getName();
+                jfrEvent.commit();
             }
+        }
 
-            return false;
-        }));
+        return false;
     }
 
     @Override
@@ -153,6 +170,7 @@ public class GameLoopEventBus extends GameLoopComponent implements IGameLoopEven
         int index = Collections.binarySearch(eventDataList, eventData, Comparator.comparingLong(EventData::getCompareValue));
         //排序插入
         eventDataList.add(index < 0 ? ~index : index, eventData);
+        indexLongId(eventClazz, eventData);
 
         final List<EventData> duplicateEventDataList = eventDataList.stream()
                 .filter(eventData1 -> eventData1.getObject() == object)
@@ -215,6 +233,9 @@ public class GameLoopEventBus extends GameLoopComponent implements IGameLoopEven
 
         final EventData eventData = new EventData(object, method);
         final boolean remove = eventDataList.remove(eventData);
+        if (remove) {
+            unindexLongId(eventClazz, eventData);
+        }
 
         log.debug(Markers.GameLoopEventBus, "unregister, event clazz:{}, object clazz:{}, method:{}, result:{}",
                 eventClazz::getSimpleName,
@@ -227,6 +248,39 @@ public class GameLoopEventBus extends GameLoopComponent implements IGameLoopEven
         return remove;
     }
 
+    private <T extends IEvent> void indexLongId(Class<T> eventClazz, EventData eventData) {
+        if (!ILongIdentitySelfEvent.class.isAssignableFrom(eventClazz)) {
+            return;
+        }
+
+        ILongIdentity.longIdOf(eventData.getObject()).ifPresent(longId -> {
+            final LongObjectMap<List<EventData>> longIdMap = eventClazz2LongIdEventDataMap.computeIfAbsent(eventClazz,
+                    key -> new LongObjectMap<>(128));
+            List<EventData> eventDataList = longIdMap.get(longId);
+            if (eventDataList == null) {
+                eventDataList = new ArrayList<>(2);
+                longIdMap.put(longId, eventDataList);
+            }
+
+            final int index = Collections.binarySearch(eventDataList, eventData, Comparator.comparingLong(EventData::getCompareValue));
+            eventDataList.add(index < 0 ? ~index : index, eventData);
+        });
+    }
+
+    private <T extends IEvent> void unindexLongId(Class<T> eventClazz, EventData eventData) {
+        final LongObjectMap<List<EventData>> longIdMap = eventClazz2LongIdEventDataMap.get(eventClazz);
+        if (longIdMap == null) {
+            return;
+        }
+
+        ILongIdentity.longIdOf(eventData.getObject()).ifPresent(longId -> {
+            final List<EventData> eventDataList = longIdMap.get(longId);
+            if (eventDataList != null && eventDataList.remove(eventData) && eventDataList.isEmpty()) {
+                longIdMap.remove(longId);
+            }
+        });
+    }
+
     private <T extends IEvent> void metricGauge(Class<T> eventClazz, List<EventData> eventDataList) {
         final IGameLoop owner = ownerRef.get();
         if (owner == null) {
@@ -277,27 +331,53 @@ public class GameLoopEventBus extends GameLoopComponent implements IGameLoopEven
             return 0;
         }
 
+        if (eventPostStack.isEmpty()) {
+            GameLoopInstrumentation.mark(ownerRef.get(), TaskKind.EVENT);
+        }
+
         eventPostStack.push(eventClazz);
-        final int count;
+        final EventPostJfrEvent jfrEvent = new EventPostJfrEvent();
+        jfrEvent.begin();
+        int count = 0;
         try {
+            //ILongIdentitySelfEvent只需要访问数值Id匹配的订阅者
+            final List<EventData> eventDataList = iEvent instanceof ILongIdentitySelfEvent ?
+                    longIdEventDataList(eventClazz, ((ILongIdentitySelfEvent) iEvent).getLongId()) :
+                    optionalEventDataList.get();
             //处理事件的过程中很有可能触发新的注册或反注册的行为，这会导致optionalEventDataList被增删，因此这里偷一下懒，直接使用一个新列表进行迭代
-            count = (int) new ArrayList<>(optionalEventDataList.get())
+            count = (int) new ArrayList<>(eventDataList)
                     .stream()
                     .filter(eventData -> eventFilter(eventData, iEvent))
                     .filter(eventData -> safeInvoke(eventData, iEvent))
                     .count();
 
+            final int invokeCount = count;
             log.debug(Markers.GameLoopEventBus, "event post, eventClazz:{}, invoke count:{}, event:{}",
                     eventClazz::getSimpleName,
-                    () -> count,
+                    () -> invokeCount,
                     () -> iEvent);
         } finally {
+            if (jfrEvent.shouldCommit()) {
+                final Stack<String> entityIdStack = GamedoLogContext.ENTITY_ID_STACK.get();
+                jfrEvent.set(ownerRef.get(), null, null);
+                jfrEvent.entityId = entityIdStack.isEmpty() ? null : entityIdStack.peek();
+                jfrEvent.eventClass = eventClazz.getName();
+                jfrEvent.invokeCount = count;
+                jfrEvent.depth = eventPostStack.size();
+                jfrEvent.commit();
+            }
             eventPostStack.pop();
         }
 
         return count;
     }
 
+    private List<EventData> longIdEventDataList(Class<? extends IEvent> eventClazz, long longId) {
+        final LongObjectMap<List<EventData>> longIdMap = eventClazz2LongIdEventDataMap.get(eventClazz);
+        final List<EventData> eventDataList = longIdMap == null ? null : longIdMap.get(longId);
+        return eventDataList == null ? Collections.emptyList() : eventDataList;
+    }
+
     @SuppressWarnings({"MethodMayBeStatic", "rawtypes", "unchecked"})
     private boolean eventFilter(EventData eventData, IEvent iEvent) {
 
@@ -0,0 +1,29 @@
+package org.gamedo.gameloop.components.eventbus.interfaces;
+
+import org.gamedo.ecs.interfaces.IComponent;
+import org.gamedo.ecs.interfaces.ILongIdentity;
+import org.gamedo.gameloop.components.eventbus.EventData;
+
+import java.util.OptionalLong;
+
+/**
+ * {@link IIdentitySelfEvent}的数值Id版本，当且仅当订阅者满足如下时，事件才会派发给订阅者：
+ * <ul>
+ * <li> 订阅者是{@link ILongIdentity}，或者是owner为{@link ILongIdentity}的{@link IComponent}
+ * <li> 订阅者（或其owner）的{@link ILongIdentity#getLongId()}等于{@link ILongIdentitySelfEvent#getLongId()}
+ * </ul>
+ * 和{@link IIdentitySelfEvent}需要遍历该事件的所有订阅者并逐一比较字符串不同，事件总线在订阅时就按照long对订阅者建立了索引，投递时只会
+ * 访问Id匹配的订阅者，因此当某事件的订阅者数量很多（例如每个玩家都订阅了该事件）时，应该优先使用本事件<p>
+ * 需要注意的是：订阅者的数值Id在订阅时确定，因此{@link IComponent}必须在设置了owner之后再进行订阅（通过
+ * {@link org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager}注册实体时总是满足）
+ */
+public interface ILongIdentitySelfEvent extends IIdentityEvent {
+
+    long getLongId();
+
+    @Override
+    default boolean filter(EventData eventData, IIdentityEvent event) {
+        final OptionalLong longId = ILongIdentity.longIdOf(eventData.getObject());
+        return longId.isPresent() && longId.getAsLong() == getLongId();
+    }
+}
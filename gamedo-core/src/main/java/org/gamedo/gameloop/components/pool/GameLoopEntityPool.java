@@ -0,0 +1,151 @@
+package org.gamedo.gameloop.components.pool;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import lombok.extern.log4j.Log4j2;
+import org.gamedo.ecs.GameLoopComponent;
+import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.ecs.interfaces.IPoolable;
+import org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager;
+import org.gamedo.gameloop.components.pool.interfaces.IGameLoopEntityPool;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.logging.Markers;
+import org.gamedo.util.GamedoConfiguration;
+import org.gamedo.util.Metric;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+@Log4j2
+public class GameLoopEntityPool extends GameLoopComponent implements IGameLoopEntityPool {
+
+    private final Map<Class<?>, Pool> poolMap = new HashMap<>(16);
+
+    public GameLoopEntityPool(IGameLoop owner) {
+        super(owner);
+    }
+
+    @Override
+    public <T extends IPoolable> T acquire(Class<T> clazz, Supplier<T> factory) {
+        final Pool pool = poolMap.computeIfAbsent(clazz, this::newPool);
+        final Object object = pool.objectDeque.pollLast();
+        if (object != null) {
+            pool.objectSet.remove(object);
+            pool.hitCounter.increment();
+            return clazz.cast(object);
+        }
+
+        pool.missCounter.increment();
+        return factory.get();
+    }
+
+    @Override
+    public boolean release(IPoolable object) {
+        final Pool pool = poolMap.computeIfAbsent(object.getClass(), this::newPool);
+        if (pool.objectSet.contains(object)) {
+            log.error(Markers.GameLoopEntityPool, "the object has released, object:{}", object);
+            return false;
+        }
+
+        //仍然注册着的实体被重置后会继续参与心跳、事件等，必须先反注册
+        if (object instanceof IEntity && isRegistered((IEntity) object)) {
+            log.error(Markers.GameLoopEntityPool, "the entity is still registered, entityId:{}, category:{}",
+                    ((IEntity) object).getId(), ((IEntity) object).getCategory());
+            return false;
+        }
+
+        //池子已满时直接丢弃，不做无意义的重置
+        if (pool.objectDeque.size() >= GamedoConfiguration.getEntityPoolMaxSize()) {
+            return false;
+        }
+
+        try {
+            if (object instanceof IEntity) {
+                ((IEntity) object).clearDirty();
+                for (final Object component : ((IEntity) object).getComponentMap().values()) {
+                    if (component != object && component instanceof IPoolable) {
+                        ((IPoolable) component).reset();
+                    }
+                }
+            }
+
+            object.reset();
+        } catch (Exception e) {
+            log.error(Markers.GameLoopEntityPool, "exception caught when reset, object:" + object, e);
+            return false;
+        }
+
+        pool.objectDeque.addLast(object);
+        pool.objectSet.add(object);
+        return true;
+    }
+
+    @Override
+    public int getPoolSize(Class<? extends IPoolable> clazz) {
+        final Pool pool = poolMap.get(clazz);
+        return pool == null ? 0 : pool.objectDeque.size();
+    }
+
+    @Override
+    public int clear(Class<? extends IPoolable> clazz) {
+        final Pool pool = poolMap.get(clazz);
+        if (pool == null) {
+            return 0;
+        }
+
+        final int size = pool.objectDeque.size();
+        pool.objectDeque.clear();
+        pool.objectSet.clear();
+        return size;
+    }
+
+    private boolean isRegistered(IEntity entity) {
+        final IGameLoop owner = ownerRef.get();
+        return owner != null && owner.getComponent(IGameLoopEntityManager.class)
+                .map(entityManager -> entityManager.getEntityMap(entity::getCategory).get(entity.getId()) == entity)
+                .orElse(false);
+    }
+
+    private Pool newPool(Class<?> clazz) {
+        final Pool pool = new Pool();
+        final IGameLoop owner = ownerRef.get();
+        if (owner == null) {
+            log.error(Markers.GameLoopEntityPool, "the {} hasn't a owner yet.", GameLoopEntityPool.class.getSimpleName());
+            return pool;
+        }
+
+        owner.getComponent(MeterRegistry.class)
+                .map(meterRegistry -> GamedoConfiguration.isMetricEntityEnable() ? meterRegistry : null)
+                .ifPresent(meterRegistry -> {
+                    final Tags tags = Metric.tags(owner).and("type", clazz.getName());
+                    Gauge.builder(Metric.MeterIdEntityPoolGauge, pool.objectDeque, Deque::size)
+                            .tags(tags)
+                            .description("the pooled object count of a specific type")
+                            .baseUnit(BaseUnits.OBJECTS)
+                            .register(meterRegistry);
+                    pool.hitCounter = Counter.builder(Metric.MeterIdEntityPoolAcquireCounter)
+                            .tags(tags.and("result", "hit"))
+                            .description("the acquire count of a specific type")
+                            .register(meterRegistry);
+                    pool.missCounter = Counter.builder(Metric.MeterIdEntityPoolAcquireCounter)
+                            .tags(tags.and("result", "miss"))
+                            .description("the acquire count of a specific type")
+                            .register(meterRegistry);
+                });
+
+        return pool;
+    }
+
+    private static final class Pool {
+        private final Deque<Object> objectDeque = new ArrayDeque<>(16);
+        /**
+         * 用于检测重复回收
+         */
+        private final Set<Object> objectSet = Collections.newSetFromMap(new IdentityHashMap<>(16));
+        private Counter hitCounter = Metric.NOOP_COUTER;
+        private Counter missCounter = Metric.NOOP_COUTER;
+    }
+}
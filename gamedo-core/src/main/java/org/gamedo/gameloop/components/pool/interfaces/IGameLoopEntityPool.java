@@ -0,0 +1,67 @@
+package org.gamedo.gameloop.components.pool.interfaces;
+
+import org.gamedo.ecs.interfaces.IComponent;
+import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.ecs.interfaces.IPoolable;
+import org.gamedo.gameloop.GameLoopConfig;
+import org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.util.GamedoConfiguration;
+
+import java.util.function.Supplier;
+
+/**
+ * {@link IGameLoop}的实体对象池组件，是一个可选组件，需要通过{@link GameLoopConfig#getComponentRegisters()}进行注册，用于复用频繁
+ * 创建和销毁的{@link IPoolable}对象（例如怪物、子弹、掉落物），典型的使用方式为：
+ * <pre>
+ * //创建：优先从对象池中获取
+ * final Monster monster = entityPool.acquire(Monster.class, Monster::new);
+ * monster.init(id, ...);
+ * entityManager.registerEntity(monster);
+ * //销毁：反注册并回收到对象池
+ * entityManager.recycleEntity(monster.getId(), monster::getCategory);
+ * </pre>
+ * 需要注意的是：
+ * <ul>
+ * <li> 对象池只能在所属的{@link IGameLoop}线程内访问
+ * <li> 每种类型最多缓存{@link GamedoConfiguration#getEntityPoolMaxSize()}个对象
+ * <li> 回收{@link IEntity}时，会先重置其所有实现了{@link IPoolable}的组件，然后再重置实体本身
+ * </ul>
+ *
+ * @see IGameLoopEntityManager#recycleEntity(String, Supplier)
+ */
+public interface IGameLoopEntityPool extends IComponent<IGameLoop> {
+
+    /**
+     * 从对象池中取出一个对象，如果对象池为空，则通过factory创建一个新的对象
+     *
+     * @param clazz   对象的类型，必须和对象的{@link Object#getClass()}完全相同
+     * @param factory 对象池为空时的对象工厂
+     * @param <T>     对象的类型
+     * @return 复用的或者新创建的对象
+     */
+    <T extends IPoolable> T acquire(Class<T> clazz, Supplier<T> factory);
+
+    /**
+     * 重置一个对象并回收到对象池中，回收后调用者不能再持有该对象
+     *
+     * @param object 要回收的对象，不能是已经注册的实体
+     * @return 回收成功返回true，如果该对象已经在对象池中、仍然注册在{@link org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager}
+     * 中、对象池已满或者重置失败，返回false
+     */
+    boolean release(IPoolable object);
+
+    /**
+     * @param clazz 对象的类型
+     * @return 对象池中当前缓存的该类型对象的数量
+     */
+    int getPoolSize(Class<? extends IPoolable> clazz);
+
+    /**
+     * 清空某种类型的对象池
+     *
+     * @param clazz 对象的类型
+     * @return 被清除的对象数量
+     */
+    int clear(Class<? extends IPoolable> clazz);
+}
@@ -1,13 +1,14 @@
 package org.gamedo.gameloop.components.scheduling;
 
-import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.*;
 import io.micrometer.core.instrument.binder.BaseUnits;
 import lombok.extern.log4j.Log4j2;
 import org.gamedo.annotation.Cron;
 import org.gamedo.ecs.GameLoopComponent;
+import org.gamedo.gameloop.GameLoopHandlerMetrics;
 import org.gamedo.gameloop.components.scheduling.interfaces.IGameLoopScheduler;
 import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.gameloop.jfr.CronJfrEvent;
 import org.gamedo.logging.GamedoLogContext;
 import org.gamedo.logging.Markers;
 import org.gamedo.util.GamedoConfiguration;
@@ -68,37 +69,44 @@ public class GameLoopScheduler extends GameLoopComponent implements IGameLoopSch
             log.error(Markers.GameLoopScheduler, "the {} hasn't a owner yet.", GameLoopScheduler.class.getSimpleName());
             return false;
         }
-        final Timer timer = owner.getComponent(MeterRegistry.class)
-                .map(meterRegistry -> GamedoConfiguration.isMetricCronEnable() ? meterRegistry : null)
-                .map(meterRegistry -> {
-                    final Tags tags = Metric.tags(owner);
-                    return Timer.builder(Metric.MeterIdCronTimer)
-                            .tags(tags)
-                            .tag("class", object.getClass().getName())
-                            .tag("method", method.getName())
-                            .tag("cron", schedulingRunnable.getTrigger().getExpression())
-                            .description("the @" + Cron.class.getSimpleName() + " method timing")
-                            .register(meterRegistry);
-                })
-                .orElse(Metric.NOOP_TIMER);
-
-        return Boolean.TRUE.equals(timer.record(() -> {
-            try (final GamedoLogContext.CloseableEntityId ignored = GamedoLogContext.pushEntityIdAuto(object)) {
-                final Long currentTimeMillis = System.currentTimeMillis();
-                final SimpleTriggerContext triggerContext = schedulingRunnable.getTriggerContext();
-                final Long lastExecutionTime = Optional.ofNullable(triggerContext.lastActualExecutionTime())
-                        .map(Date::getTime)
-                        .orElse((long) -1);
-                method.invoke(object, currentTimeMillis, lastExecutionTime);
-            } catch (Exception e) {
-                final Class<?> clazz = object.getClass();
-                log.error(Markers.GameLoopScheduler, "exception caught. class:" + clazz.getSimpleName() +
-                        "method:" + method, e);
-                return false;
+        if (scheduleInvokeData.recorder == null) {
+            scheduleInvokeData.recorder = owner.getComponent(GameLoopHandlerMetrics.class)
+                    .filter(handlerMetrics -> GamedoConfiguration.isMetricCronEnable())
+                    .map(handlerMetrics -> handlerMetrics.recorder(Metric.MeterIdCronTimer,
+                            "cron",
+                            object.getClass().getName(),
+                            method.getName(),
+                            schedulingRunnable.getTrigger().getExpression(),
+                            "the @" + Cron.class.getSimpleName() + " method timing"))
+                    .orElse(GameLoopHandlerMetrics.NOOP);
+        }
+
+        final GameLoopHandlerMetrics.Recorder recorder = scheduleInvokeData.recorder;
+        final CronJfrEvent jfrEvent = new CronJfrEvent();
+        jfrEvent.begin();
+        final long startNanoTime = recorder.start();
+        try (final GamedoLogContext.CloseableEntityId ignored = GamedoLogContext.pushEntityIdAuto(object)) {
+            final SimpleTriggerContext triggerContext = schedulingRunnable.getTriggerContext();
+            final Long currentTimeMillis = triggerContext.getClock().millis();
+            final Long lastExecutionTime = Optional.ofNullable(triggerContext.lastActualExecutionTime())
+                    .map(Date::getTime)
+                    .orElse((long) -1);
+            method.invoke(object, currentTimeMillis, lastExecutionTime);
+        } catch (Exception e) {
+            final Class<?> clazz = object.getClass();
+            log.error(Markers.GameLoopScheduler, "exception caught. class:" + clazz.getSimpleName() +
+                    "method:" + method, e);
+            return false;
+        } finally {
+            recorder.stop(startNanoTime);
+            if (jfrEvent.shouldCommit()) {
+                jfrEvent.set(owner, object, method);
+                jfrEvent.cron = schedulingRunnable.getTrigger().getExpression();
+                jfrEvent.commit();
             }
+        }
 
-            return true;
-        }));
+        return true;
     }
 
     @Override
@@ -1,7 +1,11 @@
 package org.gamedo.gameloop.components.scheduling;
 
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.Value;
+import lombok.experimental.NonFinal;
+import lombok.experimental.PackagePrivate;
+import org.gamedo.gameloop.GameLoopHandlerMetrics;
 
 import java.lang.reflect.Method;
 
@@ -10,4 +14,17 @@ import java.lang.reflect.Method;
 class ScheduleInvokeData {
     Object object;
     Method method;
+    /**
+     * 方法的耗时记录器，首次执行时创建
+     */
+    @NonFinal
+    @PackagePrivate
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    GameLoopHandlerMetrics.Recorder recorder;
+
+    ScheduleInvokeData(Object object, Method method) {
+        this.object = object;
+        this.method = method;
+    }
 }
@@ -3,17 +3,19 @@ package org.gamedo.gameloop.components.scheduling;
 import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.log4j.Log4j2;
+import org.gamedo.gameloop.GameLoopInstrumentation;
+import org.gamedo.gameloop.TaskKind;
 import org.gamedo.gameloop.interfaces.IGameLoop;
 import org.gamedo.logging.Markers;
 import org.springframework.scheduling.support.CronTrigger;
 import org.springframework.scheduling.support.SimpleTriggerContext;
 
 import java.lang.reflect.Method;
+import java.time.Clock;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -29,14 +31,14 @@ class SchedulingRunnable implements Runnable {
     private final SimpleTriggerContext triggerContext;
     private final Set<ScheduleInvokeData> scheduleInvokeDataSet = new HashSet<>(128);
     private Date scheduledExecutionTime;
-    private CompletableFuture<Void> future;
+    private ScheduledFuture<?> future;
 
     SchedulingRunnable(GameLoopScheduler gameLoopScheduler, String cron, Runnable runnable) {
         this.gameLoopScheduler = gameLoopScheduler;
         this.runnable = runnable;
         gameLoop = gameLoopScheduler.getOwner();
         trigger = new CronTrigger(cron);
-        triggerContext = new SimpleTriggerContext();
+        triggerContext = new SimpleTriggerContext(gameLoop.getComponent(Clock.class).orElse(Clock.systemDefaultZone()));
     }
 
     boolean containsMethod(Method method) {
@@ -57,11 +59,8 @@ class SchedulingRunnable implements Runnable {
         scheduledExecutionTime = trigger.nextExecutionTime(triggerContext);
         if (scheduledExecutionTime != null) {
             final long delay = scheduledExecutionTime.getTime() - triggerContext.getClock().millis();
-            final Executor executor = CompletableFuture.delayedExecutor(delay,
-                    TimeUnit.MILLISECONDS,
-                    gameLoopScheduler.getOwner());
-
-            future = CompletableFuture.runAsync(this, executor);
+            //通过gameLoop自身进行延迟调度，使得调度时间和gameLoop的时钟保持一致
+            future = gameLoop.schedule(this, delay, TimeUnit.MILLISECONDS);
 
             log.debug(Markers.GameLoopScheduler, "schedule next delay:{}, cron:{}",
                     () -> delay,
@@ -82,6 +81,7 @@ class SchedulingRunnable implements Runnable {
     @Override
     public void run() {
         final Date actualExecutionTime = new Date(triggerContext.getClock().millis());
+        GameLoopInstrumentation.mark(gameLoop, TaskKind.CRON);
         try {
             runnable.run();
         } catch (Throwable e) {
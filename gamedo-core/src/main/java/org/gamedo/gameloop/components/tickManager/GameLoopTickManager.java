@@ -2,12 +2,12 @@ package org.gamedo.gameloop.components.tickManager;
 
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.binder.BaseUnits;
 import lombok.extern.log4j.Log4j2;
 import org.gamedo.annotation.Tick;
 import org.gamedo.ecs.GameLoopComponent;
+import org.gamedo.ecs.interfaces.IIdentity;
 import org.gamedo.gameloop.components.tickManager.interfaces.IGameLoopTickManager;
 import org.gamedo.gameloop.interfaces.IGameLoop;
 import org.gamedo.logging.Markers;
@@ -17,6 +17,7 @@ import org.gamedo.util.Pair;
 import org.springframework.util.ReflectionUtils;
 
 import java.lang.reflect.Method;
+import java.time.Clock;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -26,7 +27,10 @@ import java.util.stream.Collectors;
 public class GameLoopTickManager extends GameLoopComponent implements IGameLoopTickManager {
 
     private final Map<ScheduleDataKey, TickRunnable> scheduleDataMap = new HashMap<>(32);
-    private final Map<TickData, TickRunnable> tickDataScheduleDataMap = new HashMap<>(128);
+    /**
+     * 已注册的心跳函数，value即为注册时的TickData实例，通过{@link TickData#tickRunnable}可以O(1)地找到其所属的{@link TickRunnable}
+     */
+    private final Map<TickData, TickData> tickDataMap = new HashMap<>(128);
     private final Map<ScheduleDataKey, Pair<AtomicLong, Gauge>> scheduleDataKey2GaugeMap = new HashMap<>(128);
 
     public GameLoopTickManager(IGameLoop owner) {
@@ -134,7 +138,7 @@ public class GameLoopTickManager extends GameLoopComponent implements IGameLoopT
                 method.getParameters()[1].getType() != Long.class &&
                 method.getParameters()[1].getType() != long.class) {
             log.error(Markers.GameLoopTickManager, "tick method should has two parameter of " +
-                            "(java.lang.Long, java.lang.Long)', clazz:{}, method:{}, delay:{}, tick:{}, " +
+                            "(long, long) or (java.lang.Long, java.lang.Long)', clazz:{}, method:{}, delay:{}, tick:{}, " +
                             "timeUnit:{}, scheduleWithFixedDelay:{}",
                     clazz.getName(),
                     method.getName(),
@@ -157,10 +161,15 @@ public class GameLoopTickManager extends GameLoopComponent implements IGameLoopT
             return false;
         }
 
-        final long currentTimeMillis = System.currentTimeMillis();
-        final ScheduleDataKey scheduleDataKey = new ScheduleDataKey(tick, timeUnit, scheduleWithFixedDelay);
+        final long currentTimeMillis = owner.getComponent(Clock.class).orElse(Clock.systemDefaultZone()).millis();
+        final int phaseCount = GamedoConfiguration.getTickPhaseCount();
+        final ScheduleDataKey scheduleDataKey = new ScheduleDataKey(tick,
+                timeUnit,
+                scheduleWithFixedDelay,
+                phase(object, phaseCount),
+                phaseCount);
         final TickData tickData = new TickData(object, method, currentTimeMillis + timeUnit.toMillis(delay));
-        if (tickDataScheduleDataMap.containsKey(tickData)) {
+        if (tickDataMap.containsKey(tickData)) {
             log.error(Markers.GameLoopTickManager, "the method:{} has registered, clazz:{}, delay:{}, " +
                             "tick:{}, timeUnit:{}, scheduleWithFixedDelay:{}",
                     method.getName(),
@@ -173,10 +182,18 @@ public class GameLoopTickManager extends GameLoopComponent implements IGameLoopT
         }
 
         ReflectionUtils.makeAccessible(method);
+        try {
+            tickData.methodHandle = TickData.methodHandle(method);
+            tickData.boxed = TickData.isBoxed(method);
+        } catch (IllegalAccessException e) {
+            log.error(Markers.GameLoopTickManager, "the method is not accessible, register failed, clazz:" +
+                    clazz.getName() + ", method:" + method.getName(), e);
+            return false;
+        }
 
         final TickRunnable tickRunnable = scheduleDataMap.computeIfAbsent(scheduleDataKey, key -> new TickRunnable(owner, scheduleDataKey));
         tickRunnable.addTickData(tickData);
-        tickDataScheduleDataMap.put(tickData, tickRunnable);
+        tickDataMap.put(tickData, tickData);
 
         log.debug(Markers.GameLoopTickManager, "register tick success, clazz:{}, method:{}, delay:{}, " +
                         "tick:{}, timeUnit:{}, scheduleWithFixedDelay:{}",
@@ -213,50 +230,203 @@ public class GameLoopTickManager extends GameLoopComponent implements IGameLoopT
     @Override
     public boolean unregister(Object object, Method method) {
 
-        final TickData tickData = new TickData(object, method);
-        final TickRunnable tickRunnable = tickDataScheduleDataMap.remove(tickData);
-        if (tickRunnable == null) {
+        final TickData tickData = tickDataMap.get(new TickData(object, method));
+        return tickData != null && unregister(tickData);
+    }
+
+    @Override
+    public boolean unregister(TickData tickData) {
+
+        if (!isRegistered(tickData)) {
             return false;
         }
 
-        tickRunnable.removeTickData(tickData);
-        if (tickRunnable.getTickDataMap().isEmpty()) {
-            scheduleDataMap.remove(tickRunnable.scheduleDataKey);
-            tickRunnable.future.cancel(false);
-        }
+        tickDataMap.remove(tickData);
+        final TickRunnable tickRunnable = tickData.tickRunnable;
+        removeTickData(tickData);
 
-        log.debug(Markers.GameLoopTickManager, "unregister tick, clazz:{}, method:{}",
-                () -> object.getClass().getName(),
-                method::getName);
+        if (log.isDebugEnabled()) {
+            log.debug(Markers.GameLoopTickManager, "unregister tick, clazz:{}, method:{}",
+                    tickData.getObject().getClass().getName(),
+                    tickData.getMethod().getName());
+        }
 
         metricGauge(tickRunnable);
 
         return true;
     }
 
+    @Override
+    public Optional<TickData> getTickData(Object object, Method method) {
+        return Optional.ofNullable(tickDataMap.get(new TickData(object, method)));
+    }
+
+    @Override
+    public boolean changeTick(Object object, Method method, long tick, TimeUnit timeUnit) {
+
+        final TickData tickData = tickDataMap.get(new TickData(object, method));
+        return tickData != null && changeTick(tickData, tick, timeUnit);
+    }
+
+    @Override
+    public boolean changeTick(TickData tickData, long tick, TimeUnit timeUnit) {
+
+        final IGameLoop owner = ownerRef.get();
+        if (owner == null) {
+            log.error(Markers.GameLoopTickManager, "the {} hasn't a owner yet.", GameLoopTickManager.class.getSimpleName());
+            return false;
+        }
+
+        if (tick <= 0) {
+            log.error(Markers.GameLoopTickManager, "invalid param:tick, change tick failed, clazz:{}, method:{}, " +
+                            "tick:{}, timeUnit:{}",
+                    tickData.getObject().getClass().getName(),
+                    tickData.getMethod().getName(),
+                    tick,
+                    timeUnit);
+            return false;
+        }
+
+        if (!isRegistered(tickData)) {
+            return false;
+        }
+
+        final TickRunnable tickRunnableFrom = tickData.tickRunnable;
+        final ScheduleDataKey scheduleDataKeyFrom = tickRunnableFrom.scheduleDataKey;
+        final long tickNanos = timeUnit.toNanos(tick);
+        if (tickNanos == tickNanos(scheduleDataKeyFrom)) {
+            return true;
+        }
+
+        //在两个心跳间隔之间来回调整时直接复用上一次的目标
+        TickRunnable tickRunnableTo = tickRunnableFrom.changeTickTarget;
+        if (tickRunnableTo == null || tickRunnableTo.disposed || tickNanos(tickRunnableTo.scheduleDataKey) != tickNanos) {
+            final ScheduleDataKey scheduleDataKeyTo = new ScheduleDataKey(tick,
+                    timeUnit,
+                    scheduleDataKeyFrom.isScheduleWithFixedDelay(),
+                    scheduleDataKeyFrom.getPhase(),
+                    scheduleDataKeyFrom.getPhaseCount());
+            tickRunnableTo = scheduleDataMap.computeIfAbsent(scheduleDataKeyTo, key -> new TickRunnable(owner, key));
+            tickRunnableFrom.changeTickTarget = tickRunnableTo;
+        }
+
+        //保留上次心跳时间，并且至少间隔一个新的心跳周期后才进行下一次心跳，避免调整后立刻重复心跳
+        removeTickData(tickData);
+        tickData.setFirstTickMilliSecond(Math.max(tickData.getFirstTickMilliSecond(),
+                tickData.getLastTickMilliSecond() + timeUnit.toMillis(tick)));
+        tickRunnableTo.addTickData(tickData);
+
+        if (log.isDebugEnabled()) {
+            log.debug(Markers.GameLoopTickManager, "change tick, clazz:{}, method:{}, from:{}, to:{}",
+                    tickData.getObject().getClass().getName(),
+                    tickData.getMethod().getName(),
+                    scheduleDataKeyFrom,
+                    tickRunnableTo.scheduleDataKey);
+        }
+
+        metricGauge(tickRunnableFrom);
+        metricGauge(tickRunnableTo);
+
+        return true;
+    }
+
+    @Override
+    public int changeTick(Object object, long tick, TimeUnit timeUnit) {
+
+        return registeredMethodSet(object).stream()
+                .mapToInt(method -> changeTick(object, method, tick, timeUnit) ? 1 : 0)
+                .sum();
+    }
+
+    @Override
+    public int resetTick(Object object) {
+
+        return registeredMethodSet(object).stream()
+                .filter(method -> method.isAnnotationPresent(Tick.class))
+                .mapToInt(method -> {
+                    final Tick annotation = method.getAnnotation(Tick.class);
+                    return changeTick(object, method, annotation.tick(), annotation.timeUnit()) ? 1 : 0;
+                })
+                .sum();
+    }
+
     @Override
     public int unregisterAll() {
 
-        return new HashSet<>(scheduleDataMap.values())
+        return new ArrayList<>(tickDataMap.values())
                 .stream()
-                .flatMap(tickRunnable -> new ArrayList<>(tickRunnable.getTickDataList()).stream())
                 .mapToInt(tickData -> unregister(tickData.getObject(), tickData.getMethod()) ? 1 : 0).sum();
     }
 
+    private Set<Method> registeredMethodSet(Object object) {
+        return Arrays.stream(ReflectionUtils.getAllDeclaredMethods(object.getClass()))
+                .filter(method -> !method.isSynthetic())
+                .filter(method -> tickDataMap.containsKey(new TickData(object, method)))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * 将tickData从其所属的{@link TickRunnable}中移除，如果该TickRunnable中已经没有任何心跳函数，则取消其调度
+     */
+    private void removeTickData(TickData tickData) {
+        final TickRunnable tickRunnable = tickData.tickRunnable;
+        tickRunnable.removeTickData(tickData);
+        if (tickRunnable.isEmpty()) {
+            scheduleDataMap.remove(tickRunnable.scheduleDataKey);
+            tickRunnable.future.cancel(false);
+            tickRunnable.disposed = true;
+            tickRunnable.changeTickTarget = null;
+        }
+    }
+
+    /**
+     * @return tickData是否是本组件中仍处于注册状态的句柄
+     */
+    private boolean isRegistered(TickData tickData) {
+        final TickRunnable tickRunnable = tickData.tickRunnable;
+        return !tickData.removed && tickRunnable != null && tickRunnable.gameLoop == ownerRef.get();
+    }
+
+    private static long tickNanos(ScheduleDataKey scheduleDataKey) {
+        return scheduleDataKey.getTimeUnit().toNanos(scheduleDataKey.getTick());
+    }
+
+    /**
+     * 计算object所在的相位，同一个实体（及其所有组件）总是落在同一个相位上，以保证实体内各心跳函数之间的相对顺序
+     *
+     * @param object     要注册心跳的对象
+     * @param phaseCount 相位的数量
+     * @return 取值范围：[0, phaseCount)
+     */
+    private static int phase(Object object, int phaseCount) {
+        if (phaseCount <= 1) {
+            return 0;
+        }
+
+        //组件的id即为其所属实体的id
+        final int hashCode = object instanceof IIdentity ?
+                Objects.hashCode(((IIdentity) object).getId()) :
+                System.identityHashCode(object);
+
+        return Math.floorMod(hashCode, phaseCount);
+    }
+
     private void metricGauge(TickRunnable tickRunnable) {
         final IGameLoop owner = ownerRef.get();
         if (owner == null) {
             log.error(Markers.GameLoopTickManager, "the {} hasn't a owner yet.", GameLoopTickManager.class.getSimpleName());
             return;
         }
+        if (!GamedoConfiguration.isMetricTickEnable()) {
+            return;
+        }
+
         owner.getComponent(MeterRegistry.class)
-                .map(meterRegistry -> GamedoConfiguration.isMetricTickEnable() ? meterRegistry : null)
                 .ifPresent(meterRegistry -> {
-                    final long countNew = tickRunnable.getTickDataList().size();
+                    final long countNew = tickRunnable.getCount();
                     scheduleDataKey2GaugeMap.computeIfAbsent(tickRunnable.getScheduleDataKey(), key -> {
                         final AtomicLong count = new AtomicLong(countNew);
-                        final Tag tag = Tag.of("tick", tickRunnable.scheduleDataKey.toTagString());
-                        final Tags tags = Metric.tags(owner).and(tag);
+                        final Tags tags = Metric.tags(owner).and(tickRunnable.scheduleDataKey.toTags());
                         return Pair.of(count, Gauge.builder(Metric.MeterIdTickRegisterGauge, count, AtomicLong::longValue)
                                         .tags(tags)
                                         .description("the instance count of a specific @" + Tick.class.getSimpleName())
@@ -1,5 +1,6 @@
 package org.gamedo.gameloop.components.tickManager;
 
+import io.micrometer.core.instrument.Tags;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
@@ -11,8 +12,46 @@ public class ScheduleDataKey {
     final long tick;
     final TimeUnit timeUnit;
     final boolean scheduleWithFixedDelay;
+    /**
+     * 所在的相位，取值范围：[0, phaseCount)
+     */
+    final int phase;
+    /**
+     * 心跳周期被等分的相位数量
+     */
+    final int phaseCount;
+
+    /**
+     * @return 相位在心跳周期内的起始偏移（纳秒）
+     */
+    long phaseOffsetNanos() {
+        return phaseCount <= 1 ? 0 : timeUnit.toNanos(tick) / phaseCount * phase;
+    }
+
+    /**
+     * 以时钟纪元（epoch）作为所有相位共同的锚点，计算距离本相位下一次起始时刻的延迟，保证不同时刻注册的同一相位的心跳始终落在心跳周期内的
+     * 同一偏移上
+     *
+     * @param nowMillis 当前时间（毫秒），应来自{@link org.gamedo.gameloop.interfaces.IGameLoop}所使用的时钟
+     * @return 首次执行的延迟（纳秒），未启用相位时返回0
+     */
+    long initialDelayNanos(long nowMillis) {
+        if (phaseCount <= 1) {
+            return 0;
+        }
+
+        return Math.floorMod(phaseOffsetNanos() - TimeUnit.MILLISECONDS.toNanos(nowMillis), timeUnit.toNanos(tick));
+    }
 
     String toTagString() {
         return tick + timeUnit.toString() + '.' + (scheduleWithFixedDelay ? "fixedDelay" : "fixedRate");
     }
+
+    /**
+     * @return 指标的标签，只有开启了相位时才包含phase标签，从而保持未开启相位时已有指标的标识不变
+     */
+    Tags toTags() {
+        final Tags tags = Tags.of("tick", toTagString());
+        return phaseCount > 1 ? tags.and("phase", String.valueOf(phase)) : tags;
+    }
 }
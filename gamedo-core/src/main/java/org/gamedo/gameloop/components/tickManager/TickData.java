@@ -1,10 +1,22 @@
 package org.gamedo.gameloop.components.tickManager;
 
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import org.gamedo.gameloop.GameLoopHandlerMetrics;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 
+/**
+ * 一个已注册的心跳函数，同时也是该心跳函数的注册句柄：通过{@link org.gamedo.gameloop.components.tickManager.interfaces.IGameLoopTickManager#getTickData(Object, Method)}
+ * 获取并缓存后，{@link org.gamedo.gameloop.components.tickManager.interfaces.IGameLoopTickManager#changeTick(TickData, long, java.util.concurrent.TimeUnit)}
+ * 以及{@link org.gamedo.gameloop.components.tickManager.interfaces.IGameLoopTickManager#unregister(TickData)}都是O(1)的，并且不产生内存分配
+ */
 @Data
 @EqualsAndHashCode(of = {"object", "method"})
 public class TickData {
@@ -19,11 +31,40 @@ public class TickData {
     /**
      * 首次运行时间
      */
-    private final long firstTickMilliSecond;
+    @Setter(AccessLevel.PACKAGE)
+    private long firstTickMilliSecond;
     /**
      * 最近一次运行时间
      */
     private long lastTickMilliSecond;
+    /**
+     * {@link TickData#lastTickMilliSecond}装箱后的值，只用于参数为Long的心跳函数，为null时按需装箱
+     */
+    Long lastTickMilliSecondBoxed;
+    /**
+     * 调用心跳函数的句柄，参数为long时类型为：(Object, long, long)void，参数为Long时类型为：(Object, Long, Long)void
+     */
+    MethodHandle methodHandle;
+    /**
+     * 心跳函数的参数是否包含Long，此时使用{@link TickData#methodHandle}的装箱版本
+     */
+    boolean boxed;
+    /**
+     * 心跳函数的耗时记录器，首次执行时创建
+     */
+    GameLoopHandlerMetrics.Recorder recorder;
+    /**
+     * 所属的{@link TickRunnable}
+     */
+    TickRunnable tickRunnable;
+    /**
+     * 在所属{@link TickRunnable}中的索引，-1表示尚未加入
+     */
+    int index = -1;
+    /**
+     * 是否已经被反注册
+     */
+    boolean removed;
 
     public TickData(Object object, Method method) {
         this.object = object;
@@ -39,6 +80,50 @@ public class TickData {
         lastTickMilliSecond = firstTickMilliSecond;
     }
 
+    public void setLastTickMilliSecond(long lastTickMilliSecond) {
+        this.lastTickMilliSecond = lastTickMilliSecond;
+        lastTickMilliSecondBoxed = null;
+    }
+
+    /**
+     * @return 装箱后的最近一次运行时间，同一个值只装箱一次
+     */
+    Long lastTickMilliSecondBoxed() {
+        if (lastTickMilliSecondBoxed == null) {
+            lastTickMilliSecondBoxed = lastTickMilliSecond;
+        }
+
+        return lastTickMilliSecondBoxed;
+    }
+
+    /**
+     * 心跳函数的参数中是否包含Long
+     *
+     * @param method 心跳函数
+     * @return 包含Long时返回true，此时应该使用(Object, Long, Long)void类型的句柄，否则使用(Object, long, long)void类型的句柄
+     */
+    static boolean isBoxed(Method method) {
+        return method.getParameterTypes()[0] == Long.class || method.getParameterTypes()[1] == Long.class;
+    }
+
+    /**
+     * 为心跳函数创建调用句柄：两个参数都为long时，句柄类型为(Object, long, long)void，调用时没有任何装箱；否则句柄类型为
+     * (Object, Long, Long)void，参数中的long会被自动拆箱，由调用者负责复用装箱后的Long，避免每次调用都装箱
+     *
+     * @param method 心跳函数
+     * @return 心跳函数的调用句柄
+     * @throws IllegalAccessException 如果method无法访问
+     */
+    static MethodHandle methodHandle(Method method) throws IllegalAccessException {
+        MethodHandle methodHandle = MethodHandles.lookup().unreflect(method);
+        if (Modifier.isStatic(method.getModifiers())) {
+            methodHandle = MethodHandles.dropArguments(methodHandle, 0, Object.class);
+        }
+
+        final Class<?> parameterType = isBoxed(method) ? Long.class : long.class;
+        return methodHandle.asType(MethodType.methodType(void.class, Object.class, parameterType, parameterType));
+    }
+
     @Override
     public String toString() {
         return "TickData{" +
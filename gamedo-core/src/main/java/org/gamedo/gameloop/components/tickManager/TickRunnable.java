@@ -1,108 +1,392 @@
 package org.gamedo.gameloop.components.tickManager;
 
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
-import io.micrometer.core.instrument.Timer;
-import lombok.Data;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
 import org.gamedo.annotation.Tick;
+import org.gamedo.gameloop.GameLoopHandlerMetrics;
+import org.gamedo.gameloop.GameLoopInstrumentation;
+import org.gamedo.gameloop.TaskKind;
 import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.gameloop.jfr.TickFrameJfrEvent;
+import org.gamedo.gameloop.jfr.TickJfrEvent;
 import org.gamedo.logging.GamedoLogContext;
 import org.gamedo.logging.Markers;
 import org.gamedo.util.GamedoConfiguration;
 import org.gamedo.util.Metric;
 
-import java.lang.reflect.Method;
+import java.time.Clock;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
-@Data
+/**
+ * 同一{@link ScheduleDataKey}下所有心跳函数的执行者，心跳函数稠密地存储在数组中，删除时将末尾的元素交换到被删除的位置，每个
+ * {@link TickData}都记录了自己在数组中的索引，因此注册和反注册都是O(1)的；一帧执行期间发生的注册被推迟到帧末尾生效，反注册则
+ * 立即将所在的位置替换为占位符，并在帧末尾统一压缩，因此被反注册的{@link TickData}可以立即加入其他{@link TickRunnable}（例如调整
+ * 心跳间隔），在稳态下执行心跳时不产生任何内存分配
+ */
+@Getter
 @Log4j2
 public class TickRunnable implements Runnable {
+    /**
+     * 一帧执行期间被反注册的心跳函数所在位置的占位符
+     */
+    private static final TickData REMOVED = new TickData(TickRunnable.class, null);
+
+    static {
+        REMOVED.removed = true;
+    }
+
     final IGameLoop gameLoop;
     final ScheduleDataKey scheduleDataKey;
     final ScheduledFuture<?> future;
-    private final List<TickData> tickDataList = new ArrayList<>(2);
-    private final Map<TickData, TickData> tickDataMap = new HashMap<>(2);
+    final Clock clock;
+    /**
+     * 稠密存储的心跳函数，有效区间为：[0, size)
+     */
+    private TickData[] tickDatas = new TickData[2];
+    private int size;
+    /**
+     * 有效的心跳函数的数量（不包含等待删除的，包含等待添加的）
+     */
+    private int count;
+    /**
+     * 是否有一帧正在执行中（超出预算时，一帧会跨越多个时间片）
+     */
+    private boolean iterating;
+    private final List<TickData> pendingAddList = new ArrayList<>(2);
+    /**
+     * 一帧执行期间被替换为{@link TickRunnable#REMOVED}的位置的数量
+     */
+    private int pendingRemoveCount;
+    /**
+     * 当前时间装箱后的值，同一帧内的所有参数为Long的心跳函数共享
+     */
+    private Long boxedMillis;
+    /**
+     * 最近一次调整心跳间隔时的目标，在两个心跳间隔之间来回调整（LOD）时无需查找和创建{@link ScheduleDataKey}
+     */
+    TickRunnable changeTickTarget;
+    /**
+     * 是否已经没有任何心跳函数并被取消了调度
+     */
+    boolean disposed;
+    /**
+     * 当前这一帧从{@link TickRunnable#tickDatas}的哪个位置开始执行
+     */
+    private int frameStart;
+    /**
+     * 当前这一帧已经执行过的心跳函数的数量
+     */
+    private int frameIndex;
+    /**
+     * 当前这一帧要执行的心跳函数的数量
+     */
+    private int frameSize;
+    /**
+     * 当前这一帧每个时间片的预算，0表示不限制
+     */
+    private long frameBudgetNanos;
+    /**
+     * 下一帧从{@link TickRunnable#tickDatas}的哪个位置开始执行，上一帧因超出预算而被推迟的心跳函数在下一帧中优先执行，避免总是同一批
+     * 心跳函数被推迟
+     */
+    private int cursor;
+    private final Runnable continuation = () -> runSlice(false);
+    private Counter overrunCounter = Metric.NOOP_COUTER;
+    private Counter deferredCounter = Metric.NOOP_COUTER;
+    /**
+     * 预算相关的指标只有在预算第一次生效时才注册，未启用预算时不产生永远为0的指标
+     */
+    private boolean budgetMetricRegistered;
 
     public TickRunnable(IGameLoop gameLoop, ScheduleDataKey scheduleDataKey) {
         this.gameLoop = gameLoop;
         this.scheduleDataKey = scheduleDataKey;
-        final long delay = scheduleDataKey.getTick();
-        final TimeUnit timeUnit = scheduleDataKey.getTimeUnit();
+        clock = gameLoop.getComponent(Clock.class).orElse(Clock.systemDefaultZone());
+        final long delay = scheduleDataKey.getTimeUnit().toNanos(scheduleDataKey.getTick());
+        final long initialDelay = scheduleDataKey.initialDelayNanos(clock.millis());
         future = scheduleDataKey.isScheduleWithFixedDelay() ?
-                gameLoop.scheduleWithFixedDelay(this, 0, delay, timeUnit) :
-                gameLoop.scheduleAtFixedRate(this, 0, delay, timeUnit) ;
+                gameLoop.scheduleWithFixedDelay(this, initialDelay, delay, TimeUnit.NANOSECONDS) :
+                gameLoop.scheduleAtFixedRate(this, initialDelay, delay, TimeUnit.NANOSECONDS) ;
     }
 
     @Override
     public void run() {
-        new ArrayList<>(tickDataList).forEach(this::safeInvoke);
+
+        //上一帧还未执行完毕，剩余的部分已经被投递到线程的任务队列里，本帧直接跳过
+        if (iterating) {
+            return;
+        }
+
+        frameBudgetNanos = TimeUnit.MILLISECONDS.toNanos(GamedoConfiguration.getTickFrameBudgetMillis());
+        if (frameBudgetNanos > 0 && !budgetMetricRegistered) {
+            registerBudgetMetric();
+        }
+        frameStart = size == 0 ? 0 : cursor % size;
+        frameIndex = 0;
+        frameSize = size;
+        cursor = frameStart;
+        iterating = true;
+
+        runSlice(true);
+    }
+
+    /**
+     * 在预算内执行当前帧剩余的心跳函数，超出预算时将剩余部分投递到线程的任务队列尾部，从而让已经在排队的其他任务先得到执行
+     *
+     * @param firstSlice 是否是一帧中的第一个时间片
+     */
+    private void runSlice(boolean firstSlice) {
+        GameLoopInstrumentation.mark(gameLoop, TaskKind.TICK);
+        final TickFrameJfrEvent jfrEvent = new TickFrameJfrEvent();
+        jfrEvent.begin();
+        final int sliceStart = frameIndex;
+        final long startNanos = frameBudgetNanos > 0 ? System.nanoTime() : 0;
+        while (frameIndex < frameSize) {
+            final int index = frameStart + frameIndex++;
+            final TickData tickData = tickDatas[index < frameSize ? index : index - frameSize];
+            //执行期间可能被反注册了
+            if (!tickData.removed) {
+                safeInvoke(tickData);
+            }
+
+            if (frameBudgetNanos > 0 && frameIndex < frameSize && System.nanoTime() - startNanos >= frameBudgetNanos) {
+                final int deferredCount = frameSize - frameIndex;
+                if (firstSlice) {
+                    overrunCounter.increment();
+                    cursor += frameIndex;
+                }
+                deferredCounter.increment(deferredCount);
+
+                log.debug(Markers.GameLoopTickManager, "tick frame budget exceeded, scheduleDataKey:{}, " +
+                        "deferredCount:{}", scheduleDataKey, deferredCount);
+                try {
+                    gameLoop.execute(continuation);
+                    commit(jfrEvent, firstSlice, frameIndex - sliceStart, deferredCount);
+                    return;
+                } catch (RejectedExecutionException e) {
+                    break;
+                }
+            }
+        }
+
+        commit(jfrEvent, firstSlice, frameIndex - sliceStart, 0);
+        endFrame();
+    }
+
+    private void commit(TickFrameJfrEvent jfrEvent, boolean firstSlice, int invokeCount, int deferredCount) {
+        if (jfrEvent.shouldCommit()) {
+            jfrEvent.set(gameLoop, null, null);
+            jfrEvent.tick = scheduleDataKey.toTagString();
+            jfrEvent.firstSlice = firstSlice;
+            jfrEvent.invokeCount = invokeCount;
+            jfrEvent.deferredCount = deferredCount;
+            jfrEvent.commit();
+        }
+    }
+
+    /**
+     * 结束当前帧，并使帧执行期间的注册和反注册生效
+     */
+    private void endFrame() {
+        iterating = false;
+
+        if (pendingRemoveCount > 0) {
+            compact();
+        }
+
+        if (!pendingAddList.isEmpty()) {
+            for (int i = 0; i < pendingAddList.size(); i++) {
+                append(pendingAddList.get(i));
+            }
+            pendingAddList.clear();
+        }
     }
 
     void addTickData(TickData tickData) {
-        tickDataMap.put(tickData, tickData);
-        tickDataList.add(tickData);
+        tickData.tickRunnable = this;
+        tickData.removed = false;
+        count++;
+
+        if (iterating) {
+            pendingAddList.add(tickData);
+        } else {
+            append(tickData);
+        }
+    }
+
+    /**
+     * 移除一个由{@link TickRunnable#addTickData(TickData)}添加的心跳函数
+     *
+     * @param tickData 要移除的心跳函数，必须是添加时的同一个实例
+     * @return 移除成功返回true
+     */
+    boolean removeTickData(TickData tickData) {
+        if (tickData.tickRunnable != this || tickData.removed) {
+            return false;
+        }
+
+        tickData.tickRunnable = null;
+        tickData.removed = true;
+        count--;
+
+        if (tickData.index < 0) {
+            pendingAddList.remove(tickData);
+        } else if (iterating) {
+            tickDatas[tickData.index] = REMOVED;
+            tickData.index = -1;
+            pendingRemoveCount++;
+        } else {
+            swapRemove(tickData);
+        }
+
+        return true;
+    }
+
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    private void append(TickData tickData) {
+        if (size == tickDatas.length) {
+            tickDatas = Arrays.copyOf(tickDatas, size << 1);
+        }
+
+        tickData.index = size;
+        tickDatas[size++] = tickData;
+    }
+
+    /**
+     * 移除所有的{@link TickRunnable#REMOVED}，保持其余心跳函数的相对顺序
+     */
+    private void compact() {
+        int newSize = 0;
+        for (int i = 0; i < size; i++) {
+            final TickData tickData = tickDatas[i];
+            if (tickData != REMOVED) {
+                tickData.index = newSize;
+                tickDatas[newSize++] = tickData;
+            }
+        }
+
+        Arrays.fill(tickDatas, newSize, size, null);
+        size = newSize;
+        pendingRemoveCount = 0;
     }
 
-    TickData removeTickData(TickData tickData) {
-        tickDataList.remove(tickData);
-        return tickDataMap.remove(tickData);
+    private void swapRemove(TickData tickData) {
+        final int index = tickData.index;
+        final int last = --size;
+        if (index != last) {
+            tickDatas[index] = tickDatas[last];
+            tickDatas[index].index = index;
+        }
+
+        tickDatas[last] = null;
+        tickData.index = -1;
     }
 
     private void safeInvoke(TickData tickData) {
         final long firstTickMilliSecond = tickData.getFirstTickMilliSecond();
-        final long currentTimeMillis = System.currentTimeMillis();
+        final long currentTimeMillis = clock.millis();
 
         if (firstTickMilliSecond > currentTimeMillis) {
             return;
         }
 
+        if (tickData.recorder == null) {
+            tickData.recorder = recorder(tickData);
+        }
+
         final Object object = tickData.getObject();
-        final Class<?> clazz = object.getClass();
-        final Method method = tickData.getMethod();
-        final Timer timer = gameLoop.getComponent(MeterRegistry.class)
-                .map(meterRegistry -> GamedoConfiguration.isMetricTickEnable() ? meterRegistry : null)
-                .map(meterRegistry -> {
-
-                    final Tags tags = Metric.tags(gameLoop);
-                    return Timer.builder(Metric.MeterIdTickTimer)
-                            .tags(tags)
-                            .tag("class", clazz.getName())
-                            .tag("method", method.getName())
-                            .tag("tick", scheduleDataKey.toTagString())
-                            .description("the @" + Tick.class.getSimpleName() + " method timing")
-                            .register(meterRegistry);
-                })
-                .orElse(Metric.NOOP_TIMER);
-
-        timer.record(() -> {
-            final long lastTickMilliSecond = tickData.getLastTickMilliSecond();
-            try(final GamedoLogContext.CloseableEntityId ignored = GamedoLogContext.pushEntityIdAuto(object)) {
-                method.invoke(object, currentTimeMillis, lastTickMilliSecond);
+        final long lastTickMilliSecond = tickData.getLastTickMilliSecond();
+        final TickJfrEvent jfrEvent = new TickJfrEvent();
+        jfrEvent.begin();
+        final Long currentTimeMillisBoxed = tickData.boxed ? boxedMillis(currentTimeMillis) : null;
+        final long startNanoTime = tickData.recorder.start();
+        GamedoLogContext.pushEntityId(object);
+        try {
+            if (currentTimeMillisBoxed != null) {
+                tickData.methodHandle.invokeExact(object, currentTimeMillisBoxed, tickData.lastTickMilliSecondBoxed());
+            } else {
+                tickData.methodHandle.invokeExact(object, currentTimeMillis, lastTickMilliSecond);
             }
-            catch (Exception e) {
-                log.error(Markers.GameLoopTickManager, "exception caught, clazz:" + clazz.getName() +
-                        ", method:" + method.getName() +
-                        ", tick:" + scheduleDataKey.getTick() +
-                        ", timeUnit:" + scheduleDataKey.getTimeUnit() +
-                        ", scheduleWithFixedDelay:" + scheduleDataKey.isScheduleWithFixedDelay(), e);
-
-            } finally {
-                tickData.setLastTickMilliSecond(currentTimeMillis);
+        }
+        catch (Throwable e) {
+            log.error(Markers.GameLoopTickManager, "exception caught, clazz:" + object.getClass().getName() +
+                    ", method:" + tickData.getMethod().getName() +
+                    ", tick:" + scheduleDataKey.getTick() +
+                    ", timeUnit:" + scheduleDataKey.getTimeUnit() +
+                    ", scheduleWithFixedDelay:" + scheduleDataKey.isScheduleWithFixedDelay(), e);
+
+        } finally {
+            GamedoLogContext.popEntityId();
+            tickData.setLastTickMilliSecond(currentTimeMillis);
+            tickData.lastTickMilliSecondBoxed = currentTimeMillisBoxed;
+            tickData.recorder.stop(startNanoTime);
+            if (jfrEvent.shouldCommit()) {
+                jfrEvent.set(gameLoop, object, tickData.getMethod());
+                jfrEvent.tick = scheduleDataKey.toTagString();
+                jfrEvent.commit();
             }
+        }
+    }
+
+    private Long boxedMillis(long currentTimeMillis) {
+        if (boxedMillis == null || boxedMillis != currentTimeMillis) {
+            boxedMillis = currentTimeMillis;
+        }
+
+        return boxedMillis;
+    }
+
+    private GameLoopHandlerMetrics.Recorder recorder(TickData tickData) {
+        return gameLoop.getComponent(GameLoopHandlerMetrics.class)
+                .filter(handlerMetrics -> GamedoConfiguration.isMetricTickEnable())
+                .map(handlerMetrics -> handlerMetrics.recorder(Metric.MeterIdTickTimer,
+                        "tick",
+                        tickData.getObject().getClass().getName(),
+                        tickData.getMethod().getName(),
+                        scheduleDataKey.toTagString(),
+                        "the @" + Tick.class.getSimpleName() + " method timing"))
+                .orElse(GameLoopHandlerMetrics.NOOP);
+    }
+
+    private void registerBudgetMetric() {
+        budgetMetricRegistered = true;
+        meterRegistry().ifPresent(meterRegistry -> {
+            final Tags tags = Metric.tags(gameLoop).and(scheduleDataKey.toTags());
+            overrunCounter = Counter.builder(Metric.MeterIdTickOverrunCounter)
+                    .tags(tags)
+                    .description("the count of frames that exceed the tick frame budget")
+                    .register(meterRegistry);
+            deferredCounter = Counter.builder(Metric.MeterIdTickDeferredCounter)
+                    .tags(tags)
+                    .description("the count of @" + Tick.class.getSimpleName() + " methods deferred to the next slice")
+                    .baseUnit(BaseUnits.OBJECTS)
+                    .register(meterRegistry);
         });
     }
 
+    private Optional<MeterRegistry> meterRegistry() {
+        return gameLoop.getComponent(MeterRegistry.class)
+                .map(meterRegistry -> GamedoConfiguration.isMetricTickEnable() ? meterRegistry : null);
+    }
+
     @Override
     public String toString() {
         return "TickRunnable{" +
                 "scheduleDataKey=" + scheduleDataKey +
-                ", tickDataSize=" + tickDataList.size() + ',' + tickDataMap.size() +
+                ", tickDataSize=" + size + ',' + count +
                 '}';
     }
 }
@@ -2,9 +2,11 @@ package org.gamedo.gameloop.components.tickManager.interfaces;
 
 import org.gamedo.annotation.Tick;
 import org.gamedo.ecs.interfaces.IComponent;
+import org.gamedo.gameloop.components.tickManager.TickData;
 import org.gamedo.gameloop.interfaces.IGameLoop;
 
 import java.lang.reflect.Method;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -43,6 +45,47 @@ public interface IGameLoopTickManager extends IComponent<IGameLoop> {
      */
     boolean register(Object object, Method method, long delay, long tick, TimeUnit timeUnit, boolean scheduleWithFixedDelay);
 
+    /**
+     * 在不反注册的前提下，调整某个已注册的心跳函数的心跳间隔（LOD），例如：将空闲玩家的心跳由50毫秒降低为1秒，待其活跃后再恢复，心跳函数的
+     * 上次心跳时间会被保留，scheduleWithFixedDelay方式及相位保持不变
+     *
+     * @param object   已注册的类的实体
+     * @param method   已注册的方法
+     * @param tick     新的心跳间隔，必须大于0
+     * @param timeUnit 新的心跳时间单位
+     * @return 调整成功（或者心跳间隔未发生变化）返回true，如果该方法没有被注册过或者参数非法，返回false
+     */
+    boolean changeTick(Object object, Method method, long tick, TimeUnit timeUnit);
+
+    /**
+     * 调整某个类所有已注册的心跳函数的心跳间隔，参考{@link IGameLoopTickManager#changeTick(Object, Method, long, TimeUnit)}
+     *
+     * @param object   已注册的类的实体
+     * @param tick     新的心跳间隔，必须大于0
+     * @param timeUnit 新的心跳时间单位
+     * @return 返回调整成功的方法的数量
+     */
+    int changeTick(Object object, long tick, TimeUnit timeUnit);
+
+    /**
+     * 通过注册句柄调整心跳函数的心跳间隔，语义同{@link IGameLoopTickManager#changeTick(Object, Method, long, TimeUnit)}，但是无需
+     * 查找，并且在两个心跳间隔之间来回调整时不产生任何内存分配，适用于频繁调整LOD的场景
+     *
+     * @param tickData 通过{@link IGameLoopTickManager#getTickData(Object, Method)}获取的句柄
+     * @param tick     新的心跳间隔，必须大于0
+     * @param timeUnit 新的心跳时间单位
+     * @return 调整成功（或者心跳间隔未发生变化）返回true，如果句柄已经被反注册或者参数非法，返回false
+     */
+    boolean changeTick(TickData tickData, long tick, TimeUnit timeUnit);
+
+    /**
+     * 将某个类所有已注册的心跳函数的心跳间隔恢复为其{@link Tick}注解中定义的值
+     *
+     * @param object 已注册的类的实体
+     * @return 返回恢复成功的方法的数量
+     */
+    int resetTick(Object object);
+
     /**
      * 取消某个类所有的心跳函数的注册
      *
@@ -60,6 +103,24 @@ public interface IGameLoopTickManager extends IComponent<IGameLoop> {
      */
     boolean unregister(Object object, Method method);
 
+    /**
+     * 通过注册句柄取消心跳函数的注册，O(1)并且不产生内存分配
+     *
+     * @param tickData 通过{@link IGameLoopTickManager#getTickData(Object, Method)}获取的句柄
+     * @return 取消成功返回true，如果句柄已经被反注册，返回false
+     */
+    boolean unregister(TickData tickData);
+
+    /**
+     * 获取已注册的心跳函数的句柄，调用者可以缓存该句柄，用于{@link IGameLoopTickManager#changeTick(TickData, long, TimeUnit)}
+     * 以及{@link IGameLoopTickManager#unregister(TickData)}，句柄在心跳间隔调整后依然有效，反注册后失效
+     *
+     * @param object 已注册的类的实体
+     * @param method 已注册的方法
+     * @return 如果该方法没有被注册过，返回Optional.empty()
+     */
+    Optional<TickData> getTickData(Object object, Method method);
+
     /**
      * 反注册所有的心跳函数
      *
@@ -0,0 +1,317 @@
+package org.gamedo.gameloop.components.tiering;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import lombok.extern.log4j.Log4j2;
+import org.gamedo.ecs.GameLoopComponent;
+import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.gameloop.components.tiering.interfaces.IGameLoopEntityTiering;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.logging.Markers;
+import org.gamedo.persistence.IEntityColdStore;
+import org.gamedo.util.GamedoConfiguration;
+import org.gamedo.util.Metric;
+import org.gamedo.util.function.IGameLoopEntityManagerFunction;
+
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+@Log4j2
+public class GameLoopEntityTiering extends GameLoopComponent implements IGameLoopEntityTiering {
+
+    /**
+     * 按照访问顺序排列，第一个为最久未访问的实体，value为最近一次访问的时间，{@link org.gamedo.ecs.Entity}的equals只比较id，不同分类的
+     * 实体id可能相同，因此按照实体的引用区分
+     */
+    private final LinkedHashMap<ResidentKey, long[]> residentMap = new LinkedHashMap<>(1024, 0.75f, true);
+    /**
+     * 用于查找residentMap的键，只在所属线程内使用，避免每次访问都创建新的键
+     */
+    private final ResidentKey probe = new ResidentKey(null);
+    private final long idleMillis;
+    private final int maxResident;
+    private IEntityColdStore coldStore;
+    private ScheduledFuture<?> evictFuture;
+    /**
+     * 正在转储的实体，转储期间（例如反注册事件的处理函数内）对它的访问不会触发加载
+     */
+    private IEntity evictingEntity;
+    /**
+     * 正在转储的实体是否已经成功写入冷存储
+     */
+    private boolean evictingStored;
+    private Counter idleCounter = Metric.NOOP_COUTER;
+    private Counter sizeCounter = Metric.NOOP_COUTER;
+    private Timer reloadTimer = Metric.NOOP_TIMER;
+    private boolean metricRegistered;
+
+    public GameLoopEntityTiering(IGameLoop owner) {
+        super(owner);
+        idleMillis = GamedoConfiguration.getEntityIdleMillis();
+        maxResident = GamedoConfiguration.getEntityMaxResident();
+    }
+
+    @Override
+    public void setColdStore(IEntityColdStore coldStore) {
+        this.coldStore = coldStore;
+
+        final IGameLoop owner = ownerRef.get();
+        if (owner == null) {
+            log.error(Markers.GameLoopEntityTiering, "the {} hasn't a owner yet.", GameLoopEntityTiering.class.getSimpleName());
+            return;
+        }
+
+        registerMetric(owner);
+        if (evictFuture == null) {
+            final long interval = GamedoConfiguration.getEntityEvictIntervalMillis();
+            evictFuture = owner.scheduleWithFixedDelay(this::evict, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public boolean addEntity(IEntity entity) {
+        if (get(entity) != null) {
+            log.error(Markers.GameLoopEntityTiering, "the entity has added, entityId:{}", entity.getId());
+            return false;
+        }
+
+        residentMap.put(new ResidentKey(entity), new long[]{currentTimeMillis()});
+        return true;
+    }
+
+    @Override
+    public boolean removeEntity(IEntity entity) {
+        //反注册的Pre事件处理完毕后才会移除，此时再转储，快照才包含处理函数所做的修改
+        if (entity == evictingEntity) {
+            evictingStored = store(entity);
+        }
+
+        return remove(entity) != null;
+    }
+
+    @Override
+    public void touch(IEntity entity) {
+        final long[] lastAccess = get(entity);
+        if (lastAccess != null) {
+            lastAccess[0] = currentTimeMillis();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T extends IEntity> Optional<T> reload(String entityId, String category) {
+        if (coldStore == null) {
+            return Optional.empty();
+        }
+
+        if (evictingEntity != null && evictingEntity.getId().equals(entityId) && evictingEntity.getCategory().equals(category)) {
+            return Optional.empty();
+        }
+
+        final IGameLoop owner = ownerRef.get();
+        if (owner == null) {
+            log.error(Markers.GameLoopEntityTiering, "the {} hasn't a owner yet.", GameLoopEntityTiering.class.getSimpleName());
+            return Optional.empty();
+        }
+
+        final long start = System.nanoTime();
+        final IEntity entity;
+        try {
+            entity = coldStore.load(entityId, category).orElse(null);
+        } catch (Exception e) {
+            log.error(Markers.GameLoopEntityTiering, "exception caught when load, entityId:" + entityId, e);
+            return Optional.empty();
+        }
+
+        if (entity == null) {
+            return Optional.empty();
+        }
+
+        if (!IGameLoopEntityManagerFunction.registerEntity(entity).apply(owner)) {
+            log.error(Markers.GameLoopEntityTiering, "register failed after load, entityId:{}", entityId);
+            //放回冷存储，避免实体丢失
+            store(entity);
+            return Optional.empty();
+        }
+
+        reloadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.debug(Markers.GameLoopEntityTiering, "entity reloaded, entityId:{}", entityId);
+        return Optional.of((T) entity);
+    }
+
+    @Override
+    public int evict() {
+        if (coldStore == null || residentMap.isEmpty()) {
+            return 0;
+        }
+
+        final IGameLoop owner = ownerRef.get();
+        if (owner == null) {
+            log.error(Markers.GameLoopEntityTiering, "the {} hasn't a owner yet.", GameLoopEntityTiering.class.getSimpleName());
+            return 0;
+        }
+
+        //转储时会反注册实体，进而修改residentMap，因此先选出所有要淘汰的实体
+        final long now = currentTimeMillis();
+        final int overflow = maxResident > 0 ? residentMap.size() - maxResident : 0;
+        final List<IEntity> idleList = new ArrayList<>(0);
+        final List<IEntity> overflowList = new ArrayList<>(Math.max(0, overflow));
+        for (final Map.Entry<ResidentKey, long[]> entry : residentMap.entrySet()) {
+            if (idleMillis > 0 && now - entry.getValue()[0] >= idleMillis) {
+                idleList.add(entry.getKey().entity);
+            } else if (overflowList.size() + idleList.size() < overflow) {
+                overflowList.add(entry.getKey().entity);
+            } else {
+                //按访问顺序排列，后面的实体更不可能空闲
+                break;
+            }
+        }
+
+        int count = 0;
+        for (final IEntity entity : idleList) {
+            if (evict(owner, entity)) {
+                idleCounter.increment();
+                count++;
+            }
+        }
+        for (final IEntity entity : overflowList) {
+            if (evict(owner, entity)) {
+                sizeCounter.increment();
+                count++;
+            }
+        }
+
+        if (count > 0) {
+            log.debug(Markers.GameLoopEntityTiering, "entity evicted, count:{}, resident:{}", count, residentMap.size());
+        }
+
+        return count;
+    }
+
+    @Override
+    public int getResidentCount() {
+        return residentMap.size();
+    }
+
+    private boolean evict(IGameLoop owner, IEntity entity) {
+        //转储在反注册的过程中进行，参考removeEntity
+        final Optional<IEntity> unregistered;
+        evictingEntity = entity;
+        evictingStored = false;
+        try {
+            unregistered = IGameLoopEntityManagerFunction.unregisterEntity(entity.getId(), entity::getCategory).apply(owner);
+        } finally {
+            evictingEntity = null;
+        }
+
+        //反注册失败（例如实体已经不在管理中）时也要保证移除
+        remove(entity);
+        if (unregistered.isEmpty()) {
+            return false;
+        }
+
+        if (!evictingStored) {
+            //转储失败，重新注册以避免实体丢失，同时刷新了访问时间，不会在下一次检测时立刻重试
+            if (!IGameLoopEntityManagerFunction.registerEntity(entity).apply(owner)) {
+                log.error(Markers.GameLoopEntityTiering, "register failed after store failed, entityId:{}", entity.getId());
+            }
+            return false;
+        }
+
+        return true;
+    }
+
+    private long[] get(IEntity entity) {
+        try {
+            return residentMap.get(probe.set(entity));
+        } finally {
+            probe.set(null);
+        }
+    }
+
+    private long[] remove(IEntity entity) {
+        try {
+            return residentMap.remove(probe.set(entity));
+        } finally {
+            probe.set(null);
+        }
+    }
+
+    private boolean store(IEntity entity) {
+        try {
+            coldStore.store(entity);
+            return true;
+        } catch (Exception e) {
+            log.error(Markers.GameLoopEntityTiering, "exception caught when store, entityId:" + entity.getId(), e);
+            return false;
+        }
+    }
+
+    private long currentTimeMillis() {
+        final IGameLoop owner = ownerRef.get();
+        return owner == null ? System.currentTimeMillis() : owner.getComponent(Clock.class)
+                .map(Clock::millis)
+                .orElseGet(System::currentTimeMillis);
+    }
+
+    private void registerMetric(IGameLoop owner) {
+        if (metricRegistered) {
+            return;
+        }
+
+        metricRegistered = true;
+        owner.getComponent(MeterRegistry.class)
+                .map(meterRegistry -> GamedoConfiguration.isMetricEntityEnable() ? meterRegistry : null)
+                .ifPresent(meterRegistry -> {
+                    final Tags tags = Metric.tags(owner);
+                    Gauge.builder(Metric.MeterIdEntityTieringResidentGauge, residentMap, Map::size)
+                            .tags(tags)
+                            .description("the resident entity count")
+                            .baseUnit(BaseUnits.OBJECTS)
+                            .register(meterRegistry);
+                    idleCounter = Counter.builder(Metric.MeterIdEntityTieringEvictCounter)
+                            .tags(tags.and("reason", "idle"))
+                            .description("the evicted entity count")
+                            .register(meterRegistry);
+                    sizeCounter = Counter.builder(Metric.MeterIdEntityTieringEvictCounter)
+                            .tags(tags.and("reason", "size"))
+                            .description("the evicted entity count")
+                            .register(meterRegistry);
+                    reloadTimer = Timer.builder(Metric.MeterIdEntityTieringReloadTimer)
+                            .tags(tags)
+                            .description("the entity reload timing")
+                            .register(meterRegistry);
+                });
+    }
+
+    private static final class ResidentKey {
+        private IEntity entity;
+        private int hash;
+
+        private ResidentKey(IEntity entity) {
+            set(entity);
+        }
+
+        private ResidentKey set(IEntity entity) {
+            this.entity = entity;
+            hash = System.identityHashCode(entity);
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof ResidentKey && ((ResidentKey) o).entity == entity;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
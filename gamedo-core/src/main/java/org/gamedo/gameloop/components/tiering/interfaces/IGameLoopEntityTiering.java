@@ -0,0 +1,82 @@
+package org.gamedo.gameloop.components.tiering.interfaces;
+
+import org.gamedo.ecs.interfaces.IComponent;
+import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.gameloop.GameLoopConfig;
+import org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.persistence.IEntityColdStore;
+import org.gamedo.util.GamedoConfiguration;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * {@link IGameLoop}的实体冷热分层组件，是一个可选组件，需要通过{@link GameLoopConfig#getComponentRegisters()}进行注册，并通过
+ * {@link IGameLoopEntityTiering#setColdStore(IEntityColdStore)}设置冷存储后才会生效，生效后：
+ * <ul>
+ * <li> 注册到{@link IGameLoopEntityManager}的实体按照最近访问时间排序，{@link IGameLoopEntityManager#getEntity(String, Supplier)}
+ * 命中时会刷新实体的访问时间
+ * <li> 空闲超过{@link GamedoConfiguration#getEntityIdleMillis()}的实体，以及常驻数量超过
+ * {@link GamedoConfiguration#getEntityMaxResident()}时最久未访问的实体，会被反注册（包括其@Tick、@Cron以及事件监听），并在反注册的
+ * Pre事件处理完毕之后转储到冷存储，转储失败的实体会被重新注册
+ * <li> 被转储的实体再次通过{@link IGameLoopEntityManager#getOrReload(String, Supplier)}访问时，会从冷存储中重新加载并注册，路由到实体
+ * 的消息也会以这种方式加载
+ * </ul>
+ * 需要注意的是，{@link IGameLoopEntityManager#getEntity(String, Supplier)}、{@link IGameLoopEntityManager#hasEntity(String, Supplier)}
+ * 以及{@link IGameLoopEntityManager#getEntityMap(Supplier)}只反映常驻的实体，不会触发加载
+ */
+public interface IGameLoopEntityTiering extends IComponent<IGameLoop> {
+
+    /**
+     * 设置冷存储，设置后开始周期性地检测淘汰，检测间隔为{@link GamedoConfiguration#getEntityEvictIntervalMillis()}
+     *
+     * @param coldStore 冷存储
+     */
+    void setColdStore(IEntityColdStore coldStore);
+
+    /**
+     * 实体注册后的回调，由{@link IGameLoopEntityManager}自动调用
+     *
+     * @param entity 注册的实体
+     * @return 加入成功返回true，如果已经加入过，返回false
+     */
+    boolean addEntity(IEntity entity);
+
+    /**
+     * 实体反注册后的回调，由{@link IGameLoopEntityManager}自动调用
+     *
+     * @param entity 反注册的实体
+     * @return 移除成功返回true，如果没有加入过，返回false
+     */
+    boolean removeEntity(IEntity entity);
+
+    /**
+     * 刷新实体的访问时间
+     *
+     * @param entity 被访问的实体
+     */
+    void touch(IEntity entity);
+
+    /**
+     * 从冷存储中加载实体并注册到{@link IGameLoopEntityManager}
+     *
+     * @param entityId 实体id
+     * @param category 实体分类
+     * @param <T>      实体类型
+     * @return 如果没有设置冷存储、实体没有被转储过或者加载、注册失败，返回{@link Optional#empty()}
+     */
+    <T extends IEntity> Optional<T> reload(String entityId, String category);
+
+    /**
+     * 立即检测并淘汰所有空闲或者超出常驻数量的实体
+     *
+     * @return 本次淘汰的实体的数量
+     */
+    int evict();
+
+    /**
+     * @return 当前常驻内存的实体数量
+     */
+    int getResidentCount();
+}
@@ -0,0 +1,21 @@
+package org.gamedo.gameloop.interfaces;
+
+import java.util.function.Supplier;
+
+/**
+ * 可合并的消息，通过{@link IGameLoop#tell(String, Supplier, Object)}发送给同一个实体时，如果实体邮箱内还有尚未处理的同key消息，
+ * 则直接用新消息原地替换旧消息（保持旧消息在队列中的位置），适用于只有最新值才有意义的消息，例如位置同步，需要注意的是：
+ * <ul>
+ * <li> 只有tell的消息会被合并，ask的消息总是逐条处理
+ * <li> 只有已经注册（拥有实体邮箱）的实体才会合并消息
+ * </ul>
+ */
+public interface ICoalescableMessage {
+
+    /**
+     * @return 合并的key，同一个实体的同key消息会被合并，默认为消息的类型
+     */
+    default Object getCoalesceKey() {
+        return getClass();
+    }
+}
@@ -9,6 +9,10 @@ import org.gamedo.ecs.interfaces.IEntity;
 import org.gamedo.exception.GameLoopException;
 import org.gamedo.gameloop.GameLoop;
 import org.gamedo.gameloop.GameLoopConfig;
+import org.gamedo.gameloop.GameLoopCoroutine;
+import org.gamedo.gameloop.Lane;
+import org.gamedo.gameloop.RejectPolicy;
+import org.gamedo.gameloop.TaskPriority;
 import org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager;
 import org.gamedo.gameloop.components.eventbus.interfaces.IGameLoopEventBus;
 import org.gamedo.gameloop.components.scheduling.interfaces.IGameLoopScheduler;
@@ -22,6 +26,7 @@ import java.util.ConcurrentModificationException;
 import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.BiConsumer;
@@ -143,6 +148,118 @@ public interface IGameLoop extends ScheduledExecutorService, IEntity {
      */
     <R> CompletableFuture<R> submit(EntityFunction<IGameLoop, R> function);
 
+    /**
+     * 提交一个操作到该{@link IGameLoop}的指定通道，和{@link IGameLoop#submit(EntityFunction)}的区别在于：任务在{@link Lane}中排队，
+     * 并按照{@link GameLoopConfig#getLaneWeights()}和其他通道加权轮询执行，因此可以避免大量的玩家请求拖慢心跳任务，或者耗时的后台任务
+     * 拖慢玩家请求；任务同样受{@link GameLoopConfig#getMaxQueueSize()}限制，如果当前线程就是本{@link IGameLoop}，则立刻执行
+     *
+     * @param function 要提交的function
+     * @param lane     任务所在的通道
+     * @param <R>      提交后的返回值类型
+     * @return 返回操作返回结果
+     */
+    <R> CompletableFuture<R> submit(EntityFunction<IGameLoop, R> function, Lane lane);
+
+    /**
+     * 提交一个任务到该{@link IGameLoop}的指定通道，参考{@link IGameLoop#submit(EntityFunction, Lane)}；未指定通道的
+     * {@link IGameLoop#execute(Runnable)}、{@link IGameLoop#submit(EntityFunction)}以及@Tick、@Cron等框架内部的任务不经过通道，
+     * 仍然直接进入线程池的队列
+     *
+     * @param command 要执行的任务
+     * @param lane    任务所在的通道
+     * @throws java.util.concurrent.RejectedExecutionException 本线程已经关闭时抛出
+     */
+    void execute(Runnable command, Lane lane);
+
+    /**
+     * @param lane 通道
+     * @return 该通道中尚未开始执行的任务数量
+     */
+    int getLaneDepth(Lane lane);
+
+    /**
+     * 尝试提交一个操作到该{@link IGameLoop}，和{@link IGameLoop#submit(EntityFunction)}的区别在于：当任务队列已满（参考
+     * {@link GameLoopConfig#getMaxQueueSize()}）并且按照{@link GameLoopConfig#getRejectPolicy()}拒绝了本任务时，不会阻塞或者抛出异常，
+     * 而是立刻返回{@link Optional#empty()}，调用者（例如网关）可以据此尽早地对客户端限流；需要注意的是，已经被接受的任务也可能在之后因为
+     * {@link RejectPolicy#DROP_OLDEST}或者{@link RejectPolicy#DROP_LOWEST_PRIORITY}而被丢弃，此时返回值以
+     * {@link java.util.concurrent.RejectedExecutionException}完成
+     *
+     * @param function 要提交的function
+     * @param priority 任务的优先级
+     * @param <R>      提交后的返回值类型
+     * @return 任务被接受时返回操作返回结果，被拒绝或者本线程已经关闭时返回{@link Optional#empty()}
+     */
+    <R> Optional<CompletableFuture<R>> trySubmit(EntityFunction<IGameLoop, R> function, TaskPriority priority);
+
+    /**
+     * 以{@link TaskPriority#NORMAL}优先级尝试提交一个操作，参考{@link IGameLoop#trySubmit(EntityFunction, TaskPriority)}
+     *
+     * @param function 要提交的function
+     * @param <R>      提交后的返回值类型
+     * @return 任务被接受时返回操作返回结果，被拒绝或者本线程已经关闭时返回{@link Optional#empty()}
+     */
+    default <R> Optional<CompletableFuture<R>> trySubmit(EntityFunction<IGameLoop, R> function) {
+        return trySubmit(function, TaskPriority.NORMAL);
+    }
+
+    /**
+     * @return 从其他线程提交的、尚未开始执行的任务数量，参考{@link GameLoopConfig#getMaxQueueSize()}
+     */
+    int getQueueDepth();
+
+    /**
+     * 在该{@link IGameLoop}上启动一个协程，协程内可以通过{@link GameLoopCoroutine#await(CompletionStage)}以阻塞的方式等待其他线程的
+     * 异步结果，等待期间本{@link IGameLoop}继续处理其他任务，结果完成后协程在本{@link IGameLoop}上恢复执行，因此协程内可以和普通任务一样
+     * 直接访问本线程的实体和组件，本函数是线程安全的，协程总是被异步启动，详情参考{@link GameLoopCoroutine}
+     *
+     * @param function 协程体
+     * @param <R>      协程的返回值类型
+     * @return 协程的返回结果
+     */
+    <R> CompletableFuture<R> spawn(EntityFunction<IGameLoop, R> function);
+
+    /**
+     * 向本{@link IGameLoop}上的某个实体发送一条单向消息，消息进入本线程的无锁邮箱，随后在本线程内按照发送顺序批量地交给实体的
+     * {@link IMailboxHandler}处理，本函数是线程安全的，和{@link IGameLoop#submit(EntityFunction)}相比，不会为每条消息创建
+     * {@link CompletableFuture}，也不会竞争线程池内的有锁队列，适用于跨线程的高频通信，如果实体不存在或者没有{@link IMailboxHandler}，
+     * 消息被丢弃并记录日志，如果消息实现了{@link ICoalescableMessage}，实体邮箱内尚未处理的同key消息会被本消息原地替换
+     *
+     * @param entityId 接收消息的实体id
+     * @param category 接收消息的实体的类别
+     * @param message  消息
+     * @return 投递成功返回true，本线程已经关闭时返回false
+     */
+    boolean tell(String entityId, Supplier<String> category, Object message);
+
+    /**
+     * 向本{@link IGameLoop}上的某个实体发送一条请求消息，并通过callback接收回复，和{@link IGameLoop#tell(String, Supplier, Object)}
+     * 一样经由邮箱投递：如果调用者位于某个{@link IGameLoop}线程内，回复会被投递回调用者的邮箱，并在调用者的线程内回调；否则在本线程内直接
+     * 回调，此时callback需要自己保证线程安全
+     *
+     * @param entityId 接收消息的实体id
+     * @param category 接收消息的实体的类别
+     * @param message  消息
+     * @param callback 回复的回调，第一个参数为{@link IMailboxHandler#onMessage(IEntity, Object)}的返回值，第二个参数为处理时抛出的
+     *                 异常，实体不存在或者没有{@link IMailboxHandler}时为{@link GameLoopException}
+     * @param <R>      回复的类型
+     * @return 投递成功返回true，本线程已经关闭时返回false
+     */
+    <R> boolean ask(String entityId, Supplier<String> category, Object message, BiConsumer<? super R, ? super Throwable> callback);
+
+    /**
+     * @return 邮箱内尚未消费的消息数量，包括各个实体邮箱内的消息
+     */
+    int getMailboxDepth();
+
+    /**
+     * 返回某个实体的实体邮箱内尚未消费的消息数量，实体注册时创建实体邮箱，反注册时销毁，本函数是线程安全的
+     *
+     * @param entityId 实体id
+     * @param category 实体的类别
+     * @return 实体邮箱内的消息数量，实体不在本线程内时返回0
+     */
+    int getMailboxDepth(String entityId, Supplier<String> category);
+
     @Override
     default String getCategory() {
         return "GameLoop";
@@ -10,6 +10,8 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 /**
  * 每一个{@link IGameLoopGroup}实例代表一个线程组，内部包含若干{@link IGameLoop}实例，{@link IGameLoopGroup}虽然继承了
@@ -72,6 +74,15 @@ public interface IGameLoopGroup extends ExecutorService {
      */
     IGameLoop selectHashing(String hashKey);
 
+    /**
+     * 根据hash一致性算法选出一个固定的{@link IGameLoop}线程，和{@code selectHashing(Long.toString(hashKey))}的结果相同，但是不需要构造
+     * 字符串，适用于以数值作为Id的实体（例如{@link org.gamedo.ecs.interfaces.ILongIdentity}）
+     *
+     * @param hashKey 哈希key
+     * @return 返回计算后的线程
+     */
+    IGameLoop selectHashing(long hashKey);
+
     /**
      * 选择一个或多个符合条件的{@link IGameLoop}，首先对所管理的所有{@link IGameLoop}使用选择器：
      * {@link GameLoopFunction#apply(IGameLoop)}，
@@ -105,6 +116,31 @@ public interface IGameLoopGroup extends ExecutorService {
                                                                                 Comparator<C> comparator,
                                                                                 int limit);
 
+    /**
+     * 根据实体id在hash环上选出实体所在的{@link IGameLoop}（和{@link IGameLoopGroup#selectHashing(String)}一致），并向该实体发送一条
+     * 单向消息，因此要求实体也是通过{@link IGameLoopGroup#selectHashing(String)}安全发布的
+     *
+     * @param entityId 接收消息的实体id
+     * @param category 接收消息的实体的类别
+     * @param message  消息
+     * @return 投递成功返回true
+     * @see IGameLoop#tell(String, Supplier, Object)
+     */
+    boolean tell(String entityId, Supplier<String> category, Object message);
+
+    /**
+     * 根据实体id在hash环上选出实体所在的{@link IGameLoop}，并向该实体发送一条请求消息
+     *
+     * @param entityId 接收消息的实体id
+     * @param category 接收消息的实体的类别
+     * @param message  消息
+     * @param callback 回复的回调
+     * @param <R>      回复的类型
+     * @return 投递成功返回true
+     * @see IGameLoop#ask(String, Supplier, Object, BiConsumer)
+     */
+    <R> boolean ask(String entityId, Supplier<String> category, Object message, BiConsumer<? super R, ? super Throwable> callback);
+
     /**
      * 提交一个操作到轮询的当前{@link IGameLoop}线程
      * @param function 要提交的function
@@ -0,0 +1,22 @@
+package org.gamedo.gameloop.interfaces;
+
+import org.gamedo.gameloop.GameLoopConfig;
+import org.gamedo.gameloop.GameLoopStall;
+
+/**
+ * {@link IGameLoop}的卡顿监听器，通过{@link GameLoopConfig#getStallListener()}配置，每个卡顿的任务只通知一次<p>
+ * 本接口在看门狗线程中执行，此时卡顿的{@link IGameLoop}仍然被阻塞，因此不能在其中同步等待该{@link IGameLoop}执行任何任务；如果需要
+ * 将实体迁移到其他{@link IGameLoop}，可以在此处停止向卡顿的{@link IGameLoop}路由新的实体，并通过其他{@link IGameLoop}从存储中重新
+ * 加载受影响的实体
+ */
+@FunctionalInterface
+public interface IGameLoopStallListener {
+
+    /**
+     * 卡顿通知
+     *
+     * @param gameLoop 发生卡顿的{@link IGameLoop}
+     * @param stall    卡顿信息
+     */
+    void onStall(IGameLoop gameLoop, GameLoopStall stall);
+}
@@ -0,0 +1,24 @@
+package org.gamedo.gameloop.interfaces;
+
+import org.gamedo.ecs.interfaces.IEntity;
+
+import java.util.function.Supplier;
+
+/**
+ * 实体的消息处理器，通过{@link IGameLoop#tell(String, Supplier, Object)}或者{@link IGameLoopGroup#tell(String, Supplier, Object)}
+ * 发送给某个实体的消息，最终在该实体所在的{@link IGameLoop}线程内由本接口处理，实体可以直接实现本接口，也可以将其作为组件添加到
+ * 实体上（组件优先）
+ */
+@FunctionalInterface
+public interface IMailboxHandler {
+
+    /**
+     * 处理一条消息，该函数总是在实体所在的{@link IGameLoop}线程内执行
+     *
+     * @param entity  接收消息的实体
+     * @param message 消息
+     * @return 对于ask消息，返回值会被回复给发送者；对于tell消息，返回值被忽略
+     * @throws Exception 对于ask消息，异常会被回复给发送者；对于tell消息，异常只记录日志
+     */
+    Object onMessage(IEntity entity, Object message) throws Exception;
+}
@@ -0,0 +1,15 @@
+package org.gamedo.gameloop.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 一次@Cron函数的调用
+ */
+@Name("org.gamedo.Cron")
+@Label("Cron")
+public class CronJfrEvent extends GameLoopJfrEvent {
+
+    @Label("Cron")
+    public String cron;
+}
@@ -0,0 +1,18 @@
+package org.gamedo.gameloop.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 一次实体注册，包括注册事件监听、@Cron、@Tick以及触发注册事件的总耗时
+ */
+@Name("org.gamedo.EntityRegister")
+@Label("Entity Register")
+public class EntityRegisterJfrEvent extends GameLoopJfrEvent {
+
+    @Label("Category")
+    public String category;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,15 @@
+package org.gamedo.gameloop.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 一次实体反注册，包括反注册事件监听、@Cron、@Tick以及触发反注册事件的总耗时
+ */
+@Name("org.gamedo.EntityUnregister")
+@Label("Entity Unregister")
+public class EntityUnregisterJfrEvent extends GameLoopJfrEvent {
+
+    @Label("Category")
+    public String category;
+}
@@ -0,0 +1,17 @@
+package org.gamedo.gameloop.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * 一次@Subscribe函数的调用
+ */
+@Name("org.gamedo.EventDispatch")
+@Label("Event Dispatch")
+@Threshold("1 ms")
+public class EventDispatchJfrEvent extends GameLoopJfrEvent {
+
+    @Label("Event Class")
+    public String eventClass;
+}
@@ -0,0 +1,23 @@
+package org.gamedo.gameloop.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * 一次事件的抛出，包括分发给所有订阅者的总耗时，实体id为抛出事件时{@link org.gamedo.logging.GamedoLogContext}栈顶的实体id
+ */
+@Name("org.gamedo.EventPost")
+@Label("Event Post")
+@Threshold("1 ms")
+public class EventPostJfrEvent extends GameLoopJfrEvent {
+
+    @Label("Event Class")
+    public String eventClass;
+
+    @Label("Invoke Count")
+    public int invokeCount;
+
+    @Label("Post Depth")
+    public int depth;
+}
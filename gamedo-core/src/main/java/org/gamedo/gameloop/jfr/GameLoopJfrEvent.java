@@ -0,0 +1,68 @@
+package org.gamedo.gameloop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.logging.GamedoLogContext;
+
+import java.lang.reflect.Method;
+
+/**
+ * gamedo热点路径上的JDK Flight Recorder事件的基类，所有事件都位于"Gamedo"分类下，名称以org.gamedo.开头，可以通过JFR的配置文件
+ * 开启、关闭或者修改阈值，例如：
+ * <pre>
+ * {@code
+ * <event name="org.gamedo.Tick">
+ *     <setting name="enabled">true</setting>
+ *     <setting name="threshold">0 ms</setting>
+ * </event>
+ * }
+ * </pre>
+ * 使用方式如下，没有开启的事件在{@link Event#shouldCommit()}时直接返回false，并且不会计算实体id等字段，JIT优化后基本没有开销：
+ * <pre>
+ * {@code
+ * final TickJfrEvent jfrEvent = new TickJfrEvent();
+ * jfrEvent.begin();
+ * try {
+ *     method.invoke(object, args);
+ * } finally {
+ *     if (jfrEvent.shouldCommit()) {
+ *         jfrEvent.set(gameLoop, object, method);
+ *         jfrEvent.commit();
+ *     }
+ * }
+ * }
+ * </pre>
+ */
+@Category("Gamedo")
+@StackTrace(false)
+public abstract class GameLoopJfrEvent extends Event {
+
+    @Label("GameLoop Id")
+    public String gameLoopId;
+
+    @Label("Entity Id")
+    public String entityId;
+
+    @Label("Class")
+    public String className;
+
+    @Label("Method")
+    public String methodName;
+
+    /**
+     * 填充公共字段，应该在{@link Event#shouldCommit()}返回true之后调用
+     *
+     * @param gameLoop 事件所在的{@link IGameLoop}，可以为null
+     * @param object   被调用的对象，通过{@link GamedoLogContext#converter}转换为实体id，可以为null
+     * @param method   被调用的函数，可以为null
+     */
+    public void set(IGameLoop gameLoop, Object object, Method method) {
+        gameLoopId = gameLoop == null ? null : gameLoop.getId();
+        entityId = object == null ? null : GamedoLogContext.converter.convert(object);
+        className = object == null ? null : object.getClass().getName();
+        methodName = method == null ? null : method.getName();
+    }
+}
@@ -0,0 +1,21 @@
+package org.gamedo.gameloop.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * 一个从其他线程通过{@link org.gamedo.gameloop.interfaces.IGameLoop#submit(org.gamedo.util.function.EntityFunction)}提交的任务的
+ * 执行，类名为任务函数的类名
+ */
+@Name("org.gamedo.Submit")
+@Label("Submit")
+@Threshold("1 ms")
+public class SubmitJfrEvent extends GameLoopJfrEvent {
+
+    @Label("Source Thread")
+    public Thread sourceThread;
+
+    @Label("Priority")
+    public String priority;
+}
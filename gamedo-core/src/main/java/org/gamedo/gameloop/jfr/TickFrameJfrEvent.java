@@ -0,0 +1,24 @@
+package org.gamedo.gameloop.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 同一心跳间隔下所有@Tick函数的一个时间片，没有设置帧预算时即为完整的一帧
+ */
+@Name("org.gamedo.TickFrame")
+@Label("Tick Frame")
+public class TickFrameJfrEvent extends GameLoopJfrEvent {
+
+    @Label("Tick")
+    public String tick;
+
+    @Label("First Slice")
+    public boolean firstSlice;
+
+    @Label("Invoke Count")
+    public int invokeCount;
+
+    @Label("Deferred Count")
+    public int deferredCount;
+}
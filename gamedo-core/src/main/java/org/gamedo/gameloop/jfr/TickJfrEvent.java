@@ -0,0 +1,17 @@
+package org.gamedo.gameloop.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * 一次@Tick函数的调用
+ */
+@Name("org.gamedo.Tick")
+@Label("Tick")
+@Threshold("1 ms")
+public class TickJfrEvent extends GameLoopJfrEvent {
+
+    @Label("Tick")
+    public String tick;
+}
@@ -72,6 +72,12 @@ public final class Markers
     public static final Marker GameLoopEventBus = of("gamedo.eventBus", GameLoop);
     public static final Marker GameLoopTickManager = of("gamedo.tickManager", GameLoop);
     public static final Marker GameLoopScheduler = of("gamedo.scheduler", GameLoop);
+    public static final Marker GameLoopArchetypeManager = of("gamedo.archetypeManager", GameLoop);
+    public static final Marker GameLoopEntityPool = of("gamedo.entityPool", GameLoop);
+    public static final Marker GameLoopAoiManager = of("gamedo.aoiManager", GameLoop);
+    public static final Marker GameLoopEntityTiering = of("gamedo.entityTiering", GameLoop);
+    public static final Marker GameLoopWatchdog = of("gamedo.watchdog", GameLoop);
+    public static final Marker Persistence = of("gamedo.persistence", GameLoop);
     public static final Marker GameLoopTest = of("gamedo.test", GameLoop);
     public static final Marker GameLoopContainer = of("gamedo.container", GameLoop);
 
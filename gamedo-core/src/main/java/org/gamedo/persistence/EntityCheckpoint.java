@@ -0,0 +1,252 @@
+package org.gamedo.persistence;
+
+import lombok.extern.log4j.Log4j2;
+import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.logging.Markers;
+import org.gamedo.util.function.GameLoopFunction;
+import org.gamedo.util.function.IGameLoopEntityManagerFunction;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32;
+
+/**
+ * {@link IGameLoop}的实体检查点，将{@link IGameLoopEntityManager}中的所有实体通过{@link IEntityCodec}编码后写入一个内存映射文件，
+ * 进程重启时可以直接从该文件恢复，而不需要从数据库中逐个加载，每个{@link IGameLoop}对应一个文件：目录/{@link IGameLoop#getId()}.ckpt，
+ * 因此各个线程可以并行地写入和恢复<p>
+ * 文件格式如下（大端序）：
+ * <pre>
+ * magic(int) | formatVersion(short) | codecVersion(int) | createMillis(long) | entityCount(int) | bodyLength(long) | crc32(int)
+ * body: [length(int) | data(byte[length])] * entityCount
+ * </pre>
+ * 其中crc32是对body的校验，读取时格式版本不一致、长度不符或者校验失败都会抛出{@link IOException}，写入时先写临时文件再原子地替换，因此
+ * 进程在写入期间崩溃不会损坏之前的检查点
+ */
+@Log4j2
+public final class EntityCheckpoint {
+
+    public static final int MAGIC = 0x47444350;
+    public static final short FORMAT_VERSION = 1;
+    public static final String FILE_SUFFIX = ".ckpt";
+    private static final int HEADER_SIZE = 4 + 2 + 4 + 8 + 4 + 8 + 4;
+
+    private EntityCheckpoint() {
+    }
+
+    /**
+     * 定义一个行为：将{@link IGameLoop}中的所有实体写入检查点文件，编码失败的实体会被跳过
+     *
+     * @param directory 检查点文件所在的目录
+     * @param codec     实体编解码器
+     * @return 返回该行为的定义，其中GameLoopFunction中的Integer代表写入的实体的数量，写入文件失败时为-1
+     */
+    public static GameLoopFunction<Integer> checkpoint(Path directory, IEntityCodec codec) {
+        return gameLoop -> {
+            final List<byte[]> dataList = new ArrayList<>(128);
+            gameLoop.getComponent(IGameLoopEntityManager.class).ifPresent(entityManager -> entityManager.forEachEntity(entity -> {
+                try {
+                    dataList.add(codec.encode(entity));
+                } catch (Exception e) {
+                    log.error(Markers.Persistence, "exception caught when encode, entityId:" + entity.getId(), e);
+                }
+            }));
+
+            final Path file = file(directory, gameLoop);
+            try {
+                Files.createDirectories(directory);
+                write(file, dataList, codec.getVersion());
+            } catch (Exception e) {
+                log.error(Markers.Persistence, "exception caught when write checkpoint, file:" + file, e);
+                return -1;
+            }
+
+            log.info(Markers.Persistence, "checkpoint finish, file:{}, entity:{}", file, dataList.size());
+            return dataList.size();
+        };
+    }
+
+    /**
+     * 定义一个行为：从检查点文件中恢复实体，并注册到{@link IGameLoop}中，解码或者注册失败的实体会被跳过
+     *
+     * @param directory 检查点文件所在的目录
+     * @param codec     实体编解码器
+     * @return 返回该行为的定义，其中GameLoopFunction中的Integer代表注册成功的实体的数量，文件不存在时为0，文件损坏时为-1
+     */
+    public static GameLoopFunction<Integer> restore(Path directory, IEntityCodec codec) {
+        return gameLoop -> {
+            final Path file = file(directory, gameLoop);
+            if (!Files.exists(file)) {
+                return 0;
+            }
+
+            final List<IEntity> entityList;
+            try {
+                entityList = read(file, codec);
+            } catch (Exception e) {
+                log.error(Markers.Persistence, "exception caught when read checkpoint, file:" + file, e);
+                return -1;
+            }
+
+            final int count = (int) entityList.stream()
+                    .filter(entity -> IGameLoopEntityManagerFunction.registerEntity(entity).apply(gameLoop))
+                    .count();
+            log.info(Markers.Persistence, "restore finish, file:{}, entity:{}, registered:{}", file, entityList.size(), count);
+            return count;
+        };
+    }
+
+    /**
+     * 并行地为每一个{@link IGameLoop}写入检查点
+     *
+     * @param gameLoops 要写入检查点的线程
+     * @param directory 检查点文件所在的目录
+     * @param codec     实体编解码器
+     * @return 全部写入完毕后完成，其中的Integer代表写入的实体的总数（不包括失败的线程）
+     */
+    public static CompletableFuture<Integer> checkpointAll(IGameLoop[] gameLoops, Path directory, IEntityCodec codec) {
+        return sum(gameLoops, checkpoint(directory, codec));
+    }
+
+    /**
+     * 并行地为每一个{@link IGameLoop}恢复实体
+     *
+     * @param gameLoops 要恢复实体的线程
+     * @param directory 检查点文件所在的目录
+     * @param codec     实体编解码器
+     * @return 全部恢复完毕后完成，其中的Integer代表注册成功的实体的总数
+     */
+    public static CompletableFuture<Integer> restoreAll(IGameLoop[] gameLoops, Path directory, IEntityCodec codec) {
+        return sum(gameLoops, restore(directory, codec));
+    }
+
+    /**
+     * 将编码后的实体写入检查点文件
+     *
+     * @param file         检查点文件
+     * @param dataList     编码后的实体
+     * @param codecVersion 编码格式的版本号
+     * @throws IOException 写入失败时抛出
+     */
+    public static void write(Path file, List<byte[]> dataList, int codecVersion) throws IOException {
+        long bodyLength = 0;
+        for (final byte[] data : dataList) {
+            bodyLength += Integer.BYTES + data.length;
+        }
+
+        final long size = HEADER_SIZE + bodyLength;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("checkpoint too large, size:" + size);
+        }
+
+        final Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (final FileChannel channel = FileChannel.open(tmpFile,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.position(HEADER_SIZE);
+            for (final byte[] data : dataList) {
+                buffer.putInt(data.length);
+                buffer.put(data);
+            }
+
+            buffer.position(0);
+            buffer.putInt(MAGIC)
+                    .putShort(FORMAT_VERSION)
+                    .putInt(codecVersion)
+                    .putLong(System.currentTimeMillis())
+                    .putInt(dataList.size())
+                    .putLong(bodyLength)
+                    .putInt(crc(buffer, bodyLength));
+            buffer.force();
+        }
+
+        try {
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * 读取检查点文件并解码所有实体，解码失败的实体会被跳过
+     *
+     * @param file  检查点文件
+     * @param codec 实体编解码器
+     * @return 解码后的实体
+     * @throws IOException 读取失败、格式版本不一致或者校验失败时抛出
+     */
+    public static List<IEntity> read(Path file, IEntityCodec codec) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("checkpoint truncated, size:" + size);
+            }
+
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            final int magic = buffer.getInt();
+            if (magic != MAGIC) {
+                throw new IOException("not a checkpoint file, magic:" + Integer.toHexString(magic));
+            }
+
+            final short formatVersion = buffer.getShort();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("unsupported checkpoint version:" + formatVersion + ", expected:" + FORMAT_VERSION);
+            }
+
+            final int codecVersion = buffer.getInt();
+            buffer.getLong();
+            final int count = buffer.getInt();
+            final long bodyLength = buffer.getLong();
+            final int crc = buffer.getInt();
+            if (bodyLength != size - HEADER_SIZE) {
+                throw new IOException("checkpoint truncated, bodyLength:" + bodyLength + ", actual:" + (size - HEADER_SIZE));
+            }
+            if (crc != crc(buffer, bodyLength)) {
+                throw new IOException("checkpoint crc mismatch, file:" + file);
+            }
+
+            final List<IEntity> entityList = new ArrayList<>(count);
+            buffer.position(HEADER_SIZE);
+            for (int i = 0; i < count; i++) {
+                final int length = buffer.getInt();
+                final byte[] data = new byte[length];
+                buffer.get(data);
+                try {
+                    entityList.add(codec.decode(data, codecVersion));
+                } catch (Exception e) {
+                    log.error(Markers.Persistence, "exception caught when decode, file:" + file + ", index:" + i, e);
+                }
+            }
+
+            return entityList;
+        }
+    }
+
+    public static Path file(Path directory, IGameLoop gameLoop) {
+        return directory.resolve(gameLoop.getId() + FILE_SUFFIX);
+    }
+
+    private static int crc(ByteBuffer buffer, long bodyLength) {
+        final ByteBuffer body = buffer.duplicate();
+        body.position(HEADER_SIZE).limit(HEADER_SIZE + (int) bodyLength);
+        final CRC32 crc32 = new CRC32();
+        crc32.update(body);
+        return (int) crc32.getValue();
+    }
+
+    private static CompletableFuture<Integer> sum(IGameLoop[] gameLoops, GameLoopFunction<Integer> function) {
+        final List<CompletableFuture<Integer>> futureList = new ArrayList<>(gameLoops.length);
+        Arrays.stream(gameLoops).forEach(gameLoop -> futureList.add(gameLoop.submit(function)));
+
+        return CompletableFuture.allOf(futureList.toArray(CompletableFuture[]::new))
+                .thenApply(v -> futureList.stream().mapToInt(CompletableFuture::join).filter(count -> count > 0).sum());
+    }
+}
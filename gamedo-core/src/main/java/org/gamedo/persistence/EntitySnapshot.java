@@ -0,0 +1,23 @@
+package org.gamedo.persistence;
+
+import lombok.Value;
+
+/**
+ * 实体的快照，由{@link WriteBehindPersister}在实体所在的{@link org.gamedo.gameloop.interfaces.IGameLoop}线程内生成，之后交给db线程
+ * 池存储，因此data必须是一个和实体不再共享任何可变状态的副本（例如序列化后的字节数组或者文档对象）
+ */
+@Value
+public class EntitySnapshot {
+    /**
+     * 实体id
+     */
+    String entityId;
+    /**
+     * 实体所属分类
+     */
+    String category;
+    /**
+     * 快照数据
+     */
+    Object data;
+}
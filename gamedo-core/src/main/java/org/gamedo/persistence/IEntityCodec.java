@@ -0,0 +1,35 @@
+package org.gamedo.persistence;
+
+import org.gamedo.ecs.interfaces.IEntity;
+
+/**
+ * 实体（连同其所有组件）的二进制编解码器，供{@link EntityCheckpoint}使用，实现类可以基于任意的序列化框架（例如protobuf、kryo）
+ */
+public interface IEntityCodec {
+
+    /**
+     * @return 编码格式的版本号，会被写入检查点文件，解码时原样传回，实体结构发生不兼容的变化时应该递增
+     */
+    default int getVersion() {
+        return 1;
+    }
+
+    /**
+     * 在实体所属的{@link org.gamedo.gameloop.interfaces.IGameLoop}线程内将实体编码
+     *
+     * @param entity 要编码的实体
+     * @return 编码后的数据
+     * @throws Exception 编码失败时抛出
+     */
+    byte[] encode(IEntity entity) throws Exception;
+
+    /**
+     * 将数据解码为实体
+     *
+     * @param data    编码后的数据
+     * @param version 编码时的{@link IEntityCodec#getVersion()}，可以据此对旧版本的数据进行迁移
+     * @return 解码后的实体
+     * @throws Exception 解码失败时抛出
+     */
+    IEntity decode(byte[] data, int version) throws Exception;
+}
@@ -0,0 +1,36 @@
+package org.gamedo.persistence;
+
+import org.gamedo.ecs.interfaces.IEntity;
+
+import java.util.Optional;
+
+/**
+ * 实体冷存储的SPI，供{@link org.gamedo.gameloop.components.tiering.interfaces.IGameLoopEntityTiering}在{@link IEntity}长时间
+ * 空闲后将其转储，并在再次被访问时重新加载，实现类通常会将实体序列化后存放在本地文件（例如内存映射文件）或者远程缓存中<p>
+ * 所有函数都在实体所属的{@link org.gamedo.gameloop.interfaces.IGameLoop}线程内调用，如果多个线程共享同一个实例，实现类需要保证线程安全
+ */
+public interface IEntityColdStore {
+
+    /**
+     * 转储一个实体，调用完成后该实体会被反注册
+     *
+     * @param entity 要转储的实体
+     * @throws Exception 转储失败时抛出，此时实体保持常驻
+     */
+    void store(IEntity entity) throws Exception;
+
+    /**
+     * 取出一个之前转储的实体，取出后该实体不再保存在冷存储中
+     *
+     * @param entityId 实体id
+     * @param category 实体分类
+     * @return 如果没有转储过，返回{@link Optional#empty()}
+     * @throws Exception 加载失败时抛出
+     */
+    Optional<IEntity> load(String entityId, String category) throws Exception;
+
+    /**
+     * @return 当前转储的实体的数量
+     */
+    int size();
+}
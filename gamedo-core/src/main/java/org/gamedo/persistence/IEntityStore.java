@@ -0,0 +1,19 @@
+package org.gamedo.persistence;
+
+import java.util.List;
+
+/**
+ * 实体存储的SPI，由{@link WriteBehindPersister}在db线程池的{@link org.gamedo.gameloop.interfaces.IGameLoop}线程内调用，同一个实体的
+ * 快照总是由同一个线程按顺序存储，实现类可以对接任意的数据库（例如mongodb的bulkWrite）
+ */
+@FunctionalInterface
+public interface IEntityStore {
+
+    /**
+     * 批量存储快照，同一批次内每个实体最多只有一个快照
+     *
+     * @param snapshotList 要存储的快照
+     * @throws Exception 存储失败时抛出，整个批次会在下一次刷新时重试（如果期间同一实体没有产生更新的快照）
+     */
+    void save(List<EntitySnapshot> snapshotList) throws Exception;
+}
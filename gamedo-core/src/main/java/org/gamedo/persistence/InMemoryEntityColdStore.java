@@ -0,0 +1,62 @@
+package org.gamedo.persistence;
+
+import lombok.Value;
+import org.gamedo.ecs.interfaces.IEntity;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 基于内存的{@link IEntityColdStore}实现，实体通过encoder编码为字节数组后保存，加载时再通过decoder解码，因此转储后不再持有实体及其组件
+ * 的引用，适用于测试以及实体的常驻形式远大于其编码形式的场景
+ */
+public class InMemoryEntityColdStore implements IEntityColdStore {
+
+    private final Map<Key, byte[]> dataMap = new ConcurrentHashMap<>(1024);
+    private final Function<IEntity, byte[]> encoder;
+    private final Function<byte[], IEntity> decoder;
+
+    /**
+     * @param encoder 实体的编码器
+     * @param decoder 实体的解码器
+     */
+    public InMemoryEntityColdStore(Function<IEntity, byte[]> encoder, Function<byte[], IEntity> decoder) {
+        this.encoder = encoder;
+        this.decoder = decoder;
+    }
+
+    @Override
+    public void store(IEntity entity) {
+        dataMap.put(new Key(entity.getCategory(), entity.getId()), encoder.apply(entity));
+    }
+
+    @Override
+    public Optional<IEntity> load(String entityId, String category) {
+        final Key key = new Key(category, entityId);
+        final byte[] data = dataMap.get(key);
+        if (data == null) {
+            return Optional.empty();
+        }
+
+        //解码成功后才移除，解码失败时数据仍然保留在冷存储中，避免实体丢失
+        final IEntity entity = decoder.apply(data);
+        if (entity != null) {
+            dataMap.remove(key, data);
+        }
+
+        return Optional.ofNullable(entity);
+    }
+
+    @Override
+    public int size() {
+        return dataMap.size();
+    }
+
+    @Value
+    private static class Key {
+        String category;
+        String entityId;
+    }
+}
@@ -0,0 +1,62 @@
+package org.gamedo.persistence;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于内存的{@link IEntityStore}实现，只保存每个实体最新的快照，适用于测试以及不需要真正持久化的场景
+ */
+public class InMemoryEntityStore implements IEntityStore {
+
+    private final Map<Key, Object> dataMap = new ConcurrentHashMap<>(1024);
+    private final AtomicInteger batchCount = new AtomicInteger();
+    private final AtomicLong snapshotCount = new AtomicLong();
+
+    @Override
+    public void save(List<EntitySnapshot> snapshotList) {
+        snapshotList.forEach(snapshot -> dataMap.put(new Key(snapshot.getCategory(), snapshot.getEntityId()), snapshot.getData()));
+        batchCount.incrementAndGet();
+        snapshotCount.addAndGet(snapshotList.size());
+    }
+
+    /**
+     * @param entityId 实体id
+     * @param category 实体分类
+     * @param <T>      快照数据的类型
+     * @return 实体最新的快照数据
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> get(String entityId, String category) {
+        return Optional.ofNullable((T) dataMap.get(new Key(category, entityId)));
+    }
+
+    public int size() {
+        return dataMap.size();
+    }
+
+    /**
+     * @return 调用{@link InMemoryEntityStore#save(List)}的次数
+     */
+    public int getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * @return 存储过的快照的总数
+     */
+    public long getSnapshotCount() {
+        return snapshotCount.get();
+    }
+
+    @Value
+    private static class Key {
+        String category;
+        String entityId;
+    }
+}
@@ -0,0 +1,33 @@
+package org.gamedo.persistence;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WriteBehindConfig {
+
+    public static final WriteBehindConfig DEFAULT = builder().build();
+
+    /**
+     * 每个db线程的刷新间隔（毫秒），同一实体在一个刷新间隔内的多次更新会被合并为一次存储
+     */
+    @Builder.Default
+    private long flushIntervalMillis = 1000;
+
+    /**
+     * 每次调用{@link IEntityStore#save(java.util.List)}时的最大快照数量
+     */
+    @Builder.Default
+    private int batchSize = 100;
+
+    /**
+     * 每个db线程最多等待存储的实体数量，超出后新实体的快照会被拒绝，实体保持已修改状态，直到下一次收集时再重试
+     */
+    @Builder.Default
+    private int maxPendingPerLoop = 10000;
+}
@@ -0,0 +1,326 @@
+package org.gamedo.persistence;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.Value;
+import lombok.extern.log4j.Log4j2;
+import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.gameloop.interfaces.IGameLoopGroup;
+import org.gamedo.logging.Markers;
+import org.gamedo.util.Metric;
+import org.gamedo.util.function.GameLoopFunction;
+import org.gamedo.util.function.IGameLoopEntityManagerFunction;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 延迟写（write-behind）持久化引擎，游戏逻辑线程只负责生成已修改实体的快照，真正的存储由db线程池（一个独立的{@link IGameLoopGroup}）
+ * 异步、批量地完成，使用方式如下：
+ * <pre>
+ *     final WriteBehindPersister persister = new WriteBehindPersister(dbGroup, store, WriteBehindConfig.DEFAULT, snapshotFunction);
+ *     //在每个游戏逻辑线程内周期性地收集已修改的实体
+ *     gameLoop.submit(persister.collect());
+ * </pre>
+ * 其中：
+ * <ul>
+ * <li> 每个实体根据其id通过{@link IGameLoopGroup#selectHashing(String)}固定地分配给一个db线程，因此同一个实体的快照总是按顺序存储
+ * <li> 同一个实体在一个刷新间隔内的多次修改会被合并，只存储最新的快照
+ * <li> 每个db线程等待存储的实体数量是有上限的（{@link WriteBehindConfig#getMaxPendingPerLoop()}），超出后新实体的快照会被拒绝，
+ * 该实体在游戏逻辑线程内保持已修改的状态，在下一次收集时再重试，从而将存储的压力反馈给游戏逻辑线程，而不是无限地堆积在内存中
+ * <li> 存储失败的批次会被重新放回队列，在下一次刷新时重试
+ * </ul>
+ * 如果db线程拥有{@link MeterRegistry}组件，还会记录批次耗时、从入队到存储完成的延迟、等待存储的实体数量以及各种结果的计数
+ */
+@Log4j2
+public class WriteBehindPersister implements AutoCloseable {
+
+    private final IGameLoopGroup dbGroup;
+    private final IEntityStore store;
+    private final WriteBehindConfig config;
+    private final Function<IEntity, ?> snapshotFunction;
+    private final Map<String, Shard> shardMap;
+    private volatile boolean closed;
+
+    /**
+     * @param dbGroup          负责存储的db线程池
+     * @param store            实体存储
+     * @param config           配置
+     * @param snapshotFunction 在游戏逻辑线程内将实体转换为快照数据，返回的数据之后会在db线程内使用，因此不能和实体共享可变状态
+     */
+    public WriteBehindPersister(IGameLoopGroup dbGroup,
+                                IEntityStore store,
+                                WriteBehindConfig config,
+                                Function<IEntity, ?> snapshotFunction) {
+        this.dbGroup = dbGroup;
+        this.store = store;
+        this.config = config;
+        this.snapshotFunction = snapshotFunction;
+
+        final IGameLoop[] gameLoops = dbGroup.selectAll();
+        final Map<String, Shard> map = new HashMap<>(gameLoops.length * 2);
+        for (final IGameLoop gameLoop : gameLoops) {
+            //组件只能在所属线程内访问，因此在db线程内创建
+            map.put(gameLoop.getId(), gameLoop.submit(Shard::new).join());
+        }
+        shardMap = Collections.unmodifiableMap(map);
+        shardMap.values().forEach(shard -> shard.scheduledFuture = shard.gameLoop.scheduleWithFixedDelay(() -> flush(shard),
+                config.getFlushIntervalMillis(),
+                config.getFlushIntervalMillis(),
+                TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * 将一个快照加入到等待存储的队列中，该函数是线程安全的
+     *
+     * @param snapshot 要存储的快照
+     * @return 如果队列已满而被拒绝，返回false
+     */
+    public boolean offer(EntitySnapshot snapshot) {
+        if (closed) {
+            log.error(Markers.Persistence, "the persister has closed, entityId:{}", snapshot.getEntityId());
+            return false;
+        }
+
+        final Shard shard = shard(snapshot.getEntityId());
+        final Key key = new Key(snapshot.getCategory(), snapshot.getEntityId());
+        final int[] result = new int[1];
+        shard.pendingMap.compute(key, (k, old) -> {
+            if (old != null) {
+                result[0] = 1;
+                return new Pending(snapshot, old.enqueueNanos);
+            }
+
+            //不同的key可能被并发地compute，因此检测和递增必须是原子的
+            if (!shard.tryReserve(config.getMaxPendingPerLoop())) {
+                result[0] = 2;
+                return null;
+            }
+
+            return new Pending(snapshot, System.nanoTime());
+        });
+
+        if (result[0] == 1) {
+            shard.coalescedCounter.increment();
+        } else if (result[0] == 2) {
+            shard.rejectedCounter.increment();
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * 定义一个行为：在游戏逻辑线程内收集所有已修改的实体，生成快照并加入到等待存储的队列中，被拒绝的实体以及生成快照失败的实体会重新被标记为已修改
+     *
+     * @return 返回该行为的定义，其中GameLoopFunction中的Integer代表成功加入队列的实体的数量
+     */
+    public GameLoopFunction<Integer> collect() {
+        return gameLoop -> {
+            final int[] count = new int[1];
+            //snapshotFunction抛出异常时，drainDirty会自动恢复实体的修改标记
+            IGameLoopEntityManagerFunction.drainDirty((entity, dirty) -> {
+                final EntitySnapshot snapshot = new EntitySnapshot(entity.getId(), entity.getCategory(), snapshotFunction.apply(entity));
+                if (offer(snapshot)) {
+                    count[0]++;
+                } else {
+                    //重新标记的实体进入下一次收集
+                    dirty.restore(entity);
+                }
+            }).apply(gameLoop);
+
+            return count[0];
+        };
+    }
+
+    /**
+     * 立即刷新所有db线程中等待存储的快照
+     *
+     * @return 所有db线程刷新完毕后完成，其中的Integer代表本次成功存储的快照的数量
+     */
+    public CompletableFuture<Integer> flushAll() {
+        final List<CompletableFuture<Integer>> futureList = new ArrayList<>(shardMap.size());
+        shardMap.values().forEach(shard -> futureList.add(shard.gameLoop.submit(gameLoop -> flush(shard))));
+
+        return CompletableFuture.allOf(futureList.toArray(CompletableFuture[]::new))
+                .thenApply(v -> futureList.stream().mapToInt(CompletableFuture::join).sum());
+    }
+
+    /**
+     * @return 所有db线程中等待存储的实体的数量
+     */
+    public int getPendingCount() {
+        return shardMap.values().stream().mapToInt(shard -> shard.pendingCount.get()).sum();
+    }
+
+    public IGameLoopGroup getDbGroup() {
+        return dbGroup;
+    }
+
+    /**
+     * 停止周期性的刷新，并将所有等待存储的快照刷新一次，关闭后{@link WriteBehindPersister#offer(EntitySnapshot)}总是返回false
+     */
+    @Override
+    public void close() {
+        closed = true;
+        shardMap.values().forEach(shard -> shard.scheduledFuture.cancel(false));
+        flushAll().join();
+    }
+
+    private Shard shard(String entityId) {
+        final Shard shard = shardMap.get(dbGroup.selectHashing(entityId).getId());
+        return shard != null ? shard : shardMap.values().iterator().next();
+    }
+
+    /**
+     * 在db线程内执行，将等待存储的快照按批次交给{@link IEntityStore}
+     */
+    private int flush(Shard shard) {
+        if (shard.pendingMap.isEmpty()) {
+            return 0;
+        }
+
+        final int batchSize = Math.max(1, config.getBatchSize());
+        final List<Pending> pendingList = new ArrayList<>(Math.min(batchSize, shard.pendingCount.get()));
+        int count = 0;
+        for (final Key key : shard.pendingMap.keySet()) {
+            final Pending pending = shard.pendingMap.remove(key);
+            if (pending == null) {
+                continue;
+            }
+
+            shard.pendingCount.decrementAndGet();
+            pendingList.add(pending);
+            if (pendingList.size() >= batchSize) {
+                count += save(shard, pendingList);
+                pendingList.clear();
+            }
+        }
+
+        if (!pendingList.isEmpty()) {
+            count += save(shard, pendingList);
+        }
+
+        return count;
+    }
+
+    private int save(Shard shard, List<Pending> pendingList) {
+        final List<EntitySnapshot> snapshotList = new ArrayList<>(pendingList.size());
+        pendingList.forEach(pending -> snapshotList.add(pending.snapshot));
+
+        final long start = System.nanoTime();
+        try {
+            store.save(snapshotList);
+        } catch (Exception e) {
+            log.error(Markers.Persistence, "exception caught when save, size:" + snapshotList.size(), e);
+            shard.failedCounter.increment(snapshotList.size());
+            requeue(shard, pendingList);
+            return 0;
+        }
+
+        final long end = System.nanoTime();
+        shard.batchTimer.record(end - start, TimeUnit.NANOSECONDS);
+        pendingList.forEach(pending -> shard.latencyTimer.record(end - pending.enqueueNanos, TimeUnit.NANOSECONDS));
+        shard.savedCounter.increment(snapshotList.size());
+        return snapshotList.size();
+    }
+
+    /**
+     * 将存储失败的快照放回队列，如果期间同一个实体已经产生了更新的快照，以新的为准
+     */
+    private static void requeue(Shard shard, List<Pending> pendingList) {
+        pendingList.forEach(pending -> {
+            final EntitySnapshot snapshot = pending.snapshot;
+            final Key key = new Key(snapshot.getCategory(), snapshot.getEntityId());
+            if (shard.pendingMap.putIfAbsent(key, pending) == null) {
+                shard.pendingCount.incrementAndGet();
+            }
+        });
+    }
+
+    private static final class Shard {
+        private final IGameLoop gameLoop;
+        private final Map<Key, Pending> pendingMap = new ConcurrentHashMap<>(1024);
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final Counter savedCounter;
+        private final Counter coalescedCounter;
+        private final Counter rejectedCounter;
+        private final Counter failedCounter;
+        private final Timer batchTimer;
+        private final Timer latencyTimer;
+        private ScheduledFuture<?> scheduledFuture;
+
+        private Shard(IGameLoop gameLoop) {
+            this.gameLoop = gameLoop;
+
+            final Optional<MeterRegistry> meterRegistry = gameLoop.getComponent(MeterRegistry.class);
+            final Tags tags = Metric.tags(gameLoop);
+            savedCounter = counter(meterRegistry, tags, "saved");
+            coalescedCounter = counter(meterRegistry, tags, "coalesced");
+            rejectedCounter = counter(meterRegistry, tags, "rejected");
+            failedCounter = counter(meterRegistry, tags, "failed");
+            batchTimer = meterRegistry.map(registry -> Timer.builder(Metric.MeterIdPersistenceBatchTimer)
+                    .tags(tags)
+                    .description("the entity store batch saving timing.")
+                    .register(registry))
+                    .orElse(Metric.NOOP_TIMER);
+            latencyTimer = meterRegistry.map(registry -> Timer.builder(Metric.MeterIdPersistenceLatencyTimer)
+                    .tags(tags)
+                    .description("the latency from the snapshot enqueued to saved.")
+                    .register(registry))
+                    .orElse(Metric.NOOP_TIMER);
+            meterRegistry.ifPresent(registry -> Gauge.builder(Metric.MeterIdPersistencePendingGauge, pendingCount, AtomicInteger::get)
+                    .tags(tags)
+                    .description("the pending snapshot count.")
+                    .register(registry));
+        }
+
+        /**
+         * 在等待存储的实体数量没有达到上限时占用一个名额
+         *
+         * @param maxPending 等待存储的实体数量的上限
+         * @return 如果已经达到上限，返回false
+         */
+        private boolean tryReserve(int maxPending) {
+            int count;
+            do {
+                count = pendingCount.get();
+                if (count >= maxPending) {
+                    return false;
+                }
+            } while (!pendingCount.compareAndSet(count, count + 1));
+
+            return true;
+        }
+
+        private static Counter counter(Optional<MeterRegistry> meterRegistry, Tags tags, String result) {
+            return meterRegistry.map(registry -> Counter.builder(Metric.MeterIdPersistenceCounter)
+                    .tags(tags)
+                    .tag("result", result)
+                    .description("the snapshot persistence count.")
+                    .register(registry))
+                    .orElse(Metric.NOOP_COUTER);
+        }
+    }
+
+    @Value
+    private static class Key {
+        String category;
+        String entityId;
+    }
+
+    @Value
+    private static class Pending {
+        EntitySnapshot snapshot;
+        long enqueueNanos;
+    }
+}
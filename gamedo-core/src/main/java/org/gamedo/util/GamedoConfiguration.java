@@ -3,16 +3,42 @@ package org.gamedo.util;
 public final class GamedoConfiguration {
     public static final int MAX_EVENT_POST_DEPTH_DEFAULT = 20;
     public static final String MAX_EVENT_POST_DEPTH_KEY = "gamedo.gameloop.max-event-post-depth";
+    public static final int TICK_PHASE_COUNT_DEFAULT = 1;
+    public static final String TICK_PHASE_COUNT_KEY = "gamedo.gameloop.tick-phase-count";
+    public static final long TICK_FRAME_BUDGET_MILLIS_DEFAULT = 0;
+    public static final String TICK_FRAME_BUDGET_MILLIS_KEY = "gamedo.gameloop.tick-frame-budget-millis";
+    public static final int ENTITY_POOL_MAX_SIZE_DEFAULT = 1024;
+    public static final String ENTITY_POOL_MAX_SIZE_KEY = "gamedo.gameloop.entity-pool-max-size";
+    public static final double AOI_VIEW_RADIUS_DEFAULT = 10.0;
+    public static final String AOI_VIEW_RADIUS_KEY = "gamedo.gameloop.aoi-view-radius";
+    public static final long ENTITY_IDLE_MILLIS_DEFAULT = 30 * 60 * 1000;
+    public static final String ENTITY_IDLE_MILLIS_KEY = "gamedo.gameloop.entity-idle-millis";
+    public static final int ENTITY_MAX_RESIDENT_DEFAULT = 0;
+    public static final String ENTITY_MAX_RESIDENT_KEY = "gamedo.gameloop.entity-max-resident";
+    public static final long ENTITY_EVICT_INTERVAL_MILLIS_DEFAULT = 10 * 1000;
+    public static final String ENTITY_EVICT_INTERVAL_MILLIS_KEY = "gamedo.gameloop.entity-evict-interval-millis";
+    public static final int MAILBOX_BATCH_SIZE_DEFAULT = 256;
+    public static final String MAILBOX_BATCH_SIZE_KEY = "gamedo.gameloop.mailbox-batch-size";
 
     public static final boolean METRIC_ENTITY_ENABLE_DEFAULT = true;
     public static final boolean METRIC_CRON_ENABLE_DEFAULT = true;
     public static final boolean METRIC_EVENT_ENABLE_DEFAULT = true;
     public static final boolean METRIC_TICK_ENABLE_DEFAULT = true;
+    public static final boolean METRIC_MAILBOX_ENABLE_DEFAULT = true;
+    public static final boolean METRIC_TASK_ENABLE_DEFAULT = true;
+    public static final int METRIC_SAMPLE_INTERVAL_DEFAULT = 1;
+    public static final int METRIC_MAX_SERIES_DEFAULT = 1000;
+    public static final long METRIC_REPORT_INTERVAL_MILLIS_DEFAULT = 5000;
 
     public static final String GAMEDO_METRIC_ENTITY_ENABLE_KEY = "gamedo.metric.entity.enable";
     public static final String GAMEDO_METRIC_CRON_ENABLE_KEY = "gamedo.metric.cron.enable";
     public static final String GAMEDO_METRIC_EVENT_ENABLE_KEY = "gamedo.metric.event.enable";
     public static final String GAMEDO_METRIC_TICK_ENABLE_KEY = "gamedo.metric.tick.enable";
+    public static final String GAMEDO_METRIC_MAILBOX_ENABLE_KEY = "gamedo.metric.mailbox.enable";
+    public static final String GAMEDO_METRIC_TASK_ENABLE_KEY = "gamedo.metric.task.enable";
+    public static final String GAMEDO_METRIC_SAMPLE_INTERVAL_KEY = "gamedo.metric.sample-interval";
+    public static final String GAMEDO_METRIC_MAX_SERIES_KEY = "gamedo.metric.max-series";
+    public static final String GAMEDO_METRIC_REPORT_INTERVAL_MILLIS_KEY = "gamedo.metric.report-interval-millis";
 
     private GamedoConfiguration() {
     }
@@ -21,6 +47,53 @@ public final class GamedoConfiguration {
         return Integer.getInteger(MAX_EVENT_POST_DEPTH_KEY, MAX_EVENT_POST_DEPTH_DEFAULT);
     }
 
+    public static int getTickPhaseCount() {
+        return Math.max(1, Integer.getInteger(TICK_PHASE_COUNT_KEY, TICK_PHASE_COUNT_DEFAULT));
+    }
+
+    public static long getTickFrameBudgetMillis() {
+        return Math.max(0, Long.getLong(TICK_FRAME_BUDGET_MILLIS_KEY, TICK_FRAME_BUDGET_MILLIS_DEFAULT));
+    }
+
+    public static int getEntityPoolMaxSize() {
+        return Math.max(0, Integer.getInteger(ENTITY_POOL_MAX_SIZE_KEY, ENTITY_POOL_MAX_SIZE_DEFAULT));
+    }
+
+    public static double getAoiViewRadius() {
+        final String value = System.getProperty(AOI_VIEW_RADIUS_KEY);
+        try {
+            final double radius = value == null ? AOI_VIEW_RADIUS_DEFAULT : Double.parseDouble(value);
+            return radius > 0 ? radius : AOI_VIEW_RADIUS_DEFAULT;
+        } catch (NumberFormatException e) {
+            return AOI_VIEW_RADIUS_DEFAULT;
+        }
+    }
+
+    /**
+     * @return 实体的最大空闲时间（毫秒），0表示不按空闲时间淘汰
+     */
+    public static long getEntityIdleMillis() {
+        return Math.max(0, Long.getLong(ENTITY_IDLE_MILLIS_KEY, ENTITY_IDLE_MILLIS_DEFAULT));
+    }
+
+    /**
+     * @return 每个线程最多常驻内存的实体数量，0表示不限制
+     */
+    public static int getEntityMaxResident() {
+        return Math.max(0, Integer.getInteger(ENTITY_MAX_RESIDENT_KEY, ENTITY_MAX_RESIDENT_DEFAULT));
+    }
+
+    public static long getEntityEvictIntervalMillis() {
+        return Math.max(1, Long.getLong(ENTITY_EVICT_INTERVAL_MILLIS_KEY, ENTITY_EVICT_INTERVAL_MILLIS_DEFAULT));
+    }
+
+    /**
+     * @return 邮箱每个批次最多消费的消息数量
+     */
+    public static int getMailboxBatchSize() {
+        return Math.max(1, Integer.getInteger(MAILBOX_BATCH_SIZE_KEY, MAILBOX_BATCH_SIZE_DEFAULT));
+    }
+
     public static boolean isMetricEntityEnable() {
         return Boolean.getBoolean(GAMEDO_METRIC_ENTITY_ENABLE_KEY);
     }
@@ -36,4 +109,24 @@ public final class GamedoConfiguration {
     public static boolean isMetricTickEnable() {
         return Boolean.getBoolean(GAMEDO_METRIC_TICK_ENABLE_KEY);
     }
+
+    public static boolean isMetricMailboxEnable() {
+        return Boolean.getBoolean(GAMEDO_METRIC_MAILBOX_ENABLE_KEY);
+    }
+
+    public static boolean isMetricTaskEnable() {
+        return Boolean.getBoolean(GAMEDO_METRIC_TASK_ENABLE_KEY);
+    }
+
+    public static int getMetricSampleInterval() {
+        return Math.max(1, Integer.getInteger(GAMEDO_METRIC_SAMPLE_INTERVAL_KEY, METRIC_SAMPLE_INTERVAL_DEFAULT));
+    }
+
+    public static int getMetricMaxSeries() {
+        return Math.max(0, Integer.getInteger(GAMEDO_METRIC_MAX_SERIES_KEY, METRIC_MAX_SERIES_DEFAULT));
+    }
+
+    public static long getMetricReportIntervalMillis() {
+        return Math.max(1, Long.getLong(GAMEDO_METRIC_REPORT_INTERVAL_MILLIS_KEY, METRIC_REPORT_INTERVAL_MILLIS_DEFAULT));
+    }
 }
@@ -13,6 +13,12 @@ public enum Hashing {
     FNV1A,
     ;
 
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L,
+    };
+
     public int hash(String key) {
 
         int hash = 0;
@@ -41,6 +47,71 @@ public enum Hashing {
         return hash;
     }
 
+    /**
+     * 计算一个long的hash值，结果和{@code hash(Long.toString(key))}相同，但是除了{@link Hashing#KETAMA_HASH}外不需要构造字符串，因
+     * 此无论以long还是其字符串形式作为key，都会得到相同的结果
+     *
+     * @param key 要计算的key
+     * @return hash值
+     */
+    public int hash(long key) {
+
+        int hash = 0;
+        switch (this) {
+            case NATIVE_HASH: {
+                if (key < 0) {
+                    hash = '-';
+                }
+                final long q = key < 0 ? key : -key;
+                for (int i = digitCount(q) - 1; i >= 0; i--) {
+                    hash = 31 * hash + digit(q, i);
+                }
+            }
+            break;
+            case KETAMA_HASH: {
+                hash = hash(Long.toString(key));
+            }
+            break;
+            case FNV1A: {
+                hash = 0x811c9dc5;
+                if (key < 0) {
+                    hash ^= '-';
+                    hash *= 16777619;
+                }
+                final long q = key < 0 ? key : -key;
+                for (int i = digitCount(q) - 1; i >= 0; i--) {
+                    hash ^= digit(q, i);
+                    hash *= 16777619;
+                }
+            }
+            break;
+        }
+
+        return hash;
+    }
+
+    /**
+     * @param q 取负后的key，统一使用负数计算，以便正确处理Long.MIN_VALUE
+     * @return 十进制形式的位数（不包括符号）
+     */
+    private static int digitCount(long q) {
+        int count = 1;
+        while (count < POWERS_OF_TEN.length && q <= -POWERS_OF_TEN[count]) {
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * @param q     取负后的key
+     * @param index 从最低位开始的下标
+     * @return 该位的字符
+     */
+    private static int digit(long q, int index) {
+        return '0' - (int) ((q / POWERS_OF_TEN[index]) % 10);
+    }
+
     public static byte[] computeMd5(String k) {
         MessageDigest md5;
         md5 = ThreadLocalMessageDigest.MD5_DIGEST.get();
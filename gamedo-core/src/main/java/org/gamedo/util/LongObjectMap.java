@@ -0,0 +1,211 @@
+package org.gamedo.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 以基本类型long为key的开放寻址（线性探测）哈希表，相比于{@link java.util.HashMap}&lt;Long, V&gt;，没有key的装箱以及Entry对象，查找时
+ * 只需要对连续的long数组进行探测，适用于以数值id索引大量实体的场景，需要注意的是：
+ * <ul>
+ * <li> 非线程安全
+ * <li> value不能为null
+ * </ul>
+ *
+ * @param <V> value的类型
+ */
+public class LongObjectMap<V> {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    /**
+     * value为null表示该槽位为空
+     */
+    private Object[] values;
+    private int size;
+    private int mask;
+    private int resizeThreshold;
+
+    public LongObjectMap() {
+        this(16);
+    }
+
+    public LongObjectMap(int expectedSize) {
+        allocate(tableSizeFor((int) Math.ceil(Math.max(2, expectedSize) / LOAD_FACTOR)));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        for (int i = index(key, mask); ; i = (i + 1) & mask) {
+            final Object value = values[i];
+            if (value == null) {
+                return null;
+            }
+            if (keys[i] == key) {
+                return (V) value;
+            }
+        }
+    }
+
+    /**
+     * @param key   key
+     * @param value 不能为null
+     * @return 返回之前的value，如果之前不存在，返回null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        Objects.requireNonNull(value, "value");
+
+        int i = index(key, mask);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                final V old = (V) values[i];
+                values[i] = value;
+                return old;
+            }
+        }
+
+        keys[i] = key;
+        values[i] = value;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+
+        return null;
+    }
+
+    /**
+     * @param key key
+     * @return 返回被删除的value，如果不存在，返回null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int i = index(key, mask);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                final V old = (V) values[i];
+                shiftBackward(i);
+                size--;
+                return old;
+            }
+        }
+
+        return null;
+    }
+
+    public void clear() {
+        if (size > 0) {
+            java.util.Arrays.fill(values, null);
+            size = 0;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> consumer) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                consumer.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    /**
+     * @return 所有value的一个快照
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        final List<V> list = new ArrayList<>(size);
+        for (final Object value : values) {
+            if (value != null) {
+                list.add((V) value);
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * 删除槽位i上的元素，并将其后探测链上的元素向前移动，从而不需要墓碑标记
+     */
+    private void shiftBackward(int i) {
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (values[j] == null) {
+                break;
+            }
+
+            final int k = index(keys[j], mask);
+            //k在(i, j]的循环区间内时，j上的元素不需要移动
+            final boolean stay = i <= j ? (i < k && k <= j) : (i < k || k <= j);
+            if (!stay) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+
+        values[i] = null;
+    }
+
+    private void rehash(int capacity) {
+        final long[] oldKeys = keys;
+        final Object[] oldValues = values;
+
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null) {
+                continue;
+            }
+
+            int index = index(oldKeys[i], mask);
+            while (values[index] != null) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = oldKeys[i];
+            values[index] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int index(long key, int mask) {
+        final long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        final int n = -1 >>> Integer.numberOfLeadingZeros(capacity - 1);
+        return n < 0 ? 1 : n + 1;
+    }
+
+    @Override
+    public String toString() {
+        return "LongObjectMap{" +
+                "size=" + size +
+                ", capacity=" + keys.length +
+                '}';
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+}
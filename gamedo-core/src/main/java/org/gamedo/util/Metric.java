@@ -29,7 +29,30 @@ public final class Metric {
     public static final String MeterIdCronRegisterGauge = "fusionCore.gameloop.cron.register";
     public static final String MeterIdTickTimer = "fusionCore.gameloop.tick";
     public static final String MeterIdTickRegisterGauge = "fusionCore.gameloop.tick.register";
+    public static final String MeterIdTickOverrunCounter = "fusionCore.gameloop.tick.overrun";
+    public static final String MeterIdTickDeferredCounter = "fusionCore.gameloop.tick.deferred";
     public static final String MeterIdEntityGauge = "fusionCore.gameloop.entity";
+    public static final String MeterIdEntityPoolGauge = "fusionCore.gameloop.entity.pool";
+    public static final String MeterIdEntityPoolAcquireCounter = "fusionCore.gameloop.entity.pool.acquire";
+    public static final String MeterIdEntityTieringResidentGauge = "fusionCore.gameloop.entity.tiering.resident";
+    public static final String MeterIdEntityTieringEvictCounter = "fusionCore.gameloop.entity.tiering.evict";
+    public static final String MeterIdEntityTieringReloadTimer = "fusionCore.gameloop.entity.tiering.reload";
+    public static final String MeterIdPersistenceCounter = "fusionCore.gameloop.persistence";
+    public static final String MeterIdPersistencePendingGauge = "fusionCore.gameloop.persistence.pending";
+    public static final String MeterIdPersistenceBatchTimer = "fusionCore.gameloop.persistence.batch";
+    public static final String MeterIdPersistenceLatencyTimer = "fusionCore.gameloop.persistence.latency";
+    public static final String MeterIdQueueDepthGauge = "fusionCore.gameloop.queue.depth";
+    public static final String MeterIdQueueRejectCounter = "fusionCore.gameloop.queue.reject";
+    public static final String MeterIdLaneDepthGauge = "fusionCore.gameloop.lane.depth";
+    public static final String MeterIdLaneWaitTimer = "fusionCore.gameloop.lane.wait";
+    public static final String MeterIdStallCounter = "fusionCore.gameloop.stall";
+    public static final String MeterIdStallDurationGauge = "fusionCore.gameloop.stall.duration";
+    public static final String MeterIdBusyCounter = "fusionCore.gameloop.busy";
+    public static final String MeterIdTaskWaitTimer = "fusionCore.gameloop.task.wait";
+    public static final String MeterIdTaskExecutionTimer = "fusionCore.gameloop.task.execution";
+    public static final String MeterIdMailboxCounter = "fusionCore.gameloop.mailbox";
+    public static final String MeterIdMailboxDepthGauge = "fusionCore.gameloop.mailbox.depth";
+    public static final String MeterIdMailboxEntityDepthSummary = "fusionCore.gameloop.mailbox.entity.depth";
 
     private Metric() {
     }
@@ -0,0 +1,71 @@
+package org.gamedo.util.function;
+
+import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.gameloop.components.aoi.interfaces.IGameLoopAoiManager;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+
+import java.util.Collections;
+import java.util.List;
+
+@SuppressWarnings("unused")
+public interface IGameLoopAoiManagerFunction {
+
+    /**
+     * 定义一个行为：将实体加入到{@link IGameLoop}的{@link IGameLoopAoiManager}组件中
+     *
+     * @param entity 要加入的实体
+     * @return 返回该行为的定义，其中GameLoopFunction中的Boolean代表是否加入成功，如果没有{@link IGameLoopAoiManager}组件，返回false
+     */
+    static GameLoopFunction<Boolean> addEntity(IEntity entity) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopAoiManager.class)
+                .map(iGameLoopAoiManager -> iGameLoopAoiManager.addEntity(entity))
+                .orElse(false);
+    }
+
+    /**
+     * 定义一个行为：将实体从{@link IGameLoop}的{@link IGameLoopAoiManager}组件中移除
+     *
+     * @param entity 要移除的实体
+     * @return 返回该行为的定义，其中GameLoopFunction中的Boolean代表是否移除成功，如果没有{@link IGameLoopAoiManager}组件，返回false
+     */
+    static GameLoopFunction<Boolean> removeEntity(IEntity entity) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopAoiManager.class)
+                .map(iGameLoopAoiManager -> iGameLoopAoiManager.removeEntity(entity))
+                .orElse(false);
+    }
+
+    /**
+     * 定义一个行为：实体的位置发生变化后，更新{@link IGameLoop}的{@link IGameLoopAoiManager}组件中的视野
+     *
+     * @param entity 发生移动的实体
+     * @return 返回该行为的定义，其中GameLoopFunction中的Boolean代表是否更新成功，如果没有{@link IGameLoopAoiManager}组件，返回false
+     */
+    static GameLoopFunction<Boolean> moveEntity(IEntity entity) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopAoiManager.class)
+                .map(iGameLoopAoiManager -> iGameLoopAoiManager.moveEntity(entity))
+                .orElse(false);
+    }
+
+    /**
+     * 定义一个行为：获取实体视野内的所有其他实体
+     *
+     * @param entity 要查询的实体
+     * @return 返回该行为的定义，其中GameLoopFunction中的List为视野内实体的快照，如果没有{@link IGameLoopAoiManager}组件，返回空列表
+     */
+    static GameLoopFunction<List<IEntity>> getNeighborList(IEntity entity) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopAoiManager.class)
+                .map(iGameLoopAoiManager -> iGameLoopAoiManager.getNeighborList(entity))
+                .orElse(Collections.emptyList());
+    }
+
+    /**
+     * 定义一个行为：立即投递{@link IGameLoop}的{@link IGameLoopAoiManager}组件中合并的视野变化事件
+     *
+     * @return 返回该行为的定义，其中GameLoopFunction中的Integer代表投递的事件数量
+     */
+    static GameLoopFunction<Integer> flush() {
+        return gameLoop -> gameLoop.getComponent(IGameLoopAoiManager.class)
+                .map(IGameLoopAoiManager::flush)
+                .orElse(0);
+    }
+}
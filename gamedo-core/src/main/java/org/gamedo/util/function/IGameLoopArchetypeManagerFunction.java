@@ -0,0 +1,59 @@
+package org.gamedo.util.function;
+
+import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.gameloop.components.archetype.IGameLoopSystem;
+import org.gamedo.gameloop.components.archetype.interfaces.IGameLoopArchetypeManager;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+
+@SuppressWarnings("unused")
+public interface IGameLoopArchetypeManagerFunction {
+
+    /**
+     * 定义一个行为：将实体加入到{@link IGameLoop}的{@link IGameLoopArchetypeManager}组件中
+     *
+     * @param entity 要加入的实体
+     * @return 返回该行为的定义，其中GameLoopFunction中的Boolean代表是否加入成功，如果没有{@link IGameLoopArchetypeManager}组件，
+     * 返回false
+     */
+    static GameLoopFunction<Boolean> addEntity(IEntity entity) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopArchetypeManager.class)
+                .map(iGameLoopArchetypeManager -> iGameLoopArchetypeManager.addEntity(entity))
+                .orElse(false);
+    }
+
+    /**
+     * 定义一个行为：将实体从{@link IGameLoop}的{@link IGameLoopArchetypeManager}组件中移除
+     *
+     * @param entity 要移除的实体
+     * @return 返回该行为的定义，其中GameLoopFunction中的Boolean代表是否移除成功
+     */
+    static GameLoopFunction<Boolean> removeEntity(IEntity entity) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopArchetypeManager.class)
+                .map(iGameLoopArchetypeManager -> iGameLoopArchetypeManager.removeEntity(entity))
+                .orElse(false);
+    }
+
+    /**
+     * 定义一个行为：实体的组件发生变化后，刷新其所在的原型
+     *
+     * @param entity 要刷新的实体
+     * @return 返回该行为的定义，其中GameLoopFunction中的Boolean代表是否刷新成功
+     */
+    static GameLoopFunction<Boolean> refreshEntity(IEntity entity) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopArchetypeManager.class)
+                .map(iGameLoopArchetypeManager -> iGameLoopArchetypeManager.refreshEntity(entity))
+                .orElse(false);
+    }
+
+    /**
+     * 定义一个行为：执行一个系统
+     *
+     * @param system 要执行的系统
+     * @return 返回该行为的定义，其中GameLoopFunction中的Integer代表本次处理的实体的数量
+     */
+    static GameLoopFunction<Integer> execute(IGameLoopSystem system) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopArchetypeManager.class)
+                .map(iGameLoopArchetypeManager -> iGameLoopArchetypeManager.execute(system))
+                .orElse(0);
+    }
+}
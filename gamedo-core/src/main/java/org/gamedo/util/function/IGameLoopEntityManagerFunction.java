@@ -1,10 +1,14 @@
 package org.gamedo.util.function;
 
+import org.gamedo.ecs.DirtySnapshot;
 import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.gameloop.components.entitymanager.EntityQuery;
 import org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager;
 import org.gamedo.gameloop.interfaces.IGameLoop;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
 @SuppressWarnings("unused")
@@ -48,6 +52,46 @@ public interface IGameLoopEntityManagerFunction {
                 .orElse(false);
     }
 
+    /**
+     * 定义一个行为：以数值Id将某{@link org.gamedo.ecs.interfaces.ILongIdentity}实体从{@link IGameLoop}上反注册
+     *
+     * @param <T>      要注册的实体类型
+     * @param entityId 要反注册的实体的数值Id
+     * @param category 从哪个分类下反注册
+     * @return 返回该行为的定义，其中GameLoopFunction中的Optional为反注册成功的实体
+     */
+    static <T extends IEntity> GameLoopFunction<Optional<T>> unregisterEntity(final long entityId, Supplier<String> category) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopEntityManager.class)
+                .flatMap(iEntityMgr -> iEntityMgr.unregisterEntity(entityId, category));
+    }
+
+    /**
+     * 定义一个行为：以数值Id检测某个{@link org.gamedo.ecs.interfaces.ILongIdentity}实体是否已经注册到某{@link IGameLoop}上
+     *
+     * @param entityId 实体的数值Id
+     * @param category 要检测的分类
+     * @return 返回该行为的定义，其中GameLoopFunction中的Boolean代表是否注册了该实体
+     */
+    static GameLoopFunction<Boolean> hasEntity(final long entityId, Supplier<String> category) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopEntityManager.class)
+                .map(iEntityManager -> iEntityManager.hasEntity(entityId, category))
+                .orElse(false);
+    }
+
+    /**
+     * 定义一个行为：从某{@link IGameLoop}上取出一个实体，如果没有注册，尝试从冷存储中加载并注册，参考
+     * {@link IGameLoopEntityManager#getOrReload(String, Supplier)}
+     *
+     * @param <T>      要获取的实体类型
+     * @param entityId 实体Id
+     * @param category 实体分类
+     * @return 返回该行为的定义，其中GameLoopFunction中的Optional为取出或者加载的实体
+     */
+    static <T extends IEntity> GameLoopFunction<Optional<T>> getOrReload(final String entityId, Supplier<String> category) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopEntityManager.class)
+                .flatMap(iEntityManager -> iEntityManager.getOrReload(entityId, category));
+    }
+
     /**
      * 定义一个行为：检测某个{@link IGameLoopEntityManager}管理的实体的数量
      *
@@ -59,4 +103,69 @@ public interface IGameLoopEntityManagerFunction {
                 .map(iGameLoopEntityManager -> iGameLoopEntityManager.getEntityCount(category))
                 .orElse(0);
     }
+
+    /**
+     * 定义一个行为：创建（或者获取已经存在的）一个组件查询视图
+     *
+     * @param required 必须拥有的组件类型
+     * @param excluded 不能拥有的组件类型
+     * @param <T>      实体类型
+     * @return 返回该行为的定义，其中GameLoopFunction中的Optional为查询视图，如果没有{@link IGameLoopEntityManager}组件，返回
+     * {@link Optional#empty()}
+     */
+    static <T extends IEntity> GameLoopFunction<Optional<EntityQuery<T>>> query(Collection<Class<?>> required, Collection<Class<?>> excluded) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopEntityManager.class)
+                .map(iGameLoopEntityManager -> iGameLoopEntityManager.query(required, excluded));
+    }
+
+    /**
+     * 定义一个行为：创建（或者获取已经存在的）一个谓词查询视图
+     *
+     * @param predicate 查询条件
+     * @param <T>       实体类型
+     * @return 返回该行为的定义，其中GameLoopFunction中的Optional为查询视图，如果没有{@link IGameLoopEntityManager}组件，返回
+     * {@link Optional#empty()}
+     */
+    static <T extends IEntity> GameLoopFunction<Optional<EntityQuery<T>>> query(EntityPredicate<IEntity> predicate) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopEntityManager.class)
+                .map(iGameLoopEntityManager -> iGameLoopEntityManager.query(predicate));
+    }
+
+    /**
+     * 定义一个行为：通知{@link IGameLoopEntityManager}某已注册实体的组件发生了变化
+     *
+     * @param entity         组件发生变化的实体
+     * @param componentClazz 发生变化的组件类型
+     * @param added          true表示增加，false表示删除
+     * @return 返回该行为的定义，其中GameLoopFunction中的Boolean代表实体是否注册在该{@link IGameLoop}上
+     */
+    static GameLoopFunction<Boolean> componentChanged(IEntity entity, Class<?> componentClazz, boolean added) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopEntityManager.class)
+                .map(iGameLoopEntityManager -> iGameLoopEntityManager.componentChanged(entity, componentClazz, added))
+                .orElse(false);
+    }
+
+    /**
+     * 定义一个行为：通知{@link IGameLoopEntityManager}某已注册实体被修改了
+     *
+     * @param entity 已修改的实体
+     * @return 返回该行为的定义，其中GameLoopFunction中的Boolean代表实体是否注册在该{@link IGameLoop}上
+     */
+    static GameLoopFunction<Boolean> markDirty(IEntity entity) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopEntityManager.class)
+                .map(iGameLoopEntityManager -> iGameLoopEntityManager.markDirty(entity))
+                .orElse(false);
+    }
+
+    /**
+     * 定义一个行为：处理{@link IGameLoopEntityManager}中所有已修改的实体
+     *
+     * @param consumer 已修改实体的消费者，参数分别为实体以及其修改标记的快照
+     * @return 返回该行为的定义，其中GameLoopFunction中的Integer代表处理的实体的数量
+     */
+    static GameLoopFunction<Integer> drainDirty(BiConsumer<IEntity, DirtySnapshot> consumer) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopEntityManager.class)
+                .map(iGameLoopEntityManager -> iGameLoopEntityManager.drainDirty(consumer))
+                .orElse(0);
+    }
 }
@@ -0,0 +1,37 @@
+package org.gamedo.util.function;
+
+import org.gamedo.ecs.interfaces.IPoolable;
+import org.gamedo.gameloop.components.pool.interfaces.IGameLoopEntityPool;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+
+import java.util.function.Supplier;
+
+@SuppressWarnings("unused")
+public interface IGameLoopEntityPoolFunction {
+
+    /**
+     * 定义一个行为：从{@link IGameLoop}的{@link IGameLoopEntityPool}组件中取出一个对象
+     *
+     * @param clazz   对象的类型
+     * @param factory 对象池为空（或者没有{@link IGameLoopEntityPool}组件）时的对象工厂
+     * @param <T>     对象的类型
+     * @return 返回该行为的定义，其中GameLoopFunction中的T为复用的或者新创建的对象
+     */
+    static <T extends IPoolable> GameLoopFunction<T> acquire(Class<T> clazz, Supplier<T> factory) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopEntityPool.class)
+                .map(iGameLoopEntityPool -> iGameLoopEntityPool.acquire(clazz, factory))
+                .orElseGet(factory);
+    }
+
+    /**
+     * 定义一个行为：将一个对象回收到{@link IGameLoop}的{@link IGameLoopEntityPool}组件中
+     *
+     * @param object 要回收的对象
+     * @return 返回该行为的定义，其中GameLoopFunction中的Boolean代表是否回收成功，如果没有{@link IGameLoopEntityPool}组件，返回false
+     */
+    static GameLoopFunction<Boolean> release(IPoolable object) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopEntityPool.class)
+                .map(iGameLoopEntityPool -> iGameLoopEntityPool.release(object))
+                .orElse(false);
+    }
+}
@@ -0,0 +1,90 @@
+package org.gamedo.util.function;
+
+import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.gameloop.components.tiering.interfaces.IGameLoopEntityTiering;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.persistence.IEntityColdStore;
+
+import java.util.Optional;
+
+@SuppressWarnings("unused")
+public interface IGameLoopEntityTieringFunction {
+
+    /**
+     * 定义一个行为：设置{@link IGameLoop}的{@link IGameLoopEntityTiering}组件的冷存储
+     *
+     * @param coldStore 冷存储
+     * @return 返回该行为的定义，其中GameLoopFunction中的Boolean代表是否设置成功，如果没有{@link IGameLoopEntityTiering}组件，返回false
+     */
+    static GameLoopFunction<Boolean> setColdStore(IEntityColdStore coldStore) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopEntityTiering.class)
+                .map(iGameLoopEntityTiering -> {
+                    iGameLoopEntityTiering.setColdStore(coldStore);
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    /**
+     * 定义一个行为：将一个实体加入到{@link IGameLoop}的{@link IGameLoopEntityTiering}组件中
+     *
+     * @param entity 要加入的实体
+     * @return 返回该行为的定义，其中GameLoopFunction中的Boolean代表是否加入成功，如果没有{@link IGameLoopEntityTiering}组件，返回false
+     */
+    static GameLoopFunction<Boolean> addEntity(IEntity entity) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopEntityTiering.class)
+                .map(iGameLoopEntityTiering -> iGameLoopEntityTiering.addEntity(entity))
+                .orElse(false);
+    }
+
+    /**
+     * 定义一个行为：将一个实体从{@link IGameLoop}的{@link IGameLoopEntityTiering}组件中移除
+     *
+     * @param entity 要移除的实体
+     * @return 返回该行为的定义，其中GameLoopFunction中的Boolean代表是否移除成功，如果没有{@link IGameLoopEntityTiering}组件，返回false
+     */
+    static GameLoopFunction<Boolean> removeEntity(IEntity entity) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopEntityTiering.class)
+                .map(iGameLoopEntityTiering -> iGameLoopEntityTiering.removeEntity(entity))
+                .orElse(false);
+    }
+
+    /**
+     * 定义一个行为：刷新实体在{@link IGameLoop}的{@link IGameLoopEntityTiering}组件中的访问时间
+     *
+     * @param entity 被访问的实体
+     * @return 返回该行为的定义，其中GameLoopFunction中的Boolean代表是否拥有{@link IGameLoopEntityTiering}组件
+     */
+    static GameLoopFunction<Boolean> touch(IEntity entity) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopEntityTiering.class)
+                .map(iGameLoopEntityTiering -> {
+                    iGameLoopEntityTiering.touch(entity);
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    /**
+     * 定义一个行为：通过{@link IGameLoop}的{@link IGameLoopEntityTiering}组件从冷存储中加载实体并注册
+     *
+     * @param entityId 实体id
+     * @param category 实体分类
+     * @param <T>      实体类型
+     * @return 返回该行为的定义，其中GameLoopFunction中的Optional为加载的实体
+     */
+    static <T extends IEntity> GameLoopFunction<Optional<T>> reload(String entityId, String category) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopEntityTiering.class)
+                .flatMap(iGameLoopEntityTiering -> iGameLoopEntityTiering.<T>reload(entityId, category));
+    }
+
+    /**
+     * 定义一个行为：立即检测并淘汰{@link IGameLoop}中所有空闲或者超出常驻数量的实体
+     *
+     * @return 返回该行为的定义，其中GameLoopFunction中的Integer代表淘汰的实体的数量
+     */
+    static GameLoopFunction<Integer> evict() {
+        return gameLoop -> gameLoop.getComponent(IGameLoopEntityTiering.class)
+                .map(IGameLoopEntityTiering::evict)
+                .orElse(0);
+    }
+}
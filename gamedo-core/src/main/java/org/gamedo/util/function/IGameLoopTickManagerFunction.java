@@ -65,4 +65,46 @@ public interface IGameLoopTickManagerFunction {
                 .map(iGameLoopTickManager -> iGameLoopTickManager.unregister(object))
                 .orElse(0);
     }
+
+    /**
+     * 定义一个行为：调整某个已注册的心跳函数的心跳间隔
+     *
+     * @param object   已注册的类的实体
+     * @param method   已注册的方法
+     * @param tick     新的心跳间隔
+     * @param timeUnit 新的心跳时间单位
+     * @return 返回该行为的定义，其中GameLoopFunction中的Boolean的含义参考
+     * {@link IGameLoopTickManager#changeTick(Object, Method, long, TimeUnit)}的返回值
+     */
+    static GameLoopFunction<Boolean> changeTick(Object object, Method method, long tick, TimeUnit timeUnit) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopTickManager.class)
+                .map(iGameLoopTickManager -> iGameLoopTickManager.changeTick(object, method, tick, timeUnit))
+                .orElse(false);
+    }
+
+    /**
+     * 定义一个行为：调整object内所有已注册的心跳函数的心跳间隔
+     *
+     * @param object   已注册的类的实体
+     * @param tick     新的心跳间隔
+     * @param timeUnit 新的心跳时间单位
+     * @return 返回该行为的定义，其中GameLoopFunction中的Integer代表调整成功的方法的数量
+     */
+    static GameLoopFunction<Integer> changeTick(Object object, long tick, TimeUnit timeUnit) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopTickManager.class)
+                .map(iGameLoopTickManager -> iGameLoopTickManager.changeTick(object, tick, timeUnit))
+                .orElse(0);
+    }
+
+    /**
+     * 定义一个行为：将object内所有已注册的心跳函数的心跳间隔恢复为{@link Tick}注解中定义的值
+     *
+     * @param object 已注册的类的实体
+     * @return 返回该行为的定义，其中GameLoopFunction中的Integer代表恢复成功的方法的数量
+     */
+    static GameLoopFunction<Integer> resetTick(Object object) {
+        return gameLoop -> gameLoop.getComponent(IGameLoopTickManager.class)
+                .map(iGameLoopTickManager -> iGameLoopTickManager.resetTick(object))
+                .orElse(0);
+    }
 }
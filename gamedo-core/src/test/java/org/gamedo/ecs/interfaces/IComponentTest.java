@@ -1,6 +1,7 @@
 package org.gamedo.ecs.interfaces;
 
 import lombok.extern.log4j.Log4j2;
+import org.gamedo.ecs.ComponentType;
 import org.gamedo.ecs.Entity;
 import org.gamedo.ecs.EntityComponent;
 import org.junit.jupiter.api.Assertions;
@@ -39,4 +40,14 @@ class IComponentTest {
         //已经注册的key获取到
         Assertions.assertTrue(component.getSiblingComponent(Object.class).map(com -> com == component).orElse(false));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetSiblingComponentByType() {
+        final ComponentType<IComponent> componentType = ComponentType.of(IComponent.class);
+
+        Assertions.assertNull(component.getSiblingComponent(componentType));
+        entity.addComponent(IComponent.class, component);
+        Assertions.assertSame(component, component.getSiblingComponent(componentType));
+        Assertions.assertNull(component.getSiblingComponent(ComponentType.of(Runnable.class)));
+    }
+}
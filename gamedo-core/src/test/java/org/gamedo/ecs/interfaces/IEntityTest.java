@@ -1,5 +1,6 @@
 package org.gamedo.ecs.interfaces;
 
+import org.gamedo.ecs.ComponentType;
 import org.gamedo.ecs.Entity;
 import org.gamedo.ecs.EntityComponent;
 import org.junit.jupiter.api.AfterEach;
@@ -48,6 +49,20 @@ class IEntityTest {
         assertTrue(component2.isPresent());
     }
 
+    @Test
+    void getComponentByType() {
+        final ComponentType<Object> componentType = ComponentType.of(Object.class);
+        assertSame(componentType, ComponentType.of(Object.class));
+        assertNull(entity.getComponent(componentType));
+
+        final Object object = new Object();
+        entity.addComponent(Object.class, object);
+        assertSame(object, entity.getComponent(componentType));
+
+        entity.removeComponent(Object.class);
+        assertNull(entity.getComponent(componentType));
+    }
+
     @Test
     void getComponentMap() {
         final Map<Class<?>, Object> componentMap1 = entity.getComponentMap();
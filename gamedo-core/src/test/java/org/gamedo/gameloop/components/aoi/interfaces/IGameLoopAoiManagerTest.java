@@ -0,0 +1,148 @@
+package org.gamedo.gameloop.components.aoi.interfaces;
+
+import org.gamedo.annotation.Subscribe;
+import org.gamedo.ecs.Entity;
+import org.gamedo.event.EventAoiInterestChangePost;
+import org.gamedo.gameloop.Category;
+import org.gamedo.gameloop.GameLoop;
+import org.gamedo.gameloop.GameLoopComponentRegister;
+import org.gamedo.gameloop.GameLoopConfig;
+import org.gamedo.gameloop.components.aoi.GameLoopAoiManager;
+import org.gamedo.gameloop.components.aoi.IAoiPosition;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.util.function.IGameLoopAoiManagerFunction;
+import org.gamedo.util.function.IGameLoopEntityManagerFunction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class IGameLoopAoiManagerTest {
+
+    private IGameLoop gameLoop;
+
+    @BeforeEach
+    void setUp() {
+        final GameLoopConfig config = GameLoopConfig.builder()
+                .gameLoopGroupId("aoi")
+                .gameLoopIdPrefix("aoi-")
+                .gameLoopIdCounter(new AtomicInteger(1))
+                .daemon(true)
+                .componentRegisters(GameLoopConfig.DEFAULT.getComponentRegisters())
+                .componentRegister(GameLoopComponentRegister.builder()
+                        .allInterface(IGameLoopAoiManager.class)
+                        .implementation(GameLoopAoiManager.class)
+                        .build())
+                .build();
+        gameLoop = new GameLoop(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameLoop.shutdown();
+    }
+
+    @Test
+    void testInterestChange() {
+        final Player a = new Player("a", 0, 0);
+        final Player b = new Player("b", 5, 0);
+        final Player c = new Player("c", 50, 0);
+        gameLoop.submit(loop -> List.of(a, b, c).stream()
+                .allMatch(player -> IGameLoopEntityManagerFunction.registerEntity(player).apply(loop))).join();
+        sync();
+
+        Assertions.assertEquals(List.of(b), a.lastEvent().getEnteredList());
+        Assertions.assertEquals(List.of(a), b.lastEvent().getEnteredList());
+        Assertions.assertTrue(c.eventList.isEmpty());
+        Assertions.assertEquals(List.of(b), gameLoop.submit(IGameLoopAoiManagerFunction.getNeighborList(a)).join());
+
+        //同一帧内的多次移动被合并
+        gameLoop.submit(loop -> {
+            c.moveTo(8, 0, loop);
+            b.moveTo(100, 0, loop);
+            return true;
+        }).join();
+        sync();
+
+        Assertions.assertEquals(List.of(c), a.lastEvent().getEnteredList());
+        Assertions.assertEquals(List.of(b), a.lastEvent().getLeftList());
+        Assertions.assertEquals(List.of(a), c.lastEvent().getEnteredList());
+        Assertions.assertEquals(List.of(a), b.lastEvent().getLeftList());
+
+        //离开后又回来，视为移动
+        final int eventCount = a.eventList.size();
+        gameLoop.submit(loop -> {
+            c.moveTo(30, 0, loop);
+            c.moveTo(9, 0, loop);
+            return true;
+        }).join();
+        sync();
+
+        Assertions.assertEquals(eventCount + 1, a.eventList.size());
+        Assertions.assertTrue(a.lastEvent().getEnteredList().isEmpty());
+        Assertions.assertTrue(a.lastEvent().getLeftList().isEmpty());
+        Assertions.assertEquals(List.of(c), a.lastEvent().getMovedList());
+
+        Assertions.assertEquals(2, (int) gameLoop.submit(loop -> loop.getComponent(IGameLoopAoiManager.class)
+                .map(manager -> manager.forEachInRange(0, 0, 10, entity -> {}))
+                .orElse(0)).join());
+
+        //反注册后，视野内的实体收到离开通知
+        gameLoop.submit(IGameLoopEntityManagerFunction.unregisterEntity("a", Category.Entity)).join();
+        sync();
+
+        Assertions.assertEquals(List.of(a), c.lastEvent().getLeftList());
+        Assertions.assertEquals(2, (int) gameLoop.submit(loop -> loop.getComponent(IGameLoopAoiManager.class)
+                .map(IGameLoopAoiManager::getEntityCount)
+                .orElse(0)).join());
+    }
+
+    /**
+     * 等待本帧合并的视野变化事件投递完成
+     */
+    private void sync() {
+        gameLoop.submit(loop -> 0).join();
+    }
+
+    private static class Player extends Entity implements IAoiPosition {
+        private final List<EventAoiInterestChangePost> eventList = new ArrayList<>();
+        private double x;
+        private double y;
+
+        private Player(String id, double x, double y) {
+            super(id);
+            this.x = x;
+            this.y = y;
+        }
+
+        private void moveTo(double x, double y, IGameLoop gameLoop) {
+            this.x = x;
+            this.y = y;
+            IGameLoopAoiManagerFunction.moveEntity(this).apply(gameLoop);
+        }
+
+        private EventAoiInterestChangePost lastEvent() {
+            return eventList.get(eventList.size() - 1);
+        }
+
+        @Override
+        public double getX() {
+            return x;
+        }
+
+        @Override
+        public double getY() {
+            return y;
+        }
+
+        @SuppressWarnings("unused")
+        @Subscribe
+        private void onInterestChange(final EventAoiInterestChangePost event) {
+            eventList.add(event);
+        }
+    }
+}
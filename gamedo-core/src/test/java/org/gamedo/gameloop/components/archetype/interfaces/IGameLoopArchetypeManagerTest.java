@@ -0,0 +1,125 @@
+package org.gamedo.gameloop.components.archetype.interfaces;
+
+import org.gamedo.ecs.ComponentType;
+import org.gamedo.ecs.Entity;
+import org.gamedo.gameloop.Category;
+import org.gamedo.gameloop.GameLoop;
+import org.gamedo.gameloop.GameLoopComponentRegister;
+import org.gamedo.gameloop.GameLoopConfig;
+import org.gamedo.gameloop.components.archetype.Archetype;
+import org.gamedo.gameloop.components.archetype.GameLoopArchetypeManager;
+import org.gamedo.gameloop.components.archetype.IGameLoopSystem;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.util.function.IGameLoopArchetypeManagerFunction;
+import org.gamedo.util.function.IGameLoopEntityManagerFunction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class IGameLoopArchetypeManagerTest {
+    private static final ComponentType<Hp> HP = ComponentType.of(Hp.class);
+    private static final ComponentType<Monster> MONSTER = ComponentType.of(Monster.class);
+
+    private IGameLoop gameLoop;
+
+    @BeforeEach
+    void setUp() {
+        final GameLoopConfig config = GameLoopConfig.builder()
+                .gameLoopGroupId("archetype")
+                .gameLoopIdPrefix("archetype-")
+                .gameLoopIdCounter(new AtomicInteger(1))
+                .daemon(true)
+                .componentRegisters(GameLoopConfig.DEFAULT.getComponentRegisters())
+                .componentRegister(GameLoopComponentRegister.builder()
+                        .allInterface(IGameLoopArchetypeManager.class)
+                        .implementation(GameLoopArchetypeManager.class)
+                        .build())
+                .build();
+        gameLoop = new GameLoop(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameLoop.shutdown();
+    }
+
+    @Test
+    void testExecute() {
+        final List<Entity> entityList = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final Entity entity = new Entity("archetype-" + i);
+            entity.addComponent(Hp.class, new Hp());
+            if (i % 2 == 0) {
+                entity.addComponent(Monster.class, new Monster());
+            }
+            entityList.add(entity);
+            Assertions.assertTrue(gameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(entity)).join());
+        }
+
+        final IGameLoopSystem regenerateSystem = new IGameLoopSystem() {
+            @Override
+            public List<ComponentType<?>> getRequiredTypes() {
+                return List.of(HP, MONSTER);
+            }
+
+            @Override
+            public void execute(Archetype archetype) {
+                final Object[] hpColumn = archetype.getColumn(HP);
+                for (int i = 0; i < archetype.size(); i++) {
+                    ((Hp) hpColumn[i]).value++;
+                }
+            }
+        };
+
+        Assertions.assertEquals(5, gameLoop.submit(IGameLoopArchetypeManagerFunction.execute(regenerateSystem)).join());
+        for (int i = 0; i < entityList.size(); i++) {
+            Assertions.assertEquals(i % 2 == 0 ? 1 : 0, entityList.get(i).getComponent(HP).value);
+        }
+
+        //组件变化后迁移到新的原型
+        final Entity entity = entityList.get(1);
+        gameLoop.submit(loop -> entity.addComponent(Monster.class, new Monster())).join();
+        Assertions.assertEquals(6, gameLoop.submit(IGameLoopArchetypeManagerFunction.execute(regenerateSystem)).join());
+        gameLoop.submit(loop -> entity.removeComponent(Monster.class)).join();
+        Assertions.assertEquals(5, gameLoop.submit(IGameLoopArchetypeManagerFunction.execute(regenerateSystem)).join());
+
+        //反注册后不再被处理
+        gameLoop.submit(IGameLoopEntityManagerFunction.unregisterEntity("archetype-0", Category.Entity)).join();
+        Assertions.assertEquals(4, gameLoop.submit(IGameLoopArchetypeManagerFunction.execute(regenerateSystem)).join());
+        Assertions.assertEquals(9, gameLoop.submit(loop -> loop.getComponent(IGameLoopArchetypeManager.class)
+                .map(manager -> manager.forEach(HP, hp -> hp.value = 0))
+                .orElse(0)).join());
+    }
+
+    @Test
+    void testStructuralChangeDuringExecute() {
+        final Entity entity = new Entity("archetype-structural");
+        entity.addComponent(Hp.class, new Hp());
+        Assertions.assertTrue(gameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(entity)).join());
+
+        final int count = gameLoop.submit(loop -> loop.getComponent(IGameLoopArchetypeManager.class)
+                .map(manager -> manager.forEach(HP, hp -> {
+                    hp.value++;
+                    //执行期间的修改被推迟，本次遍历不受影响
+                    entity.removeComponent(Hp.class);
+                }))
+                .orElse(0)).join();
+
+        Assertions.assertEquals(1, count);
+        Assertions.assertEquals(0, gameLoop.submit(loop -> loop.getComponent(IGameLoopArchetypeManager.class)
+                .map(manager -> manager.forEach(HP, hp -> hp.value++))
+                .orElse(0)).join());
+    }
+
+    private static class Hp {
+        private int value;
+    }
+
+    private static class Monster {
+    }
+}
@@ -3,7 +3,10 @@ package org.gamedo.gameloop.components.entitymanager.interfaces;
 import lombok.Getter;
 import org.gamedo.annotation.Subscribe;
 import org.gamedo.ecs.Component;
+import org.gamedo.ecs.ComponentType;
 import org.gamedo.ecs.Entity;
+import org.gamedo.ecs.EntityComponent;
+import org.gamedo.ecs.LongEntity;
 import org.gamedo.ecs.interfaces.IEntity;
 import org.gamedo.event.EventRegisterEntityPost;
 import org.gamedo.event.EventRegisterEntityPre;
@@ -11,18 +14,25 @@ import org.gamedo.event.EventUnregisterEntityPost;
 import org.gamedo.event.EventUnregisterEntityPre;
 import org.gamedo.gameloop.Category;
 import org.gamedo.gameloop.GameLoop;
+import org.gamedo.gameloop.GameLoopConfig;
+import org.gamedo.gameloop.components.entitymanager.EntityQuery;
 import org.gamedo.gameloop.components.entitymanager.GameLoopEntityManager;
 import org.gamedo.gameloop.components.eventbus.GameLoopEventBus;
 import org.gamedo.gameloop.components.eventbus.interfaces.IGameLoopEventBus;
 import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.util.function.EntityPredicate;
+import org.gamedo.util.function.IGameLoopEntityManagerFunction;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -81,6 +91,35 @@ class IGameLoopEntityManagerTest {
         assertEquals(Optional.empty(), entityMgr.unregisterEntity(entityId, Category.Entity));
     }
 
+    @Test
+    void testLongEntity() {
+        final LongEntity entity = new LongEntity(Long.MIN_VALUE);
+        assertTrue(entityMgr.registerEntity(entity));
+        assertTrue(entityMgr.hasEntity(Long.MIN_VALUE, Category.Entity));
+        assertSame(entity, entityMgr.getEntity(Long.MIN_VALUE, Category.Entity).orElse(null));
+        assertSame(entity, entityMgr.getEntity(Long.toString(Long.MIN_VALUE), Category.Entity).orElse(null));
+
+        //非ILongIdentity实体不会以数值Id索引
+        assertTrue(entityMgr.registerEntity(new Entity("1")));
+        assertFalse(entityMgr.hasEntity(1L, Category.Entity));
+
+        final int count = 1000;
+        for (long i = 0; i < count; i++) {
+            assertTrue(entityMgr.registerEntity(new LongEntity(i * 1024)));
+        }
+        for (long i = 0; i < count; i += 2) {
+            assertTrue(entityMgr.unregisterEntity(i * 1024, Category.Entity).isPresent());
+        }
+        for (long i = 0; i < count; i++) {
+            assertEquals(i % 2 == 1, entityMgr.hasEntity(i * 1024, Category.Entity));
+            assertEquals(i % 2 == 1, entityMgr.hasEntity(Long.toString(i * 1024), Category.Entity));
+        }
+
+        assertSame(entity, entityMgr.unregisterEntity(Long.MIN_VALUE, Category.Entity).orElse(null));
+        assertFalse(entityMgr.hasEntity(Long.MIN_VALUE, Category.Entity));
+        assertEquals(Optional.empty(), entityMgr.unregisterEntity(Long.MIN_VALUE, Category.Entity));
+    }
+
     @Test
     void testGetEntityMap() {
 
@@ -126,6 +165,206 @@ class IGameLoopEntityManagerTest {
         gameLoop.removeComponent(IGameLoopEventBus.class);
     }
 
+    @Test
+    void testQuery() {
+        final Entity entity1 = new Entity(UUID.randomUUID().toString());
+        final Entity entity2 = new Entity(UUID.randomUUID().toString());
+        entity1.addComponent(Integer.class, 1);
+        entity2.addComponent(Integer.class, 2);
+        entity2.addComponent(String.class, "2");
+        assertTrue(entityMgr.registerEntity(entity1));
+
+        final EntityQuery<IEntity> query = entityMgr.query(List.of(Integer.class), List.of(String.class));
+        assertSame(query, entityMgr.query(List.of(Integer.class), List.of(String.class)));
+        assertEquals(List.of(entity1), query.getEntityList());
+
+        assertTrue(entityMgr.registerEntity(entity2));
+        assertEquals(1, query.size());
+
+        final EntityPredicate<IEntity> predicate = entity -> entity.hasComponent(String.class);
+        final EntityQuery<IEntity> predicateQuery = entityMgr.query(predicate);
+        assertEquals(List.of(entity2), predicateQuery.getEntityList());
+
+        //组件变化后视图增量更新
+        entity2.removeComponent(String.class);
+        assertTrue(entityMgr.componentChanged(entity2, String.class, false));
+        assertEquals(2, query.size());
+        assertEquals(0, predicateQuery.size());
+
+        entityMgr.unregisterEntity(entity1.getId(), Category.Entity);
+        assertEquals(List.of(entity2), query.getEntityList());
+
+        //视图被获取了两次，第一次关闭后仍然被另一个持有者使用
+        assertTrue(entityMgr.closeQuery(query));
+        assertEquals(List.of(entity2), query.getEntityList());
+        entity2.addComponent(String.class, "2");
+        assertTrue(entityMgr.componentChanged(entity2, String.class, true));
+        assertEquals(0, query.size());
+
+        assertTrue(entityMgr.closeQuery(query));
+        assertFalse(entityMgr.closeQuery(query));
+        entity2.removeComponent(String.class);
+        assertTrue(entityMgr.componentChanged(entity2, String.class, false));
+        assertEquals(0, query.size());
+        assertNotSame(query, entityMgr.query(List.of(Integer.class), List.of(String.class)));
+
+        assertTrue(entityMgr.closeQuery(predicateQuery));
+        assertFalse(entityMgr.closeQuery(predicateQuery));
+    }
+
+    @Test
+    void testQueryComponentChangedInGameLoop() {
+        final IGameLoop gameLoop = new GameLoop(GameLoopConfig.builder()
+                .gameLoopIdPrefix("IGameLoopEntityManagerTest-")
+                .gameLoopIdCounter(new AtomicInteger(1))
+                .daemon(true)
+                .componentRegisters(GameLoopConfig.DEFAULT.getComponentRegisters())
+                .build());
+        final Entity entity = new Entity(UUID.randomUUID().toString());
+        assertTrue(gameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(entity)).join());
+
+        final EntityQuery<IEntity> query = gameLoop.submit(IGameLoopEntityManagerFunction.<IEntity>query(List.of(Integer.class), List.of()))
+                .join()
+                .orElseThrow();
+        assertEquals(0, gameLoop.submit(loop -> query.size()).join());
+
+        //在所属线程内修改组件时视图同步更新
+        assertEquals(1, gameLoop.submit(loop -> {
+            entity.addComponent(Integer.class, 1);
+            return query.size();
+        }).join());
+
+        assertEquals(0, gameLoop.submit(loop -> {
+            entity.removeComponent(Integer.class);
+            return query.size();
+        }).join());
+
+        //实体没有注册到当前线程时，不影响当前线程的视图
+        final Entity other = new Entity(UUID.randomUUID().toString());
+        assertEquals(0, gameLoop.submit(loop -> {
+            other.addComponent(Integer.class, 1);
+            return query.size();
+        }).join());
+
+        gameLoop.shutdown();
+    }
+
+    @Test
+    void testDrainDirtyInGameLoop() {
+        final IGameLoop gameLoop = new GameLoop(GameLoopConfig.builder()
+                .gameLoopIdPrefix("IGameLoopEntityManagerTest-")
+                .gameLoopIdCounter(new AtomicInteger(1))
+                .daemon(true)
+                .componentRegisters(GameLoopConfig.DEFAULT.getComponentRegisters())
+                .build());
+        final List<HpComponent> componentList = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final Entity entity = new Entity("dirty-" + i);
+            final HpComponent component = new HpComponent(entity);
+            entity.addComponent(HpComponent.class, component);
+            entity.addComponent(String.class, "clean");
+            componentList.add(component);
+            assertTrue(gameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(entity)).join());
+        }
+
+        assertEquals(0, gameLoop.submit(IGameLoopEntityManagerFunction.drainDirty((entity, dirty) -> fail())).join());
+
+        gameLoop.submit(loop -> {
+            componentList.get(1).setHp(10);
+            componentList.get(1).setHp(20);
+            componentList.get(3).setHp(30);
+            return true;
+        }).join();
+
+        final List<String> drainedList = new ArrayList<>();
+        assertEquals(2, gameLoop.submit(IGameLoopEntityManagerFunction.drainDirty((entity, dirty) -> {
+            assertTrue(dirty.isDirty(HpComponent.class));
+            assertFalse(dirty.isDirty(String.class));
+            assertEquals(1L, dirty.getDirtyFieldMask(HpComponent.class));
+            assertEquals(1, dirty.forEachDirtyComponent((clazz, component) -> assertSame(componentList.get(Integer.parseInt(entity.getId().substring(6))), component)));
+            //交给消费者之前已经清除了修改标记
+            assertFalse(entity.isDirty());
+            drainedList.add(entity.getId());
+        })).join());
+        assertEquals(List.of("dirty-1", "dirty-3"), drainedList);
+        assertEquals(2, componentList.get(1).getVersion());
+        assertEquals(0, componentList.get(1).getDirtyFieldMask());
+        assertFalse(gameLoop.submit(loop -> componentList.get(1).getOwner().isDirty()).join());
+
+        //已经反注册的实体不再处理
+        gameLoop.submit(loop -> {
+            componentList.get(5).setHp(50);
+            return true;
+        }).join();
+        gameLoop.submit(IGameLoopEntityManagerFunction.unregisterEntity("dirty-5", Category.Entity)).join();
+        assertEquals(0, gameLoop.submit(IGameLoopEntityManagerFunction.drainDirty((entity, dirty) -> fail())).join());
+
+        //消费者内部产生的修改不会被清除，在下一次处理
+        gameLoop.submit(loop -> {
+            componentList.get(7).setHp(70);
+            return true;
+        }).join();
+        assertEquals(1, gameLoop.submit(IGameLoopEntityManagerFunction.drainDirty((entity, dirty) -> componentList.get(7).setHp(71))).join());
+        assertTrue(gameLoop.submit(loop -> componentList.get(7).getOwner().isDirty()).join());
+        assertEquals(1, gameLoop.submit(IGameLoopEntityManagerFunction.drainDirty((entity, dirty) -> assertEquals(1L, dirty.getDirtyFieldMask(HpComponent.class)))).join());
+        assertFalse(gameLoop.submit(loop -> componentList.get(7).getOwner().isDirty()).join());
+
+        //消费者抛出异常时，修改标记（包括字段的修改标记）被恢复，在下一次重试
+        gameLoop.submit(loop -> {
+            componentList.get(8).setHp(80);
+            return true;
+        }).join();
+        assertEquals(1, gameLoop.submit(IGameLoopEntityManagerFunction.drainDirty((entity, dirty) -> {
+            throw new IllegalStateException("snapshot failed");
+        })).join());
+        assertTrue(gameLoop.submit(loop -> componentList.get(8).getOwner().isDirty(HpComponent.class)).join());
+        assertEquals(1L, componentList.get(8).getDirtyFieldMask());
+        final List<String> retryList = new ArrayList<>();
+        assertEquals(1, gameLoop.submit(IGameLoopEntityManagerFunction.drainDirty((entity, dirty) -> retryList.add(entity.getId()))).join());
+        assertEquals(List.of("dirty-8"), retryList);
+
+        gameLoop.shutdown();
+    }
+
+    @Test
+    void testMarkDirtyByComponent() {
+        final Entity entity = new Entity(UUID.randomUUID().toString());
+        final HpComponent component = new HpComponent(entity);
+        entity.addComponent(HpComponent.class, component);
+        entity.addComponent(Object.class, component);
+        entity.addComponent(String.class, "clean");
+
+        //不指定类型时，组件所注册的每一个类型都被标记
+        component.touch();
+        assertEquals(1, component.getVersion());
+        assertTrue(entity.isDirty(HpComponent.class));
+        assertTrue(entity.isDirty(Object.class));
+        assertFalse(entity.isDirty(String.class));
+
+        entity.clearDirty();
+        assertFalse(entity.isDirty());
+        component.setHp(1);
+        assertTrue(entity.isDirty(HpComponent.class));
+        assertFalse(entity.isDirty(Object.class));
+    }
+
+    private static class HpComponent extends EntityComponent {
+        private static final ComponentType<HpComponent> TYPE = ComponentType.of(HpComponent.class);
+        private int hp;
+
+        private HpComponent(IEntity owner) {
+            super(owner);
+        }
+
+        private void setHp(int hp) {
+            this.hp = hp;
+            markDirty(TYPE, 0);
+        }
+
+        private void touch() {
+            markDirty();
+        }
+    }
 
     @SuppressWarnings("unused")
     interface IPlayerEntity extends IEntity {
@@ -7,6 +7,7 @@ import lombok.extern.log4j.Log4j2;
 import org.gamedo.annotation.Subscribe;
 import org.gamedo.ecs.Entity;
 import org.gamedo.ecs.EntityComponent;
+import org.gamedo.ecs.LongEntity;
 import org.gamedo.ecs.interfaces.IEntity;
 import org.gamedo.gameloop.GameLoop;
 import org.gamedo.gameloop.components.eventbus.GameLoopEventBus;
@@ -158,6 +159,30 @@ class IGameLoopEventBusTest {
         Assertions.assertEquals(Integer.MAX_VALUE, myObject.myIdentityEventValue);
     }
 
+    @Test
+    void testLongIdentityEventPost() {
+        final int value = ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE);
+        final MyLongComponent component1 = new MyLongComponent(new LongEntity(1L));
+        final MyLongComponent component2 = new MyLongComponent(new LongEntity(2L));
+        //字符串Id相同，但不是ILongIdentity
+        final MyLongComponent component3 = new MyLongComponent(new Entity("1"));
+
+        iGameLoopEventBus.register(component1);
+        iGameLoopEventBus.register(component2);
+        iGameLoopEventBus.register(component3);
+
+        Assertions.assertEquals(1, iGameLoopEventBus.post(MyLongIdentityEvent.class, () -> new MyLongIdentityEvent(1L, value)));
+        Assertions.assertEquals(value, component1.value);
+        Assertions.assertEquals(0, component2.value);
+        Assertions.assertEquals(0, component3.value);
+
+        Assertions.assertEquals(0, iGameLoopEventBus.post(MyLongIdentityEvent.class, () -> new MyLongIdentityEvent(3L, value)));
+
+        Assertions.assertEquals(1, iGameLoopEventBus.unregister(component1));
+        Assertions.assertEquals(0, iGameLoopEventBus.post(MyLongIdentityEvent.class, () -> new MyLongIdentityEvent(1L, value + 1)));
+        Assertions.assertEquals(value, component1.value);
+    }
+
     @Test
     void testPriorityEvent() {
         final PriorityObject priorityObject = new PriorityObject();
@@ -360,6 +385,26 @@ class IGameLoopEventBusTest {
         }
     }
 
+    @Value
+    private static class MyLongIdentityEvent implements ILongIdentitySelfEvent {
+        long longId;
+        int value;
+    }
+
+    private static class MyLongComponent extends EntityComponent {
+        private int value;
+
+        private MyLongComponent(IEntity owner) {
+            super(owner);
+        }
+
+        @SuppressWarnings("unused")
+        @Subscribe
+        private void myLongIdentityEvent(final MyLongIdentityEvent event) {
+            value = event.value;
+        }
+    }
+
     @SuppressWarnings("unused")
     @Data
     private static class MyObject {
@@ -0,0 +1,164 @@
+package org.gamedo.gameloop.components.pool.interfaces;
+
+import org.gamedo.ecs.Entity;
+import org.gamedo.ecs.EntityComponent;
+import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.ecs.interfaces.IPoolable;
+import org.gamedo.gameloop.Category;
+import org.gamedo.gameloop.GameLoop;
+import org.gamedo.gameloop.GameLoopComponentRegister;
+import org.gamedo.gameloop.GameLoopConfig;
+import org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager;
+import org.gamedo.gameloop.components.pool.GameLoopEntityPool;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.util.GamedoConfiguration;
+import org.gamedo.util.function.IGameLoopEntityManagerFunction;
+import org.gamedo.util.function.IGameLoopEntityPoolFunction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+class IGameLoopEntityPoolTest {
+
+    private IGameLoop gameLoop;
+
+    @BeforeEach
+    void setUp() {
+        final GameLoopConfig config = GameLoopConfig.builder()
+                .gameLoopGroupId("pool")
+                .gameLoopIdPrefix("pool-")
+                .gameLoopIdCounter(new AtomicInteger(1))
+                .daemon(true)
+                .componentRegisters(GameLoopConfig.DEFAULT.getComponentRegisters())
+                .componentRegister(GameLoopComponentRegister.builder()
+                        .allInterface(IGameLoopEntityPool.class)
+                        .implementation(GameLoopEntityPool.class)
+                        .build())
+                .build();
+        gameLoop = new GameLoop(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameLoop.shutdown();
+        System.clearProperty(GamedoConfiguration.ENTITY_POOL_MAX_SIZE_KEY);
+    }
+
+    @Test
+    void testAcquireAndRelease() {
+        final AtomicInteger createCount = new AtomicInteger();
+        final Monster monster1 = gameLoop.submit(IGameLoopEntityPoolFunction.acquire(Monster.class, () -> {
+            createCount.incrementAndGet();
+            return new Monster();
+        })).join();
+        Assertions.assertEquals(1, createCount.get());
+
+        monster1.init("monster-1", 100);
+        Assertions.assertTrue(gameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(monster1)).join());
+        Assertions.assertTrue(gameLoop.submit(loop -> loop.getComponent(IGameLoopEntityManager.class)
+                .map(manager -> manager.recycleEntity("monster-1", Category.Entity))
+                .orElse(false)).join());
+
+        Assertions.assertFalse(gameLoop.submit(IGameLoopEntityManagerFunction.hasEntity("monster-1", Category.Entity)).join());
+        Assertions.assertEquals(1, monster1.resetCount);
+        Assertions.assertEquals(0, monster1.getComponent(Hp.class).orElseThrow().value);
+        Assertions.assertEquals(1, gameLoop.submit(loop -> loop.getComponent(IGameLoopEntityPool.class)
+                .map(pool -> pool.getPoolSize(Monster.class))
+                .orElse(0)).join());
+
+        //重复回收失败
+        Assertions.assertFalse(gameLoop.submit(IGameLoopEntityPoolFunction.release(monster1)).join());
+
+        final Monster monster2 = gameLoop.submit(IGameLoopEntityPoolFunction.acquire(Monster.class, () -> {
+            createCount.incrementAndGet();
+            return new Monster();
+        })).join();
+        Assertions.assertSame(monster1, monster2);
+        Assertions.assertEquals(1, createCount.get());
+
+        monster2.init("monster-2", 50);
+        Assertions.assertTrue(gameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(monster2)).join());
+        Assertions.assertTrue(gameLoop.submit(IGameLoopEntityManagerFunction.hasEntity("monster-2", Category.Entity)).join());
+        Assertions.assertEquals(50, monster2.getComponent(Hp.class).orElseThrow().value);
+    }
+
+    @Test
+    void testReleaseRegistered() {
+        final Monster monster = new Monster();
+        monster.init("monster-1", 100);
+        Assertions.assertTrue(gameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(monster)).join());
+
+        //仍然注册着的实体不能直接回收
+        Assertions.assertFalse(gameLoop.submit(IGameLoopEntityPoolFunction.release(monster)).join());
+        Assertions.assertEquals(0, monster.resetCount);
+        Assertions.assertEquals(100, monster.getComponent(Hp.class).orElseThrow().value);
+        Assertions.assertTrue(gameLoop.submit(IGameLoopEntityManagerFunction.hasEntity("monster-1", Category.Entity)).join());
+
+        //同id的其他实例不受影响
+        final Monster other = new Monster();
+        other.init("monster-1", 50);
+        Assertions.assertTrue(gameLoop.submit(IGameLoopEntityPoolFunction.release(other)).join());
+    }
+
+    @Test
+    void testMaxSize() {
+        System.setProperty(GamedoConfiguration.ENTITY_POOL_MAX_SIZE_KEY, "2");
+
+        for (int i = 0; i < 3; i++) {
+            final Monster monster = new Monster();
+            Assertions.assertEquals(i < 2, gameLoop.submit(IGameLoopEntityPoolFunction.release(monster)).join());
+            //池子已满时不会被重置
+            Assertions.assertEquals(i < 2 ? 1 : 0, monster.resetCount);
+        }
+
+        Assertions.assertEquals(2, gameLoop.submit(loop -> loop.getComponent(IGameLoopEntityPool.class)
+                .map(pool -> pool.clear(Monster.class))
+                .orElse(0)).join());
+    }
+
+    @Test
+    void testRecycleNonPoolable() {
+        final Entity entity = new Entity("entity-1");
+        Assertions.assertTrue(gameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(entity)).join());
+        Assertions.assertFalse(gameLoop.submit(loop -> loop.getComponent(IGameLoopEntityManager.class)
+                .map(manager -> manager.recycleEntity("entity-1", Category.Entity))
+                .orElse(false)).join());
+        //非IPoolable实体仍然会被反注册
+        Assertions.assertFalse(gameLoop.submit(IGameLoopEntityManagerFunction.hasEntity("entity-1", Category.Entity)).join());
+    }
+
+    private static class Monster extends Entity implements IPoolable {
+        private int resetCount;
+
+        private Monster() {
+            super("");
+            addComponent(Hp.class, new Hp(this));
+        }
+
+        private void init(String id, int hp) {
+            setId(id);
+            getComponent(Hp.class).orElseThrow().value = hp;
+        }
+
+        @Override
+        public void reset() {
+            resetCount++;
+        }
+    }
+
+    private static class Hp extends EntityComponent implements IPoolable {
+        private int value;
+
+        private Hp(IEntity owner) {
+            super(owner);
+        }
+
+        @Override
+        public void reset() {
+            value = 0;
+        }
+    }
+}
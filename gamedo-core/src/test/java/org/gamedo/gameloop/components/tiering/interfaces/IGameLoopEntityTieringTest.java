@@ -0,0 +1,211 @@
+package org.gamedo.gameloop.components.tiering.interfaces;
+
+import org.gamedo.concurrent.SimulatedClock;
+import org.gamedo.annotation.Subscribe;
+import org.gamedo.ecs.Entity;
+import org.gamedo.ecs.EntityComponent;
+import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.event.EventUnregisterEntityPre;
+import org.gamedo.gameloop.Category;
+import org.gamedo.gameloop.GameLoop;
+import org.gamedo.gameloop.GameLoopComponentRegister;
+import org.gamedo.gameloop.GameLoopConfig;
+import org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager;
+import org.gamedo.gameloop.components.tiering.GameLoopEntityTiering;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.persistence.InMemoryEntityColdStore;
+import org.gamedo.util.GamedoConfiguration;
+import org.gamedo.util.function.IGameLoopEntityManagerFunction;
+import org.gamedo.util.function.IGameLoopEntityTieringFunction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IGameLoopEntityTieringTest {
+
+    private final SimulatedClock clock = new SimulatedClock(0);
+    private final InMemoryEntityColdStore coldStore = new InMemoryEntityColdStore(
+            entity -> entity.getId().getBytes(StandardCharsets.UTF_8),
+            this::decode);
+    private boolean decodeFailed;
+    private IGameLoop gameLoop;
+
+    @AfterEach
+    void tearDown() {
+        gameLoop.shutdown();
+    }
+
+    @Test
+    void testIdleEvictAndReload() {
+        newGameLoop(60_000, 0);
+        register("a", "b", "c");
+
+        clock.advance(Duration.ofSeconds(30));
+        assertTrue(getEntity("a").isPresent());
+
+        //b、c空闲70秒，a空闲40秒
+        clock.advance(Duration.ofSeconds(40));
+        assertEquals(2, coldStore.size());
+        assertEquals(1, gameLoop.submit(IGameLoopEntityManagerFunction.getEntityCount(Category.Entity)).join());
+        assertFalse(gameLoop.submit(IGameLoopEntityManagerFunction.hasEntity("b", Category.Entity)).join());
+
+        //getEntity只查找常驻的实体，没有副作用
+        assertFalse(getEntity("b").isPresent());
+        assertEquals(2, coldStore.size());
+
+        //显式地加载并注册
+        assertEquals("b", gameLoop.submit(IGameLoopEntityManagerFunction.<IEntity>getOrReload("b", Category.Entity)).join()
+                .map(IEntity::getId)
+                .orElseThrow());
+        assertTrue(gameLoop.submit(IGameLoopEntityManagerFunction.hasEntity("b", Category.Entity)).join());
+        assertEquals(1, coldStore.size());
+        assertEquals(2, gameLoop.submit(loop -> loop.getComponent(IGameLoopEntityTiering.class).orElseThrow().getResidentCount()).join());
+
+        //从未转储过的实体
+        assertFalse(gameLoop.submit(IGameLoopEntityManagerFunction.getOrReload("d", Category.Entity)).join().isPresent());
+    }
+
+    @Test
+    void testStoreAfterUnregisterPre() {
+        newGameLoop(0, 1);
+        register("a");
+        final Entity entity = new Entity("b");
+        final PreHandler handler = new PreHandler(entity);
+        entity.addComponent(PreHandler.class, handler);
+        assertTrue(gameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(entity)).join());
+        assertTrue(getEntity("a").isPresent());
+
+        //b最久未访问，转储发生在反注册的Pre事件处理之后
+        assertEquals(1, gameLoop.submit(IGameLoopEntityTieringFunction.evict()).join());
+        assertEquals(0, handler.coldStoreSizeOnPre);
+        assertEquals(1, coldStore.size());
+        assertFalse(gameLoop.submit(IGameLoopEntityManagerFunction.hasEntity("b", Category.Entity)).join());
+    }
+
+    @Test
+    void testMaxResident() {
+        newGameLoop(0, 2);
+        register("a", "b", "c", "d");
+
+        assertTrue(getEntity("a").isPresent());
+        assertEquals(2, gameLoop.submit(IGameLoopEntityTieringFunction.evict()).join());
+
+        //b、c最久未访问
+        assertEquals(2, coldStore.size());
+        assertTrue(gameLoop.submit(IGameLoopEntityManagerFunction.hasEntity("a", Category.Entity)).join());
+        assertTrue(gameLoop.submit(IGameLoopEntityManagerFunction.hasEntity("d", Category.Entity)).join());
+        assertEquals(0, gameLoop.submit(IGameLoopEntityTieringFunction.evict()).join());
+
+        //显式反注册的实体不再参与分层
+        gameLoop.submit(IGameLoopEntityManagerFunction.unregisterEntity("d", Category.Entity)).join();
+        assertEquals(1, gameLoop.submit(loop -> loop.getComponent(IGameLoopEntityTiering.class).orElseThrow().getResidentCount()).join());
+    }
+
+    @Test
+    void testReloadAfterDecodeFailed() {
+        newGameLoop(0, 1);
+        register("a", "b");
+        assertEquals(1, gameLoop.submit(IGameLoopEntityTieringFunction.evict()).join());
+        assertEquals(1, coldStore.size());
+
+        //解码失败时数据仍然保留在冷存储中
+        decodeFailed = true;
+        assertFalse(gameLoop.submit(IGameLoopEntityManagerFunction.getOrReload("a", Category.Entity)).join().isPresent());
+        assertEquals(1, coldStore.size());
+
+        decodeFailed = false;
+        assertTrue(gameLoop.submit(IGameLoopEntityManagerFunction.getOrReload("a", Category.Entity)).join().isPresent());
+        assertEquals(0, coldStore.size());
+    }
+
+    @Test
+    void testSameIdInDifferentCategory() {
+        newGameLoop(0, 0);
+        register("a");
+        assertTrue(gameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(new OtherEntity("a"))).join());
+        assertEquals(2, gameLoop.submit(loop -> loop.getComponent(IGameLoopEntityTiering.class).orElseThrow().getResidentCount()).join());
+
+        gameLoop.submit(IGameLoopEntityManagerFunction.unregisterEntity("a", Category.Entity)).join();
+        assertEquals(1, gameLoop.submit(loop -> loop.getComponent(IGameLoopEntityTiering.class).orElseThrow().getResidentCount()).join());
+        assertTrue(gameLoop.submit(IGameLoopEntityManagerFunction.hasEntity("a", () -> OtherEntity.CATEGORY)).join());
+    }
+
+    private void newGameLoop(long idleMillis, int maxResident) {
+        System.setProperty(GamedoConfiguration.ENTITY_IDLE_MILLIS_KEY, String.valueOf(idleMillis));
+        System.setProperty(GamedoConfiguration.ENTITY_MAX_RESIDENT_KEY, String.valueOf(maxResident));
+        System.setProperty(GamedoConfiguration.ENTITY_EVICT_INTERVAL_MILLIS_KEY, "1000");
+        try {
+            gameLoop = new GameLoop(GameLoopConfig.builder()
+                    .gameLoopGroupId("tiering")
+                    .gameLoopIdPrefix("tiering-")
+                    .gameLoopIdCounter(new AtomicInteger(1))
+                    .daemon(true)
+                    .clock(clock)
+                    .componentRegisters(GameLoopConfig.DEFAULT.getComponentRegisters())
+                    .componentRegister(GameLoopComponentRegister.builder()
+                            .allInterface(IGameLoopEntityTiering.class)
+                            .implementation(GameLoopEntityTiering.class)
+                            .build())
+                    .build());
+        } finally {
+            System.clearProperty(GamedoConfiguration.ENTITY_IDLE_MILLIS_KEY);
+            System.clearProperty(GamedoConfiguration.ENTITY_MAX_RESIDENT_KEY);
+            System.clearProperty(GamedoConfiguration.ENTITY_EVICT_INTERVAL_MILLIS_KEY);
+        }
+
+        assertTrue(gameLoop.submit(IGameLoopEntityTieringFunction.setColdStore(coldStore)).join());
+    }
+
+    private Optional<IEntity> getEntity(String entityId) {
+        return gameLoop.submit(loop -> loop.getComponent(IGameLoopEntityManager.class)
+                .flatMap(entityManager -> entityManager.<IEntity>getEntity(entityId, Category.Entity))).join();
+    }
+
+    private IEntity decode(byte[] bytes) {
+        if (decodeFailed) {
+            throw new IllegalStateException("decode failed");
+        }
+
+        return new Entity(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private static class OtherEntity extends Entity {
+        private static final String CATEGORY = "Other";
+
+        private OtherEntity(String id) {
+            super(id);
+        }
+
+        @Override
+        public String getCategory() {
+            return CATEGORY;
+        }
+    }
+
+    private class PreHandler extends EntityComponent {
+        private int coldStoreSizeOnPre = -1;
+
+        private PreHandler(IEntity owner) {
+            super(owner);
+        }
+
+        @Subscribe
+        private void eventUnregisterEntityPre(final EventUnregisterEntityPre event) {
+            if (getOwner().getId().equals(event.getEntityId())) {
+                coldStoreSizeOnPre = coldStore.size();
+            }
+        }
+    }
+
+    private void register(String... entityIds) {
+        List.of(entityIds).forEach(entityId ->
+                assertTrue(gameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(new Entity(entityId))).join()));
+    }
+}
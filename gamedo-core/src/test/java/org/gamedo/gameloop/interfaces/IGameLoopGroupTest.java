@@ -11,8 +11,10 @@ import org.gamedo.exception.GameLoopException;
 import org.gamedo.gameloop.Category;
 import org.gamedo.gameloop.GameLoop;
 import org.gamedo.gameloop.GameLoopGroup;
+import org.gamedo.gameloop.GameLoops;
 import org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager;
 import org.gamedo.gameloop.components.eventbus.interfaces.IEvent;
+import org.gamedo.util.Hashing;
 import org.gamedo.util.Pair;
 import org.gamedo.util.function.*;
 import org.junit.jupiter.api.*;
@@ -22,6 +24,7 @@ import org.springframework.context.annotation.AnnotationConfigApplicationContext
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
@@ -141,6 +144,128 @@ class IGameLoopGroupTest {
         }
     }
 
+    @Test
+    void testSelectHashing() {
+        final long[] keys = {0L, 1L, -1L, 9L, 10L, -10L, 123456789L, 999_999_999_999_999_999L, 1_000_000_000_000_000_000L,
+                Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long key : keys) {
+            Assertions.assertSame(gameLoopGroup.selectHashing(Long.toString(key)), gameLoopGroup.selectHashing(key));
+            for (Hashing hashing : Hashing.values()) {
+                Assertions.assertEquals(hashing.hash(Long.toString(key)), hashing.hash(key), hashing + ":" + key);
+            }
+        }
+
+        ThreadLocalRandom.current().longs(1000)
+                .forEach(key -> Assertions.assertSame(gameLoopGroup.selectHashing(Long.toString(key)), gameLoopGroup.selectHashing(key)));
+    }
+
+    @Test
+    void testTellAndAsk() {
+        final List<String> entityIdList = IntStream.range(0, 100)
+                .mapToObj(i -> "mailbox-" + i)
+                .collect(Collectors.toList());
+        entityIdList.forEach(entityId -> Assertions.assertTrue(gameLoopGroup.selectHashing(entityId)
+                .submit(IGameLoopEntityManagerFunction.registerEntity(new MailboxEntity(entityId)))
+                .join()));
+
+        //多个线程并发地tell，同一个发送者的消息保持顺序
+        final int messageCount = 1000;
+        IntStream.range(0, 4).parallel().forEach(sender -> entityIdList.forEach(entityId -> IntStream.range(0, messageCount)
+                .forEach(i -> Assertions.assertTrue(gameLoopGroup.tell(entityId, Category.Entity, new int[]{sender, i})))));
+
+        //外部线程ask，在实体所在的线程回调
+        final List<CompletableFuture<Integer>> futureList = entityIdList.stream()
+                .map(entityId -> {
+                    final CompletableFuture<Integer> future = new CompletableFuture<>();
+                    gameLoopGroup.<Integer>ask(entityId, Category.Entity, "count", (count, throwable) -> {
+                        Assertions.assertSame(gameLoopGroup.selectHashing(entityId), GameLoops.current().orElseThrow());
+                        future.complete(count);
+                    });
+                    return future;
+                })
+                .collect(Collectors.toList());
+        futureList.forEach(future -> Assertions.assertEquals(4 * messageCount, future.join()));
+
+        //GameLoop内ask，回复投递回发送者的线程
+        final IGameLoop sender = gameLoopGroup.selectHashing("sender");
+        final CompletableFuture<IGameLoop> replyFuture = new CompletableFuture<>();
+        sender.submit(gameLoop -> gameLoopGroup.ask(entityIdList.get(0), Category.Entity, "count",
+                (count, throwable) -> replyFuture.complete(GameLoops.current().orElse(null))));
+        Assertions.assertSame(sender, replyFuture.join());
+
+        //实体不存在
+        final CompletableFuture<Throwable> deadFuture = new CompletableFuture<>();
+        gameLoopGroup.ask("mailbox-none", Category.Entity, "count", (count, throwable) -> deadFuture.complete(throwable));
+        Assertions.assertTrue(deadFuture.join() instanceof GameLoopException);
+        Assertions.assertTrue(Arrays.stream(gameLoopGroup.selectAll()).allMatch(gameLoop -> gameLoop.getMailboxDepth() == 0));
+    }
+
+    @Test
+    void testCoalesce() throws InterruptedException {
+        final String entityId = "mailbox-coalesce";
+        final IGameLoop gameLoop = gameLoopGroup.selectHashing(entityId);
+        final MailboxEntity entity = new MailboxEntity(entityId);
+        Assertions.assertTrue(gameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(entity)).join());
+
+        //阻塞gameLoop，使消息在实体邮箱内堆积
+        final CountDownLatch latch = new CountDownLatch(1);
+        gameLoop.execute(() -> Assertions.assertDoesNotThrow(() -> latch.await()));
+        IntStream.range(0, 10).forEach(i -> gameLoopGroup.tell(entityId, Category.Entity, new PositionMessage("a", i)));
+        gameLoopGroup.tell(entityId, Category.Entity, "plain");
+        IntStream.range(0, 10).forEach(i -> gameLoopGroup.tell(entityId, Category.Entity, new PositionMessage("b", i)));
+        gameLoopGroup.tell(entityId, Category.Entity, new PositionMessage("a", 10));
+        Assertions.assertEquals(3, gameLoop.getMailboxDepth(entityId, Category.Entity));
+        latch.countDown();
+
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+        gameLoopGroup.<Integer>ask(entityId, Category.Entity, "count", (count, throwable) -> future.complete(count));
+        Assertions.assertEquals(0, future.join());
+        //合并后的消息保持第一条消息的位置
+        Assertions.assertEquals(List.of("a:10", "plain", "b:9", "count"), gameLoop.submit(loop -> new ArrayList<>(entity.messageList)).join());
+
+        //反注册后实体邮箱被销毁，尚未处理的消息成为死信
+        final CountDownLatch unregisterLatch = new CountDownLatch(1);
+        gameLoop.execute(() -> Assertions.assertDoesNotThrow(() -> unregisterLatch.await()));
+        gameLoop.execute(() -> IGameLoopEntityManagerFunction.unregisterEntity(entityId, Category.Entity).apply(gameLoop));
+        final CompletableFuture<Throwable> deadFuture = new CompletableFuture<>();
+        gameLoopGroup.ask(entityId, Category.Entity, "count", (count, throwable) -> deadFuture.complete(throwable));
+        Assertions.assertEquals(1, gameLoop.getMailboxDepth(entityId, Category.Entity));
+        unregisterLatch.countDown();
+        Assertions.assertTrue(deadFuture.join() instanceof GameLoopException);
+        Assertions.assertEquals(0, gameLoop.getMailboxDepth(entityId, Category.Entity));
+    }
+
+    @Test
+    void testConcurrentTellAndUnregister() throws InterruptedException {
+        final String entityId = "mailbox-concurrent";
+        final IGameLoop gameLoop = gameLoopGroup.selectHashing(entityId);
+        final MailboxEntity entity = new MailboxEntity(entityId);
+        Assertions.assertTrue(gameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(entity)).join());
+
+        //发送的同时反注册实体，销毁实体邮箱时并发投递进来的消息也不能滞留
+        final int messageCount = 10000;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final List<Thread> senderList = IntStream.range(0, 4)
+                .mapToObj(sender -> new Thread(() -> {
+                    Assertions.assertDoesNotThrow(() -> startLatch.await());
+                    IntStream.range(0, messageCount).forEach(i -> gameLoopGroup.tell(entityId, Category.Entity, "message"));
+                }))
+                .collect(Collectors.toList());
+        senderList.forEach(Thread::start);
+        startLatch.countDown();
+        gameLoop.submit(IGameLoopEntityManagerFunction.unregisterEntity(entityId, Category.Entity)).join();
+        for (final Thread sender : senderList) {
+            sender.join();
+        }
+
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (gameLoop.getMailboxDepth() > 0 && System.currentTimeMillis() < deadline) {
+            gameLoop.submit(loop -> true).join();
+        }
+        Assertions.assertEquals(0, gameLoop.getMailboxDepth());
+        Assertions.assertEquals(0, gameLoop.getMailboxDepth(entityId, Category.Entity));
+    }
+
     @Test
     void testSelectChooser() {
         final IGameLoop iGameLoop1 = gameLoopGroup.selectNext();
@@ -433,6 +558,44 @@ class IGameLoopGroupTest {
         String eventName;
     }
 
+    @Value
+    private static class PositionMessage implements ICoalescableMessage {
+        String key;
+        int index;
+
+        @Override
+        public Object getCoalesceKey() {
+            return key;
+        }
+    }
+
+    private static class MailboxEntity extends Entity implements IMailboxHandler {
+        private final Map<Integer, Integer> lastIndexMap = new HashMap<>();
+        private final List<String> messageList = new ArrayList<>();
+        private int count;
+
+        private MailboxEntity(String id) {
+            super(id);
+        }
+
+        @Override
+        public Object onMessage(IEntity entity, Object message) {
+            if (message instanceof int[]) {
+                final int[] data = (int[]) message;
+                final Integer lastIndex = lastIndexMap.put(data[0], data[1]);
+                Assertions.assertEquals(lastIndex == null ? 0 : lastIndex + 1, data[1]);
+                count++;
+            } else if (message instanceof PositionMessage) {
+                final PositionMessage positionMessage = (PositionMessage) message;
+                messageList.add(positionMessage.key + ":" + positionMessage.index);
+            } else {
+                messageList.add(message.toString());
+            }
+
+            return count;
+        }
+    }
+
     @SuppressWarnings("unused")
     private static class MyEntity extends Entity {
         private final Map<String, CompletableFuture<Boolean>> futureMap;
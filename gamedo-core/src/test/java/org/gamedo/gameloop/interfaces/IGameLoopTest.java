@@ -1,33 +1,75 @@
 package org.gamedo.gameloop.interfaces;
 
+import io.micrometer.core.instrument.FunctionTimer;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import lombok.extern.log4j.Log4j2;
 import org.gamedo.GameLoopGroupConfiguration;
+import org.gamedo.annotation.Cron;
+import org.gamedo.annotation.Subscribe;
 import org.gamedo.annotation.Tick;
+import org.gamedo.concurrent.SimulatedClock;
+import org.gamedo.concurrent.VirtualThreads;
 import org.gamedo.ecs.Entity;
 import org.gamedo.ecs.interfaces.IEntity;
 import org.gamedo.exception.GameLoopException;
 import org.gamedo.gameloop.Category;
 import org.gamedo.gameloop.GameLoop;
 import org.gamedo.gameloop.GameLoopConfig;
+import org.gamedo.gameloop.GameLoopCoroutine;
+import org.gamedo.gameloop.GameLoopStall;
 import org.gamedo.gameloop.GameLoops;
+import org.gamedo.gameloop.Lane;
+import org.gamedo.gameloop.RejectPolicy;
+import org.gamedo.gameloop.TaskPriority;
 import org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager;
+import org.gamedo.gameloop.components.eventbus.interfaces.IEvent;
 import org.gamedo.gameloop.components.eventbus.interfaces.IGameLoopEventBus;
+import org.gamedo.gameloop.components.tickManager.TickData;
+import org.gamedo.gameloop.components.tickManager.interfaces.IGameLoopTickManager;
+import org.gamedo.logging.GamedoLogContext;
+import org.gamedo.util.GamedoConfiguration;
+import org.gamedo.util.Metric;
 import org.gamedo.util.function.IGameLoopEntityManagerFunction;
+import org.gamedo.util.function.IGameLoopTickManagerFunction;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.DisabledIf;
+import org.junit.jupiter.api.condition.EnabledIf;
 import org.junit.jupiter.api.function.ThrowingSupplier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.ConfigurableApplicationContext;
 
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Log4j2
 @SpringBootTest(classes = GameLoopGroupConfiguration.class)
@@ -218,6 +260,721 @@ class IGameLoopTest {
         Assertions.assertEquals(entityCount + (selfRegister ? 1 : 0), entityCountActual);
     }
 
+    @Test
+    void testSimulatedClock() {
+        final long startMillis = 1_000_000L;
+        final SimulatedClock clock = new SimulatedClock(startMillis);
+        final IGameLoop simulatedGameLoop = newGameLoop("simulated-", builder -> builder.gameLoopGroupId("simulated").clock(clock));
+        try {
+            final MySimulatedEntity entity = new MySimulatedEntity();
+
+            final CompletableFuture<Boolean> future = simulatedGameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(entity));
+            Assertions.assertTrue(Assertions.assertDoesNotThrow(() -> future.get(DEFAULT_WAIT_TIMEOUT, DEFAULT_TIME_UNIT)));
+
+            clock.advance(Duration.ofHours(1));
+            Assertions.assertEquals(startMillis + Duration.ofHours(1).toMillis(), clock.millis());
+
+            final List<long[]> tickList = simulatedGameLoop.submit(gameLoop -> new ArrayList<>(entity.tickList)).join();
+            final List<long[]> cronList = simulatedGameLoop.submit(gameLoop -> new ArrayList<>(entity.cronList)).join();
+
+            Assertions.assertEquals(Duration.ofHours(1).toMillis() / 50 + 1, tickList.size());
+            Assertions.assertArrayEquals(new long[]{startMillis, startMillis}, tickList.get(0));
+            Assertions.assertTrue(tickList.stream().skip(1).allMatch(longs -> longs[0] - longs[1] == 50));
+
+            Assertions.assertEquals(Duration.ofHours(1).toSeconds() / 10, cronList.size());
+            Assertions.assertTrue(cronList.stream().skip(1).allMatch(longs -> longs[0] - longs[1] == 10_000));
+        } finally {
+            simulatedGameLoop.shutdown();
+        }
+    }
+
+    @Test
+    void testTickPhase() {
+        final int phaseCount = 5;
+        final long startMillis = 1_000_000L;
+        final SimulatedClock clock = new SimulatedClock(startMillis);
+        final IGameLoop phasedGameLoop = newGameLoop("phased-", builder -> builder.gameLoopGroupId("phased").clock(clock));
+        try {
+            final List<MyPhasedEntity> entityList = IntStream.range(0, 100)
+                    .mapToObj(i -> new MyPhasedEntity("phased-" + i))
+                    .collect(Collectors.toList());
+
+            System.setProperty(GamedoConfiguration.TICK_PHASE_COUNT_KEY, String.valueOf(phaseCount));
+            try {
+                entityList.forEach(entity -> Assertions.assertTrue(phasedGameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(entity)).join()));
+            } finally {
+                System.clearProperty(GamedoConfiguration.TICK_PHASE_COUNT_KEY);
+            }
+
+            clock.advance(Duration.ofMillis(999));
+
+            final Set<Long> offsetSet = phasedGameLoop.submit(gameLoop -> entityList.stream()
+                    .peek(entity -> Assertions.assertEquals(startMillis + 10L * Math.floorMod(entity.getId().hashCode(), phaseCount),
+                            entity.tickList.get(0)))
+                    .peek(entity -> Assertions.assertEquals(20, entity.tickList.size()))
+                    .map(entity -> entity.tickList.get(0) - startMillis)
+                    .collect(Collectors.toSet())).join();
+            Assertions.assertEquals(phaseCount, offsetSet.size());
+        } finally {
+            phasedGameLoop.shutdown();
+        }
+    }
+
+    @Test
+    void testTickPhaseRegisteredAtDifferentTimes() {
+        final int phaseCount = 5;
+        final long startMillis = 1_000_003L;
+        final SimulatedClock clock = new SimulatedClock(startMillis);
+        final IGameLoop phasedGameLoop = newGameLoop("phased-anchor-", builder -> builder.gameLoopGroupId("phased").clock(clock));
+        final List<MyPhasedEntity> entityList = IntStream.range(0, 100)
+                .mapToObj(i -> new MyPhasedEntity("phased-anchor-" + i))
+                .collect(Collectors.toList());
+
+        System.setProperty(GamedoConfiguration.TICK_PHASE_COUNT_KEY, String.valueOf(phaseCount));
+        try {
+            //每注册一批实体就推进一个与心跳周期、相位间隔都不对齐的时间，使不同相位的首个实体在不同的时刻注册
+            for (int i = 0; i < entityList.size(); i += 10) {
+                final List<MyPhasedEntity> batch = entityList.subList(i, i + 10);
+                phasedGameLoop.submit(gameLoop -> batch.stream()
+                        .allMatch(entity -> IGameLoopEntityManagerFunction.registerEntity(entity).apply(gameLoop)))
+                        .thenAccept(Assertions::assertTrue)
+                        .join();
+                clock.advance(Duration.ofMillis(7));
+            }
+
+            clock.advance(Duration.ofMillis(999));
+
+            final Set<Long> offsetSet = phasedGameLoop.submit(gameLoop -> entityList.stream()
+                    .peek(entity -> Assertions.assertTrue(entity.tickList.size() >= 19))
+                    .peek(entity -> {
+                        final long expectedOffset = 10L * Math.floorMod(entity.getId().hashCode(), phaseCount);
+                        entity.tickList.forEach(tickMillis -> Assertions.assertEquals(expectedOffset, Math.floorMod(tickMillis, 50L)));
+                    })
+                    .map(entity -> Math.floorMod(entity.tickList.get(0), 50L))
+                    .collect(Collectors.toSet())).join();
+            Assertions.assertEquals(phaseCount, offsetSet.size());
+        } finally {
+            System.clearProperty(GamedoConfiguration.TICK_PHASE_COUNT_KEY);
+            phasedGameLoop.shutdown();
+        }
+    }
+
+    @Test
+    void testTickFrameBudget() {
+        final int entityCount = 5;
+        final SimulatedClock clock = new SimulatedClock(0);
+        final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final IGameLoop budgetGameLoop = new GameLoop(newConfig("budget-", builder -> builder.gameLoopGroupId("budget").clock(clock)),
+                meterRegistry);
+        final List<String> executeList = new ArrayList<>();
+        final CompletableFuture<List<String>> future = new CompletableFuture<>();
+        final List<MyBudgetEntity> entityList = IntStream.range(0, entityCount)
+                .mapToObj(i -> new MyBudgetEntity("budget-" + i, executeList, entityCount + 1, future))
+                .collect(Collectors.toList());
+
+        System.setProperty(GamedoConfiguration.GAMEDO_METRIC_TICK_ENABLE_KEY, "true");
+        try {
+            entityList.forEach(entity -> Assertions.assertTrue(budgetGameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(entity)).join()));
+            //未启用预算时不注册预算相关的指标
+            Assertions.assertNull(meterRegistry.find(Metric.MeterIdTickOverrunCounter).counter());
+            Assertions.assertNull(meterRegistry.find(Metric.MeterIdTickDeferredCounter).counter());
+
+            System.setProperty(GamedoConfiguration.TICK_FRAME_BUDGET_MILLIS_KEY, "1");
+            clock.advance(Duration.ZERO);
+            final List<String> list = Assertions.assertDoesNotThrow(() -> future.get(DEFAULT_WAIT_TIMEOUT, DEFAULT_TIME_UNIT));
+            //第1个心跳函数执行完后就超出了预算，剩余的心跳函数排在已提交的任务之后执行
+            Assertions.assertEquals("task", list.get(1));
+            //每个时间片只能执行1个心跳函数，只有第1个时间片计为超出预算，每个时间片都累计剩余的数量
+            Assertions.assertEquals(1, meterRegistry.get(Metric.MeterIdTickOverrunCounter).counter().count());
+            Assertions.assertEquals(entityCount * (entityCount - 1) / 2,
+                    meterRegistry.get(Metric.MeterIdTickDeferredCounter).counter().count());
+        } finally {
+            System.clearProperty(GamedoConfiguration.TICK_FRAME_BUDGET_MILLIS_KEY);
+            System.clearProperty(GamedoConfiguration.GAMEDO_METRIC_TICK_ENABLE_KEY);
+            budgetGameLoop.shutdown();
+        }
+    }
+
+    @Test
+    void testChangeTick() {
+        final long startMillis = 1_000_000L;
+        final SimulatedClock clock = new SimulatedClock(startMillis);
+        final IGameLoop lodGameLoop = newGameLoop("lod-", builder -> builder.gameLoopGroupId("lod").clock(clock));
+        try {
+            final MyPhasedEntity entity = new MyPhasedEntity("lod-1");
+
+            Assertions.assertTrue(lodGameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(entity)).join());
+            clock.advance(Duration.ofMillis(999));
+            Assertions.assertEquals(20, lodGameLoop.submit(gameLoop -> entity.tickList.size()).join());
+
+            Assertions.assertEquals(1, lodGameLoop.submit(IGameLoopTickManagerFunction.changeTick(entity, 1, TimeUnit.SECONDS)).join());
+            clock.advance(Duration.ofMillis(10_000));
+            final List<Long> slowList = lodGameLoop.submit(gameLoop -> new ArrayList<>(entity.tickList.subList(20, entity.tickList.size()))).join();
+            Assertions.assertEquals(10, slowList.size());
+            Assertions.assertEquals(startMillis + 999 + 1000, slowList.get(0));
+            Assertions.assertTrue(IntStream.range(1, slowList.size()).allMatch(i -> slowList.get(i) - slowList.get(i - 1) == 1000));
+
+            Assertions.assertEquals(1, lodGameLoop.submit(IGameLoopTickManagerFunction.resetTick(entity)).join());
+            final int sizeBefore = lodGameLoop.submit(gameLoop -> entity.tickList.size()).join();
+            clock.advance(Duration.ofMillis(1000));
+            Assertions.assertEquals(sizeBefore + 20, lodGameLoop.submit(gameLoop -> entity.tickList.size()).join());
+        } finally {
+            lodGameLoop.shutdown();
+        }
+    }
+
+    @Test
+    void testTickHandle() {
+        final long startMillis = 1_000_000L;
+        final SimulatedClock clock = new SimulatedClock(startMillis);
+        final IGameLoop handleGameLoop = newGameLoop("handle-", builder -> builder.gameLoopGroupId("handle").clock(clock));
+        try {
+            final MyHandleEntity entity = new MyHandleEntity("handle-1");
+            final Method primitiveMethod = Assertions.assertDoesNotThrow(() ->
+                    MyHandleEntity.class.getMethod("primitiveTick", long.class, long.class));
+            final Method boxedMethod = Assertions.assertDoesNotThrow(() ->
+                    MyHandleEntity.class.getMethod("boxedTick", Long.class, Long.class));
+
+            Assertions.assertTrue(handleGameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(entity)).join());
+            final TickData tickData = handleGameLoop.submit(gameLoop -> gameLoop.getComponent(IGameLoopTickManager.class)
+                    .flatMap(tickManager -> tickManager.getTickData(entity, primitiveMethod))
+                    .orElseThrow()).join();
+
+            //在心跳函数内部调整自身的心跳间隔，句柄在调整前后保持不变
+            entity.action = () -> handleGameLoop.getComponent(IGameLoopTickManager.class)
+                    .ifPresent(tickManager -> Assertions.assertTrue(tickManager.changeTick(tickData, 1, TimeUnit.SECONDS)));
+            clock.advance(Duration.ofMillis(50));
+            entity.action = () -> {};
+            clock.advance(Duration.ofMillis(2000));
+            Assertions.assertEquals(List.of(startMillis, startMillis + 1000, startMillis + 2000),
+                    handleGameLoop.submit(gameLoop -> new ArrayList<>(entity.primitiveList)).join());
+
+            Assertions.assertTrue(handleGameLoop.submit(gameLoop -> gameLoop.getComponent(IGameLoopTickManager.class)
+                    .map(tickManager -> tickManager.changeTick(tickData, 50, TimeUnit.MILLISECONDS) &&
+                            tickManager.getTickData(entity, primitiveMethod).orElseThrow() == tickData &&
+                            tickManager.unregister(tickData) &&
+                            !tickManager.unregister(tickData) &&
+                            !tickManager.changeTick(tickData, 1, TimeUnit.SECONDS) &&
+                            tickManager.getTickData(entity, primitiveMethod).isEmpty() &&
+                            tickManager.getTickData(entity, boxedMethod).isPresent())
+                    .orElse(false)).join());
+            final int primitiveCount = handleGameLoop.submit(gameLoop -> entity.primitiveList.size()).join();
+            clock.advance(Duration.ofMillis(1000));
+            Assertions.assertEquals(primitiveCount, handleGameLoop.submit(gameLoop -> entity.primitiveList.size()).join());
+
+            //参数为Long的心跳函数，上一次心跳时间复用上一次调用时装箱的实例
+            final List<Long[]> boxedList = handleGameLoop.submit(gameLoop -> new ArrayList<>(entity.boxedList)).join();
+            Assertions.assertTrue(boxedList.size() > 2);
+            Assertions.assertTrue(IntStream.range(1, boxedList.size()).allMatch(i -> boxedList.get(i)[1] == boxedList.get(i - 1)[0]));
+        } finally {
+            handleGameLoop.shutdown();
+        }
+    }
+
+    @Test
+    void testUnregisterTickInTick() {
+        final SimulatedClock clock = new SimulatedClock(0);
+        final IGameLoop unregisterGameLoop = newGameLoop("unregister-", builder -> builder.gameLoopGroupId("unregister").clock(clock));
+        try {
+            final MyPhasedEntity entity1 = new MyPhasedEntity("unregister-1");
+            final MyPhasedEntity entity2 = new MyPhasedEntity("unregister-2");
+
+            Assertions.assertTrue(unregisterGameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(entity1)).join());
+            Assertions.assertTrue(unregisterGameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(entity2)).join());
+            //第1个心跳函数执行时反注册其他所有的心跳函数，这些心跳函数在本帧内不会再被执行
+            entity1.action = () -> {
+                IGameLoopTickManagerFunction.unregister(entity2).apply(unregisterGameLoop);
+                IGameLoopTickManagerFunction.unregister(entity1).apply(unregisterGameLoop);
+            };
+            entity2.action = entity1.action;
+
+            clock.advance(Duration.ofMillis(500));
+            final int tickCount = unregisterGameLoop.submit(gameLoop -> entity1.tickList.size() + entity2.tickList.size()).join();
+            Assertions.assertEquals(1, tickCount);
+        } finally {
+            unregisterGameLoop.shutdown();
+        }
+    }
+
+    @Test
+    @EnabledIf("org.gamedo.concurrent.VirtualThreads#isSupported")
+    void testVirtualThread() {
+        final GameLoopConfig config = newConfig("virtual-", builder -> builder.gameLoopGroupId("virtual").virtualThread(true));
+        final List<IGameLoop> gameLoopList = IntStream.range(0, 100)
+                .mapToObj(i -> new GameLoop(config))
+                .collect(Collectors.toList());
+
+        try {
+            final List<CompletableFuture<Thread>> futureList = gameLoopList.stream()
+                    .map(virtualGameLoop -> virtualGameLoop.submit(loop -> {
+                        Assertions.assertTrue(loop.inThread());
+                        Assertions.assertSame(loop, GameLoops.current().orElseThrow());
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return Thread.currentThread();
+                    }))
+                    .collect(Collectors.toList());
+            futureList.forEach(future -> {
+                final Thread thread = future.join();
+                Assertions.assertTrue(VirtualThreads.isVirtual(thread));
+                Assertions.assertTrue(thread.getName().startsWith("virtual-"));
+            });
+        } finally {
+            gameLoopList.forEach(IGameLoop::shutdown);
+        }
+    }
+
+    @Test
+    @DisabledIf("org.gamedo.concurrent.VirtualThreads#isSupported")
+    void testVirtualThreadUnsupported() {
+        final GameLoopConfig config = newConfig("virtual-", builder -> builder.gameLoopGroupId("virtual").virtualThread(true));
+
+        //不支持虚拟线程时直接失败，而不是退化为平台线程
+        Assertions.assertThrows(GameLoopException.class, () -> new GameLoop(config));
+    }
+
+    @Test
+    void testSpawn() {
+        final IGameLoop otherGameLoop = context.getBean(IGameLoop.class);
+        try {
+            final CompletableFuture<Void> otherFuture = new CompletableFuture<>();
+            final List<String> traceList = new ArrayList<>();
+
+            final CompletableFuture<Integer> future = gameLoop.spawn(loop -> {
+                Assertions.assertTrue(loop.inThread());
+                Assertions.assertTrue(GameLoopCoroutine.inCoroutine());
+                traceList.add("before");
+
+                //等待期间，gameLoop可以继续执行其他任务
+                loop.execute(() -> traceList.add("other"));
+                loop.execute(() -> otherGameLoop.execute(() -> otherFuture.complete(null)));
+                GameLoopCoroutine.await(otherFuture);
+                final Boolean inOther = GameLoopCoroutine.await(otherGameLoop.submit(IGameLoop::inThread));
+
+                //恢复后仍然在gameLoop上
+                Assertions.assertTrue(inOther);
+                Assertions.assertTrue(loop.inThread());
+                Assertions.assertSame(loop, GameLoops.current().orElseThrow());
+                Assertions.assertDoesNotThrow(() -> loop.getComponent(IGameLoopEntityManager.class));
+                traceList.add("after");
+                return traceList.size();
+            });
+
+            Assertions.assertEquals(3, Assertions.assertDoesNotThrow(() -> future.get(DEFAULT_WAIT_TIMEOUT, DEFAULT_TIME_UNIT)));
+            Assertions.assertEquals(List.of("before", "other", "after"), gameLoop.submit(loop -> new ArrayList<>(traceList)).join());
+
+            //协程内的异常通过返回值传递，并且不影响gameLoop
+            final CompletableFuture<Object> failedFuture = gameLoop.spawn(loop -> {
+                GameLoopCoroutine.await(otherGameLoop.submit(loop1 -> {
+                    throw new IllegalStateException();
+                }));
+                return null;
+            });
+            final ExecutionException exception = Assertions.assertThrows(ExecutionException.class,
+                    () -> failedFuture.get(DEFAULT_WAIT_TIMEOUT, DEFAULT_TIME_UNIT));
+            Assertions.assertTrue(exception.getCause() instanceof IllegalStateException);
+            Assertions.assertTrue(gameLoop.submit(IGameLoop::inThread).join());
+
+            //在gameLoop线程内（非协程）等待未完成的结果会阻塞线程，因此直接抛出异常
+            final CompletableFuture<Object> neverFuture = new CompletableFuture<>();
+            final CompletionException completionException = Assertions.assertThrows(CompletionException.class,
+                    () -> gameLoop.submit(loop -> GameLoopCoroutine.await(neverFuture)).join());
+            Assertions.assertTrue(completionException.getCause() instanceof GameLoopException);
+        } finally {
+            otherGameLoop.shutdown();
+        }
+    }
+
+    @Test
+    void testSpawnAcrossShutdown() throws InterruptedException {
+        final IGameLoop spawnGameLoop = newGameLoop("spawn-shutdown-", UnaryOperator.identity());
+        try {
+            final CompletableFuture<Void> pendingFuture = new CompletableFuture<>();
+            final CompletableFuture<Thread> threadFuture = new CompletableFuture<>();
+            final AtomicBoolean resumed = new AtomicBoolean();
+            final CompletableFuture<Object> future = spawnGameLoop.spawn(loop -> {
+                threadFuture.complete(Thread.currentThread());
+                GameLoopCoroutine.await(pendingFuture);
+                resumed.set(true);
+                return null;
+            });
+            final Thread coroutineThread = Assertions.assertDoesNotThrow(() -> threadFuture.get(DEFAULT_WAIT_TIMEOUT, DEFAULT_TIME_UNIT));
+
+            //协程等待期间gameLoop被关闭，之后等待的结果才完成，协程无法恢复
+            spawnGameLoop.shutdown();
+            Assertions.assertTrue(spawnGameLoop.awaitTermination(DEFAULT_WAIT_TIMEOUT, DEFAULT_TIME_UNIT));
+            pendingFuture.complete(null);
+
+            final ExecutionException exception = Assertions.assertThrows(ExecutionException.class,
+                    () -> future.get(DEFAULT_WAIT_TIMEOUT, DEFAULT_TIME_UNIT));
+            Assertions.assertTrue(exception.getCause() instanceof RejectedExecutionException);
+            //协程线程不会永远阻塞
+            coroutineThread.join(DEFAULT_TIME_UNIT.toMillis(DEFAULT_WAIT_TIMEOUT));
+            Assertions.assertFalse(coroutineThread.isAlive());
+            Assertions.assertFalse(resumed.get());
+
+            //关闭之后再创建协程直接失败
+            final CompletableFuture<Object> rejectedFuture = spawnGameLoop.spawn(loop -> null);
+            Assertions.assertTrue(rejectedFuture.isCompletedExceptionally());
+        } finally {
+            spawnGameLoop.shutdown();
+        }
+    }
+
+    @Test
+    void testTrySubmit() throws InterruptedException {
+        final Function<RejectPolicy, IGameLoop> gameLoopFunction = rejectPolicy -> newGameLoop("bounded-" + rejectPolicy + "-",
+                builder -> builder.maxQueueSize(2).rejectPolicy(rejectPolicy));
+        final IGameLoop rejectGameLoop = gameLoopFunction.apply(RejectPolicy.REJECT);
+        final IGameLoop dropOldestGameLoop = gameLoopFunction.apply(RejectPolicy.DROP_OLDEST);
+        final IGameLoop priorityGameLoop = gameLoopFunction.apply(RejectPolicy.DROP_LOWEST_PRIORITY);
+
+        try {
+            //REJECT：拒绝新任务
+            CountDownLatch latch = block(rejectGameLoop);
+            final CompletableFuture<Integer> future1 = rejectGameLoop.trySubmit(loop -> 1).orElseThrow();
+            final CompletableFuture<Integer> future2 = rejectGameLoop.trySubmit(loop -> 2).orElseThrow();
+            Assertions.assertEquals(2, rejectGameLoop.getQueueDepth());
+            Assertions.assertTrue(rejectGameLoop.trySubmit(loop -> 3).isEmpty());
+            Assertions.assertThrows(CompletionException.class, () -> rejectGameLoop.submit(loop -> 4).join());
+            latch.countDown();
+            Assertions.assertEquals(1, future1.join());
+            Assertions.assertEquals(2, future2.join());
+            Assertions.assertEquals(0, rejectGameLoop.getQueueDepth());
+            Assertions.assertTrue(rejectGameLoop.trySubmit(loop -> 5).isPresent());
+
+            //DROP_OLDEST：丢弃最早的任务
+            latch = block(dropOldestGameLoop);
+            final CompletableFuture<Integer> oldest = dropOldestGameLoop.trySubmit(loop -> 1).orElseThrow();
+            IntStream.range(0, 100).forEach(i -> dropOldestGameLoop.trySubmit(loop -> 2).orElseThrow());
+            final CompletableFuture<Integer> newest = dropOldestGameLoop.trySubmit(loop -> 3).orElseThrow();
+            Assertions.assertEquals(2, dropOldestGameLoop.getQueueDepth());
+            latch.countDown();
+            final CompletionException exception = Assertions.assertThrows(CompletionException.class, oldest::join);
+            Assertions.assertTrue(exception.getCause() instanceof RejectedExecutionException);
+            Assertions.assertEquals(3, newest.join());
+
+            //DROP_LOWEST_PRIORITY：丢弃不高于新任务优先级的最早的任务
+            latch = block(priorityGameLoop);
+            final CompletableFuture<Integer> high = priorityGameLoop.trySubmit(loop -> 1, TaskPriority.HIGH).orElseThrow();
+            final CompletableFuture<Integer> low = priorityGameLoop.trySubmit(loop -> 2, TaskPriority.LOW).orElseThrow();
+            final CompletableFuture<Integer> normal = priorityGameLoop.trySubmit(loop -> 3, TaskPriority.NORMAL).orElseThrow();
+            Assertions.assertTrue(priorityGameLoop.trySubmit(loop -> 4, TaskPriority.LOW).isEmpty());
+            latch.countDown();
+            Assertions.assertEquals(1, high.join());
+            Assertions.assertThrows(CompletionException.class, low::join);
+            Assertions.assertEquals(3, normal.join());
+        } finally {
+            Stream.of(rejectGameLoop, dropOldestGameLoop, priorityGameLoop).forEach(IGameLoop::shutdown);
+        }
+    }
+
+    @Test
+    void testSubmitOrder() throws InterruptedException {
+        //无论是否限制队列长度，同一个线程通过submit、execute、schedule提交的任务都按照提交顺序执行
+        for (final int maxQueueSize : new int[]{0, 16}) {
+            final IGameLoop gameLoop = newGameLoop("order-" + maxQueueSize + "-", builder -> builder.maxQueueSize(maxQueueSize));
+            try {
+                final List<String> list = new ArrayList<>();
+                final CountDownLatch latch = block(gameLoop);
+                gameLoop.submit(loop -> list.add("a"));
+                gameLoop.submit(loop -> list.add("b"));
+                gameLoop.execute(() -> list.add("c"));
+                gameLoop.trySubmit(loop -> list.add("d"));
+                gameLoop.schedule(() -> list.add("e"), 0, TimeUnit.MILLISECONDS);
+                gameLoop.submit(loop -> list.add("f"));
+                latch.countDown();
+
+                Assertions.assertEquals(List.of("a", "b", "c", "d", "e", "f"), gameLoop.submit(loop -> new ArrayList<>(list)).join());
+            } finally {
+                gameLoop.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void testLane() throws InterruptedException {
+        final IGameLoop gameLoop = newGameLoop("lane-", builder -> builder.laneWeights(new int[]{2, 1, 1, 1}));
+        try {
+
+            final List<String> list = new ArrayList<>();
+            final CountDownLatch latch = block(gameLoop);
+            IntStream.rangeClosed(1, 3).forEach(i -> gameLoop.execute(() -> list.add("B" + i), Lane.BACKGROUND));
+            IntStream.rangeClosed(1, 3).forEach(i -> gameLoop.execute(() -> list.add("S" + i), Lane.SYSTEM));
+            IntStream.rangeClosed(1, 2).forEach(i -> gameLoop.execute(() -> list.add("I" + i), Lane.INTERACTIVE));
+            //未指定通道的任务在第一轮结束后执行
+            gameLoop.execute(() -> list.add("U"));
+            final CompletableFuture<String> future = gameLoop.submit(loop -> "B4", Lane.BACKGROUND);
+
+            Assertions.assertEquals(3, gameLoop.getLaneDepth(Lane.SYSTEM));
+            Assertions.assertEquals(0, gameLoop.getLaneDepth(Lane.TICK));
+            Assertions.assertEquals(4, gameLoop.getLaneDepth(Lane.BACKGROUND));
+            latch.countDown();
+
+            Assertions.assertEquals("B4", future.join());
+            final List<String> result = gameLoop.submit(loop -> new ArrayList<>(list)).join();
+            Assertions.assertEquals(List.of("S1", "S2", "I1", "B1", "U", "S3", "I2", "B2", "B3"), result);
+            Assertions.assertEquals(0, gameLoop.getLaneDepth(Lane.BACKGROUND));
+
+            gameLoop.shutdown();
+            Assertions.assertThrows(RejectedExecutionException.class, () -> gameLoop.execute(() -> {}, Lane.SYSTEM));
+        } finally {
+            gameLoop.shutdown();
+        }
+    }
+
+    @Test
+    void testLaneRejectedAfterShutdown() throws InterruptedException {
+        final IGameLoop gameLoop = newGameLoop("lane-reject-", builder -> builder.laneWeights(new int[]{1, 1, 1, 1}));
+        try {
+
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch latch = new CountDownLatch(1);
+            gameLoop.execute(() -> {
+                started.countDown();
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, Lane.SYSTEM);
+            Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            //本轮只执行正在阻塞的任务，之后重新调度消费任务时线程已经关闭
+            final CompletableFuture<String> future = gameLoop.submit(loop -> "S2", Lane.SYSTEM);
+            final FutureTask<String> futureTask = new FutureTask<>(() -> "S3");
+            gameLoop.execute(futureTask, Lane.SYSTEM);
+            gameLoop.shutdown();
+            latch.countDown();
+
+            final ExecutionException exception = Assertions.assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            Assertions.assertTrue(exception.getCause() instanceof RejectedExecutionException);
+            Assertions.assertThrows(CancellationException.class, () -> futureTask.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(0, gameLoop.getLaneDepth(Lane.SYSTEM));
+            Assertions.assertEquals(0, gameLoop.getQueueDepth());
+        } finally {
+            gameLoop.shutdown();
+        }
+    }
+
+    @Test
+    void testStallWatchdog() {
+        final List<GameLoopStall> stallList = new CopyOnWriteArrayList<>();
+        final IGameLoop gameLoop = newGameLoop("watchdog-", builder -> builder
+                .stallThresholdMillis(50)
+                .stallListener((loop, stall) -> stallList.add(stall)));
+        try {
+
+            gameLoop.submit(loop -> {
+                try (GamedoLogContext.CloseableEntityId ignored = GamedoLogContext.pushEntityIdAuto("stallEntity")) {
+                    Assertions.assertDoesNotThrow(() -> Thread.sleep(300));
+                }
+                return true;
+            }).join();
+            //未超过阈值的任务不会被报告
+            gameLoop.submit(loop -> true).join();
+            //协程在await期间不是正在执行的任务，不会被报告
+            final CompletableFuture<Boolean> delayed = new CompletableFuture<>();
+            CompletableFuture.delayedExecutor(300, TimeUnit.MILLISECONDS).execute(() -> delayed.complete(true));
+            Assertions.assertTrue(gameLoop.spawn(loop -> GameLoopCoroutine.await(delayed)).join());
+            Assertions.assertEquals(1, stallList.size());
+            //协程运行期间gameLoop线程被阻塞，会被报告，调用栈是协程线程的
+            gameLoop.spawn(loop -> {
+                Assertions.assertDoesNotThrow(() -> Thread.sleep(300));
+                return true;
+            }).join();
+
+            Assertions.assertEquals(2, stallList.size());
+            final GameLoopStall stall = stallList.get(0);
+            Assertions.assertEquals(gameLoop.getId(), stall.getGameLoopId());
+            Assertions.assertEquals("stallEntity", stall.getEntityId());
+            Assertions.assertTrue(stall.getStallMillis() >= 50);
+            Assertions.assertTrue(Arrays.stream(stall.getStackTrace()).anyMatch(e -> "sleep".equals(e.getMethodName())));
+            final GameLoopStall coroutineStall = stallList.get(1);
+            Assertions.assertTrue(Arrays.stream(coroutineStall.getStackTrace()).anyMatch(e -> "sleep".equals(e.getMethodName())));
+            Assertions.assertTrue(Arrays.stream(coroutineStall.getStackTrace())
+                    .anyMatch(e -> e.getClassName().startsWith(GameLoopCoroutine.class.getName())));
+        } finally {
+            gameLoop.shutdown();
+        }
+    }
+
+    @Test
+    void testTaskMetric() throws InterruptedException {
+        final Map<String, String> propertyMap = Map.of(GamedoConfiguration.GAMEDO_METRIC_TASK_ENABLE_KEY, "true",
+                GamedoConfiguration.GAMEDO_METRIC_SAMPLE_INTERVAL_KEY, "2",
+                GamedoConfiguration.GAMEDO_METRIC_REPORT_INTERVAL_MILLIS_KEY, "20");
+        final Map<String, String> backupMap = new HashMap<>();
+        propertyMap.forEach((key, value) -> {
+            Optional.ofNullable(System.getProperty(key)).ifPresent(backup -> backupMap.put(key, backup));
+            System.setProperty(key, value);
+        });
+
+        final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final IGameLoop gameLoop;
+        try {
+            gameLoop = new GameLoop(newConfig("metric-", builder -> builder.gameLoopGroupId("metric")), meterRegistry);
+        } finally {
+            propertyMap.keySet().forEach(System::clearProperty);
+            backupMap.forEach(System::setProperty);
+        }
+        try {
+
+            final CountDownLatch latch = block(gameLoop);
+            IntStream.rangeClosed(1, 3).forEach(i -> gameLoop.submit(loop -> i));
+            gameLoop.execute(() -> {});
+            latch.countDown();
+            gameLoop.submit(loop -> true).join();
+
+            //任务指标不受采样间隔的影响，每个任务都被统计，并由发布线程周期性地发布
+            final Function<String, FunctionTimer> timerFunction = kind -> meterRegistry.get(Metric.MeterIdTaskExecutionTimer)
+                    .tag("name", gameLoop.getId())
+                    .tag("kind", kind)
+                    .functionTimer();
+            final long deadline = System.currentTimeMillis() + 5000;
+            while (timerFunction.apply("submit").count() < 4 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+
+            Assertions.assertEquals(4, timerFunction.apply("submit").count());
+            Assertions.assertTrue(timerFunction.apply("other").count() >= 2);
+            Assertions.assertEquals(0, timerFunction.apply("tick").count());
+
+            final FunctionTimer waitTimer = meterRegistry.get(Metric.MeterIdTaskWaitTimer)
+                    .tag("name", gameLoop.getId())
+                    .functionTimer();
+            Assertions.assertTrue(waitTimer.count() >= 6);
+            Assertions.assertTrue(waitTimer.totalTime(TimeUnit.NANOSECONDS) > 0);
+            Assertions.assertTrue(meterRegistry.get(Metric.MeterIdBusyCounter).functionCounter().count() > 0);
+        } finally {
+            gameLoop.shutdown();
+        }
+    }
+
+    @Test
+    void testHandlerMetric() throws InterruptedException {
+        final Map<String, String> propertyMap = Map.of(GamedoConfiguration.GAMEDO_METRIC_EVENT_ENABLE_KEY, "true",
+                GamedoConfiguration.GAMEDO_METRIC_SAMPLE_INTERVAL_KEY, "2",
+                GamedoConfiguration.GAMEDO_METRIC_MAX_SERIES_KEY, "1",
+                GamedoConfiguration.GAMEDO_METRIC_REPORT_INTERVAL_MILLIS_KEY, "20");
+        final Map<String, String> backupMap = new HashMap<>();
+        propertyMap.forEach((key, value) -> {
+            Optional.ofNullable(System.getProperty(key)).ifPresent(backup -> backupMap.put(key, backup));
+            System.setProperty(key, value);
+        });
+
+        final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final IGameLoop gameLoop = new GameLoop(newConfig("handler-metric-", builder -> builder.gameLoopGroupId("metric")), meterRegistry);
+        try {
+            try {
+                gameLoop.submit(loop -> {
+                    final IGameLoopEventBus eventBus = loop.getComponent(IGameLoopEventBus.class).orElseThrow();
+                    eventBus.register(new MetricSubscriber());
+                    IntStream.range(0, 10).forEach(i -> eventBus.post(new MetricEvent()));
+                    return true;
+                }).join();
+            } finally {
+                propertyMap.keySet().forEach(System::clearProperty);
+                backupMap.forEach(System::setProperty);
+            }
+
+            //2个订阅函数，超出上限的一个被合并为other，每个函数调用10次，采样5次
+            final Function<String, FunctionTimer> timerFunction = clazz -> meterRegistry.get(Metric.MeterIdEventTimer)
+                    .tag("name", gameLoop.getId())
+                    .tag("class", clazz)
+                    .functionTimer();
+            final long deadline = System.currentTimeMillis() + 5000;
+            while (timerFunction.apply("other").count() < 10 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+
+            Assertions.assertEquals(10, timerFunction.apply(MetricSubscriber.class.getName()).count());
+            Assertions.assertEquals(10, timerFunction.apply("other").count());
+            Assertions.assertEquals(2, meterRegistry.get(Metric.MeterIdEventTimer).functionTimers().size());
+
+            //终止后的下一个发布周期内移除所有指标
+            gameLoop.shutdown();
+            Assertions.assertTrue(gameLoop.awaitTermination(5, TimeUnit.SECONDS));
+            final long removeDeadline = System.currentTimeMillis() + 5000;
+            while (meterRegistry.find(Metric.MeterIdEventTimer).meter() != null && System.currentTimeMillis() < removeDeadline) {
+                Thread.sleep(20);
+            }
+            Assertions.assertNull(meterRegistry.find(Metric.MeterIdEventTimer).meter());
+            Assertions.assertNull(meterRegistry.find(Metric.MeterIdEventTimer + ".max").meter());
+        } finally {
+            gameLoop.shutdown();
+        }
+    }
+
+    @Test
+    void testJfrEvent() throws IOException {
+        final List<String> nameList = List.of("org.gamedo.EntityRegister", "org.gamedo.EntityUnregister",
+                "org.gamedo.EventPost", "org.gamedo.EventDispatch", "org.gamedo.TickFrame", "org.gamedo.Tick",
+                "org.gamedo.Cron", "org.gamedo.Submit");
+        final SimulatedClock clock = new SimulatedClock(1_000_000L);
+        final IGameLoop jfrGameLoop = newGameLoop("jfr-", builder -> builder.gameLoopGroupId("jfr").clock(clock));
+        final MySimulatedEntity entity = new MySimulatedEntity();
+        final Path path = Files.createTempFile("gamedo", ".jfr");
+        try (final Recording recording = new Recording()) {
+            nameList.forEach(name -> recording.enable(name).withThreshold(Duration.ZERO));
+            recording.start();
+
+            Assertions.assertTrue(jfrGameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(entity)).join());
+            jfrGameLoop.submit(loop -> {
+                final IGameLoopEventBus eventBus = loop.getComponent(IGameLoopEventBus.class).orElseThrow();
+                eventBus.register(new MetricSubscriber());
+                return eventBus.post(new MetricEvent());
+            }).join();
+            clock.advance(Duration.ofSeconds(10));
+            Assertions.assertTrue(jfrGameLoop.submit(IGameLoopEntityManagerFunction.unregisterEntity(entity.getId(), Category.Entity)).join().isPresent());
+
+            recording.stop();
+            recording.dump(path);
+        } finally {
+            jfrGameLoop.shutdown();
+        }
+
+        final Map<String, List<RecordedEvent>> eventMap = RecordingFile.readAllEvents(path).stream()
+                .filter(event -> jfrGameLoop.getId().equals(event.getString("gameLoopId")))
+                .collect(Collectors.groupingBy(event -> event.getEventType().getName()));
+        Files.deleteIfExists(path);
+
+        nameList.forEach(name -> Assertions.assertTrue(eventMap.containsKey(name), name));
+        final RecordedEvent tickEvent = eventMap.get("org.gamedo.Tick").get(0);
+        Assertions.assertEquals(entity.getId(), tickEvent.getString("entityId"));
+        Assertions.assertEquals(MySimulatedEntity.class.getName(), tickEvent.getString("className"));
+        Assertions.assertEquals("myTick", tickEvent.getString("methodName"));
+        Assertions.assertTrue(eventMap.get("org.gamedo.EventDispatch").stream()
+                .anyMatch(event -> MetricEvent.class.getName().equals(event.getString("eventClass"))));
+    }
+
+    private static GameLoopConfig newConfig(String gameLoopIdPrefix, UnaryOperator<GameLoopConfig.GameLoopConfigBuilder> customizer) {
+        return customizer.apply(GameLoopConfig.builder()
+                        .gameLoopIdPrefix(gameLoopIdPrefix)
+                        .gameLoopIdCounter(new AtomicInteger(1))
+                        .daemon(true)
+                        .componentRegisters(GameLoopConfig.DEFAULT.getComponentRegisters()))
+                .build();
+    }
+
+    private static IGameLoop newGameLoop(String gameLoopIdPrefix, UnaryOperator<GameLoopConfig.GameLoopConfigBuilder> customizer) {
+        return new GameLoop(newConfig(gameLoopIdPrefix, customizer));
+    }
+
+    private static CountDownLatch block(IGameLoop gameLoop) throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch latch = new CountDownLatch(1);
+        gameLoop.execute(() -> {
+            started.countDown();
+            Assertions.assertDoesNotThrow(() -> latch.await());
+        });
+        started.await();
+        return latch;
+    }
+
     @Test
     void inGameLoop() {
     }
@@ -226,6 +983,100 @@ class IGameLoopTest {
     void postEvent() {
     }
 
+    @SuppressWarnings("unused")
+    private static class MetricEvent implements IEvent {
+    }
+
+    @SuppressWarnings("unused")
+    private static class MetricSubscriber {
+        @Subscribe(1)
+        private void first(MetricEvent event) {
+        }
+
+        @Subscribe(2)
+        private void second(MetricEvent event) {
+        }
+    }
+
+    private static class MySimulatedEntity extends Entity {
+        private final List<long[]> tickList = new ArrayList<>();
+        private final List<long[]> cronList = new ArrayList<>();
+
+        @Tick(tick = 50)
+        public void myTick(Long currentMilliSecond, Long lastTickMilliSecond) {
+            tickList.add(new long[]{currentMilliSecond, lastTickMilliSecond});
+        }
+
+        @Cron("*/10 * * * * *")
+        public void myCron(Long currentMilliSecond, Long lastTriggerMilliSecond) {
+            cronList.add(new long[]{currentMilliSecond, lastTriggerMilliSecond});
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class MyPhasedEntity extends Entity {
+        private final List<Long> tickList = new ArrayList<>();
+        private Runnable action = () -> {};
+
+        private MyPhasedEntity(String id) {
+            super(id);
+        }
+
+        @Tick(tick = 50)
+        public void myTick(Long currentMilliSecond, Long lastTickMilliSecond) {
+            tickList.add(currentMilliSecond);
+            action.run();
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class MyHandleEntity extends Entity {
+        private final List<Long> primitiveList = new ArrayList<>();
+        private final List<Long[]> boxedList = new ArrayList<>();
+        private Runnable action = () -> {};
+
+        private MyHandleEntity(String id) {
+            super(id);
+        }
+
+        @Tick(tick = 50)
+        public void primitiveTick(long currentMilliSecond, long lastTickMilliSecond) {
+            primitiveList.add(currentMilliSecond);
+            action.run();
+        }
+
+        @Tick(tick = 500)
+        public void boxedTick(Long currentMilliSecond, Long lastTickMilliSecond) {
+            boxedList.add(new Long[]{currentMilliSecond, lastTickMilliSecond});
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class MyBudgetEntity extends Entity {
+        private final List<String> executeList;
+        private final int listSize;
+        private final CompletableFuture<List<String>> future;
+
+        private MyBudgetEntity(String id, List<String> executeList, int listSize, CompletableFuture<List<String>> future) {
+            super(id);
+            this.executeList = executeList;
+            this.listSize = listSize;
+            this.future = future;
+        }
+
+        @Tick(tick = 1, timeUnit = TimeUnit.HOURS)
+        public void myTick(Long currentMilliSecond, Long lastTickMilliSecond) throws InterruptedException {
+            if (executeList.isEmpty()) {
+                GameLoops.current().ifPresent(gameLoop -> gameLoop.execute(() -> executeList.add("task")));
+            }
+            TimeUnit.MILLISECONDS.sleep(2);
+            executeList.add(getId());
+            if (executeList.size() >= listSize) {
+                future.complete(new ArrayList<>(executeList));
+            }
+        }
+    }
+
     @SuppressWarnings("unused")
     private static class MyEntity extends Entity {
         private final List<Boolean> inGameLoopList;
@@ -0,0 +1,106 @@
+package org.gamedo.persistence;
+
+import org.gamedo.ecs.Entity;
+import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.gameloop.Category;
+import org.gamedo.gameloop.GameLoop;
+import org.gamedo.gameloop.GameLoopConfig;
+import org.gamedo.gameloop.components.entitymanager.interfaces.IGameLoopEntityManager;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.util.function.IGameLoopEntityManagerFunction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityCheckpointTest {
+
+    private final IEntityCodec codec = new IEntityCodec() {
+        @Override
+        public byte[] encode(IEntity entity) {
+            final String name = entity.getComponent(String.class).orElse("");
+            return (entity.getId() + '|' + name).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public IEntity decode(byte[] data, int version) {
+            final String[] split = new String(data, StandardCharsets.UTF_8).split("\\|", 2);
+            final Entity entity = new Entity(split[0]);
+            entity.addComponent(String.class, split[1]);
+            return entity;
+        }
+    };
+    private final List<IGameLoop> gameLoopList = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        gameLoopList.forEach(IGameLoop::shutdown);
+    }
+
+    @Test
+    void testCheckpointAndRestore(@TempDir Path directory) {
+        final IGameLoop[] gameLoops = {newGameLoop(1), newGameLoop(2)};
+        for (int i = 0; i < 10; i++) {
+            final Entity entity = new Entity("entity-" + i);
+            entity.addComponent(String.class, "name-" + i);
+            assertTrue(gameLoops[i % 2].submit(IGameLoopEntityManagerFunction.registerEntity(entity)).join());
+        }
+
+        assertEquals(10, EntityCheckpoint.checkpointAll(gameLoops, directory, codec).join());
+
+        //模拟重启：相同id的新线程
+        final IGameLoop[] restartedGameLoops = {newGameLoop(1), newGameLoop(2)};
+        assertEquals(10, EntityCheckpoint.restoreAll(restartedGameLoops, directory, codec).join());
+        assertEquals(5, restartedGameLoops[0].submit(IGameLoopEntityManagerFunction.getEntityCount(Category.Entity)).join());
+        assertEquals(5, restartedGameLoops[1].submit(IGameLoopEntityManagerFunction.getEntityCount(Category.Entity)).join());
+        assertEquals("name-3", restartedGameLoops[1].submit(loop -> IGameLoopEntityManager.<IEntity>getEntityById("entity-3", Category.Entity))
+                .join()
+                .getComponent(String.class)
+                .orElseThrow());
+
+        //没有检查点文件
+        assertEquals(0, newGameLoop(3).submit(EntityCheckpoint.restore(directory, codec)).join());
+    }
+
+    @Test
+    void testCorruption(@TempDir Path directory) throws IOException {
+        final Path file = directory.resolve("test" + EntityCheckpoint.FILE_SUFFIX);
+        EntityCheckpoint.write(file, List.of("a|1".getBytes(StandardCharsets.UTF_8), "b|2".getBytes(StandardCharsets.UTF_8)), 7);
+        assertEquals(2, EntityCheckpoint.read(file, codec).size());
+
+        //篡改body中的一个字节
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'x'}), channel.size() - 1);
+        }
+        assertThrows(IOException.class, () -> EntityCheckpoint.read(file, codec));
+
+        //格式版本不一致
+        EntityCheckpoint.write(file, List.of(), 7);
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(2).putShort(0, (short) (EntityCheckpoint.FORMAT_VERSION + 1)), 4);
+        }
+        assertThrows(IOException.class, () -> EntityCheckpoint.read(file, codec));
+    }
+
+    private IGameLoop newGameLoop(int id) {
+        final IGameLoop gameLoop = new GameLoop(GameLoopConfig.builder()
+                .gameLoopIdPrefix("EntityCheckpointTest-")
+                .gameLoopIdCounter(new AtomicInteger(id))
+                .daemon(true)
+                .componentRegisters(GameLoopConfig.DEFAULT.getComponentRegisters())
+                .build());
+        gameLoopList.add(gameLoop);
+        return gameLoop;
+    }
+}
@@ -0,0 +1,234 @@
+package org.gamedo.persistence;
+
+import org.gamedo.ecs.Entity;
+import org.gamedo.ecs.EntityComponent;
+import org.gamedo.ecs.interfaces.IEntity;
+import org.gamedo.gameloop.GameLoop;
+import org.gamedo.gameloop.GameLoopConfig;
+import org.gamedo.gameloop.GameLoopGroup;
+import org.gamedo.gameloop.interfaces.IGameLoop;
+import org.gamedo.gameloop.interfaces.IGameLoopGroup;
+import org.gamedo.util.function.IGameLoopEntityManagerFunction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindPersisterTest {
+
+    private final IGameLoopGroup dbGroup = new GameLoopGroup("WriteBehindPersisterTest-db", 2);
+    private IGameLoop gameLoop;
+    private final List<HpComponent> componentList = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        gameLoop = new GameLoop(GameLoopConfig.builder()
+                .gameLoopIdPrefix("WriteBehindPersisterTest-")
+                .gameLoopIdCounter(new AtomicInteger(1))
+                .daemon(true)
+                .componentRegisters(GameLoopConfig.DEFAULT.getComponentRegisters())
+                .build());
+
+        for (int i = 0; i < 10; i++) {
+            final Entity entity = new Entity("player-" + i);
+            final HpComponent component = new HpComponent(entity);
+            entity.addComponent(HpComponent.class, component);
+            componentList.add(component);
+            assertTrue(gameLoop.submit(IGameLoopEntityManagerFunction.registerEntity(entity)).join());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameLoop.shutdown();
+        dbGroup.shutdown();
+    }
+
+    @Test
+    void testCoalesce() {
+        final InMemoryEntityStore store = new InMemoryEntityStore();
+        final WriteBehindPersister persister = new WriteBehindPersister(dbGroup, store, config(100, 100), WriteBehindPersisterTest::snapshot);
+
+        for (int round = 1; round <= 3; round++) {
+            final int hp = round * 10;
+            gameLoop.submit(loop -> {
+                componentList.get(1).setHp(hp);
+                componentList.get(2).setHp(hp);
+                return true;
+            }).join();
+            assertEquals(2, gameLoop.submit(persister.collect()).join());
+        }
+
+        //3次修改合并为1次存储
+        assertEquals(2, persister.getPendingCount());
+        assertEquals(2, persister.flushAll().join());
+        assertEquals(0, persister.getPendingCount());
+        assertEquals(2, store.getSnapshotCount());
+        assertEquals(30, store.<Integer>get("player-1", "Entity").orElseThrow());
+        assertEquals(30, store.<Integer>get("player-2", "Entity").orElseThrow());
+        assertFalse(store.get("player-3", "Entity").isPresent());
+
+        persister.close();
+    }
+
+    @Test
+    void testBatch() {
+        final InMemoryEntityStore store = new InMemoryEntityStore();
+        final WriteBehindPersister persister = new WriteBehindPersister(dbGroup, store, config(3, 100), WriteBehindPersisterTest::snapshot);
+
+        gameLoop.submit(loop -> {
+            componentList.forEach(component -> component.setHp(1));
+            return true;
+        }).join();
+        assertEquals(10, gameLoop.submit(persister.collect()).join());
+        assertEquals(10, persister.flushAll().join());
+        assertEquals(10, store.size());
+        //2个db线程，每个线程的批次大小为3
+        assertTrue(store.getBatchCount() >= 4);
+
+        persister.close();
+    }
+
+    @Test
+    void testBackpressure() {
+        final InMemoryEntityStore store = new InMemoryEntityStore();
+        final WriteBehindPersister persister = new WriteBehindPersister(dbGroup, store, config(100, 1), WriteBehindPersisterTest::snapshot);
+
+        gameLoop.submit(loop -> {
+            componentList.forEach(component -> component.setHp(1));
+            return true;
+        }).join();
+
+        //每个db线程最多接受1个实体，被拒绝的实体保持已修改状态
+        final long loopCount = componentList.stream()
+                .map(component -> dbGroup.selectHashing(component.getOwner().getId()).getId())
+                .distinct()
+                .count();
+        int collected = gameLoop.submit(persister.collect()).join();
+        assertEquals(loopCount, collected);
+        assertEquals(10 - collected, gameLoop.submit(loop -> (int) componentList.stream().filter(c -> c.getOwner().isDirty()).count()).join());
+
+        while (collected < 10) {
+            persister.flushAll().join();
+            collected += gameLoop.submit(persister.collect()).join();
+        }
+        persister.flushAll().join();
+
+        assertEquals(10, store.size());
+        assertEquals(0, gameLoop.submit(loop -> (int) componentList.stream().filter(c -> c.getOwner().isDirty()).count()).join());
+
+        persister.close();
+    }
+
+    @Test
+    void testRetry() {
+        final InMemoryEntityStore store = new InMemoryEntityStore();
+        final AtomicBoolean fail = new AtomicBoolean(true);
+        final IEntityStore failingStore = snapshotList -> {
+            if (fail.get()) {
+                throw new IllegalStateException("store unavailable");
+            }
+            store.save(snapshotList);
+        };
+        final WriteBehindPersister persister = new WriteBehindPersister(dbGroup, failingStore, config(100, 100), WriteBehindPersisterTest::snapshot);
+
+        gameLoop.submit(loop -> {
+            componentList.get(1).setHp(10);
+            return true;
+        }).join();
+        assertEquals(1, gameLoop.submit(persister.collect()).join());
+        assertEquals(0, persister.flushAll().join());
+        assertEquals(1, persister.getPendingCount());
+
+        //失败期间产生的新快照优先于重试的旧快照
+        gameLoop.submit(loop -> {
+            componentList.get(1).setHp(20);
+            return true;
+        }).join();
+        assertEquals(1, gameLoop.submit(persister.collect()).join());
+
+        fail.set(false);
+        assertEquals(1, persister.flushAll().join());
+        assertEquals(20, store.<Integer>get("player-1", "Entity").orElseThrow());
+
+        persister.close();
+        assertFalse(persister.offer(new EntitySnapshot("player-1", "Entity", 30)));
+    }
+
+    @Test
+    void testConcurrentOfferBound() throws InterruptedException {
+        final InMemoryEntityStore store = new InMemoryEntityStore();
+        final int maxPending = 10;
+        final WriteBehindPersister persister = new WriteBehindPersister(dbGroup, store, config(100, maxPending), WriteBehindPersisterTest::snapshot);
+
+        //多个线程并发地提交不同实体的快照，每个db线程等待存储的数量都不能超过上限
+        final int threadCount = 8;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final AtomicInteger acceptedCount = new AtomicInteger();
+        final List<Thread> threadList = new ArrayList<>(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            final int threadIndex = i;
+            final Thread thread = new Thread(() -> {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+
+                for (int j = 0; j < 500; j++) {
+                    if (persister.offer(new EntitySnapshot("concurrent-" + threadIndex + "-" + j, "Entity", j))) {
+                        acceptedCount.incrementAndGet();
+                    }
+                }
+            });
+            threadList.add(thread);
+            thread.start();
+        }
+        startLatch.countDown();
+        for (final Thread thread : threadList) {
+            thread.join();
+        }
+
+        assertEquals(maxPending * dbGroup.selectAll().length, acceptedCount.get());
+        assertEquals(acceptedCount.get(), persister.getPendingCount());
+
+        persister.close();
+    }
+
+    private static WriteBehindConfig config(int batchSize, int maxPendingPerLoop) {
+        return WriteBehindConfig.builder()
+                .flushIntervalMillis(60 * 1000)
+                .batchSize(batchSize)
+                .maxPendingPerLoop(maxPendingPerLoop)
+                .build();
+    }
+
+    private static Object snapshot(IEntity entity) {
+        return entity.getComponent(HpComponent.class).map(HpComponent::getHp).orElse(0);
+    }
+
+    private static class HpComponent extends EntityComponent {
+        private int hp;
+
+        private HpComponent(IEntity owner) {
+            super(owner);
+        }
+
+        private int getHp() {
+            return hp;
+        }
+
+        private void setHp(int hp) {
+            this.hp = hp;
+            markDirty(0);
+        }
+    }
+}